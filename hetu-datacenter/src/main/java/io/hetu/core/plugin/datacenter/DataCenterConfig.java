@@ -20,8 +20,11 @@ import io.airlift.configuration.ConfigDescription;
 import io.airlift.configuration.ConfigSecuritySensitive;
 import io.airlift.units.DataSize;
 import io.airlift.units.Duration;
+import io.hetu.core.transport.execution.buffer.PageCompressionCodec;
 
 import javax.annotation.Nullable;
+import javax.validation.constraints.AssertTrue;
+import javax.validation.constraints.Min;
 import javax.validation.constraints.NotNull;
 
 import java.net.URI;
@@ -46,6 +49,8 @@ public class DataCenterConfig
 
     private static final int DEFAULT_MAX_IDLE_CONNECTIONS = 20;
 
+    private static final int DEFAULT_MAX_PREFETCH_THREADS = 16;
+
     private URI connectionUrl;
 
     private String connectionUser;
@@ -110,6 +115,16 @@ public class DataCenterConfig
 
     private boolean isCompressionEnabled; // close the compression function.
 
+    private PageCompressionCodec compressionCodec;
+
+    private DataSize maxResponseSize = new DataSize(16, DataSize.Unit.MEGABYTE);
+
+    private Duration targetRoundTripTime = new Duration(1, TimeUnit.SECONDS);
+
+    private DataSize maxPrefetchBufferSize = new DataSize(32, DataSize.Unit.MEGABYTE);
+
+    private int maxPrefetchThreads = DEFAULT_MAX_PREFETCH_THREADS;
+
     /**
      * Maximum delay expected between two requests for the same query in the cluster
      */
@@ -817,4 +832,112 @@ public class DataCenterConfig
         this.maxIdleConnections = maxIdleConnectionsParameter;
         return this;
     }
+
+    @Nullable
+    public PageCompressionCodec getCompressionCodec()
+    {
+        return this.compressionCodec;
+    }
+
+    @AssertTrue(message = "dc.compression-codec must be LZ4 or ZSTD")
+    public boolean isCompressionCodecValid()
+    {
+        return this.compressionCodec != PageCompressionCodec.NONE;
+    }
+
+    /**
+     * set the codec the remote cluster compresses pages with, the remote cluster default is used when not set.
+     *
+     * @param compressionCodec compression codec.
+     * @return DataCenterConfig object
+     */
+    @Config("dc.compression-codec")
+    @ConfigDescription("Codec used by the remote cluster to compress pages when dc.http-compression is enabled, requires the remote cluster to support exchange_compression_codec")
+    public DataCenterConfig setCompressionCodec(PageCompressionCodec compressionCodec)
+    {
+        this.compressionCodec = compressionCodec;
+        return this;
+    }
+
+    @NotNull
+    public DataSize getMaxResponseSize()
+    {
+        return this.maxResponseSize;
+    }
+
+    /**
+     * set the maximum size of the results returned by one request.
+     *
+     * @param maxResponseSize maximum response size.
+     * @return DataCenterConfig object
+     */
+    @Config("dc.max-response-size")
+    @ConfigDescription("Maximum size of the results the remote cluster returns in one response, "
+            + "the response size grows up to this size while round trips stay below dc.target-round-trip-time")
+    public DataCenterConfig setMaxResponseSize(DataSize maxResponseSize)
+    {
+        this.maxResponseSize = maxResponseSize;
+        return this;
+    }
+
+    @NotNull
+    public Duration getTargetRoundTripTime()
+    {
+        return this.targetRoundTripTime;
+    }
+
+    /**
+     * set the round trip time the response size is adapted to.
+     *
+     * @param targetRoundTripTime target round trip time.
+     * @return DataCenterConfig object
+     */
+    @Config("dc.target-round-trip-time")
+    @ConfigDescription("Responses are made larger while they come back faster than this, and smaller when they take longer")
+    public DataCenterConfig setTargetRoundTripTime(Duration targetRoundTripTime)
+    {
+        this.targetRoundTripTime = targetRoundTripTime;
+        return this;
+    }
+
+    @NotNull
+    public DataSize getMaxPrefetchBufferSize()
+    {
+        return this.maxPrefetchBufferSize;
+    }
+
+    /**
+     * set the maximum size of the pages prefetched for a split.
+     *
+     * @param maxPrefetchBufferSize maximum prefetch buffer size.
+     * @return DataCenterConfig object
+     */
+    @Config("dc.max-prefetch-buffer-size")
+    @ConfigDescription("Maximum size of the pages fetched ahead from the remote cluster for each split")
+    public DataCenterConfig setMaxPrefetchBufferSize(DataSize maxPrefetchBufferSize)
+    {
+        this.maxPrefetchBufferSize = maxPrefetchBufferSize;
+        return this;
+    }
+
+    @Min(1)
+    public int getMaxPrefetchThreads()
+    {
+        return this.maxPrefetchThreads;
+    }
+
+    /**
+     * set the number of threads fetching pages ahead for all splits.
+     *
+     * @param maxPrefetchThreads maximum prefetch threads.
+     * @return DataCenterConfig object
+     */
+    @Config("dc.max-prefetch-threads")
+    @ConfigDescription("Number of threads fetching pages from the remote cluster ahead of the splits, "
+            + "the splits take turns fetching one response each")
+    public DataCenterConfig setMaxPrefetchThreads(int maxPrefetchThreads)
+    {
+        this.maxPrefetchThreads = maxPrefetchThreads;
+        return this;
+    }
 }
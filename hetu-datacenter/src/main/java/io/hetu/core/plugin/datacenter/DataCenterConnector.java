@@ -15,6 +15,7 @@
 
 package io.hetu.core.plugin.datacenter;
 
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import io.airlift.bootstrap.LifeCycleManager;
 import io.airlift.log.Logger;
 import io.hetu.core.plugin.datacenter.client.DataCenterClient;
@@ -34,9 +35,11 @@ import javax.inject.Inject;
 
 import java.util.Collection;
 import java.util.Map;
+import java.util.concurrent.ExecutorService;
 
 import static io.hetu.core.plugin.datacenter.DataCenterTransactionHandle.INSTANCE;
 import static java.util.Objects.requireNonNull;
+import static java.util.concurrent.Executors.newFixedThreadPool;
 
 /**
  * Data center connector.
@@ -60,6 +63,8 @@ public class DataCenterConnector
 
     private final OkHttpClient httpClient;
 
+    private final ExecutorService prefetchExecutor;
+
     /**
      * Constructor of data center connector.
      *
@@ -75,7 +80,10 @@ public class DataCenterConnector
         this.httpClient = DataCenterStatementClientFactory.newHttpClient(dataCenterConfig);
         this.dataCenterClient = new DataCenterClient(dataCenterConfig, this.httpClient, typeManager);
         this.splitManager = new DataCenterSplitManager(dataCenterConfig, this.dataCenterClient);
-        this.pageSourceProvider = new DataCenterPageSourceProvider(dataCenterConfig, this.httpClient, typeManager);
+        this.prefetchExecutor = newFixedThreadPool(dataCenterConfig.getMaxPrefetchThreads(),
+                new ThreadFactoryBuilder().setNameFormat("dc-page-prefetch-%s").setDaemon(true).build());
+        this.pageSourceProvider = new DataCenterPageSourceProvider(dataCenterConfig, this.httpClient, typeManager,
+                this.prefetchExecutor);
         if (dataCenterConfig.isMetadataCacheEnabled()) {
             this.metadata = new CachedConnectorMetadata(new DataCenterMetadata(dataCenterClient, dataCenterConfig),
                     dataCenterConfig.getMetadataCacheTtl(), dataCenterConfig.getMetadataCacheMaximumSize());
@@ -124,6 +132,7 @@ public class DataCenterConnector
         catch (Exception e) {
             log.error(e, "Error shutting down connector");
         }
+        this.prefetchExecutor.shutdownNow();
         this.httpClient.dispatcher().executorService().shutdown();
         this.httpClient.connectionPool().evictAll();
     }
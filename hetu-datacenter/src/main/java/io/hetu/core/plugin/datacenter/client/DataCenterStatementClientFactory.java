@@ -85,6 +85,8 @@ public class DataCenterStatementClientFactory
                 .withClientTimeout(config.getClientTimeout())
                 .withMaxAnticipatedDelay(config.getMaxAnticipatedDelay())
                 .withCompression(config.isCompressionEnabled())
+                .withMaxResultSize(config.getMaxResponseSize())
+                .withTargetRoundTripTime(config.getTargetRoundTripTime())
                 .withProperties(properties)
                 .withTypeManager(typeManager);
         return builder.build();
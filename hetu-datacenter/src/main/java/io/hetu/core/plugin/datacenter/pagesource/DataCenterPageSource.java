@@ -17,6 +17,7 @@ package io.hetu.core.plugin.datacenter.pagesource;
 
 import com.google.common.collect.ImmutableMap;
 import io.airlift.log.Logger;
+import io.airlift.units.DataSize;
 import io.prestosql.client.DataCenterClientSession;
 import io.prestosql.client.DataCenterStatementClient;
 import io.prestosql.spi.Page;
@@ -28,16 +29,28 @@ import io.prestosql.spi.dynamicfilter.HashSetDynamicFilter;
 import okhttp3.OkHttpClient;
 
 import java.io.IOException;
+import java.util.HashMap;
 import java.util.HashSet;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Queue;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Supplier;
 
+import static com.google.common.base.Throwables.throwIfUnchecked;
+import static java.util.Objects.requireNonNull;
+
 /**
- * Data center page source.
+ * Data center page source. The statement client is owned by one fetch task at a time on the prefetch executor:
+ * only the task reads from the client, applies the dynamic filters handed over by the driver and hands the pages
+ * back through a queue. Each task fetches one response and yields the thread to the other splits, the fetching
+ * pauses while the buffered pages exceed the maximum buffer size.
  *
  * @since 2020-02-11
  */
@@ -48,12 +61,24 @@ public class DataCenterPageSource
 
     private final long startTime;
     private final int numberOfColumns;
-    private DataCenterStatementClient client;
-    private long readBytes;
-    private long lastMemoryUsage;
-    private Queue<Page> pages = new LinkedList<>();
+    private final DataCenterStatementClient client;
+    private final AtomicLong readBytes = new AtomicLong();
+    private final AtomicLong bufferedBytes = new AtomicLong();
+    private final Queue<Page> pages = new ConcurrentLinkedQueue<>();
     private final Supplier<Map<ColumnHandle, DynamicFilter>> dynamicFilterSupplier;
-    private final Set<String> appliedDynamicFilters = new HashSet<>();
+    // columns whose dynamic filter was handed to the fetch task, only used by the driver
+    private final Set<String> submittedDynamicFilters = new HashSet<>();
+    private final Queue<Map<String, byte[]>> pendingDynamicFilters = new ConcurrentLinkedQueue<>();
+    // dynamic filters the remote cluster did not accept yet, only used by the fetch task
+    private final Map<String, byte[]> unappliedDynamicFilters = new HashMap<>();
+    private final Executor prefetchExecutor;
+    private final long maxBufferedBytes;
+    // held by whoever owns the client: a scheduled fetch task, or close() once the page source is closed
+    private final AtomicBoolean clientOwned = new AtomicBoolean();
+    private volatile boolean clientRunning;
+    private volatile Throwable failure;
+    private volatile boolean closed;
+    private CompletableFuture<?> blocked = CompletableFuture.completedFuture(null);
 
     /**
      * Constructor of data center page source.
@@ -63,26 +88,32 @@ public class DataCenterPageSource
      * @param sql sql statement.
      * @param queryId id of query that user issued.
      * @param columns columns of sql.
+     * @param prefetchExecutor executor fetching the pages ahead.
+     * @param maxBufferSize maximum size of the pages fetched ahead.
      */
     public DataCenterPageSource(OkHttpClient httpClient, DataCenterClientSession clientSession, String sql,
-            String queryId, List<ColumnHandle> columns)
+            String queryId, List<ColumnHandle> columns, Executor prefetchExecutor, DataSize maxBufferSize)
     {
-        this(httpClient, clientSession, sql, queryId, columns, null);
+        this(httpClient, clientSession, sql, queryId, columns, null, prefetchExecutor, maxBufferSize);
     }
 
     public DataCenterPageSource(OkHttpClient httpClient, DataCenterClientSession clientSession, String sql,
-            String queryId, List<ColumnHandle> columns, Supplier<Map<ColumnHandle, DynamicFilter>> dynamicFilterSupplier)
+            String queryId, List<ColumnHandle> columns, Supplier<Map<ColumnHandle, DynamicFilter>> dynamicFilterSupplier,
+            Executor prefetchExecutor, DataSize maxBufferSize)
     {
         this.startTime = System.nanoTime();
         this.client = DataCenterStatementClient.newStatementClient(httpClient, clientSession, sql, queryId);
+        this.clientRunning = this.client.isRunning();
         this.numberOfColumns = columns.size();
         this.dynamicFilterSupplier = dynamicFilterSupplier;
+        this.prefetchExecutor = requireNonNull(prefetchExecutor, "prefetchExecutor is null");
+        this.maxBufferedBytes = requireNonNull(maxBufferSize, "maxBufferSize is null").toBytes();
     }
 
     @Override
     public long getCompletedBytes()
     {
-        return this.readBytes;
+        return this.readBytes.get();
     }
 
     @Override
@@ -94,35 +125,120 @@ public class DataCenterPageSource
     @Override
     public boolean isFinished()
     {
-        return this.pages.isEmpty() && !this.client.isRunning();
+        if (this.closed) {
+            return true;
+        }
+        // the fetch task enqueues its pages before it marks the client as stopped, so check the client first
+        return this.failure == null && !this.clientOwned.get() && !this.clientRunning && this.pages.isEmpty();
     }
 
     @Override
     public Page getNextPage()
     {
         if (dynamicFilterSupplier != null) {
-            applyDynamicFilters(dynamicFilterSupplier.get());
+            submitDynamicFilters(dynamicFilterSupplier.get());
+        }
+
+        Throwable throwable = this.failure;
+        if (throwable != null) {
+            throwIfUnchecked(throwable);
+            throw new RuntimeException(throwable);
+        }
+
+        Page page = this.pages.poll();
+        if (page != null) {
+            this.bufferedBytes.addAndGet(-page.getRetainedSizeInBytes());
+        }
+        schedulePrefetch();
+        return page == null ? null : processPage(page);
+    }
+
+    @Override
+    public synchronized CompletableFuture<?> isBlocked()
+    {
+        if (!this.pages.isEmpty() || this.failure != null || this.closed || !this.clientOwned.get()) {
+            return NOT_BLOCKED;
+        }
+        if (this.blocked.isDone()) {
+            this.blocked = new CompletableFuture<>();
+        }
+        return this.blocked;
+    }
+
+    private synchronized void unblock()
+    {
+        this.blocked.complete(null);
+    }
+
+    private boolean shouldPrefetch()
+    {
+        return !this.closed && this.failure == null && this.clientRunning && this.bufferedBytes.get() < this.maxBufferedBytes;
+    }
+
+    private void schedulePrefetch()
+    {
+        if (shouldPrefetch() && this.clientOwned.compareAndSet(false, true)) {
+            submitPrefetch();
+        }
+    }
+
+    private void submitPrefetch()
+    {
+        try {
+            this.prefetchExecutor.execute(this::prefetch);
         }
+        catch (RejectedExecutionException e) {
+            this.failure = e;
+            releaseClient();
+        }
+    }
 
-        if (!this.pages.isEmpty()) {
-            return processPage(this.pages.poll());
+    private void prefetch()
+    {
+        try {
+            if (shouldPrefetch()) {
+                applyPendingDynamicFilters();
+                List<Page> pageList = this.client.getPages();
+                if (pageList != null && !pageList.isEmpty()) {
+                    this.update(pageList);
+                    this.pages.addAll(pageList);
+                    unblock();
+                }
+                this.client.advance();
+                this.clientRunning = this.client.isRunning();
+            }
         }
-        if (this.client.isRunning()) {
-            List<Page> pageList = client.getPages();
-            if (pageList != null && !pageList.isEmpty()) {
-                this.update(pageList);
-                this.pages.addAll(pageList);
+        catch (Throwable t) {
+            if (!this.closed) {
+                LOGGER.debug(t, "Failed to fetch pages from the remote data center");
+                this.failure = t;
             }
-            this.client.advance();
         }
-        return null;
+
+        if (shouldPrefetch()) {
+            // keep the client and queue behind the other splits waiting for a prefetch thread
+            submitPrefetch();
+        }
+        else {
+            releaseClient();
+        }
     }
 
-    private void applyDynamicFilters(Map<ColumnHandle, DynamicFilter> dynamicFilters)
+    private void releaseClient()
+    {
+        this.clientOwned.set(false);
+        // close() could not take the client while it was held here, so close it on its behalf
+        if (this.closed && this.clientOwned.compareAndSet(false, true)) {
+            this.client.close();
+        }
+        unblock();
+    }
+
+    private void submitDynamicFilters(Map<ColumnHandle, DynamicFilter> dynamicFilters)
     {
         ImmutableMap.Builder<String, byte[]> builder = new ImmutableMap.Builder();
         for (Map.Entry<ColumnHandle, DynamicFilter> entry : dynamicFilters.entrySet()) {
-            if (!appliedDynamicFilters.contains(entry.getKey().getColumnName())) {
+            if (!submittedDynamicFilters.contains(entry.getKey().getColumnName())) {
                 DynamicFilter df = entry.getValue();
                 String columnName = entry.getKey().getColumnName();
                 if (df instanceof HashSetDynamicFilter) {
@@ -138,9 +254,21 @@ public class DataCenterPageSource
 
         Map<String, byte[]> newDynamicFilters = builder.build();
         if (!newDynamicFilters.isEmpty()) {
-            if (client.applyDynamicFilters(newDynamicFilters)) {
-                appliedDynamicFilters.addAll(newDynamicFilters.keySet());
-            }
+            submittedDynamicFilters.addAll(newDynamicFilters.keySet());
+            pendingDynamicFilters.add(newDynamicFilters);
+        }
+    }
+
+    private void applyPendingDynamicFilters()
+    {
+        Map<String, byte[]> dynamicFilters = pendingDynamicFilters.poll();
+        while (dynamicFilters != null) {
+            unappliedDynamicFilters.putAll(dynamicFilters);
+            dynamicFilters = pendingDynamicFilters.poll();
+        }
+        // filters the remote cluster rejected are offered again before the next response
+        if (!unappliedDynamicFilters.isEmpty() && client.applyDynamicFilters(ImmutableMap.copyOf(unappliedDynamicFilters))) {
+            unappliedDynamicFilters.clear();
         }
     }
 
@@ -163,20 +291,27 @@ public class DataCenterPageSource
             bytes += page.getSizeInBytes();
             memory += page.getRetainedSizeInBytes();
         }
-        this.readBytes += bytes;
-        this.lastMemoryUsage = memory;
+        this.readBytes.addAndGet(bytes);
+        this.bufferedBytes.addAndGet(memory);
     }
 
     @Override
     public long getSystemMemoryUsage()
     {
-        return this.lastMemoryUsage;
+        return this.bufferedBytes.get();
     }
 
     @Override
     public void close()
             throws IOException
     {
-        this.client.close();
+        this.closed = true;
+        // a running fetch task closes the client when it hands it back
+        if (this.clientOwned.compareAndSet(false, true)) {
+            this.client.close();
+        }
+        this.pages.clear();
+        this.bufferedBytes.set(0);
+        unblock();
     }
 }
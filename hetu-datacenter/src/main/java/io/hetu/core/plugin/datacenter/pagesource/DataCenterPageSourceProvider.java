@@ -35,6 +35,7 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.OptionalLong;
+import java.util.concurrent.Executor;
 import java.util.function.Supplier;
 
 import static com.google.common.base.Strings.isNullOrEmpty;
@@ -51,11 +52,14 @@ public class DataCenterPageSourceProvider
     private static final int STRING_CAPACITY = 16;
     private static final String ENABLE_CROSS_REGION_DYNAMIC_FILTER = "cross-region-dynamic-filter-enabled";
     private static final String EXCHANGE_COMPRESSION = "exchange_compression";
+    private static final String EXCHANGE_COMPRESSION_CODEC = "exchange_compression_codec";
 
     private final DataCenterConfig config;
 
     private final OkHttpClient httpClient;
 
+    private final Executor prefetchExecutor;
+
     private TypeManager typeManager;
 
     /**
@@ -64,12 +68,15 @@ public class DataCenterPageSourceProvider
      * @param config data center config.
      * @param httpClient http client.
      * @param typeManager type manager.
+     * @param prefetchExecutor executor fetching the pages of the page sources ahead.
      */
-    public DataCenterPageSourceProvider(DataCenterConfig config, OkHttpClient httpClient, TypeManager typeManager)
+    public DataCenterPageSourceProvider(DataCenterConfig config, OkHttpClient httpClient, TypeManager typeManager,
+            Executor prefetchExecutor)
     {
         this.config = config;
         this.httpClient = httpClient;
         this.typeManager = typeManager;
+        this.prefetchExecutor = prefetchExecutor;
     }
 
     private static String buildSql(DataCenterTableHandle tableHandler, List<ColumnHandle> columnHandles,
@@ -133,11 +140,15 @@ public class DataCenterPageSourceProvider
         }
         if (config.isCompressionEnabled()) {
             properties.put(EXCHANGE_COMPRESSION, "true");
+            // only sent when configured, remote clusters of earlier versions reject the unknown session property
+            if (config.getCompressionCodec() != null) {
+                properties.put(EXCHANGE_COMPRESSION_CODEC, config.getCompressionCodec().name());
+            }
         }
         // Create a new client session
         DataCenterClientSession clientSession = DataCenterStatementClientFactory.createClientSession(this.config,
                 this.typeManager, properties);
         return new DataCenterPageSource(this.httpClient, clientSession, query, ((DataCenterSplit) split).getQueryId(),
-                columns, dynamicFilterSupplier);
+                columns, dynamicFilterSupplier, this.prefetchExecutor, this.config.getMaxPrefetchBufferSize());
     }
 }
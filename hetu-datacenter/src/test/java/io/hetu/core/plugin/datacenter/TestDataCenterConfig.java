@@ -19,12 +19,18 @@ import com.google.common.collect.ImmutableMap;
 import io.airlift.configuration.testing.ConfigAssertions;
 import io.airlift.units.DataSize;
 import io.airlift.units.Duration;
+import io.hetu.core.transport.execution.buffer.PageCompressionCodec;
 import org.testng.annotations.Test;
 
+import javax.validation.constraints.AssertTrue;
+
 import java.net.URI;
 import java.util.Map;
 import java.util.concurrent.TimeUnit;
 
+import static io.airlift.testing.ValidationAssertions.assertFailsValidation;
+import static io.airlift.testing.ValidationAssertions.assertValidates;
+
 public class TestDataCenterConfig
 {
     private static final Duration READ_TIMEOUT = new Duration(30, TimeUnit.SECONDS);
@@ -67,7 +73,12 @@ public class TestDataCenterConfig
                 .setCompressionEnabled(false)
                 .setMaxAnticipatedDelay(new Duration(10, TimeUnit.MINUTES))
                 .setUpdateThreshold(new Duration(1, TimeUnit.MINUTES))
-                .setMaxIdleConnections(20));
+                .setMaxIdleConnections(20)
+                .setCompressionCodec(null)
+                .setMaxResponseSize(DataSize.valueOf("16MB"))
+                .setTargetRoundTripTime(new Duration(1, TimeUnit.SECONDS))
+                .setMaxPrefetchBufferSize(DataSize.valueOf("32MB"))
+                .setMaxPrefetchThreads(16));
     }
 
     @Test
@@ -107,6 +118,11 @@ public class TestDataCenterConfig
                 .put("dc.max.anticipated.delay", "5s")
                 .put("hetu.dc.catalog.update.threshold", "2m")
                 .put("dc.httpclient.maximum.idle.connections", "10")
+                .put("dc.compression-codec", "LZ4")
+                .put("dc.max-response-size", "64MB")
+                .put("dc.target-round-trip-time", "500ms")
+                .put("dc.max-prefetch-buffer-size", "128MB")
+                .put("dc.max-prefetch-threads", "4")
                 .build();
 
         DataCenterConfig expected = new DataCenterConfig().setConnectionUrl(URI.create("http://127.0.0.1:9002"))
@@ -141,8 +157,21 @@ public class TestDataCenterConfig
                 .setCompressionEnabled(true)
                 .setMaxAnticipatedDelay(new Duration(5, TimeUnit.SECONDS))
                 .setUpdateThreshold(new Duration(2, TimeUnit.MINUTES))
-                .setMaxIdleConnections(10);
+                .setMaxIdleConnections(10)
+                .setCompressionCodec(PageCompressionCodec.LZ4)
+                .setMaxResponseSize(DataSize.valueOf("64MB"))
+                .setTargetRoundTripTime(new Duration(500, TimeUnit.MILLISECONDS))
+                .setMaxPrefetchBufferSize(DataSize.valueOf("128MB"))
+                .setMaxPrefetchThreads(4);
 
         ConfigAssertions.assertFullMapping(properties, expected);
     }
+
+    @Test
+    public void testValidations()
+    {
+        assertValidates(new DataCenterConfig().setConnectionUrl(URI.create("http://127.0.0.1:9002")));
+        assertValidates(new DataCenterConfig().setConnectionUrl(URI.create("http://127.0.0.1:9002")).setCompressionCodec(PageCompressionCodec.LZ4));
+        assertFailsValidation(new DataCenterConfig().setCompressionCodec(PageCompressionCodec.NONE), "compressionCodecValid", "dc.compression-codec must be LZ4 or ZSTD", AssertTrue.class);
+    }
 }
@@ -25,6 +25,9 @@ public class HBaseConfig
 {
     private static final int RETRY_NUMBER = 3;
     private static final int PAUSE_TIME = 100;
+    private static final int SCAN_CACHING = 1000;
+    private static final int SPLIT_TARGET_SIZE_MB = 1024;
+    private static final int MAX_SUB_SPLITS_PER_REGION = 8;
     private int retryNumber = RETRY_NUMBER;
     private int pauseTime = PAUSE_TIME;
     private boolean isRpcProtectionEnable; // Whether to enable hbase data communication encryption, default is false
@@ -38,6 +41,10 @@ public class HBaseConfig
     private String userKeytabPath; // user.keytab file path
     private String principalUsername; // principal username
     private String kerberos;
+    private int scanCaching = SCAN_CACHING; // rows fetched per scanner RPC
+    private int scanMaxResultSizeMb; // bytes fetched per scanner RPC, 0 uses the HBase client default
+    private int splitTargetSizeMb = SPLIT_TARGET_SIZE_MB; // regions larger than this are scanned by several splits
+    private int maxSubSplitsPerRegion = MAX_SUB_SPLITS_PER_REGION;
 
     public int getRetryNumber()
     {
@@ -181,4 +188,48 @@ public class HBaseConfig
     {
         this.defaultValue = defaultValue;
     }
+
+    public int getScanCaching()
+    {
+        return scanCaching;
+    }
+
+    @Config("hbase.scan.caching")
+    public void setScanCaching(int scanCaching)
+    {
+        this.scanCaching = scanCaching;
+    }
+
+    public int getScanMaxResultSizeMb()
+    {
+        return scanMaxResultSizeMb;
+    }
+
+    @Config("hbase.scan.max-result-size-mb")
+    public void setScanMaxResultSizeMb(int scanMaxResultSizeMb)
+    {
+        this.scanMaxResultSizeMb = scanMaxResultSizeMb;
+    }
+
+    public int getSplitTargetSizeMb()
+    {
+        return splitTargetSizeMb;
+    }
+
+    @Config("hbase.split.target-size-mb")
+    public void setSplitTargetSizeMb(int splitTargetSizeMb)
+    {
+        this.splitTargetSizeMb = splitTargetSizeMb;
+    }
+
+    public int getMaxSubSplitsPerRegion()
+    {
+        return maxSubSplitsPerRegion;
+    }
+
+    @Config("hbase.split.max-sub-splits-per-region")
+    public void setMaxSubSplitsPerRegion(int maxSubSplitsPerRegion)
+    {
+        this.maxSubSplitsPerRegion = maxSubSplitsPerRegion;
+    }
 }
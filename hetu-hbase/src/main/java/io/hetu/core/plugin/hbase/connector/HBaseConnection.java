@@ -145,6 +145,16 @@ public class HBaseConnection
         return this.hbaseConfig.getDefaultValue();
     }
 
+    /**
+     * getHBaseConfig
+     *
+     * @return HBaseConfig
+     */
+    public HBaseConfig getHBaseConfig()
+    {
+        return this.hbaseConfig;
+    }
+
     private void authenticate()
     {
         cfg = HBaseConfiguration.create();
@@ -0,0 +1,297 @@
+/*
+ * Copyright (C) 2018-2020. Huawei Technologies Co., Ltd. All rights reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.hetu.core.plugin.hbase.query;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import io.airlift.log.Logger;
+import io.airlift.slice.Slices;
+import io.hetu.core.plugin.hbase.connector.HBaseColumnHandle;
+import io.hetu.core.plugin.hbase.utils.HBaseErrorCode;
+import io.prestosql.spi.Page;
+import io.prestosql.spi.PageBuilder;
+import io.prestosql.spi.PrestoException;
+import io.prestosql.spi.block.BlockBuilder;
+import io.prestosql.spi.connector.ConnectorPageSource;
+import io.prestosql.spi.type.Type;
+import io.prestosql.spi.type.VarcharType;
+import org.apache.hadoop.hbase.Cell;
+import org.apache.hadoop.hbase.client.Result;
+import org.apache.hadoop.hbase.client.ResultScanner;
+import org.apache.hadoop.hbase.util.Bytes;
+
+import java.io.IOException;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.Set;
+
+import static io.prestosql.spi.type.BigintType.BIGINT;
+import static io.prestosql.spi.type.BooleanType.BOOLEAN;
+import static io.prestosql.spi.type.DateType.DATE;
+import static io.prestosql.spi.type.DoubleType.DOUBLE;
+import static io.prestosql.spi.type.IntegerType.INTEGER;
+import static io.prestosql.spi.type.SmallintType.SMALLINT;
+import static io.prestosql.spi.type.TimeType.TIME;
+import static io.prestosql.spi.type.TimestampType.TIMESTAMP;
+import static io.prestosql.spi.type.TinyintType.TINYINT;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Page source for scans of tables using the StringRowSerializer encoding. Cell values are decoded
+ * straight from the HBase results into the block builders of the page, without the per row column
+ * value map and the per value Strings of the record cursor.
+ *
+ * @since 2020-03-18
+ */
+public class HBasePageSource
+        implements ConnectorPageSource
+{
+    private static final Logger LOG = Logger.get(HBasePageSource.class);
+    private static final Set<Type> SUPPORTED_TYPES = ImmutableSet.of(BIGINT, BOOLEAN, DATE, DOUBLE, INTEGER, SMALLINT, TIME, TIMESTAMP, TINYINT);
+    private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("yyy-MM-dd");
+    private static final byte[] NULL_VALUE = Bytes.toBytes("NULL");
+    private static final int MAX_FAST_PARSE_DIGITS = 18;
+
+    private final List<Type> types;
+    private final boolean[] isRowKey;
+    private final byte[][] families;
+    private final byte[][] qualifiers;
+    private final byte[] defaultValue;
+    private final ResultScanner scanner;
+    private final PageBuilder pageBuilder;
+
+    private long completedBytes;
+    private long readTimeNanos;
+    private boolean finished;
+
+    /**
+     * constructor
+     *
+     * @param recordSet record set of the split to scan
+     */
+    public HBasePageSource(HBaseRecordSet recordSet)
+    {
+        this(recordSet.getColumnHandles(), recordSet.getRowIdName(), recordSet.getDefaultValue(), recordSet.getScanner());
+    }
+
+    /**
+     * constructor
+     *
+     * @param columnHandles columns to read
+     * @param rowIdName name of the row key column
+     * @param defaultValue value of missing cells
+     * @param scanner scanner over the rows to read
+     */
+    public HBasePageSource(List<HBaseColumnHandle> columnHandles, String rowIdName, String defaultValue, ResultScanner scanner)
+    {
+        ImmutableList.Builder<Type> typesBuilder = ImmutableList.builder();
+        this.isRowKey = new boolean[columnHandles.size()];
+        this.families = new byte[columnHandles.size()][];
+        this.qualifiers = new byte[columnHandles.size()][];
+        for (int i = 0; i < columnHandles.size(); i++) {
+            HBaseColumnHandle column = columnHandles.get(i);
+            typesBuilder.add(column.getType());
+            isRowKey[i] = column.getName().equals(rowIdName);
+            if (!isRowKey[i]) {
+                families[i] = Bytes.toBytes(column.getFamily().get());
+                qualifiers[i] = Bytes.toBytes(column.getQualifier().get());
+            }
+        }
+        this.types = typesBuilder.build();
+        this.defaultValue = defaultValue == null ? null : Bytes.toBytes(defaultValue);
+        this.scanner = requireNonNull(scanner, "scanner is null");
+        this.pageBuilder = new PageBuilder(types);
+    }
+
+    /**
+     * Whether the columns can be decoded by this page source
+     *
+     * @param columnHandles columns to read
+     * @return true if all column types are supported
+     */
+    public static boolean isSupported(List<HBaseColumnHandle> columnHandles)
+    {
+        return columnHandles.stream()
+                .map(HBaseColumnHandle::getType)
+                .allMatch(type -> SUPPORTED_TYPES.contains(type) || type instanceof VarcharType);
+    }
+
+    @Override
+    public long getCompletedBytes()
+    {
+        return completedBytes;
+    }
+
+    @Override
+    public long getReadTimeNanos()
+    {
+        return readTimeNanos;
+    }
+
+    @Override
+    public boolean isFinished()
+    {
+        return finished && pageBuilder.isEmpty();
+    }
+
+    @Override
+    public Page getNextPage()
+    {
+        long start = System.nanoTime();
+        try {
+            while (!finished && !pageBuilder.isFull()) {
+                Result result = scanner.next();
+                if (result == null) {
+                    finished = true;
+                    break;
+                }
+                appendRow(result);
+            }
+        }
+        catch (IOException e) {
+            LOG.error("HBasePageSource : scan failed... cause by %s", e.getMessage());
+            throw new PrestoException(HBaseErrorCode.UNEXPECTED_HBASE_ERROR, "Failed to scan HBase table: " + e.getMessage(), e);
+        }
+        finally {
+            readTimeNanos += System.nanoTime() - start;
+        }
+
+        if (pageBuilder.isEmpty()) {
+            return null;
+        }
+        Page page = pageBuilder.build();
+        pageBuilder.reset();
+        return page;
+    }
+
+    @Override
+    public long getSystemMemoryUsage()
+    {
+        return pageBuilder.getRetainedSizeInBytes();
+    }
+
+    @Override
+    public void close()
+    {
+        scanner.close();
+    }
+
+    private void appendRow(Result result)
+    {
+        pageBuilder.declarePosition();
+        byte[] row = result.getRow();
+        completedBytes += row.length;
+        for (int channel = 0; channel < types.size(); channel++) {
+            BlockBuilder output = pageBuilder.getBlockBuilder(channel);
+            if (isRowKey[channel]) {
+                appendValue(channel, output, row, 0, row.length);
+                continue;
+            }
+            Cell cell = result.getColumnLatestCell(families[channel], qualifiers[channel]);
+            if (cell == null) {
+                if (defaultValue == null) {
+                    output.appendNull();
+                }
+                else {
+                    appendValue(channel, output, defaultValue, 0, defaultValue.length);
+                }
+                continue;
+            }
+            completedBytes += cell.getValueLength();
+            appendValue(channel, output, cell.getValueArray(), cell.getValueOffset(), cell.getValueLength());
+        }
+    }
+
+    private void appendValue(int channel, BlockBuilder output, byte[] bytes, int offset, int length)
+    {
+        // same semantic as StringRowSerializer, the NULL string is a null value
+        if (Bytes.equals(bytes, offset, length, NULL_VALUE, 0, NULL_VALUE.length)) {
+            output.appendNull();
+            return;
+        }
+
+        Type type = types.get(channel);
+        if (type instanceof VarcharType) {
+            type.writeSlice(output, Slices.wrappedBuffer(bytes, offset, length));
+        }
+        else if (type.equals(BIGINT)) {
+            type.writeLong(output, parseLong(bytes, offset, length));
+        }
+        else if (type.equals(INTEGER)) {
+            type.writeLong(output, Math.toIntExact(parseLong(bytes, offset, length)));
+        }
+        else if (type.equals(SMALLINT)) {
+            type.writeLong(output, Short.parseShort(toString(bytes, offset, length)));
+        }
+        else if (type.equals(TINYINT)) {
+            type.writeLong(output, Byte.parseByte(toString(bytes, offset, length)));
+        }
+        else if (type.equals(BOOLEAN)) {
+            type.writeBoolean(output, Boolean.parseBoolean(toString(bytes, offset, length)));
+        }
+        else if (type.equals(DOUBLE)) {
+            type.writeDouble(output, Double.parseDouble(toString(bytes, offset, length)));
+        }
+        else if (type.equals(DATE)) {
+            type.writeLong(output, LocalDate.parse(toString(bytes, offset, length), DATE_FORMATTER).toEpochDay());
+        }
+        else if (type.equals(TIME)) {
+            type.writeLong(output, Time.valueOf(toString(bytes, offset, length)).getTime());
+        }
+        else if (type.equals(TIMESTAMP)) {
+            type.writeLong(output, Timestamp.valueOf(toString(bytes, offset, length)).getTime());
+        }
+        else {
+            throw new PrestoException(HBaseErrorCode.UNEXPECTED_HBASE_ERROR, "HBasePageSource does not support decoding type " + type);
+        }
+    }
+
+    /**
+     * Parse a decimal number without creating a String, numbers the fast path can not handle
+     * are parsed by Long.parseLong so the errors are the same as the record cursor
+     */
+    private static long parseLong(byte[] bytes, int offset, int length)
+    {
+        int position = offset;
+        int end = offset + length;
+        boolean negative = false;
+        if (length > 0 && bytes[position] == '-') {
+            negative = true;
+            position++;
+        }
+        int digits = end - position;
+        if (digits == 0 || digits > MAX_FAST_PARSE_DIGITS) {
+            return Long.parseLong(toString(bytes, offset, length));
+        }
+        long value = 0;
+        for (; position < end; position++) {
+            int digit = bytes[position] - '0';
+            if (digit < 0 || digit > 9) {
+                return Long.parseLong(toString(bytes, offset, length));
+            }
+            value = value * 10 + digit;
+        }
+        return negative ? -value : value;
+    }
+
+    private static String toString(byte[] bytes, int offset, int length)
+    {
+        return new String(bytes, offset, length, UTF_8);
+    }
+}
@@ -16,6 +16,7 @@ package io.hetu.core.plugin.hbase.query;
 
 import io.hetu.core.plugin.hbase.connector.HBaseColumnHandle;
 import io.hetu.core.plugin.hbase.connector.HBaseTableHandle;
+import io.hetu.core.plugin.hbase.utils.serializers.StringRowSerializer;
 import io.prestosql.spi.connector.ColumnHandle;
 import io.prestosql.spi.connector.ConnectorPageSource;
 import io.prestosql.spi.connector.ConnectorPageSourceProvider;
@@ -61,16 +62,31 @@ public class HBasePageSourceProvider
         if (recordSet instanceof HBaseRecordSet) {
             hbaseRecordSet = (HBaseRecordSet) recordSet;
         }
+        ConnectorPageSource pageSource;
+        if (hbaseRecordSet != null && isDirectDecodingSupported(hbaseRecordSet)) {
+            pageSource = new HBasePageSource(hbaseRecordSet);
+        }
+        else {
+            pageSource = new RecordPageSource(recordSet);
+        }
         if (columns.stream()
                 .anyMatch(
                         ch -> (ch instanceof HBaseColumnHandle)
                                 && (table instanceof HBaseTableHandle)
                                 && ((HBaseColumnHandle) ch).getOrdinal()
                                 == ((HBaseTableHandle) table).getRowIdOrdinal())) {
-            return new HBaseUpdatablePageSource(hbaseRecordSet);
+            return new HBaseUpdatablePageSource(hbaseRecordSet, pageSource);
         }
         else {
-            return new RecordPageSource(recordSet);
+            return pageSource;
         }
     }
+
+    private static boolean isDirectDecodingSupported(HBaseRecordSet recordSet)
+    {
+        // batch gets and other serializers keep using the record cursor
+        return !recordSet.isBatchGet()
+                && recordSet.getSerializer() instanceof StringRowSerializer
+                && HBasePageSource.isSupported(recordSet.getColumnHandles());
+    }
 }
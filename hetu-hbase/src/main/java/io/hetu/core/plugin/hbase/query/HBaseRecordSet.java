@@ -40,6 +40,8 @@ import org.apache.hadoop.hbase.filter.Filter;
 import org.apache.hadoop.hbase.filter.FilterList;
 import org.apache.hadoop.hbase.filter.FirstKeyOnlyFilter;
 import org.apache.hadoop.hbase.filter.KeyOnlyFilter;
+import org.apache.hadoop.hbase.filter.MultiRowRangeFilter;
+import org.apache.hadoop.hbase.filter.MultiRowRangeFilter.RowRange;
 import org.apache.hadoop.hbase.filter.RowFilter;
 import org.apache.hadoop.hbase.filter.SingleColumnValueFilter;
 import org.apache.hadoop.hbase.util.Bytes;
@@ -49,6 +51,7 @@ import java.nio.charset.Charset;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 
 import static io.prestosql.spi.type.BigintType.BIGINT;
 import static io.prestosql.spi.type.BooleanType.BOOLEAN;
@@ -146,8 +149,7 @@ public class HBaseRecordSet
     @Override
     public RecordCursor cursor()
     {
-        if (Utils.isBatchGet(
-                this.split.getTableHandle().getConstraint(), this.split.getTableHandle().getRowIdOrdinal())) {
+        if (isBatchGet()) {
             return new HBaseGetRecordCursor(
                     columnHandles,
                     split,
@@ -159,40 +161,110 @@ public class HBaseRecordSet
                     this.defaultValue);
         }
         else {
-            try {
-                columnHandles.stream()
-                        .forEach(
-                                columnHandle -> {
-                                    HBaseColumnHandle hBaseColumnHandle = columnHandle;
-                                    if (this.rowIdName == null
-                                            || !this.rowIdName.equals(hBaseColumnHandle.getColumnName())) {
-                                        scan.addColumn(
-                                                Bytes.toBytes(hBaseColumnHandle.getFamily().get()),
-                                                Bytes.toBytes(hBaseColumnHandle.getQualifier().get()));
-                                    }
-                                });
-                Map<Integer, List<Range>> domainMap = this.split.getRanges();
-                FilterList filters = getFiltersFromDomains(domainMap);
-
-                if (filters.getFilters().size() != 0) {
-                    scan.setFilter(filters);
-                }
+            return new HBaseRecordCursor(
+                    columnHandles, columnTypes, serializer, getScanner(), fieldToColumnName, rowIdName, this.defaultValue);
+        }
+    }
 
-                if (split.getStartRow() != null && !split.getStartRow().isEmpty()) {
-                    scan.setStartRow(Bytes.toBytes(split.getStartRow()));
-                }
+    /**
+     * Whether the split reads rows by row key instead of scanning
+     *
+     * @return true if the split is a batch get
+     */
+    public boolean isBatchGet()
+    {
+        return Utils.isBatchGet(
+                this.split.getTableHandle().getConstraint(), this.split.getTableHandle().getRowIdOrdinal());
+    }
 
-                if (split.getEndRow() != null && !split.getEndRow().isEmpty()) {
-                    scan.setStopRow(Bytes.toBytes(split.getEndRow()));
-                }
-                scanner = conn.getConn().getTable(TableName.valueOf(table.getHbaseTableName().get())).getScanner(scan);
+    /**
+     * Open a scanner over the rows of the split
+     *
+     * @return scanner, null if the scanner can not be opened
+     */
+    public ResultScanner getScanner()
+    {
+        try {
+            columnHandles.stream()
+                    .forEach(
+                            columnHandle -> {
+                                HBaseColumnHandle hBaseColumnHandle = columnHandle;
+                                if (this.rowIdName == null
+                                        || !this.rowIdName.equals(hBaseColumnHandle.getColumnName())) {
+                                    scan.addColumn(
+                                            Bytes.toBytes(hBaseColumnHandle.getFamily().get()),
+                                            Bytes.toBytes(hBaseColumnHandle.getQualifier().get()));
+                                }
+                            });
+            // large scans would evict the hot blocks of other readers from the region server block cache
+            scan.setCacheBlocks(false);
+            if (split.getScanCaching() > 0) {
+                scan.setCaching(split.getScanCaching());
             }
-            catch (IOException e) {
-                LOG.error("HBaseRecordSet : setScanner failed... cause by %s", e.getMessage());
+            if (split.getScanMaxResultSize() > 0) {
+                scan.setMaxResultSize(split.getScanMaxResultSize());
             }
-            return new HBaseRecordCursor(
-                    columnHandles, columnTypes, serializer, scanner, fieldToColumnName, rowIdName, this.defaultValue);
+
+            Map<Integer, List<Range>> domainMap = this.split.getRanges();
+            FilterList filters = getFiltersFromDomains(domainMap);
+
+            if (filters.getFilters().size() != 0) {
+                scan.setFilter(filters);
+            }
+
+            if (split.getStartRow() != null && !split.getStartRow().isEmpty()) {
+                scan.setStartRow(Bytes.toBytes(split.getStartRow()));
+            }
+
+            if (split.getEndRow() != null && !split.getEndRow().isEmpty()) {
+                scan.setStopRow(Bytes.toBytes(split.getEndRow()));
+            }
+            scanner = conn.getConn().getTable(TableName.valueOf(table.getHbaseTableName().get())).getScanner(scan);
+        }
+        catch (IOException e) {
+            LOG.error("HBaseRecordSet : setScanner failed... cause by %s", e.getMessage());
         }
+        return scanner;
+    }
+
+    /**
+     * getColumnHandles
+     *
+     * @return columnHandles
+     */
+    public List<HBaseColumnHandle> getColumnHandles()
+    {
+        return columnHandles;
+    }
+
+    /**
+     * getRowIdName
+     *
+     * @return rowIdName
+     */
+    public String getRowIdName()
+    {
+        return rowIdName;
+    }
+
+    /**
+     * getDefaultValue
+     *
+     * @return value of missing cells
+     */
+    public String getDefaultValue()
+    {
+        return defaultValue;
+    }
+
+    /**
+     * getSerializer
+     *
+     * @return serializer
+     */
+    public HBaseRowSerializer getSerializer()
+    {
+        return serializer;
     }
 
     /**
@@ -252,6 +324,15 @@ public class HBaseRecordSet
                                 return;
                             }
 
+                            // varchar row keys are matched by seeking to each row range instead of comparing every row
+                            if (this.split.getRowKeyName().equals(columnHandle.getName())) {
+                                Optional<List<RowRange>> rowRanges = Utils.toRowRanges(columnHandle.getType(), ranges);
+                                if (rowRanges.isPresent()) {
+                                    andFilters.addFilter(new MultiRowRangeFilter(rowRanges.get()));
+                                    return;
+                                }
+                            }
+
                             // inFilters: put "="
                             List<Filter> inFilters = new ArrayList<>();
                             // filters: put "<" "<=" ">" ">="
@@ -21,6 +21,7 @@ import io.hetu.core.plugin.hbase.connector.HBaseConnection;
 import io.hetu.core.plugin.hbase.utils.serializers.StringRowSerializer;
 import io.prestosql.spi.Page;
 import io.prestosql.spi.block.Block;
+import io.prestosql.spi.connector.ConnectorPageSource;
 import io.prestosql.spi.connector.RecordPageSource;
 import io.prestosql.spi.connector.UpdatablePageSource;
 import io.prestosql.spi.type.Type;
@@ -49,14 +50,19 @@ public class HBaseUpdatablePageSource
 
     private final HBaseConnection hBaseConnection;
 
-    private final RecordPageSource inner;
+    private final ConnectorPageSource inner;
 
     private final HBaseRecordSet recordSet;
 
     public HBaseUpdatablePageSource(HBaseRecordSet recordSet)
+    {
+        this(recordSet, new RecordPageSource(recordSet));
+    }
+
+    public HBaseUpdatablePageSource(HBaseRecordSet recordSet, ConnectorPageSource inner)
     {
         this.recordSet = recordSet;
-        this.inner = new RecordPageSource(recordSet);
+        this.inner = inner;
         this.hBaseConnection = recordSet.getHBaseConnection();
     }
 
@@ -67,8 +73,7 @@ public class HBaseUpdatablePageSource
                 TableName.valueOf(
                         recordSet.getHBaseTableHandle().getHbaseTableName().get());
         Optional<Type> rowIdType =
-                ((HBaseRecordCursor) (inner.getCursor()))
-                        .columnHandles.stream()
+                recordSet.getColumnHandles().stream()
                         .filter(col -> col.getName().equals(recordSet.getHBaseTableHandle().getRowId()))
                         .map(HBaseColumnHandle::getType)
                         .findAny();
@@ -49,6 +49,35 @@ public class HBaseSplit
 
     private final boolean randomSplit;
 
+    private final int scanCaching;
+
+    private final long scanMaxResultSize;
+
+    /**
+     * constructor
+     *
+     * @param rowKeyName rowKeyName
+     * @param tableHandle table
+     * @param addresses addresses
+     * @param startRow startRow
+     * @param endRow endRow
+     * @param ranges search ranges
+     * @param regionInfo regionInfo
+     * @param randomSplit randomSplit
+     */
+    public HBaseSplit(
+            String rowKeyName,
+            HBaseTableHandle tableHandle,
+            List<HostAddress> addresses,
+            String startRow,
+            String endRow,
+            Map<Integer, List<Range>> ranges,
+            HRegionInfo regionInfo,
+            boolean randomSplit)
+    {
+        this(rowKeyName, tableHandle, addresses, startRow, endRow, ranges, regionInfo, randomSplit, 0, 0);
+    }
+
     /**
      * constructor
      *
@@ -60,6 +89,8 @@ public class HBaseSplit
      * @param ranges search ranges
      * @param regionInfo regionInfo
      * @param randomSplit randomSplit
+     * @param scanCaching rows fetched per scanner RPC, 0 uses the HBase client default
+     * @param scanMaxResultSize bytes fetched per scanner RPC, 0 uses the HBase client default
      */
     @JsonCreator
     public HBaseSplit(
@@ -70,7 +101,9 @@ public class HBaseSplit
             @JsonProperty("endRow") String endRow,
             @JsonProperty("ranges") Map<Integer, List<Range>> ranges,
             @JsonProperty("regionInfo") HRegionInfo regionInfo,
-            @JsonProperty("randomSplit") boolean randomSplit)
+            @JsonProperty("randomSplit") boolean randomSplit,
+            @JsonProperty("scanCaching") int scanCaching,
+            @JsonProperty("scanMaxResultSize") long scanMaxResultSize)
     {
         this.rowKeyName = rowKeyName;
         this.tableHandle = tableHandle;
@@ -80,6 +113,8 @@ public class HBaseSplit
         this.ranges = ranges;
         this.regionInfo = regionInfo;
         this.randomSplit = randomSplit;
+        this.scanCaching = scanCaching;
+        this.scanMaxResultSize = scanMaxResultSize;
     }
 
     @Override
@@ -141,4 +176,16 @@ public class HBaseSplit
     {
         return randomSplit;
     }
+
+    @JsonProperty
+    public int getScanCaching()
+    {
+        return scanCaching;
+    }
+
+    @JsonProperty
+    public long getScanMaxResultSize()
+    {
+        return scanMaxResultSize;
+    }
 }
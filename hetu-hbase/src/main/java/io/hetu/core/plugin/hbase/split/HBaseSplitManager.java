@@ -16,6 +16,7 @@ package io.hetu.core.plugin.hbase.split;
 
 import com.google.inject.Inject;
 import io.airlift.log.Logger;
+import io.hetu.core.plugin.hbase.conf.HBaseConfig;
 import io.hetu.core.plugin.hbase.connector.HBaseColumnHandle;
 import io.hetu.core.plugin.hbase.connector.HBaseConnection;
 import io.hetu.core.plugin.hbase.connector.HBaseTableHandle;
@@ -34,19 +35,33 @@ import io.prestosql.spi.connector.FixedSplitSource;
 import io.prestosql.spi.predicate.Domain;
 import io.prestosql.spi.predicate.Range;
 import io.prestosql.spi.predicate.TupleDomain;
+import org.apache.hadoop.hbase.HRegionLocation;
+import org.apache.hadoop.hbase.HTableDescriptor;
+import org.apache.hadoop.hbase.RegionMetrics;
+import org.apache.hadoop.hbase.ServerName;
+import org.apache.hadoop.hbase.Size;
 import org.apache.hadoop.hbase.TableName;
 import org.apache.hadoop.hbase.TableNotFoundException;
 import org.apache.hadoop.hbase.client.RegionLocator;
+import org.apache.hadoop.hbase.filter.MultiRowRangeFilter.RowRange;
+import org.apache.hadoop.hbase.util.Bytes;
 import org.apache.hadoop.hbase.util.Pair;
 
 import java.io.IOException;
+import java.math.BigInteger;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
 
 import static java.lang.String.format;
+import static java.nio.charset.StandardCharsets.UTF_8;
 
 /**
  * HBaseSplitManager
@@ -57,6 +72,13 @@ public class HBaseSplitManager
         implements ConnectorSplitManager
 {
     private static final Logger LOG = Logger.get(HBaseSplitManager.class);
+    // per table settings, set on the HBase table descriptor, e.g. alter 'ns:t', METADATA => {'hetu.scan.caching' => '10000'}
+    private static final String SCAN_CACHING_KEY = "hetu.scan.caching";
+    private static final String SCAN_MAX_RESULT_SIZE_MB_KEY = "hetu.scan.max-result-size-mb";
+    private static final String SPLIT_TARGET_SIZE_MB_KEY = "hetu.split.target-size-mb";
+    private static final long BYTES_PER_MB = 1024L * 1024L;
+    private static final byte MAX_SINGLE_BYTE_CHARACTER = 0x7F;
+    private static final int BITS_PER_KEY_DIGIT = 7;
 
     private final HBaseConnection hBaseConnection;
 
@@ -94,11 +116,13 @@ public class HBaseSplitManager
         List<HBaseSplit> splits = new ArrayList<>();
         Pair<byte[][], byte[][]> startEndKeys = null;
         TableName hbaseTableName = TableName.valueOf(tableHandle.getHbaseTableName().get());
+        HTableDescriptor tableDescriptor = null;
+        RegionLocator regionLocator = null;
 
         try {
-            if (hBaseConnection.getHbaseAdmin().getTableDescriptor(hbaseTableName) != null) {
-                RegionLocator regionLocator =
-                        hBaseConnection.getConn().getRegionLocator(hbaseTableName);
+            tableDescriptor = hBaseConnection.getHbaseAdmin().getTableDescriptor(hbaseTableName);
+            if (tableDescriptor != null) {
+                regionLocator = hBaseConnection.getConn().getRegionLocator(hbaseTableName);
                 startEndKeys = regionLocator.getStartEndKeys();
             }
         }
@@ -130,17 +154,184 @@ public class HBaseSplitManager
         if (startEndKeys == null) {
             throw new NullPointerException("null pointer found when getting splits for scan");
         }
+
+        HBaseConfig config = hBaseConnection.getHBaseConfig();
+        int scanCaching = getTableSetting(tableDescriptor, SCAN_CACHING_KEY, config.getScanCaching());
+        long scanMaxResultSize =
+                getTableSetting(tableDescriptor, SCAN_MAX_RESULT_SIZE_MB_KEY, config.getScanMaxResultSizeMb()) * BYTES_PER_MB;
+        long splitTargetSize =
+                getTableSetting(tableDescriptor, SPLIT_TARGET_SIZE_MB_KEY, config.getSplitTargetSizeMb()) * BYTES_PER_MB;
+        int maxSubSplits = config.getMaxSubSplitsPerRegion();
+
+        Optional<List<RowRange>> rowRanges = getRowKeyRanges(tableHandle, ranges);
+        Map<byte[], Long> regionSizes = new TreeMap<>(Bytes.BYTES_COMPARATOR);
+        if (maxSubSplits > 1 && splitTargetSize > 0) {
+            regionSizes = getRegionSizes(regionLocator, hbaseTableName);
+        }
+        int prunedRanges = 0;
         for (int i = 0; i < startEndKeys.getFirst().length; i++) {
-            String startRow = new String(startEndKeys.getFirst()[i]);
-            String endRow = new String(startEndKeys.getSecond()[i]);
-            splits.add(
-                    new HBaseSplit(
-                            tableHandle.getRowId(), tableHandle, hostAddresses, startRow, endRow, ranges, null, false));
+            byte[] regionStart = startEndKeys.getFirst()[i];
+            byte[] regionEnd = startEndKeys.getSecond()[i];
+            Long regionSize = regionSizes.get(regionStart);
+            int subSplitCount = 1;
+            if (regionSize != null) {
+                subSplitCount = (int) Math.min(maxSubSplits, (regionSize + splitTargetSize - 1) / splitTargetSize);
+            }
+
+            List<String> boundaries = new ArrayList<>();
+            boundaries.add(new String(regionStart));
+            boundaries.addAll(getSubSplitBoundaries(regionStart, regionEnd, subSplitCount));
+            boundaries.add(new String(regionEnd));
+            for (int j = 0; j < boundaries.size() - 1; j++) {
+                String startRow = boundaries.get(j);
+                String endRow = boundaries.get(j + 1);
+                if (rowRanges.isPresent() && !Utils.overlaps(rowRanges.get(), Bytes.toBytes(startRow), Bytes.toBytes(endRow))) {
+                    prunedRanges++;
+                    continue;
+                }
+                splits.add(
+                        new HBaseSplit(
+                                tableHandle.getRowId(),
+                                tableHandle,
+                                hostAddresses,
+                                startRow,
+                                endRow,
+                                ranges,
+                                null,
+                                false,
+                                scanCaching,
+                                scanMaxResultSize));
+            }
         }
+        LOG.debug("Created %s scan splits for %s regions of table %s, %s row key ranges pruned",
+                splits.size(), startEndKeys.getFirst().length, hbaseTableName, prunedRanges);
 
         return splits;
     }
 
+    private static int getTableSetting(HTableDescriptor tableDescriptor, String key, int defaultValue)
+    {
+        String value = tableDescriptor == null ? null : tableDescriptor.getValue(key);
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            return Integer.parseInt(value.trim());
+        }
+        catch (NumberFormatException e) {
+            LOG.warn("Invalid value %s of table setting %s, using %s", value, key, defaultValue);
+            return defaultValue;
+        }
+    }
+
+    private static Optional<List<RowRange>> getRowKeyRanges(HBaseTableHandle tableHandle, Map<Integer, List<Range>> ranges)
+    {
+        List<Range> rowKeyRanges = ranges.get(tableHandle.getRowIdOrdinal());
+        if (rowKeyRanges == null || tableHandle.getColumns() == null) {
+            return Optional.empty();
+        }
+        return tableHandle.getColumns().stream()
+                .filter(column -> column.getOrdinal() == tableHandle.getRowIdOrdinal())
+                .findAny()
+                .flatMap(column -> Utils.toRowRanges(column.getType(), rowKeyRanges));
+    }
+
+    /**
+     * Store file size of each region keyed by region start key, regions without metrics are not split
+     */
+    private Map<byte[], Long> getRegionSizes(RegionLocator regionLocator, TableName tableName)
+    {
+        Map<byte[], Long> regionSizes = new TreeMap<>(Bytes.BYTES_COMPARATOR);
+        try {
+            List<HRegionLocation> locations = regionLocator.getAllRegionLocations();
+            if (locations == null) {
+                return regionSizes;
+            }
+            Map<byte[], byte[]> regionStartKeys = new TreeMap<>(Bytes.BYTES_COMPARATOR);
+            Set<ServerName> servers = new HashSet<>();
+            for (HRegionLocation location : locations) {
+                regionStartKeys.put(location.getRegion().getRegionName(), location.getRegion().getStartKey());
+                servers.add(location.getServerName());
+            }
+            for (ServerName server : servers) {
+                for (RegionMetrics metrics : hBaseConnection.getHbaseAdmin().getRegionMetrics(server, tableName)) {
+                    byte[] startKey = regionStartKeys.get(metrics.getRegionName());
+                    if (startKey != null) {
+                        regionSizes.put(startKey, (long) metrics.getStoreFileSize().get(Size.Unit.BYTE));
+                    }
+                }
+            }
+        }
+        catch (IOException | RuntimeException e) {
+            LOG.warn("Failed to get region sizes of table %s, regions are not split: %s", tableName, e.getMessage());
+        }
+        return regionSizes;
+    }
+
+    /**
+     * Split the key range of a region into evenly sized sub ranges. The boundaries are interpolated
+     * over 7 bit keys, so they survive the conversion to the string row keys of {@link HBaseSplit}.
+     */
+    static List<String> getSubSplitBoundaries(byte[] regionStart, byte[] regionEnd, int subSplitCount)
+    {
+        List<String> boundaries = new ArrayList<>();
+        if (subSplitCount <= 1) {
+            return boundaries;
+        }
+        byte[] upper = regionEnd;
+        if (regionEnd.length == 0) {
+            // the last region is not bounded, split up to the largest single byte UTF-8 key
+            upper = new byte[Math.max(regionStart.length, 1)];
+            Arrays.fill(upper, MAX_SINGLE_BYTE_CHARACTER);
+        }
+
+        // one more digit than the keys, so close keys can still be split
+        int length = Math.max(regionStart.length, upper.length) + 1;
+        BigInteger low = toBase128(regionStart, length);
+        BigInteger high = toBase128(upper, length);
+        if (high.compareTo(low) <= 0) {
+            return boundaries;
+        }
+
+        BigInteger range = high.subtract(low);
+        byte[] previous = regionStart;
+        for (int i = 1; i < subSplitCount; i++) {
+            BigInteger point = low.add(range.multiply(BigInteger.valueOf(i)).divide(BigInteger.valueOf(subSplitCount)));
+            byte[] key = fromBase128(point, length);
+            if (Bytes.compareTo(key, previous) > 0 && Bytes.compareTo(key, upper) < 0) {
+                boundaries.add(new String(key, UTF_8));
+                previous = key;
+            }
+        }
+        return boundaries;
+    }
+
+    private static BigInteger toBase128(byte[] key, int length)
+    {
+        BigInteger value = BigInteger.ZERO;
+        for (int i = 0; i < length; i++) {
+            int digit = i < key.length ? Math.min(key[i] & 0xFF, MAX_SINGLE_BYTE_CHARACTER) : 0;
+            value = value.shiftLeft(BITS_PER_KEY_DIGIT).add(BigInteger.valueOf(digit));
+        }
+        return value;
+    }
+
+    private static byte[] fromBase128(BigInteger value, int length)
+    {
+        byte[] key = new byte[length];
+        BigInteger remaining = value;
+        for (int i = length - 1; i >= 0; i--) {
+            key[i] = (byte) (remaining.intValue() & MAX_SINGLE_BYTE_CHARACTER);
+            remaining = remaining.shiftRight(BITS_PER_KEY_DIGIT);
+        }
+        // trailing zero bytes do not change the position of the key
+        int keyLength = length;
+        while (keyLength > 1 && key[keyLength - 1] == 0) {
+            keyLength--;
+        }
+        return Arrays.copyOf(key, keyLength);
+    }
+
     private List<HBaseSplit> getSplitsForBatchGet(TupleDomain<ColumnHandle> tupleDomain, HBaseTableHandle table)
     {
         List<HBaseSplit> splits = new ArrayList<>();
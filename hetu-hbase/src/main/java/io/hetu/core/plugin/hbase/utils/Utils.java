@@ -15,15 +15,23 @@
 package io.hetu.core.plugin.hbase.utils;
 
 import io.airlift.log.Logger;
+import io.airlift.slice.Slice;
 import io.hetu.core.plugin.hbase.connector.HBaseColumnHandle;
 import io.prestosql.spi.connector.ColumnHandle;
 import io.prestosql.spi.predicate.Domain;
+import io.prestosql.spi.predicate.Marker;
 import io.prestosql.spi.predicate.Range;
 import io.prestosql.spi.predicate.TupleDomain;
 import io.prestosql.spi.type.Type;
+import io.prestosql.spi.type.VarcharType;
+import org.apache.hadoop.hbase.HConstants;
+import org.apache.hadoop.hbase.filter.MultiRowRangeFilter.RowRange;
+import org.apache.hadoop.hbase.util.Bytes;
 
 import java.io.File;
 import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 
@@ -115,4 +123,69 @@ public class Utils
         File file = new File(path);
         return file.exists();
     }
+
+    /**
+     * Convert the ranges of a varchar row key to HBase row ranges, row keys are stored as UTF-8 strings
+     * so the byte order of the row ranges matches the order of the ranges.
+     *
+     * @param rowKeyType type of the row key column
+     * @param ranges ordered ranges of the row key domain
+     * @return row ranges, or empty when the ranges can not be expressed as row ranges
+     */
+    public static Optional<List<RowRange>> toRowRanges(Type rowKeyType, List<Range> ranges)
+    {
+        if (!(rowKeyType instanceof VarcharType) || ranges == null || ranges.isEmpty()) {
+            return Optional.empty();
+        }
+
+        List<RowRange> rowRanges = new ArrayList<>(ranges.size());
+        for (Range range : ranges) {
+            if (range.isAll()) {
+                return Optional.empty();
+            }
+            Marker low = range.getLow();
+            Marker high = range.getHigh();
+            byte[] startRow = low.isLowerUnbounded() ? HConstants.EMPTY_START_ROW : toRowKey(low.getValue());
+            byte[] stopRow = high.isUpperUnbounded() ? HConstants.EMPTY_END_ROW : toRowKey(high.getValue());
+            rowRanges.add(new RowRange(
+                    startRow,
+                    low.isLowerUnbounded() || low.getBound() == Marker.Bound.EXACTLY,
+                    stopRow,
+                    !high.isUpperUnbounded() && high.getBound() == Marker.Bound.EXACTLY));
+        }
+        return Optional.of(rowRanges);
+    }
+
+    /**
+     * Whether any of the row ranges overlaps the rows from startRow (inclusive) to stopRow (exclusive),
+     * an empty startRow or stopRow means the rows are not bounded on that side
+     *
+     * @param rowRanges row ranges
+     * @param startRow start row
+     * @param stopRow stop row
+     * @return true if the rows may contain a row of the row ranges
+     */
+    public static boolean overlaps(List<RowRange> rowRanges, byte[] startRow, byte[] stopRow)
+    {
+        for (RowRange rowRange : rowRanges) {
+            boolean startsBeforeStop = stopRow.length == 0
+                    || rowRange.getStartRow().length == 0
+                    || Bytes.compareTo(rowRange.getStartRow(), stopRow) < 0;
+            boolean stopsAfterStart = startRow.length == 0
+                    || rowRange.getStopRow().length == 0
+                    || Bytes.compareTo(rowRange.getStopRow(), startRow) >= 0;
+            if (startsBeforeStop && stopsAfterStart) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static byte[] toRowKey(Object value)
+    {
+        if (value instanceof Slice) {
+            return ((Slice) value).getBytes();
+        }
+        return Bytes.toBytes(value.toString());
+    }
 }
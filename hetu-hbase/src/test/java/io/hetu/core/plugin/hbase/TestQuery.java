@@ -24,16 +24,24 @@ import io.hetu.core.plugin.hbase.connector.HBaseConnection;
 import io.hetu.core.plugin.hbase.connector.HBaseTableHandle;
 import io.hetu.core.plugin.hbase.connector.TestHBaseClientConnection;
 import io.hetu.core.plugin.hbase.metadata.TestingHetuMetastore;
+import io.hetu.core.plugin.hbase.query.HBasePageSource;
 import io.hetu.core.plugin.hbase.query.HBaseRecordCursor;
 import io.hetu.core.plugin.hbase.query.HBaseRecordSet;
 import io.hetu.core.plugin.hbase.split.HBaseSplit;
 import io.hetu.core.plugin.hbase.utils.TestSliceUtils;
 import io.hetu.core.plugin.hbase.utils.serializers.StringRowSerializer;
 import io.prestosql.spi.HostAddress;
+import io.prestosql.spi.Page;
 import io.prestosql.spi.connector.ConnectorSession;
 import io.prestosql.spi.predicate.Marker;
 import io.prestosql.spi.predicate.Range;
 import io.prestosql.spi.type.Type;
+import org.apache.hadoop.hbase.Cell;
+import org.apache.hadoop.hbase.KeyValue;
+import org.apache.hadoop.hbase.client.Result;
+import org.apache.hadoop.hbase.client.ResultScanner;
+import org.apache.hadoop.hbase.util.Bytes;
+import org.mockito.Mockito;
 import org.testng.annotations.AfterClass;
 import org.testng.annotations.BeforeClass;
 import org.testng.annotations.Test;
@@ -55,6 +63,7 @@ import static io.prestosql.spi.type.SmallintType.SMALLINT;
 import static io.prestosql.spi.type.TinyintType.TINYINT;
 import static io.prestosql.spi.type.VarcharType.VARCHAR;
 import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
 
 /**
  * TestQuery
@@ -290,4 +299,49 @@ public class TestQuery
                     "java.lang.ClassCastException: io.airlift.slice.Slice cannot be cast to java.util.Map");
         }
     }
+
+    /**
+     * testHBasePageSource
+     */
+    @Test
+    public void testHBasePageSource()
+            throws Exception
+    {
+        List<HBaseColumnHandle> columnHandles = new ArrayList<>();
+        columnHandles.add(TestUtils.createHBaseColumnRowId("rowkey"));
+        columnHandles.add(createColumnList("a", "f", "a", 1, BIGINT));
+        columnHandles.add(createColumnList("b", "f", "b", 2, VARCHAR));
+        columnHandles.add(createColumnList("c", "f", "c", 3, DOUBLE));
+
+        ResultScanner scanner = Mockito.mock(ResultScanner.class);
+        Mockito.when(scanner.next()).thenReturn(
+                createResult("row1", "-42", "x", "1.5"),
+                createResult("row2", "NULL", null, "2"),
+                null);
+        HBasePageSource pageSource = new HBasePageSource(columnHandles, "rowkey", "NULL", scanner);
+
+        Page page = pageSource.getNextPage();
+        assertEquals(page.getPositionCount(), 2);
+        assertEquals(VARCHAR.getSlice(page.getBlock(0), 0).toStringUtf8(), "row1");
+        assertEquals(BIGINT.getLong(page.getBlock(1), 0), -42L);
+        assertEquals(VARCHAR.getSlice(page.getBlock(2), 0).toStringUtf8(), "x");
+        assertEquals(DOUBLE.getDouble(page.getBlock(3), 0), 1.5);
+        assertEquals(VARCHAR.getSlice(page.getBlock(0), 1).toStringUtf8(), "row2");
+        assertTrue(page.getBlock(1).isNull(1));
+        assertTrue(page.getBlock(2).isNull(1));
+        assertEquals(DOUBLE.getDouble(page.getBlock(3), 1), 2.0);
+        assertTrue(pageSource.isFinished());
+        pageSource.close();
+    }
+
+    private static Result createResult(String row, String a, String b, String c)
+    {
+        List<Cell> cells = new ArrayList<>();
+        cells.add(new KeyValue(Bytes.toBytes(row), Bytes.toBytes("f"), Bytes.toBytes("a"), Bytes.toBytes(a)));
+        if (b != null) {
+            cells.add(new KeyValue(Bytes.toBytes(row), Bytes.toBytes("f"), Bytes.toBytes("b"), Bytes.toBytes(b)));
+        }
+        cells.add(new KeyValue(Bytes.toBytes(row), Bytes.toBytes("f"), Bytes.toBytes("c"), Bytes.toBytes(c)));
+        return Result.create(cells);
+    }
 }
@@ -71,6 +71,18 @@ public class TestHBaseClientConf
 
         hcc.setDefaultValue("default");
         assertEquals("default", hcc.getDefaultValue());
+
+        hcc.setScanCaching(100);
+        assertEquals(100, hcc.getScanCaching());
+
+        hcc.setScanMaxResultSizeMb(8);
+        assertEquals(8, hcc.getScanMaxResultSizeMb());
+
+        hcc.setSplitTargetSizeMb(256);
+        assertEquals(256, hcc.getSplitTargetSizeMb());
+
+        hcc.setMaxSubSplitsPerRegion(4);
+        assertEquals(4, hcc.getMaxSubSplitsPerRegion());
     }
 
     /**
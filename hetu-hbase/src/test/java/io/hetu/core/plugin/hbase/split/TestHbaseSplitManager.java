@@ -14,19 +14,30 @@
  */
 package io.hetu.core.plugin.hbase.split;
 
+import com.google.common.collect.ImmutableList;
 import io.hetu.core.plugin.hbase.client.TestUtils;
 import io.hetu.core.plugin.hbase.conf.HBaseConfig;
 import io.hetu.core.plugin.hbase.connector.HBaseConnection;
 import io.hetu.core.plugin.hbase.connector.HBaseTableHandle;
 import io.hetu.core.plugin.hbase.connector.TestHBaseClientConnection;
 import io.hetu.core.plugin.hbase.metadata.TestingHetuMetastore;
+import io.hetu.core.plugin.hbase.utils.Utils;
+import io.prestosql.spi.predicate.Range;
+import org.apache.hadoop.hbase.filter.MultiRowRangeFilter.RowRange;
+import org.apache.hadoop.hbase.util.Bytes;
 import org.testng.annotations.AfterClass;
 import org.testng.annotations.BeforeClass;
 import org.testng.annotations.Test;
 
+import java.util.List;
 import java.util.Optional;
 
+import static io.airlift.slice.Slices.utf8Slice;
+import static io.prestosql.spi.type.BigintType.BIGINT;
+import static io.prestosql.spi.type.VarcharType.VARCHAR;
 import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
 
 /**
  * TestHbaseSplitManager
@@ -98,4 +109,47 @@ public class TestHbaseSplitManager
 
         hsm.getSplits(null, null, tableHandle, null);
     }
+
+    /**
+     * testSubSplitBoundaries
+     */
+    @Test
+    public void testSubSplitBoundaries()
+    {
+        assertTrue(HBaseSplitManager.getSubSplitBoundaries(Bytes.toBytes("a"), Bytes.toBytes("c"), 1).isEmpty());
+
+        assertOrderedBoundaries("a", "c", HBaseSplitManager.getSubSplitBoundaries(Bytes.toBytes("a"), Bytes.toBytes("c"), 4), 3);
+        assertOrderedBoundaries("", "m", HBaseSplitManager.getSubSplitBoundaries(new byte[0], Bytes.toBytes("m"), 8), 7);
+        // the last region is not bounded
+        assertOrderedBoundaries("m", "\u007f", HBaseSplitManager.getSubSplitBoundaries(Bytes.toBytes("m"), new byte[0], 4), 3);
+    }
+
+    private static void assertOrderedBoundaries(String start, String end, List<String> boundaries, int expectedCount)
+    {
+        assertEquals(boundaries.size(), expectedCount);
+        String previous = start;
+        for (String boundary : boundaries) {
+            assertTrue(boundary.compareTo(previous) > 0, boundary + " is not after " + previous);
+            previous = boundary;
+        }
+        assertTrue(previous.compareTo(end) < 0, previous + " is not before " + end);
+    }
+
+    /**
+     * testRowKeyRangePruning
+     */
+    @Test
+    public void testRowKeyRangePruning()
+    {
+        assertFalse(Utils.toRowRanges(BIGINT, ImmutableList.of(Range.greaterThan(BIGINT, 1L))).isPresent());
+        assertFalse(Utils.toRowRanges(VARCHAR, ImmutableList.of(Range.all(VARCHAR))).isPresent());
+
+        List<RowRange> rowRanges = Utils.toRowRanges(
+                VARCHAR,
+                ImmutableList.of(Range.range(VARCHAR, utf8Slice("b"), true, utf8Slice("d"), false))).get();
+        assertTrue(Utils.overlaps(rowRanges, Bytes.toBytes("a"), Bytes.toBytes("c")));
+        assertTrue(Utils.overlaps(rowRanges, new byte[0], new byte[0]));
+        assertFalse(Utils.overlaps(rowRanges, new byte[0], Bytes.toBytes("b")));
+        assertFalse(Utils.overlaps(rowRanges, Bytes.toBytes("e"), new byte[0]));
+    }
 }
@@ -26,6 +26,7 @@ import io.prestosql.spi.heuristicindex.Index;
 import io.prestosql.spi.heuristicindex.IndexClient;
 import io.prestosql.spi.heuristicindex.IndexMetadata;
 
+import java.io.BufferedInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.UncheckedIOException;
@@ -244,7 +245,7 @@ public class HeuristicIndexClient
                                     | NoSuchMethodException e) {
                                 throw new IOException(e);
                             }
-                            try (InputStream is = LOCAL_FS_CLIENT.newInputStream(child)) {
+                            try (InputStream is = new BufferedInputStream(LOCAL_FS_CLIENT.newInputStream(child))) {
                                 index.load(is);
                             }
 
@@ -19,6 +19,7 @@ import com.google.common.collect.ImmutableSet;
 import io.hetu.core.heuristicindex.util.IndexConstants;
 import io.hetu.core.heuristicindex.util.IndexServiceUtils;
 import io.hetu.core.plugin.heuristicindex.datasource.base.EmptyDataSource;
+import io.hetu.core.plugin.heuristicindex.datasource.hive.ConstantsHelper;
 import io.hetu.core.plugin.heuristicindex.datasource.hive.HiveDataSource;
 import io.hetu.core.plugin.heuristicindex.index.bitmap.BitMapIndex;
 import io.hetu.core.plugin.heuristicindex.index.bloom.BloomIndex;
@@ -76,6 +77,12 @@ public class HeuristicIndexFactory
             throw new IllegalArgumentException("DataSource not supported: " + dataSourceName);
         }
 
+        // the number of threads applies to both reading the source files and writing the index files
+        String threads = indexProps.getProperty(IndexConstants.INDEX_THREADS_KEY);
+        if (threads != null) {
+            dataSourceProps.setProperty(ConstantsHelper.HDFS_SOURCE_CONCURRENCY, threads);
+        }
+
         printVerboseMsg(String.format("Using DataSource: %s", dataSource));
         dataSource.setProperties(dataSourceProps);
 
@@ -87,6 +94,9 @@ public class HeuristicIndexFactory
                     indexProps, index.getId().toLowerCase(Locale.ENGLISH) + "."));
         }
 
+        if (threads != null) {
+            return new HeuristicIndexWriter(dataSource, indices, fs, root, Integer.parseInt(threads));
+        }
         return new HeuristicIndexWriter(dataSource, indices, fs, root);
     }
 
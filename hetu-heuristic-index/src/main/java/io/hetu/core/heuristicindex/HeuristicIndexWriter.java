@@ -15,6 +15,7 @@
 package io.hetu.core.heuristicindex;
 
 import com.google.common.base.Strings;
+import com.google.common.collect.Sets;
 import com.google.common.util.concurrent.AtomicDouble;
 import io.hetu.core.common.util.SecurePathWhiteList;
 import io.hetu.core.filesystem.HetuLocalFileSystemClient;
@@ -28,6 +29,7 @@ import io.prestosql.spi.heuristicindex.Index;
 import io.prestosql.spi.heuristicindex.IndexWriter;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.OutputStream;
 import java.io.UncheckedIOException;
 import java.lang.reflect.Constructor;
@@ -36,15 +38,21 @@ import java.net.URI;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Properties;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.locks.Lock;
 import java.util.stream.Stream;
 
@@ -65,6 +73,8 @@ public class HeuristicIndexWriter
             new LocalConfig(new Properties()), Paths.get("/"));
 
     private static final String PART_FILE_SUFFIX = ".part";
+    private static final String MANIFEST_ENTRY_SEPARATOR = ",";
+    private static final int DEFAULT_THREADS = Runtime.getRuntime().availableProcessors();
 
     /**
      * Used for getting the database name from an array of ['catalog', 'schema', 'table']
@@ -78,6 +88,7 @@ public class HeuristicIndexWriter
 
     private boolean isCleanedUp;
     private Path root;
+    private int threads;
 
     /**
      * Constructor
@@ -88,9 +99,24 @@ public class HeuristicIndexWriter
      */
     public HeuristicIndexWriter(DataSource dataSource, Set<Index> indexTypes, HetuFileSystemClient fs, Path root)
     {
+        this(dataSource, indexTypes, fs, root, DEFAULT_THREADS);
+    }
+
+    /**
+     * Constructor
+     *
+     * @param dataSource that IndexWriter reads from
+     * @param indexTypes Type of indexes that will be created(each type gets its own index)
+     * @param fs filesystem client to access filesystem where the indexes are persisted/stored
+     * @param threads number of threads used to write the index files of the source files to the filesystem
+     */
+    public HeuristicIndexWriter(DataSource dataSource, Set<Index> indexTypes, HetuFileSystemClient fs, Path root, int threads)
+    {
+        checkArgument(threads > 0, "threads must be greater than 0");
         this.dataSource = requireNonNull(dataSource);
         this.fs = requireNonNull(fs);
         this.root = root;
+        this.threads = threads;
         for (Index indexType : indexTypes) {
             indexTypesMap.put(indexType.getId().toLowerCase(Locale.ENGLISH), indexType);
         }
@@ -155,6 +181,30 @@ public class HeuristicIndexWriter
             }));
             lock.lock();
         }
+
+        // the manifests record the source files indexed by previous runs, per column
+        // only the files that are new or changed since are read again
+        Map<String, Map<String, String>> previousManifests = new HashMap<>();
+        for (String column : columns) {
+            String lcColumn = column.toLowerCase(Locale.ENGLISH);
+            previousManifests.put(lcColumn, readManifest(getManifestPath(table, lcColumn, indexType)));
+        }
+        boolean incremental = previousManifests.values().stream().anyMatch(manifest -> !manifest.isEmpty());
+
+        // all source files listed by the datasource, and the ones whose values were actually read
+        Map<String, String> listedFiles = new ConcurrentHashMap<>();
+        Set<String> readFiles = ConcurrentHashMap.newKeySet();
+        Set<String> failedFiles = ConcurrentHashMap.newKeySet();
+        DataSource.FileFilter fileFilter = (uri, size, lastModified) -> {
+            String entry = size + MANIFEST_ENTRY_SEPARATOR + lastModified;
+            listedFiles.put(uri, entry);
+            boolean changed = previousManifests.values().stream().anyMatch(manifest -> !entry.equals(manifest.get(uri)));
+            if (!changed) {
+                printVerboseMsg(String.format("Skipping unchanged file %s", uri));
+            }
+            return changed;
+        };
+
         AtomicDouble progress = new AtomicDouble();
         if (!IndexCommand.verbose) {
             System.out.print("\rProgress: [" + Strings.repeat(" ", PROGRESS_BAR_LENGTH) + "] 0%");
@@ -166,9 +216,10 @@ public class HeuristicIndexWriter
         // The callback will also provide the values read from the split, these values will then be added to the index.
         // The datasource will also return the lastModified date of the split that was read
         try {
-            dataSource.readSplits(databaseName, tableName, columns, partitions,
+            dataSource.readSplits(databaseName, tableName, columns, partitions, fileFilter, recordFailures(failedFiles,
                     (column, values, uri, splitStart, lastModified, currProgress) -> {
                         printVerboseMsg(String.format("split read: column=%s; uri=%s; splitOffset=%s", column, uri, splitStart));
+                        readFiles.add(uri);
 
                         if (values == null || values.length == 0) {
                             printVerboseMsg(String.format("values were null or empty, skipping column=%s; uri=%s; splitOffset=%s", column, uri, splitStart));
@@ -259,96 +310,80 @@ public class HeuristicIndexWriter
                         catch (IOException e) {
                             throw new UncheckedIOException("error writing index file: " + indexFilePath, e);
                         }
-                    });
+                    }));
 
-            if (partFiles.isEmpty()) {
+            if (partFiles.isEmpty() && !incremental) {
                 System.out.println();
                 String msg = "No index was created. Table may be empty.";
                 System.out.println(msg);
                 throw new IllegalStateException(msg);
             }
 
-            // move all part dirs
-            // originalDir will be something like: /tmp/indicies/catalog.schema.table/UT_test_column/UT_test
-            // partDir will be something like: /tmp/indicies/catalog.schema.table/UT_test_column/UT_test.part
-            // 1. if original does not exist, simply rename part dir
-            // i.e. /tmp/indicies/catalog.schema.table/UT_test_column/UT_test.part -> /tmp/indicies/catalog.schema.table/UT_test_column/UT_test
-            // 2. if original exists but has a different lastModifiedTime, delete original and replace it
-            // this is because if the original dir's lastModifiedTime is different, the indexes in the dir are no long valid
-            // 3. if original exists and has same lastModifiedTime, merge the two dirs
-            // i.e. move the files from /tmp/indicies/catalog.schema.table/UT_test_column/UT_test.part to
-            // /tmp/indicies/catalog.schema.table/UT_test_column/UT_test
-            for (String original : partFiles) {
-                Path originalDir = Paths.get(original);
-                Path partDir = Paths.get(original + PART_FILE_SUFFIX);
-
-                if (!LOCAL_FS_CLIENT.exists(partDir)) {
-                    continue;
+            // move all part dirs, the part dirs of different source files are independent and are moved in parallel
+            ExecutorService executor = Executors.newFixedThreadPool(threads);
+            try {
+                List<Future<?>> moves = new ArrayList<>(partFiles.size());
+                for (String original : partFiles) {
+                    moves.add(executor.submit(() -> {
+                        movePartDir(original, tmpPath, partFiles.size(), progress);
+                        return null;
+                    }));
                 }
-
-                // Download index from indexstore
-                Path originalOnTarget = Paths.get(original.replaceFirst(strTmpPath, ""));
-                if (fs.exists(originalOnTarget)) {
-                    try {
-                        try (Stream<Path> tarsOnRemote = fs.walk(originalOnTarget).filter(p -> p.toString().contains(".tar"))) {
-                            for (Path tarFile : (Iterable<Path>) tarsOnRemote::iterator) {
-                                printVerboseMsg("Fetching index from target filesystem to local temp: " + tarFile);
-                                IndexServiceUtils.unArchive(fs, LOCAL_FS_CLIENT, tarFile, tmpPath);
-                                LOCAL_FS_CLIENT.createDirectories(Paths.get(strTmpPath, tarFile.getParent().toString()));
-                                Files.createFile(Paths.get(strTmpPath, tarFile.toString().replaceAll("\\.tar", "")));
-                            }
-                        }
-                    }
-                    catch (IOException e) {
-                        throw new UncheckedIOException("error unarchiving file from remote", e);
-                    }
+                for (Future<?> move : moves) {
+                    move.get();
+                }
+            }
+            catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted while writing index files", e);
+            }
+            catch (ExecutionException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof IOException) {
+                    throw (IOException) cause;
+                }
+                if (cause instanceof RuntimeException) {
+                    throw (RuntimeException) cause;
                 }
+                throw new IOException(cause);
+            }
+            finally {
+                executor.shutdownNow();
+            }
 
-                // 1. no original
-                if (!LOCAL_FS_CLIENT.exists(originalDir)) {
-                    LOCAL_FS_CLIENT.move(partDir, originalDir);
+            // the removed source files are only known if the datasource listed all the files of the table
+            boolean allFilesListed = (partitions == null || partitions.length == 0) && !listedFiles.isEmpty();
+            for (String lcColumn : previousManifests.keySet()) {
+                Map<String, String> manifest = new HashMap<>(previousManifests.get(lcColumn));
+                if (listedFiles.isEmpty() && manifest.isEmpty()) {
+                    // the datasource does not list its files, there is nothing to record
+                    continue;
                 }
-                else {
-                    long previousLastModifiedTime = getLastModifiedTime(originalDir);
-                    long newLastModifiedTime = getLastModifiedTime(partDir);
-
-                    // 2. expired original
-                    if (previousLastModifiedTime != newLastModifiedTime) {
-                        if (LOCAL_FS_CLIENT.exists(originalDir)) {
-                            printVerboseMsg(String.format("Removing expired index at %s.", originalDir));
-                            LOCAL_FS_CLIENT.deleteRecursively(originalDir);
+                if (allFilesListed) {
+                    for (String removed : new HashSet<>(Sets.difference(manifest.keySet(), listedFiles.keySet()))) {
+                        Path removedIndexDir = Paths.get(root.toString(), table, lcColumn, indexType, URI.create(removed).getPath());
+                        printVerboseMsg(String.format("Removing index of removed file %s at %s.", removed, removedIndexDir));
+                        if (fs.exists(removedIndexDir)) {
+                            fs.deleteRecursively(removedIndexDir);
                         }
-                        LOCAL_FS_CLIENT.move(partDir, originalDir);
+                        manifest.remove(removed);
                     }
-                    else {
-                        // 3. merge
-                        try (Stream<Path> children = LOCAL_FS_CLIENT.list(partDir)) {
-                            for (Path child : (Iterable<Path>) children::iterator) {
-                                String childName = child.getFileName().toString();
-                                Path newPath = originalDir.resolve(childName);
-                                printVerboseMsg(String.format("Moving %s to %s.", child, newPath));
-                                // file "lastModified=..." with same name may exist
-                                LOCAL_FS_CLIENT.deleteIfExists(newPath);
-                                LOCAL_FS_CLIENT.move(child, newPath);
-                            }
-
-                            // should be empty now
-                            LOCAL_FS_CLIENT.deleteRecursively(partDir);
-                        }
+                }
+                for (Map.Entry<String, String> listed : listedFiles.entrySet()) {
+                    if (readFiles.contains(listed.getKey()) && !failedFiles.contains(listed.getKey())) {
+                        manifest.put(listed.getKey(), listed.getValue());
+                    }
+                    else if (!listed.getValue().equals(manifest.get(listed.getKey()))) {
+                        // the file changed but could not be read, so it is read again next time
+                        manifest.remove(listed.getKey());
                     }
                 }
+                writeManifest(getManifestPath(table, lcColumn, indexType), manifest);
+            }
 
-                printVerboseMsg(String.format("Created index at %s.", originalDir));
-
-                fs.deleteRecursively(originalOnTarget);
-                IndexServiceUtils.archiveTar(LOCAL_FS_CLIENT, fs, originalDir, originalOnTarget);
-                if (!IndexCommand.verbose) {
-                    int bars = (int) Math.ceil(progress.addAndGet(0.25 * PROGRESS_BAR_LENGTH / partFiles.size()));
-                    bars = Math.min(bars, PROGRESS_BAR_LENGTH);
-                    System.out.printf("\rProgress: [" + Strings.repeat("|", bars) + Strings.repeat(" ", PROGRESS_BAR_LENGTH - bars) + "] %d%%",
-                            bars * 100 / PROGRESS_BAR_LENGTH);
-                    System.out.flush();
-                }
+            if (partFiles.isEmpty()) {
+                System.out.println();
+                System.out.println("No new or changed files found, the index is up to date.");
             }
 
             for (String indexedColumn : indexedColumns) {
@@ -367,6 +402,158 @@ public class HeuristicIndexWriter
         }
     }
 
+    /**
+     * Wraps the callback to record the source files whose values could not be indexed
+     */
+    private static DataSource.Callback recordFailures(Set<String> failedFiles, DataSource.Callback callback)
+    {
+        return (column, values, uri, splitStart, lastModified, progress) -> {
+            try {
+                callback.call(column, values, uri, splitStart, lastModified, progress);
+            }
+            catch (RuntimeException e) {
+                failedFiles.add(uri);
+                throw e;
+            }
+        };
+    }
+
+    /**
+     * <pre>
+     * Moves the part dir of a source file to its original dir and writes the original dir to the filesystem.
+     *
+     * originalDir will be something like: /tmp/indicies/catalog.schema.table/UT_test_column/UT_test
+     * partDir will be something like: /tmp/indicies/catalog.schema.table/UT_test_column/UT_test.part
+     * 1. if original does not exist, simply rename part dir
+     * i.e. /tmp/indicies/catalog.schema.table/UT_test_column/UT_test.part -> /tmp/indicies/catalog.schema.table/UT_test_column/UT_test
+     * 2. if original exists but has a different lastModifiedTime, delete original and replace it
+     * this is because if the original dir's lastModifiedTime is different, the indexes in the dir are no long valid
+     * 3. if original exists and has same lastModifiedTime, merge the two dirs
+     * i.e. move the files from /tmp/indicies/catalog.schema.table/UT_test_column/UT_test.part to
+     * /tmp/indicies/catalog.schema.table/UT_test_column/UT_test
+     * </pre>
+     */
+    private void movePartDir(String original, Path tmpPath, int partFilesCount, AtomicDouble progress)
+            throws IOException
+    {
+        String strTmpPath = tmpPath.toString();
+        Path originalDir = Paths.get(original);
+        Path partDir = Paths.get(original + PART_FILE_SUFFIX);
+
+        if (!LOCAL_FS_CLIENT.exists(partDir)) {
+            return;
+        }
+
+        // Download index from indexstore
+        Path originalOnTarget = Paths.get(original.replaceFirst(strTmpPath, ""));
+        if (fs.exists(originalOnTarget)) {
+            try {
+                try (Stream<Path> tarsOnRemote = fs.walk(originalOnTarget).filter(p -> p.toString().contains(".tar"))) {
+                    for (Path tarFile : (Iterable<Path>) tarsOnRemote::iterator) {
+                        printVerboseMsg("Fetching index from target filesystem to local temp: " + tarFile);
+                        IndexServiceUtils.unArchive(fs, LOCAL_FS_CLIENT, tarFile, tmpPath);
+                        LOCAL_FS_CLIENT.createDirectories(Paths.get(strTmpPath, tarFile.getParent().toString()));
+                        Files.createFile(Paths.get(strTmpPath, tarFile.toString().replaceAll("\\.tar", "")));
+                    }
+                }
+            }
+            catch (IOException e) {
+                throw new UncheckedIOException("error unarchiving file from remote", e);
+            }
+        }
+
+        // 1. no original
+        if (!LOCAL_FS_CLIENT.exists(originalDir)) {
+            LOCAL_FS_CLIENT.move(partDir, originalDir);
+        }
+        else {
+            long previousLastModifiedTime = getLastModifiedTime(originalDir);
+            long newLastModifiedTime = getLastModifiedTime(partDir);
+
+            // 2. expired original
+            if (previousLastModifiedTime != newLastModifiedTime) {
+                if (LOCAL_FS_CLIENT.exists(originalDir)) {
+                    printVerboseMsg(String.format("Removing expired index at %s.", originalDir));
+                    LOCAL_FS_CLIENT.deleteRecursively(originalDir);
+                }
+                LOCAL_FS_CLIENT.move(partDir, originalDir);
+            }
+            else {
+                // 3. merge
+                try (Stream<Path> children = LOCAL_FS_CLIENT.list(partDir)) {
+                    for (Path child : (Iterable<Path>) children::iterator) {
+                        String childName = child.getFileName().toString();
+                        Path newPath = originalDir.resolve(childName);
+                        printVerboseMsg(String.format("Moving %s to %s.", child, newPath));
+                        // file "lastModified=..." with same name may exist
+                        LOCAL_FS_CLIENT.deleteIfExists(newPath);
+                        LOCAL_FS_CLIENT.move(child, newPath);
+                    }
+
+                    // should be empty now
+                    LOCAL_FS_CLIENT.deleteRecursively(partDir);
+                }
+            }
+        }
+
+        printVerboseMsg(String.format("Created index at %s.", originalDir));
+
+        fs.deleteRecursively(originalOnTarget);
+        IndexServiceUtils.archiveTar(LOCAL_FS_CLIENT, fs, originalDir, originalOnTarget);
+        if (!IndexCommand.verbose) {
+            synchronized (progress) {
+                int bars = (int) Math.ceil(progress.addAndGet(0.25 * PROGRESS_BAR_LENGTH / partFilesCount));
+                bars = Math.min(bars, PROGRESS_BAR_LENGTH);
+                System.out.printf("\rProgress: [" + Strings.repeat("|", bars) + Strings.repeat(" ", PROGRESS_BAR_LENGTH - bars) + "] %d%%",
+                        bars * 100 / PROGRESS_BAR_LENGTH);
+                System.out.flush();
+            }
+        }
+    }
+
+    private Path getManifestPath(String table, String column, String indexType)
+    {
+        return Paths.get(root.toString(), table, column, indexType, IndexConstants.MANIFEST_FILE_NAME);
+    }
+
+    /**
+     * Reads the manifest of the source files indexed by previous runs
+     *
+     * @return mapping from source file uri to its size and lastModified time, empty if the index was never created
+     */
+    private Map<String, String> readManifest(Path manifestPath)
+            throws IOException
+    {
+        Map<String, String> manifest = new HashMap<>();
+        if (!fs.exists(manifestPath)) {
+            return manifest;
+        }
+
+        Properties properties = new Properties();
+        try (InputStream inputStream = fs.newInputStream(manifestPath)) {
+            properties.load(inputStream);
+        }
+        for (String uri : properties.stringPropertyNames()) {
+            manifest.put(uri, properties.getProperty(uri));
+        }
+        return manifest;
+    }
+
+    private void writeManifest(Path manifestPath, Map<String, String> manifest)
+            throws IOException
+    {
+        Properties properties = new Properties();
+        properties.putAll(manifest);
+
+        Path parent = manifestPath.getParent();
+        if (parent != null && !fs.exists(parent)) {
+            fs.createDirectories(parent);
+        }
+        try (OutputStream outputStream = fs.newOutputStream(manifestPath)) {
+            properties.store(outputStream, "source file uri=size,lastModified");
+        }
+    }
+
     private void cleanPartFiles(Collection<String> partFiles)
     {
         if (!isCleanedUp) {
@@ -169,11 +169,8 @@ public class IndexCommand
             }
             else {
                 if (sameIndexRecord != null) {
-                    if (!parallelCreation) {
-                        System.out.printf("Same entry already exists. To update, please delete old index first. " +
-                                "If this is parallel creation, add WITH (parallelCreation=true).%n%n");
-                        return;
-                    }
+                    // the index is updated, only the files added or changed since it was created are indexed
+                    System.out.printf("Index [%s] already exists, indexing new and changed files.%n", indexName);
                 }
                 else {
                     System.out.printf("Index with name [%s] already exists with different content: [%s]%n%n", indexName, sameNameRecord);
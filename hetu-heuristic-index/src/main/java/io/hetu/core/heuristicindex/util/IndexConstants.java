@@ -30,6 +30,19 @@ public class IndexConstants
      */
     public static final String LAST_MODIFIED_FILE_PREFIX = "lastModified=";
 
+    /**
+     * The manifest file name.
+     * manifest file is created under the directory of each indexed column and index type. It records the size and
+     * lastModified time of every source file that was indexed, so that recreating the index only reads
+     * the files that were added or changed since.
+     */
+    public static final String MANIFEST_FILE_NAME = "manifest";
+
+    /**
+     * Index property for the number of threads used to read the source files and write the index files
+     */
+    public static final String INDEX_THREADS_KEY = "threads";
+
     public static final String COLUMN_DELIMITER = ",";
 
     public static final String CONFIG_FILE = "config.properties";
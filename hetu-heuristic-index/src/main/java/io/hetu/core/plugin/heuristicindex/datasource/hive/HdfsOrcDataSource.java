@@ -66,10 +66,8 @@ import java.util.Properties;
 import java.util.Set;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
-import java.util.concurrent.LinkedBlockingQueue;
-import java.util.concurrent.ThreadPoolExecutor;
-import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Function;
 import java.util.stream.Collectors;
@@ -341,8 +339,16 @@ public class HdfsOrcDataSource
     @Override
     public void readSplits(String database, String table, String[] columns, String[] partitions, Callback callback)
             throws IOException
+    {
+        readSplits(database, table, columns, partitions, (uri, size, lastModified) -> true, callback);
+    }
+
+    @Override
+    public void readSplits(String database, String table, String[] columns, String[] partitions, FileFilter filter, Callback callback)
+            throws IOException
     {
         requireNonNull(columns, "no columns specified");
+        requireNonNull(filter, "no file filter specified");
 
         // get table metadata
         TableMetadata tableMetadata = HadoopUtil.getTableMetadata(database, table, getProperties());
@@ -372,13 +378,17 @@ public class HdfsOrcDataSource
         Path tablePath = new Path(tableLocation);
         boolean isTransactional = AcidUtils.isTransactionalTable(tableMetadata.getTable().getParameters());
         boolean isFullAcid = AcidUtils.isFullAcidTable(tableMetadata.getTable().getParameters());
-        List<FileStatus> files = HadoopUtil.getFiles(getFs(), tablePath, partitions, isTransactional);
+        // only read the files accepted by the filter, e.g. the files changed since the index was last created
+        List<FileStatus> files = HadoopUtil.getFiles(getFs(), tablePath, partitions, isTransactional).stream()
+                .filter(file -> filter.accept(file.getPath().toString(), file.getLen(), file.getModificationTime()))
+                .collect(Collectors.toList());
         AtomicLong processedFiles = new AtomicLong();
 
         // schedule reading of each file
-        ExecutorService executorServices = new ThreadPoolExecutor(getConcurrency(), getConcurrency(), 0L, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>(10240));
+        // the queue is unbounded so that tables with any number of files can be scheduled at once
+        ExecutorService executorServices = Executors.newFixedThreadPool(getConcurrency());
         try {
-            List<Future> jobs = files.parallelStream().map(file -> executorServices.submit(() -> {
+            List<Future> jobs = files.stream().map(file -> executorServices.submit(() -> {
                         String path = file.getPath().toString();
                         long lastModified = file.getModificationTime();
                         double progress = (processedFiles.incrementAndGet() / ((double) files.size()));
@@ -78,6 +78,22 @@ public class HiveDataSource
         delegate.readSplits(database, table, columns, partitions, callback);
     }
 
+    @Override
+    public void readSplits(
+            String database,
+            String table,
+            String[] columns,
+            String[] partitions,
+            FileFilter filter,
+            Callback callback) throws IOException
+    {
+        if (delegate == null) {
+            delegate = getDelegate(database, table);
+        }
+
+        delegate.readSplits(database, table, columns, partitions, filter, callback);
+    }
+
     private DataSource getDelegate(String databaseName, String tableName)
     {
         TableMetadata tableMetadata = HadoopUtil.getTableMetadata(databaseName, tableName, getProperties());
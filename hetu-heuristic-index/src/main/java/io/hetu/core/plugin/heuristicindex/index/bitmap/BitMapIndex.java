@@ -15,8 +15,7 @@
 
 package io.hetu.core.plugin.heuristicindex.index.bitmap;
 
-import com.fasterxml.jackson.databind.InjectableValues;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.io.ByteStreams;
 import io.airlift.slice.Slice;
 import io.prestosql.spi.heuristicindex.Index;
 import io.prestosql.spi.heuristicindex.Operator;
@@ -24,276 +23,79 @@ import io.prestosql.spi.predicate.Domain;
 import io.prestosql.spi.predicate.Marker;
 import io.prestosql.spi.predicate.Range;
 import io.prestosql.spi.predicate.SortedRangeSet;
-import org.apache.commons.io.FileUtils;
-import org.apache.commons.io.IOUtils;
-import org.apache.druid.collections.bitmap.ImmutableBitmap;
-import org.apache.druid.data.input.MapBasedInputRow;
-import org.apache.druid.data.input.impl.DimensionsSpec;
-import org.apache.druid.data.input.impl.StringDimensionSchema;
-import org.apache.druid.data.input.impl.TimestampSpec;
-import org.apache.druid.jackson.DefaultObjectMapper;
-import org.apache.druid.java.util.common.granularity.Granularities;
-import org.apache.druid.math.expr.ExprMacroTable;
-import org.apache.druid.query.BitmapResultFactory;
-import org.apache.druid.query.DefaultBitmapResultFactory;
-import org.apache.druid.query.filter.BoundDimFilter;
-import org.apache.druid.query.filter.DimFilter;
-import org.apache.druid.query.filter.Filter;
-import org.apache.druid.query.filter.InDimFilter;
-import org.apache.druid.query.filter.NotDimFilter;
-import org.apache.druid.query.filter.OrDimFilter;
-import org.apache.druid.query.filter.SelectorDimFilter;
-import org.apache.druid.query.ordering.StringComparator;
-import org.apache.druid.query.ordering.StringComparators;
-import org.apache.druid.segment.ColumnSelectorBitmapIndexSelector;
-import org.apache.druid.segment.IndexIO;
-import org.apache.druid.segment.IndexMergerV9;
-import org.apache.druid.segment.IndexSpec;
-import org.apache.druid.segment.QueryableIndex;
-import org.apache.druid.segment.VirtualColumns;
-import org.apache.druid.segment.filter.AndFilter;
-import org.apache.druid.segment.filter.TrueFilter;
-import org.apache.druid.segment.incremental.IncrementalIndex;
-import org.apache.druid.segment.incremental.IncrementalIndexSchema;
-import org.apache.druid.segment.writeout.OffHeapMemorySegmentWriteOutMediumFactory;
+import io.prestosql.spi.predicate.ValueSet;
+import io.prestosql.spi.type.Type;
 import org.roaringbitmap.IntIterator;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
-
-import java.io.BufferedReader;
-import java.io.BufferedWriter;
-import java.io.File;
-import java.io.FileInputStream;
-import java.io.FileOutputStream;
+import org.roaringbitmap.RoaringBitmap;
+import org.roaringbitmap.buffer.ImmutableRoaringBitmap;
+import org.roaringbitmap.buffer.MutableRoaringBitmap;
+
+import java.io.DataOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.InputStreamReader;
 import java.io.OutputStream;
-import java.io.OutputStreamWriter;
-import java.nio.charset.Charset;
-import java.nio.charset.StandardCharsets;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.Iterator;
-import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.UUID;
-import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.IntPredicate;
 
-import static java.util.stream.Collectors.toList;
-import static java.util.stream.Collectors.toMap;
+import static io.prestosql.spi.type.RealType.REAL;
+import static java.lang.Float.intBitsToFloat;
+import static java.lang.Math.toIntExact;
+import static java.nio.charset.StandardCharsets.UTF_8;
 
 /**
- * This BitMapIndexV2 will create and apply the filter for only one column data
- * Therefore, one druid segment class should be enough to hold the data.
+ * Bitmap index for the values of one column.
+ * <p>
+ * The index is a sorted dictionary of the distinct column values, each mapped to a compressed
+ * Roaring bitmap of the row positions holding the value. The rows holding null are kept in a separate bitmap.
+ * The dictionary is sorted numerically if all values are numbers, lexicographically otherwise.
+ * REAL values are added as the int bits of the float, they are decoded before being compared.
  * <p>
- * The soomsh file can support upto 2GB,
- * however, for Druid to operate well under heavy query load, it is important
- * for the segment file size to be within the recommended range of 300mb-700mb.
- * (https://druid.apache.org/docs/latest/design/segments.html)
- * If your segment files are larger than this range, then consider either
- * changing the granularity of the time interval or partitioning your data
- * and tweaking the targetPartitionSize in your partitionsSpec (a good
- * starting point for this parameter is 5 million rows).
+ * The persisted layout is:
+ * <pre>
+ * int     magic, which includes the version of the layout
+ * int     number of rows
+ * byte    1 if the dictionary is numeric, 0 otherwise
+ * int     number of dictionary values
+ * (int, byte[]) per dictionary value, the length and UTF-8 bytes of the value
+ * int[]   offset of the bitmap of each dictionary value, then of the null bitmap, relative to the first bitmap
+ * bitmaps in the portable Roaring format
+ * </pre>
+ * The bitmaps are not deserialized when the index is loaded, they are read in place from the
+ * loaded buffer when a predicate needs them.
  */
 public class BitMapIndex<T>
         implements Index<T>
 {
     static final int DEFAULT_EXPECTED_NUM_OF_SIZE = 200000;
-    private static final Logger LOG = LoggerFactory.getLogger(BitMapIndex.class);
-    private static final String COLUMN_NAME = "column";
     private static final String ID = "BITMAP";
-    private static final Charset CHARSET = StandardCharsets.ISO_8859_1;
-    private static final char HEADER_TERMINATOR = '#';
-    private static final String HEADER_FILE_INFO_SEPARATOR = ",";
-    private static final String HEADER_FILE_INFO_PROPERTY_SEPARATOR = ":";
-    private static final String SETTINGS = " {\n" +
-            " \t\"bitmap\": {\n" +
-            " \t\t\"type\": \"roaring\"\n" +
-            " \t},\n" +
-            " \t\"dimensionCompression\": \"lz4\",\n" +
-            " \t\"metricCompression\": \"lz4\",\n" +
-            " \t\"longEncoding\": \"auto\"\n" +
-            " }";
-
-    // when the index is initialized an IncrementalIndex is created
-    // and values can be added to it
-    // this IncrementalIndex can then be persisted to disk.
-    // until the index is persisted to disk, it only provides write operation
-    // it cannot be queried!
-    // i.e. only values can be added to it, to query the index, it must
-    // be written to disk then read so a QueryableIndex can be obtained
-    //
-    // when the persisted index is loaded from disk a QueryableIndex
-    // is returned, this only provides the ability to read and query the index
-    // i.e.an existing index can't be modified
-    // if new values need to be added, a new index must be created
-    // via IncrementalIndex and all values must be added again
-    // therefore the flow should be:
-    // 1. initialize IncrementalIndex
-    // 2. add values
-    // 3. write IncrementalIndex to disk
-    // 4. load index from disk and get QueryableIndex
-    // 5. query the QueryableIndex
-    private IncrementalIndex incrementalIndex;
-    private QueryableIndex queryableIndex;
-
-    private AtomicLong rows = new AtomicLong();
-    private int expectedNumOfEntries = DEFAULT_EXPECTED_NUM_OF_SIZE;
-    private long memorySize;
-
-    public BitMapIndex()
-    {
-    }
-
-    /**
-     * Loads index that was previously persisted to this dir.
-     * The return QueryableIndex can then be queried.
-     *
-     * @param indexDir
-     * @return
-     * @throws IOException
-     */
-    private static QueryableIndex load(File indexDir) throws IOException
-    {
-        ObjectMapper jsonMapper = new DefaultObjectMapper();
-        InjectableValues.Std injectableValues = new InjectableValues.Std();
-        injectableValues.addValue(ExprMacroTable.class, ExprMacroTable.nil());
-        jsonMapper.setInjectableValues(injectableValues);
-
-        IndexIO indexIo = new IndexIO(jsonMapper, () -> 0);
-
-        QueryableIndex queryIndex = indexIo.loadIndex(indexDir);
-
-        return queryIndex;
-    }
-
-    /**
-     * Persist the given IncrementalIndex to disk, it can then be loaded
-     * to get a QueryableIndex
-     *
-     * @param incrementalIndex
-     * @param outputDir
-     * @throws IOException
-     */
-    private static void persist(IncrementalIndex incrementalIndex, File outputDir) throws IOException
-    {
-        ObjectMapper jsonMapper = new DefaultObjectMapper();
-        InjectableValues.Std injectableValues = new InjectableValues.Std();
-        injectableValues.addValue(ExprMacroTable.class, ExprMacroTable.nil());
-        jsonMapper.setInjectableValues(injectableValues);
-
-        IndexIO indexIo = new IndexIO(jsonMapper, () -> 0);
-        IndexMergerV9 indexMergerV9 = new IndexMergerV9(jsonMapper, indexIo, OffHeapMemorySegmentWriteOutMediumFactory.instance());
-        ObjectMapper objectMapper = new ObjectMapper();
-        IndexSpec indexSpec = objectMapper.readValue(SETTINGS, IndexSpec.class);
-
-        indexMergerV9.persist(incrementalIndex,
-                outputDir,
-                indexSpec,
-                null);
-    }
+    private static final int MAGIC = 0x424d4931;
 
-    /**
-     * Given a Domain, extract the DimFilters
-     * <p>
-     * Supported operators: IN, Between, >=, >, <=, <, !=, Not IN
-     *
-     * @param predicate
-     * @return
-     */
-    private static List<DimFilter> predicateToFilter(Domain predicate)
-    {
-        List<String> in = new ArrayList<>();
-        List<DimFilter> orFilters = new ArrayList<>();
-        List<DimFilter> filterList = new ArrayList<>();
-        DimFilter newFilter;
-        String lower;
-        String upper;
-        Boolean lowerStrict;
-        Boolean upperStrict;
-        List<Range> ranges = ((SortedRangeSet) (predicate.getValues())).getOrderedRanges();
-        Class<?> javaType = predicate.getValues().getType().getJavaType();
-
-        StringComparator comparator = (javaType == long.class || javaType == double.class) ?
-                new StringComparators.AlphanumericComparator() :
-                new StringComparators.LexicographicComparator();
-
-        for (Range range : ranges) {
-            // unique value(for example: id=1, id in (1,2)), bound: EXACTLY
-            if (range.isSingleValue()) {
-                String dimensionValue;
-                dimensionValue = String.valueOf(rangeValueToString(range.getSingleValue(), javaType));
-                in.add(dimensionValue);
-            }
-            // with upper/lower value, bound: ABOVE/BELOW
-            else {
-                lower = (range.getLow().getValueBlock().isPresent()) ?
-                        String.valueOf(rangeValueToString(range.getLow().getValue(), javaType)) : null;
-                upper = (range.getHigh().getValueBlock().isPresent()) ?
-                        String.valueOf(rangeValueToString(range.getHigh().getValue(), javaType)) : null;
-                lowerStrict = (lower != null) ? range.getLow().getBound() == Marker.Bound.ABOVE : null;
-                upperStrict = (upper != null) ? range.getHigh().getBound() == Marker.Bound.BELOW : null;
-
-                // dimension is not null(druid is not support int is not null, return all)
-                newFilter = (lower == null && upper == null) ?
-                        new NotDimFilter(new SelectorDimFilter(COLUMN_NAME, null, null)) :
-                        new BoundDimFilter(COLUMN_NAME, lower, upper, lowerStrict, upperStrict, null, null, comparator);
-
-                filterList.add(newFilter);
-                // NOT IN (3,4), there are three boundDimFilters ("id < 3", "3 < id < 4", "id > 4")
-                // != 3, three are two boundDimFilters ("id < 3", "id > 3")
-                if (newFilter instanceof BoundDimFilter) {
-                    orFilters.add(newFilter);
-                }
-            }
-        }
+    // values added to the index, only used until the index is persisted
+    private final Map<String, RoaringBitmap> valueRows = new HashMap<>();
+    private final RoaringBitmap nullRows = new RoaringBitmap();
+    private int rows;
 
-        // operate is IN / =
-        if (in.size() != 0) {
-            newFilter = new InDimFilter(COLUMN_NAME, in, null);
-            filterList.add(newFilter);
-        }
-
-        // NOT IN (3,4) become "id < 3" or "3 < id < 4" or "id > 4"
-        // != 3 become "id < 3" or "id > 3"
-        if (orFilters.size() > 1) {
-            filterList.removeAll(orFilters);
-            filterList.add(new OrDimFilter(orFilters));
-        }
-
-        // operate IS NULL (druid is not support int is null)
-        if (ranges.isEmpty() && javaType == Slice.class) {
-            newFilter = new SelectorDimFilter(COLUMN_NAME, null, null);
-            filterList.add(newFilter);
-        }
+    // state of the loaded index, only available after load()
+    private ByteBuffer buffer;
+    private String[] dictionary;
+    private Number[] numbers;
+    private boolean numeric;
+    private int[] bitmapOffsets;
+    private int bitmapsStart;
 
-        return filterList;
-    }
-
-    /**
-     * <pre>
-     *  get range value, if it is slice, we should change it to string
-     * </pre>
-     *
-     * @param object   value
-     * @param javaType value java type
-     * @return string
-     */
-    private static String rangeValueToString(Object object, Class<?> javaType)
-    {
-        return javaType == Slice.class ? ((Slice) object).toStringUtf8() : object.toString();
-    }
+    private int expectedNumOfEntries = DEFAULT_EXPECTED_NUM_OF_SIZE;
+    private long memorySize;
 
-    @Override
-    public <I> Iterator<I> getMatches(Object filter)
+    public BitMapIndex()
     {
-        Map<Index, Object> self = new HashMap<>();
-        self.put(this, filter);
-
-        return getMatches(self);
     }
 
     @Override
@@ -303,24 +105,26 @@ public class BitMapIndex<T>
     }
 
     /**
-     * input as one column values
+     * input as one column values, the position of a value is its row number in the index
      *
      * @param values values to add
      */
     @Override
     public void addValues(T[] values)
     {
+        if (rows + values.length > expectedNumOfEntries) {
+            throw new IllegalStateException(String.format("Unable to add %d values, the index is limited to %d values and already has %d",
+                    values.length, expectedNumOfEntries, rows));
+        }
+
         for (T value : values) {
-            Map<String, Object> events = new LinkedHashMap<>();
-            events.put(COLUMN_NAME, value);
-            MapBasedInputRow mapBasedInputRow = new MapBasedInputRow(rows.get(), Collections.singletonList(COLUMN_NAME), events);
-            try {
-                getOrInitIncrementalIndex().add(mapBasedInputRow);
+            if (value == null) {
+                nullRows.add(rows);
             }
-            catch (IOException e) {
-                throw new RuntimeException(e);
+            else {
+                valueRows.computeIfAbsent(toDictionaryValue(value), key -> new RoaringBitmap()).add(rows);
             }
-            rows.incrementAndGet();
+            rows++;
         }
     }
 
@@ -364,42 +168,98 @@ public class BitMapIndex<T>
     }
 
     @Override
-    public void persist(OutputStream out) throws IOException
+    public void persist(OutputStream out)
+            throws IOException
     {
-        File tmpDir = new File(FileUtils.getTempDirectory(), "bitmapsIndexTmp_" + UUID.randomUUID());
-        try {
-            File indexOutDir = new File(tmpDir, "indexOutDir");
-            if (!indexOutDir.exists()) {
-                indexOutDir.mkdirs();
-            }
-            // write index files to directory
-            persist(getOrInitIncrementalIndex(), indexOutDir);
+        List<String> values = new ArrayList<>(valueRows.keySet());
+        boolean numericValues = values.stream().allMatch(value -> parseNumber(value) != null);
+        Comparator<String> order = numericValues ? Comparator.comparing(BitMapIndex::parseNumber, BitMapIndex::compareNumbers) : Comparator.naturalOrder();
+        values.sort(order);
+
+        List<RoaringBitmap> bitmaps = new ArrayList<>(values.size() + 1);
+        for (String value : values) {
+            bitmaps.add(valueRows.get(value));
+        }
+        bitmaps.add(nullRows);
+
+        DataOutputStream output = new DataOutputStream(out);
+        output.writeInt(MAGIC);
+        output.writeInt(rows);
+        output.writeBoolean(numericValues);
+        output.writeInt(values.size());
+        for (String value : values) {
+            byte[] bytes = value.getBytes(UTF_8);
+            output.writeInt(bytes.length);
+            output.write(bytes);
+        }
 
-            // convert the files in the directory into a single stream
-            combineDirIntoStream(out, indexOutDir);
+        int offset = 0;
+        for (RoaringBitmap bitmap : bitmaps) {
+            bitmap.runOptimize();
+            output.writeInt(offset);
+            offset += bitmap.serializedSizeInBytes();
         }
-        finally {
-            FileUtils.deleteDirectory(tmpDir);
+        for (RoaringBitmap bitmap : bitmaps) {
+            bitmap.serialize(output);
         }
+        output.flush();
     }
 
     @Override
-    public void load(InputStream in) throws IOException
+    public void load(InputStream in)
+            throws IOException
     {
-        File tmpDir = new File(FileUtils.getTempDirectory(), "bitmapsIndexTmp_" + UUID.randomUUID());
+        // the whole index is read once, the bitmaps are then used in place
+        ByteBuffer input = ByteBuffer.wrap(ByteStreams.toByteArray(in));
+        if (input.remaining() < Integer.BYTES || input.getInt() != MAGIC) {
+            throw new IOException("Input is not a bitmap index of a supported version");
+        }
+
         try {
-            File indexExtractDir = new File(tmpDir, "indexExtractDir");
-            if (!indexExtractDir.exists()) {
-                indexExtractDir.mkdirs();
-            }
-            extractInputStreamToDir(in, indexExtractDir);
-            queryableIndex = load(indexExtractDir);
+            loadDictionary(input);
         }
-        finally {
-            FileUtils.deleteDirectory(tmpDir);
+        catch (BufferUnderflowException e) {
+            throw new IOException("Bitmap index is truncated", e);
         }
     }
 
+    private void loadDictionary(ByteBuffer input)
+            throws IOException
+    {
+        // number of rows, not needed to query the index
+        input.getInt();
+        boolean numericValues = input.get() != 0;
+        String[] values = new String[checkLength(input, input.getInt())];
+        Number[] parsedValues = new Number[values.length];
+        for (int i = 0; i < values.length; i++) {
+            byte[] bytes = new byte[checkLength(input, input.getInt())];
+            input.get(bytes);
+            values[i] = new String(bytes, UTF_8);
+            parsedValues[i] = parseNumber(values[i]);
+        }
+
+        int[] offsets = new int[values.length + 1];
+        for (int i = 0; i < offsets.length; i++) {
+            offsets[i] = input.getInt();
+        }
+
+        this.numeric = numericValues;
+        this.dictionary = values;
+        this.numbers = parsedValues;
+        this.bitmapOffsets = offsets;
+        this.bitmapsStart = input.position();
+        this.buffer = input;
+    }
+
+    private static int checkLength(ByteBuffer input, int length)
+            throws IOException
+    {
+        if (length < 0 || length > input.remaining()) {
+            throw new IOException("Bitmap index is corrupted");
+        }
+        return length;
+    }
+
     @Override
     public int getExpectedNumOfEntries()
     {
@@ -412,61 +272,53 @@ public class BitMapIndex<T>
         this.expectedNumOfEntries = expectedNumOfEntries;
     }
 
+    @Override
+    public <I> Iterator<I> getMatches(Object filter)
+    {
+        Map<Index, Object> self = new HashMap<>();
+        self.put(this, filter);
+
+        return getMatches(self);
+    }
+
+    /**
+     * Intersects the rows matching the predicate of each bitmap index in the map,
+     * the map should also include this index itself.
+     *
+     * @return an iterator of the matching row positions in ascending order,
+     * or null if none of the predicates could be applied
+     */
     @Override
     public <I> Iterator<I> getMatches(Map<Index, Object> indexToPredicate)
     {
-        // indexToPredicate contains a mapping from BitMapIndex to predicates
-        // it will do an intersection on the results of applying the predicate using the
-        // corresponding index
-        // the map should also include this current object itself
-        // technically this is more like a utility method that should be static in the interface
-        // however, each index implementation may have a more efficient way of
-        // intersecting results, that's why each Index implementation will implement this method
-        Map<BitMapIndex, Domain> bitMapIndexDomainMap = indexToPredicate.entrySet().stream()
-                .collect(toMap(e -> (BitMapIndex) e.getKey(), e -> (Domain) e.getValue()));
-
-        ImmutableBitmap lastBm = null;
-        for (Map.Entry<BitMapIndex, Domain> entry : bitMapIndexDomainMap.entrySet()) {
-            BitMapIndex bitMapIndex = entry.getKey();
-            Domain predicate = entry.getValue();
-            List<DimFilter> dimFilters = predicateToFilter(predicate);
-
-            List<Filter> filters = dimFilters.stream()
-                    .map(filter -> filter.toFilter()).collect(toList());
-
-            QueryableIndex queryableIndex = bitMapIndex.getQueryableIndex();
-
-            // if queryableIndex is null, it means the index has not been loaded from disk
-            // so it cannot be queried
-            if (queryableIndex == null) {
+        MutableRoaringBitmap result = null;
+        for (Map.Entry<Index, Object> entry : indexToPredicate.entrySet()) {
+            if (!(entry.getKey() instanceof BitMapIndex) || !(entry.getValue() instanceof Domain)) {
                 continue;
             }
 
-            ColumnSelectorBitmapIndexSelector bitmapIndexSelector = new ColumnSelectorBitmapIndexSelector(
-                    queryableIndex.getBitmapFactoryForDimensions(),
-                    VirtualColumns.nullToEmpty(null),
-                    queryableIndex);
-            BitmapResultFactory<?> bitmapResultFactory = new DefaultBitmapResultFactory(bitmapIndexSelector.getBitmapFactory());
-
-            if (filters.size() == 0) {
-                filters.add(new TrueFilter());
+            MutableRoaringBitmap matches = ((BitMapIndex<?>) entry.getKey()).getMatchingRows((Domain) entry.getValue());
+            if (matches == null) {
+                continue;
             }
 
-            ImmutableBitmap bm = AndFilter.getBitmapIndex(bitmapIndexSelector, bitmapResultFactory, filters);
-
-            if (lastBm == null) {
-                lastBm = bm;
+            if (result == null) {
+                result = matches;
             }
             else {
-                lastBm = lastBm.intersection(bm);
+                result.and(matches);
+            }
+
+            if (result.isEmpty()) {
+                return Collections.emptyIterator();
             }
         }
 
-        if (lastBm == null) {
-            return Collections.emptyIterator();
+        if (result == null) {
+            return null;
         }
 
-        IntIterator intIterator = lastBm.iterator();
+        IntIterator intIterator = result.getIntIterator();
 
         return (Iterator<I>) new Iterator<Integer>()
         {
@@ -485,116 +337,167 @@ public class BitMapIndex<T>
     }
 
     /**
-     * Reads the files from the provided dir and writes them to the output stream
-     * <p>
-     * A header is added at the start to provide file info
-     * <p>
-     * file1Name:file1Length,file2Name:file2Length#
-     * file1Content
-     * file2Content
-     *
-     * @param outputStream
-     * @param dir
-     * @throws IOException
+     * @return the rows matching the predicate, or null if the index has not been loaded
+     * or the predicate cannot be applied
      */
-    private void combineDirIntoStream(OutputStream outputStream, File dir) throws IOException
+    private MutableRoaringBitmap getMatchingRows(Domain predicate)
+    {
+        if (buffer == null) {
+            return null;
+        }
+
+        MutableRoaringBitmap result = new MutableRoaringBitmap();
+        ValueSet values = predicate.getValues();
+        if (values.isAll()) {
+            for (int i = 0; i < dictionary.length; i++) {
+                result.or(getBitmap(i));
+            }
+        }
+        else if (!values.isNone()) {
+            if (!(values instanceof SortedRangeSet)) {
+                return null;
+            }
+            Type type = values.getType();
+            for (Range range : ((SortedRangeSet) values).getOrderedRanges()) {
+                addMatchingRows(result, range, type);
+            }
+        }
+
+        if (predicate.isNullAllowed()) {
+            result.or(getBitmap(dictionary.length));
+        }
+        return result;
+    }
+
+    private void addMatchingRows(MutableRoaringBitmap result, Range range, Type type)
     {
-        File[] files = dir.listFiles();
-
-        // first create the header line
-        // this will contain the names and sizes for all the files being written to the stream
-        StringBuilder header = new StringBuilder();
-        for (int i = 0; files != null && i < files.length; i++) {
-            File file = files[i];
-            header.append(file.getName())
-                    .append(HEADER_FILE_INFO_PROPERTY_SEPARATOR)
-                    .append(file.length());
-
-            if (i + 1 < files.length) {
-                header.append(HEADER_FILE_INFO_SEPARATOR);
+        Marker low = range.getLow();
+        Marker high = range.getHigh();
+        Object lowValue = low.isLowerUnbounded() ? null : toPredicateValue(low.getValue(), type);
+        Object highValue = high.isUpperUnbounded() ? null : toPredicateValue(high.getValue(), type);
+
+        IntPredicate belowLow = i -> lowValue != null && (low.getBound() == Marker.Bound.ABOVE ? compare(i, lowValue) <= 0 : compare(i, lowValue) < 0);
+        IntPredicate aboveHigh = i -> highValue != null && (high.getBound() == Marker.Bound.BELOW ? compare(i, highValue) >= 0 : compare(i, highValue) > 0);
+
+        Class<?> javaType = type.getJavaType();
+        boolean numericPredicate = javaType == long.class || javaType == double.class;
+        // the int bits of REAL values are not sorted the way the floats compare
+        if (numericPredicate == numeric && !type.equals(REAL)) {
+            // the dictionary is sorted the same way the predicate values compare, the matching values are contiguous
+            int from = firstIndex(belowLow.negate());
+            int to = firstIndex(aboveHigh);
+            for (int i = from; i < to; i++) {
+                result.or(getBitmap(i));
             }
+            return;
         }
-        header.append(HEADER_TERMINATOR);
 
-        // write the header then all the file contents in order
-        try (BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(outputStream, CHARSET))) {
-            writer.write(header.toString());
+        for (int i = 0; i < dictionary.length; i++) {
+            if (numericPredicate && numbers[i] == null) {
+                continue;
+            }
+            if (!belowLow.test(i) && !aboveHigh.test(i)) {
+                result.or(getBitmap(i));
+            }
+        }
+    }
 
-            if (files != null) {
-                for (File f : files) {
-                    try (BufferedReader reader = new BufferedReader(new InputStreamReader(new FileInputStream(f), CHARSET))) {
-                        IOUtils.copy(reader, writer);
-                    }
-                }
+    /**
+     * @return the first dictionary position matching the predicate, which must not match
+     * any position before a matching one
+     */
+    private int firstIndex(IntPredicate predicate)
+    {
+        int low = 0;
+        int high = dictionary.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (predicate.test(mid)) {
+                high = mid;
+            }
+            else {
+                low = mid + 1;
             }
         }
+        return low;
+    }
+
+    private int compare(int position, Object value)
+    {
+        if (value instanceof Float) {
+            return Float.compare(toFloat(numbers[position]), (Float) value);
+        }
+        if (value instanceof Number) {
+            return compareNumbers(numbers[position], (Number) value);
+        }
+        return dictionary[position].compareTo((String) value);
+    }
+
+    private ImmutableRoaringBitmap getBitmap(int position)
+    {
+        ByteBuffer bitmap = buffer.duplicate();
+        bitmap.position(bitmapsStart + bitmapOffsets[position]);
+        return new ImmutableRoaringBitmap(bitmap.slice());
+    }
+
+    private static String toDictionaryValue(Object value)
+    {
+        return value instanceof Slice ? ((Slice) value).toStringUtf8() : value.toString();
     }
 
     /**
-     * Corresponding method to combineDirIntoStream()
-     * <p>
-     * Extracts the files from the stream and write them to the output dir
+     * <pre>
+     *  get range value, numbers are compared numerically, everything else as a string
+     * </pre>
      *
-     * @param inputStream
-     * @param outputDir
-     * @throws IOException
+     * @param object value
+     * @param type   value type
+     * @return Number or String, a Float for REAL values
      */
-    private void extractInputStreamToDir(InputStream inputStream, File outputDir)
-            throws IOException
+    private static Object toPredicateValue(Object object, Type type)
+    {
+        if (type.equals(REAL)) {
+            return intBitsToFloat(toIntExact((long) object));
+        }
+        Class<?> javaType = type.getJavaType();
+        if (javaType == long.class || javaType == double.class) {
+            return (Number) object;
+        }
+        return toDictionaryValue(object);
+    }
+
+    private static Number parseNumber(String value)
     {
-        BufferedReader reader = new BufferedReader(new InputStreamReader(inputStream, CHARSET));
-
-        // read the header
-        StringBuilder header = new StringBuilder();
-        int c = reader.read();
-        while (c != -1 && (char) c != HEADER_TERMINATOR) {
-            header.append((char) c);
-            c = reader.read();
-        }
-
-        // read each file from the stream and write it out
-        String[] fileInfos = header.toString().split(HEADER_FILE_INFO_SEPARATOR);
-        for (int i = 0; i < fileInfos.length; i++) {
-            String[] properties = fileInfos[i].split(HEADER_FILE_INFO_PROPERTY_SEPARATOR);
-            int len = Integer.parseInt(properties[1]);
-            File file = new File(outputDir, properties[0]);
-
-            try (BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file), CHARSET))) {
-                for (int j = 0; j < len; j++) {
-                    writer.write(reader.read());
-                }
+        try {
+            return Long.parseLong(value);
+        }
+        catch (NumberFormatException e) {
+            try {
+                return Double.parseDouble(value);
+            }
+            catch (NumberFormatException e1) {
+                return null;
             }
         }
     }
 
     /**
-     * Gets or initializes an IncrementalIndex to which values to should added
-     * Note: the IncrementalIndex can't be queried until it is first persisted
-     * to disk
-     *
-     * @return
+     * @return the float of a dictionary value added as the int bits of a REAL value
      */
-    private IncrementalIndex getOrInitIncrementalIndex()
+    private static float toFloat(Number number)
     {
-        if (incrementalIndex == null) {
-            incrementalIndex = new IncrementalIndex.Builder()
-                    .setIndexSchema(
-                            new IncrementalIndexSchema.Builder()
-                                    .withTimestampSpec(new TimestampSpec("timestamp", "iso", null))
-                                    .withQueryGranularity(Granularities.NONE)
-                                    .withDimensionsSpec(new DimensionsSpec(Collections.singletonList(new StringDimensionSchema(COLUMN_NAME))))
-                                    .withRollup(false)
-                                    .build())
-                    .setMaxRowCount(getExpectedNumOfEntries())
-                    .buildOnheap();
-        }
-
-        return incrementalIndex;
+        if (number instanceof Long) {
+            return intBitsToFloat(number.intValue());
+        }
+        return number.floatValue();
     }
 
-    QueryableIndex getQueryableIndex()
+    private static int compareNumbers(Number first, Number second)
     {
-        return this.queryableIndex;
+        if (first instanceof Long && second instanceof Long) {
+            return Long.compare(first.longValue(), second.longValue());
+        }
+        return Double.compare(first.doubleValue(), second.doubleValue());
     }
 
     @Override
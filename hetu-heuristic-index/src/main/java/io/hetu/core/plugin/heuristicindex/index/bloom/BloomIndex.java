@@ -21,16 +21,21 @@ import io.airlift.slice.Slice;
 import io.prestosql.spi.heuristicindex.Index;
 import io.prestosql.spi.heuristicindex.Operator;
 import io.prestosql.spi.predicate.Domain;
+import io.prestosql.spi.predicate.Range;
+import io.prestosql.spi.predicate.SortedRangeSet;
 
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.nio.charset.Charset;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 import java.util.Properties;
 
+import static java.util.stream.Collectors.toList;
 import static java.util.stream.Collectors.toMap;
 
 /**
@@ -117,12 +122,12 @@ public class BloomIndex<T>
             BloomIndex bloomIndex = entry.getKey();
             Domain predicate = entry.getValue();
 
-            if (predicate.isSingleValue()) {
+            // a single value or an IN list: the index matches if it might contain any of the values,
+            // other domains are unsupported and do not rule out the stripe by themselves
+            List<Object> values = getDiscreteValues(predicate);
+            if (values != null) {
                 Class<?> javaType = predicate.getValues().getType().getJavaType();
-                flag = flag && bloomIndex.mightContain(rangeValueToString(predicate.getSingleValue(), javaType));
-            }
-            else { // unsupported operator, not skip stripes
-                flag = true;
+                flag = flag && values.stream().anyMatch(value -> bloomIndex.mightContain(rangeValueToString(value, javaType)));
             }
         }
         final boolean hasNext = flag;
@@ -219,6 +224,28 @@ public class BloomIndex<T>
         return javaType == Slice.class ? ((Slice) object).toStringUtf8() : object.toString();
     }
 
+    /**
+     * <pre>
+     *  get the values of an IN list domain, or null if the domain is not made of single values only
+     * </pre>
+     * @param predicate domain
+     * @return list of values
+     */
+    private static List<Object> getDiscreteValues(Domain predicate)
+    {
+        if (predicate.isSingleValue()) {
+            return Collections.singletonList(predicate.getSingleValue());
+        }
+        if (predicate.isNullAllowed() || !(predicate.getValues() instanceof SortedRangeSet)) {
+            return null;
+        }
+        List<Range> ranges = predicate.getValues().getRanges().getOrderedRanges();
+        if (ranges.isEmpty() || !ranges.stream().allMatch(Range::isSingleValue)) {
+            return null;
+        }
+        return ranges.stream().map(Range::getSingleValue).collect(toList());
+    }
+
     @Override
     public long getMemorySize()
     {
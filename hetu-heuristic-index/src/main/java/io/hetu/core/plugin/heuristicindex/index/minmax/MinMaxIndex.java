@@ -15,15 +15,22 @@
 
 package io.hetu.core.plugin.heuristicindex.index.minmax;
 
+import io.airlift.slice.Slice;
 import io.hetu.core.common.util.SecureObjectInputStream;
 import io.prestosql.spi.heuristicindex.Index;
 import io.prestosql.spi.heuristicindex.Operator;
+import io.prestosql.spi.predicate.Domain;
+import io.prestosql.spi.predicate.Marker;
+import io.prestosql.spi.predicate.Range;
+import io.prestosql.spi.predicate.SortedRangeSet;
 
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
 import java.io.OutputStream;
+import java.util.Collections;
+import java.util.Iterator;
 import java.util.Objects;
 
 import static io.hetu.core.heuristicindex.util.IndexConstants.TYPES_WHITELIST;
@@ -118,6 +125,63 @@ public class MinMaxIndex<T>
         }
     }
 
+    /**
+     * The Domain is matched against the min max range: the returned iterator has a next element
+     * if the Domain may contain a value of the range. Returns null if the Domain cannot be evaluated.
+     *
+     * @param filter Domain of the column
+     * @return iterator with a next element if the values may match
+     */
+    @Override
+    public <I> Iterator<I> getMatches(Object filter)
+    {
+        if (!(filter instanceof Domain) || min == null || max == null) {
+            return null;
+        }
+
+        Domain predicate = (Domain) filter;
+        // nulls are not recorded in the index, so a domain allowing them cannot be ruled out
+        if (predicate.isNullAllowed() || !(predicate.getValues() instanceof SortedRangeSet)) {
+            return null;
+        }
+
+        boolean hasNext;
+        try {
+            hasNext = predicate.getValues().getRanges().getOrderedRanges().stream().anyMatch(this::overlaps);
+        }
+        catch (ClassCastException e) {
+            // the values of the domain are not comparable with the indexed values
+            return null;
+        }
+        return (Iterator<I>) (hasNext ? Collections.singletonList(null).iterator() : Collections.emptyIterator());
+    }
+
+    private boolean overlaps(Range range)
+    {
+        Marker low = range.getLow();
+        if (!low.isLowerUnbounded()) {
+            int compare = toComparable(low.getValue()).compareTo(max);
+            if (compare > 0 || (compare == 0 && low.getBound() == Marker.Bound.ABOVE)) {
+                return false;
+            }
+        }
+
+        Marker high = range.getHigh();
+        if (!high.isUpperUnbounded()) {
+            int compare = toComparable(high.getValue()).compareTo(min);
+            if (compare < 0 || (compare == 0 && high.getBound() == Marker.Bound.BELOW)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static Comparable toComparable(Object value)
+    {
+        // values are indexed the way the data source reads them, slices as strings
+        return value instanceof Slice ? ((Slice) value).toStringUtf8() : (Comparable) value;
+    }
+
     @Override
     public boolean supports(Operator operator)
     {
@@ -17,6 +17,7 @@ package io.hetu.core.heuristicindex;
 import io.hetu.core.common.filesystem.TempFolder;
 import io.hetu.core.filesystem.HetuLocalFileSystemClient;
 import io.hetu.core.filesystem.LocalConfig;
+import io.hetu.core.heuristicindex.util.IndexConstants;
 import io.hetu.core.plugin.heuristicindex.index.bloom.BloomIndex;
 import io.hetu.core.plugin.heuristicindex.index.minmax.MinMaxIndex;
 import io.prestosql.spi.filesystem.HetuFileSystemClient;
@@ -33,7 +34,10 @@ import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Map;
 import java.util.Properties;
 import java.util.Set;
 import java.util.stream.Collectors;
@@ -300,6 +304,83 @@ public class TestHeuristicIndexWriter
         }
     }
 
+    /**
+     * create a bloom index, then recreate it after the source files changed
+     * <p>
+     * only the added and changed files should be read again, and the index of
+     * the removed file should be deleted
+     *
+     * @throws IOException
+     */
+    @Test
+    public void testIncrementalIndexCreation()
+            throws IOException
+    {
+        Map<String, Long> sourceFiles = new HashMap<>();
+        Set<String> readFiles = new HashSet<>();
+        DataSource ds = new DataSource()
+        {
+            @Override
+            public String getId()
+            {
+                return "test";
+            }
+
+            @Override
+            public void readSplits(String schema, String table, String[] columns, String[] partitions, DataSource.Callback callback)
+            {
+                readSplits(schema, table, columns, partitions, (uri, size, lastModified) -> true, callback);
+            }
+
+            @Override
+            public void readSplits(String schema, String table, String[] columns, String[] partitions, FileFilter filter, Callback callback)
+            {
+                for (Map.Entry<String, Long> file : sourceFiles.entrySet()) {
+                    if (filter.accept(file.getKey(), 10, file.getValue())) {
+                        readFiles.add(file.getKey());
+                        Object[] values = new Object[] {"test", "dsfdfs", "random"};
+                        callback.call("test", values, file.getKey(), 100, file.getValue(), 0);
+                    }
+                }
+            }
+        };
+
+        try (TempFolder folder = new TempFolder()) {
+            folder.create();
+
+            HetuFileSystemClient fs = new HetuLocalFileSystemClient(new LocalConfig(new Properties()), folder.getRoot().toPath());
+
+            Set<Index> indices = new HashSet<>();
+            indices.add(new BloomIndex());
+
+            HeuristicIndexWriter writer = new HeuristicIndexWriter(ds, indices, fs, folder.getRoot().toPath(), 2);
+            String tableName = "catalog.schema.table";
+            Path indexDir = Paths.get(folder.getRoot().getAbsolutePath(), tableName, "test", "bloom");
+
+            sourceFiles.put("file1", 1L);
+            sourceFiles.put("file2", 1L);
+            writer.createIndex(tableName, new String[] {"test"}, null, "bloom");
+            assertEquals(readFiles, new HashSet<>(Arrays.asList("file1", "file2")));
+            assertTrue(Files.exists(indexDir.resolve(IndexConstants.MANIFEST_FILE_NAME)));
+
+            // nothing changed, no file is read and the index is not recreated
+            readFiles.clear();
+            writer.createIndex(tableName, new String[] {"test"}, null, "bloom");
+            assertTrue(readFiles.isEmpty());
+
+            // file1 removed, file2 changed and file3 added
+            readFiles.clear();
+            sourceFiles.remove("file1");
+            sourceFiles.put("file2", 2L);
+            sourceFiles.put("file3", 1L);
+            writer.createIndex(tableName, new String[] {"test"}, null, "bloom");
+            assertEquals(readFiles, new HashSet<>(Arrays.asList("file2", "file3")));
+            assertFalse(Files.exists(indexDir.resolve("file1")));
+            assertTrue(Files.exists(indexDir.resolve("file2")));
+            assertTrue(Files.exists(indexDir.resolve("file3")));
+        }
+    }
+
     private void assertIndexWriterCleanUp(Path root, String tableName)
             throws IOException
     {
@@ -14,6 +14,9 @@
  */
 package io.hetu.core.plugin.heuristicindex.index.bitmap;
 
+import com.google.common.collect.ImmutableSet;
+import io.hetu.core.plugin.heuristicindex.index.minmax.MinMaxIndex;
+import io.prestosql.spi.heuristicindex.Index;
 import io.prestosql.spi.predicate.Domain;
 import io.prestosql.spi.predicate.ValueSet;
 import io.prestosql.spi.type.CharType;
@@ -23,6 +26,9 @@ import io.prestosql.spi.type.Type;
 import org.apache.commons.io.FileUtils;
 import org.testng.annotations.Test;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
@@ -43,8 +49,10 @@ import static io.prestosql.spi.predicate.Range.equal;
 import static io.prestosql.spi.predicate.Range.greaterThan;
 import static io.prestosql.spi.predicate.Range.greaterThanOrEqual;
 import static io.prestosql.spi.predicate.Range.lessThan;
+import static io.prestosql.spi.predicate.Range.range;
 import static io.prestosql.spi.type.VarcharType.createUnboundedVarcharType;
 import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
 import static org.testng.Assert.assertTrue;
 
 public class TestBitMapIndex
@@ -289,6 +297,89 @@ public class TestBitMapIndex
         assertTrue(grtOrEqResultSet.containsAll(Arrays.asList(0, 3, 4, 6, 8, 11)));
     }
 
+    @Test
+    public void testNegativeReal()
+            throws IOException
+    {
+        Object[] values = Stream.of(-5f, 2f, -1f, 0.5f, -0.25f, 3f)
+                .map(Float::floatToRawIntBits)
+                .toArray();
+        BitMapIndex index = persistAndLoad(values);
+
+        // the int bits of negative floats sort after the positive ones, the floats are compared instead
+        assertEquals(getMatches(index, Domain.create(ValueSet.ofRanges(lessThan(RealType.REAL, realBits(0f))), false)), ImmutableSet.of(0, 2, 4));
+        assertEquals(getMatches(index, Domain.create(ValueSet.ofRanges(greaterThan(RealType.REAL, realBits(-1f))), false)), ImmutableSet.of(1, 3, 4, 5));
+        assertEquals(getMatches(index, Domain.create(ValueSet.ofRanges(range(RealType.REAL, realBits(-5f), false, realBits(1f), true)), false)), ImmutableSet.of(2, 3, 4));
+    }
+
+    @Test
+    public void testNumericRangeOrdering()
+            throws IOException
+    {
+        // sorted as strings, 10 and 100 would be before 9 and -5 after 2
+        Object[] values = {10, 9, 100, -5, 2, 9, 1000};
+        BitMapIndex index = persistAndLoad(values);
+
+        assertEquals(getMatches(index, Domain.create(ValueSet.ofRanges(greaterThan(IntegerType.INTEGER, 9L)), false)), ImmutableSet.of(0, 2, 6));
+        assertEquals(getMatches(index, Domain.create(ValueSet.ofRanges(lessThan(IntegerType.INTEGER, 10L)), false)), ImmutableSet.of(1, 3, 4, 5));
+        assertEquals(getMatches(index, Domain.create(ValueSet.ofRanges(range(IntegerType.INTEGER, 2L, true, 100L, false)), false)), ImmutableSet.of(0, 1, 4, 5));
+        assertEquals(getMatches(index, Domain.create(ValueSet.ofRanges(lessThan(IntegerType.INTEGER, -5L), greaterThan(IntegerType.INTEGER, 1000L)), false)), ImmutableSet.of());
+    }
+
+    @Test
+    public void testNulls()
+            throws IOException
+    {
+        Object[] values = {1, null, 2, null, 1};
+        BitMapIndex index = persistAndLoad(values);
+
+        assertEquals(getMatches(index, Domain.onlyNull(IntegerType.INTEGER)), ImmutableSet.of(1, 3));
+        assertEquals(getMatches(index, Domain.notNull(IntegerType.INTEGER)), ImmutableSet.of(0, 2, 4));
+        assertEquals(getMatches(index, Domain.create(ValueSet.ofRanges(equal(IntegerType.INTEGER, 2L)), true)), ImmutableSet.of(1, 2, 3));
+        assertEquals(getMatches(index, Domain.create(ValueSet.ofRanges(equal(IntegerType.INTEGER, 2L)), false)), ImmutableSet.of(2));
+    }
+
+    @Test
+    public void testMultipleIndices()
+            throws IOException
+    {
+        BitMapIndex numbers = persistAndLoad(new Object[] {1, 2, 1, 2, 1});
+        BitMapIndex names = persistAndLoad(new Object[] {"a", "a", "b", "a", "a"});
+
+        Map<Index, Object> predicates = new HashMap<>();
+        predicates.put(numbers, Domain.create(ValueSet.ofRanges(equal(IntegerType.INTEGER, 1L)), false));
+        predicates.put(names, Domain.create(ValueSet.ofRanges(equal(createUnboundedVarcharType(), utf8Slice("a"))), false));
+        assertEquals(toSet(numbers.getMatches(predicates)), ImmutableSet.of(0, 4));
+
+        // predicates of other indices are ignored
+        predicates.put(new MinMaxIndex(), Domain.create(ValueSet.ofRanges(equal(IntegerType.INTEGER, 2L)), false));
+        assertEquals(toSet(numbers.getMatches(predicates)), ImmutableSet.of(0, 4));
+
+        predicates.put(names, Domain.create(ValueSet.ofRanges(equal(createUnboundedVarcharType(), utf8Slice("c"))), false));
+        assertFalse(numbers.getMatches(predicates).hasNext());
+    }
+
+    @Test(expectedExceptions = IOException.class, expectedExceptionsMessageRegExp = "Input is not a bitmap index of a supported version")
+    public void testLoadInvalidMagic()
+            throws IOException
+    {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        new DataOutputStream(output).writeInt(0x424d4932);
+        new BitMapIndex().load(new ByteArrayInputStream(output.toByteArray()));
+    }
+
+    @Test(expectedExceptions = IOException.class, expectedExceptionsMessageRegExp = "Bitmap index is (truncated|corrupted)")
+    public void testLoadTruncated()
+            throws IOException
+    {
+        BitMapIndex index = new BitMapIndex();
+        index.addValues(new Object[] {"a", "b", "c"});
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        index.persist(output);
+        byte[] bytes = output.toByteArray();
+        new BitMapIndex().load(new ByteArrayInputStream(Arrays.copyOf(bytes, 16)));
+    }
+
     @Test
     public void testSize()
     {
@@ -329,6 +420,36 @@ public class TestBitMapIndex
         }).toArray());
     }
 
+    private static BitMapIndex persistAndLoad(Object[] values)
+            throws IOException
+    {
+        BitMapIndex writeIndex = new BitMapIndex();
+        writeIndex.addValues(values);
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        writeIndex.persist(output);
+
+        BitMapIndex readIndex = new BitMapIndex();
+        readIndex.load(new ByteArrayInputStream(output.toByteArray()));
+        return readIndex;
+    }
+
+    private static Set<Integer> getMatches(BitMapIndex index, Domain predicate)
+    {
+        return toSet(index.getMatches(predicate));
+    }
+
+    private static Set<Integer> toSet(Iterator<Integer> iterator)
+    {
+        Set<Integer> result = new HashSet<>();
+        iterator.forEachRemaining(result::add);
+        return result;
+    }
+
+    private static long realBits(float value)
+    {
+        return Float.floatToRawIntBits(value);
+    }
+
     @Test
     public void testMemorySize()
     {
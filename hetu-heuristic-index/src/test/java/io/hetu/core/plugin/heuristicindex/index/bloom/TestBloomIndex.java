@@ -14,8 +14,12 @@
  */
 package io.hetu.core.plugin.heuristicindex.index.bloom;
 
+import com.google.common.collect.ImmutableList;
 import io.hetu.core.common.filesystem.TempFolder;
 import io.prestosql.spi.heuristicindex.Operator;
+import io.prestosql.spi.predicate.Domain;
+import io.prestosql.spi.predicate.Range;
+import io.prestosql.spi.predicate.ValueSet;
 import org.testng.annotations.Test;
 
 import java.io.File;
@@ -25,6 +29,8 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.util.Properties;
 
+import static io.airlift.slice.Slices.utf8Slice;
+import static io.prestosql.spi.type.VarcharType.VARCHAR;
 import static org.testng.Assert.assertEquals;
 import static org.testng.Assert.assertFalse;
 import static org.testng.Assert.assertNotNull;
@@ -235,4 +241,18 @@ public class TestBloomIndex
         index.setMemorySize(10);
         assertEquals(index.getMemorySize(), 10);
     }
+
+    @Test
+    public void testGetMatches()
+    {
+        BloomIndex<String> index = new BloomIndex<>();
+        index.setExpectedNumOfEntries(3);
+        index.addValues(new String[] {"a", "b", "c"});
+        assertTrue(index.getMatches(Domain.singleValue(VARCHAR, utf8Slice("a"))).hasNext());
+        assertFalse(index.getMatches(Domain.singleValue(VARCHAR, utf8Slice("not in the index"))).hasNext());
+        assertTrue(index.getMatches(Domain.multipleValues(VARCHAR, ImmutableList.<Object>of(utf8Slice("x"), utf8Slice("b")))).hasNext());
+        assertFalse(index.getMatches(Domain.multipleValues(VARCHAR, ImmutableList.<Object>of(utf8Slice("x"), utf8Slice("y")))).hasNext());
+        // ranges cannot be checked, so they always match
+        assertTrue(index.getMatches(Domain.create(ValueSet.ofRanges(Range.greaterThan(VARCHAR, utf8Slice("x"))), false)).hasNext());
+    }
 }
@@ -14,8 +14,12 @@
  */
 package io.hetu.core.plugin.heuristicindex.index.minmax;
 
+import com.google.common.collect.ImmutableList;
 import io.hetu.core.common.filesystem.TempFolder;
 import io.prestosql.spi.heuristicindex.Operator;
+import io.prestosql.spi.predicate.Domain;
+import io.prestosql.spi.predicate.Range;
+import io.prestosql.spi.predicate.ValueSet;
 import org.testng.annotations.Test;
 
 import java.io.File;
@@ -25,8 +29,12 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 
+import static io.airlift.slice.Slices.utf8Slice;
+import static io.prestosql.spi.type.BigintType.BIGINT;
+import static io.prestosql.spi.type.VarcharType.VARCHAR;
 import static org.testng.Assert.assertEquals;
 import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNull;
 import static org.testng.Assert.assertThrows;
 import static org.testng.Assert.assertTrue;
 
@@ -196,4 +204,25 @@ public class TestMinMaxIndex
         index.setMemorySize(10);
         assertEquals(index.getMemorySize(), 10);
     }
+
+    @Test
+    public void testGetMatches()
+    {
+        MinMaxIndex<Long> index = new MinMaxIndex<>(10L, 20L);
+        assertTrue(index.getMatches(Domain.singleValue(BIGINT, 15L)).hasNext());
+        assertFalse(index.getMatches(Domain.singleValue(BIGINT, 21L)).hasNext());
+        assertTrue(index.getMatches(Domain.create(ValueSet.ofRanges(Range.greaterThanOrEqual(BIGINT, 20L)), false)).hasNext());
+        assertFalse(index.getMatches(Domain.create(ValueSet.ofRanges(Range.greaterThan(BIGINT, 20L)), false)).hasNext());
+        assertFalse(index.getMatches(Domain.create(ValueSet.ofRanges(Range.lessThan(BIGINT, 10L)), false)).hasNext());
+        assertTrue(index.getMatches(Domain.multipleValues(BIGINT, ImmutableList.<Object>of(1L, 12L))).hasNext());
+        assertFalse(index.getMatches(Domain.multipleValues(BIGINT, ImmutableList.<Object>of(1L, 30L))).hasNext());
+        // null values are not indexed
+        assertNull(index.getMatches(Domain.onlyNull(BIGINT)));
+
+        MinMaxIndex<String> stringIndex = new MinMaxIndex<>("b", "d");
+        assertTrue(stringIndex.getMatches(Domain.singleValue(VARCHAR, utf8Slice("c"))).hasNext());
+        assertFalse(stringIndex.getMatches(Domain.singleValue(VARCHAR, utf8Slice("e"))).hasNext());
+        // values that cannot be compared with the indexed ones
+        assertNull(stringIndex.getMatches(Domain.singleValue(BIGINT, 1L)));
+    }
 }
@@ -141,6 +141,12 @@ public class EncryptedStateMap<K, V extends Serializable>
         encryptedValues.addEntryListener(listener);
     }
 
+    @Override
+    public void addEntryListener(MapListener listener, boolean includeValue)
+    {
+        encryptedValues.addEntryListener(listener, includeValue);
+    }
+
     @Override
     public void removeEntryListener(MapListener listener)
     {
@@ -187,9 +187,15 @@ public class HazelcastStateMap<K, V>
 
     @Override
     public void addEntryListener(MapListener listener)
+    {
+        addEntryListener(listener, true);
+    }
+
+    @Override
+    public void addEntryListener(MapListener listener, boolean includeValue)
     {
         ListenerAdapter.toHazelcastListeners(listener).forEach(hzListener -> {
-            UUID listenerId = hzMap.addEntryListener(hzListener, true);
+            UUID listenerId = hzMap.addEntryListener(hzListener, includeValue);
             registeredListeners.put(listener, listenerId);
         });
     }
@@ -26,7 +26,11 @@ import static com.google.common.base.Preconditions.checkArgument;
 public enum PageCodecMarker
 {
     COMPRESSED(1),
-    ENCRYPTED(2);
+    ENCRYPTED(2),
+    // Codec of a COMPRESSED page, absent on pages compressed by a caller provided compressor.
+    // Earlier versions ignore these bits and decompress with ZSTD, so LZ4 needs every node to be upgraded
+    LZ4(3),
+    ZSTD(4);
 
     private final int mask;
 
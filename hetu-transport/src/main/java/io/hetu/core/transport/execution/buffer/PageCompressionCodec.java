@@ -0,0 +1,105 @@
+/*
+ * Copyright (C) 2018-2020. Huawei Technologies Co., Ltd. All rights reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.hetu.core.transport.execution.buffer;
+
+import io.airlift.compress.Compressor;
+import io.airlift.compress.Decompressor;
+import io.airlift.compress.lz4.Lz4Compressor;
+import io.airlift.compress.lz4.Lz4Decompressor;
+import io.airlift.compress.zstd.ZstdCompressor;
+import io.airlift.compress.zstd.ZstdDecompressor;
+
+import java.util.Optional;
+
+/**
+ * Codec used to compress serialized pages. LZ4 is cheaper on CPU, ZSTD sends fewer bytes over the network.
+ * The codec is recorded in the {@link PageCodecMarker}s of every compressed page, so a reader can decompress
+ * pages written with any codec.
+ */
+public enum PageCompressionCodec
+{
+    NONE(Optional.empty()) {
+        @Override
+        public Optional<Compressor> createCompressor()
+        {
+            return Optional.empty();
+        }
+
+        @Override
+        public Optional<Decompressor> createDecompressor()
+        {
+            return Optional.empty();
+        }
+    },
+    LZ4(Optional.of(PageCodecMarker.LZ4)) {
+        @Override
+        public Optional<Compressor> createCompressor()
+        {
+            return Optional.of(new Lz4Compressor());
+        }
+
+        @Override
+        public Optional<Decompressor> createDecompressor()
+        {
+            return Optional.of(new Lz4Decompressor());
+        }
+    },
+    ZSTD(Optional.of(PageCodecMarker.ZSTD)) {
+        @Override
+        public Optional<Compressor> createCompressor()
+        {
+            return Optional.of(new ZstdCompressor());
+        }
+
+        @Override
+        public Optional<Decompressor> createDecompressor()
+        {
+            return Optional.of(new ZstdDecompressor());
+        }
+    };
+
+    private final Optional<PageCodecMarker> marker;
+
+    PageCompressionCodec(Optional<PageCodecMarker> marker)
+    {
+        this.marker = marker;
+    }
+
+    /**
+     * Marker identifying the codec of a compressed page, empty for {@link #NONE}
+     */
+    public Optional<PageCodecMarker> getMarker()
+    {
+        return marker;
+    }
+
+    public abstract Optional<Compressor> createCompressor();
+
+    public abstract Optional<Decompressor> createDecompressor();
+
+    /**
+     * Returns the codec a compressed page was written with, or empty when the page does not record it
+     * (pages written before codecs were recorded, or with a caller provided compressor)
+     */
+    public static Optional<PageCompressionCodec> fromMarkers(byte markers)
+    {
+        for (PageCompressionCodec codec : values()) {
+            if (codec.marker.isPresent() && codec.marker.get().isSet(markers)) {
+                return Optional.of(codec);
+            }
+        }
+        return Optional.empty();
+    }
+}
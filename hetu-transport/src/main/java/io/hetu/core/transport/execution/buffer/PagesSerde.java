@@ -17,7 +17,6 @@ import io.airlift.compress.Compressor;
 import io.airlift.compress.Decompressor;
 import io.airlift.slice.DynamicSliceOutput;
 import io.airlift.slice.Slice;
-import io.airlift.slice.SliceOutput;
 import io.airlift.slice.Slices;
 import io.hetu.core.transport.execution.buffer.PageCodecMarker.MarkerSet;
 import io.prestosql.spi.Page;
@@ -26,77 +25,131 @@ import io.prestosql.spi.spiller.SpillCipher;
 
 import javax.annotation.concurrent.NotThreadSafe;
 
+import java.util.EnumMap;
+import java.util.Map;
 import java.util.Optional;
 
 import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkState;
+import static io.airlift.slice.SizeOf.sizeOf;
 import static io.hetu.core.transport.execution.buffer.PageCodecMarker.COMPRESSED;
 import static io.hetu.core.transport.execution.buffer.PageCodecMarker.ENCRYPTED;
 import static io.hetu.core.transport.execution.buffer.PagesSerdeUtil.readRawPage;
 import static io.hetu.core.transport.execution.buffer.PagesSerdeUtil.writeRawPage;
-import static java.lang.Math.toIntExact;
 import static java.util.Objects.requireNonNull;
 import static sun.misc.Unsafe.ARRAY_BYTE_BASE_OFFSET;
 
 @NotThreadSafe
 public class PagesSerde
 {
-    private static final double MINIMUM_COMPRESSION_RATIO = 0.8;
+    public static final double MINIMUM_COMPRESSION_RATIO = 0.8;
+    // number of pages whose compression ratio is sampled before deciding whether compression pays off
+    private static final int COMPRESSION_SAMPLE_PAGES = 16;
+    // number of pages sent uncompressed before the compression ratio is sampled again
+    private static final int COMPRESSION_SKIP_PAGES = 256;
+    private static final int INITIAL_BUFFER_SIZE = 64 * 1024;
+    // buffers grown beyond this size by an unusually large page are not kept for the next page
+    private static final int MAX_RETAINED_BUFFER_SIZE = 4 * 1024 * 1024;
 
     private final BlockEncodingSerde blockEncodingSerde;
     private final Optional<Compressor> compressor;
+    private final Optional<PageCodecMarker> compressionCodecMarker;
     private final Optional<Decompressor> decompressor;
+    private final Map<PageCompressionCodec, Decompressor> codecDecompressors = new EnumMap<>(PageCompressionCodec.class);
     private final Optional<SpillCipher> spillCipher;
+    private final double minCompressionRatio;
+
+    private DynamicSliceOutput serializationBuffer = new DynamicSliceOutput(INITIAL_BUFFER_SIZE);
+    private byte[] compressionBuffer = new byte[0];
+    private byte[] encryptionBuffer = new byte[0];
+
+    private long serializedPages;
+    private long bytesCopied;
+
+    private int sampledPages;
+    private long sampledUncompressedBytes;
+    private long sampledCompressedBytes;
+    private int pagesToSkipCompression;
 
     public PagesSerde(BlockEncodingSerde blockEncodingSerde, Optional<Compressor> compressor, Optional<Decompressor> decompressor, Optional<SpillCipher> spillCipher)
+    {
+        this(blockEncodingSerde, compressor, decompressor, Optional.empty(), spillCipher, MINIMUM_COMPRESSION_RATIO);
+    }
+
+    public PagesSerde(BlockEncodingSerde blockEncodingSerde, PageCompressionCodec compressionCodec, Optional<SpillCipher> spillCipher, double minCompressionRatio)
+    {
+        this(
+                blockEncodingSerde,
+                requireNonNull(compressionCodec, "compressionCodec is null").createCompressor(),
+                compressionCodec.createDecompressor(),
+                compressionCodec.getMarker(),
+                spillCipher,
+                minCompressionRatio);
+    }
+
+    private PagesSerde(
+            BlockEncodingSerde blockEncodingSerde,
+            Optional<Compressor> compressor,
+            Optional<Decompressor> decompressor,
+            Optional<PageCodecMarker> compressionCodecMarker,
+            Optional<SpillCipher> spillCipher,
+            double minCompressionRatio)
     {
         this.blockEncodingSerde = requireNonNull(blockEncodingSerde, "blockEncodingSerde is null");
         checkArgument(compressor.isPresent() == decompressor.isPresent(), "compressor and decompressor must both be present or both be absent");
+        checkArgument(minCompressionRatio > 0 && minCompressionRatio <= 1, "minCompressionRatio must be in (0, 1]");
         this.compressor = requireNonNull(compressor, "compressor is null");
         this.decompressor = requireNonNull(decompressor, "decompressor is null");
+        this.compressionCodecMarker = requireNonNull(compressionCodecMarker, "compressionCodecMarker is null");
         this.spillCipher = requireNonNull(spillCipher, "spillCipher is null");
+        this.minCompressionRatio = minCompressionRatio;
     }
 
     public SerializedPage serialize(Page page)
     {
-        SliceOutput serializationBuffer = new DynamicSliceOutput(toIntExact(page.getSizeInBytes() + Integer.BYTES)); // block length is an int
+        // Page is encoded, compressed and encrypted in buffers reused across pages,
+        // and only the final bytes are copied into an array owned by the serialized page.
+        serializationBuffer.reset();
         writeRawPage(page, serializationBuffer, blockEncodingSerde);
         Slice slice = serializationBuffer.slice();
         int uncompressedSize = serializationBuffer.size();
         MarkerSet markers = MarkerSet.empty();
 
-        if (compressor.isPresent()) {
-            byte[] compressed = new byte[compressor.get().maxCompressedLength(uncompressedSize)];
+        if (compressor.isPresent() && shouldCompress()) {
+            compressionBuffer = ensureCapacity(compressionBuffer, compressor.get().maxCompressedLength(uncompressedSize));
             int compressedSize = compressor.get().compress(
                     (byte[]) slice.getBase(),
                     (int) (slice.getAddress() - ARRAY_BYTE_BASE_OFFSET),
                     uncompressedSize,
-                    compressed,
+                    compressionBuffer,
                     0,
-                    compressed.length);
+                    compressionBuffer.length);
+            recordCompressionRatio(uncompressedSize, compressedSize);
 
-            if ((((double) compressedSize) / uncompressedSize) <= MINIMUM_COMPRESSION_RATIO) {
-                slice = Slices.wrappedBuffer(compressed, 0, compressedSize);
+            if ((((double) compressedSize) / uncompressedSize) <= minCompressionRatio) {
+                slice = Slices.wrappedBuffer(compressionBuffer, 0, compressedSize);
                 markers.add(COMPRESSED);
+                compressionCodecMarker.ifPresent(markers::add);
             }
         }
 
         if (spillCipher.isPresent()) {
-            byte[] encrypted = new byte[spillCipher.get().encryptedMaxLength(slice.length())];
+            encryptionBuffer = ensureCapacity(encryptionBuffer, spillCipher.get().encryptedMaxLength(slice.length()));
             int encryptedSize = spillCipher.get().encrypt(
                     (byte[]) slice.getBase(),
                     (int) (slice.getAddress() - ARRAY_BYTE_BASE_OFFSET),
                     slice.length(),
-                    encrypted,
+                    encryptionBuffer,
                     0);
 
-            slice = Slices.wrappedBuffer(encrypted, 0, encryptedSize);
+            slice = Slices.wrappedBuffer(encryptionBuffer, 0, encryptedSize);
             markers.add(ENCRYPTED);
         }
 
-        if (!slice.isCompact()) {
-            slice = Slices.copyOf(slice);
-        }
+        slice = Slices.copyOf(slice);
+        serializedPages++;
+        bytesCopied += slice.length();
+        releaseOversizedBuffers();
 
         return new SerializedPage(slice, markers, page.getPositionCount(), uncompressedSize);
     }
@@ -122,11 +175,11 @@ public class PagesSerde
         }
 
         if (serializedPage.isCompressed()) {
-            checkState(decompressor.isPresent(), "Page is compressed, but decompressor is missing");
+            Decompressor pageDecompressor = getDecompressor(serializedPage.getPageCodecMarkers());
 
             int uncompressedSize = serializedPage.getUncompressedSizeInBytes();
             byte[] decompressed = new byte[uncompressedSize];
-            checkState(decompressor.get().decompress(
+            checkState(pageDecompressor.decompress(
                     (byte[]) slice.getBase(),
                     (int) (slice.getAddress() - ARRAY_BYTE_BASE_OFFSET),
                     slice.length(),
@@ -139,4 +192,92 @@ public class PagesSerde
 
         return readRawPage(serializedPage.getPositionCount(), slice.getInput(), blockEncodingSerde);
     }
+
+    /**
+     * Pages are compressed while the ratio of the first {@link #COMPRESSION_SAMPLE_PAGES} pages is sampled. If the sampled
+     * pages did not shrink below the minimum compression ratio on the whole, the next {@link #COMPRESSION_SKIP_PAGES}
+     * pages are sent uncompressed, and the ratio is sampled again afterwards, as the data may change over time.
+     */
+    private boolean shouldCompress()
+    {
+        if (pagesToSkipCompression > 0) {
+            pagesToSkipCompression--;
+            return false;
+        }
+        return true;
+    }
+
+    private void recordCompressionRatio(int uncompressedSize, int compressedSize)
+    {
+        sampledPages++;
+        sampledUncompressedBytes += uncompressedSize;
+        sampledCompressedBytes += compressedSize;
+        if (sampledPages < COMPRESSION_SAMPLE_PAGES) {
+            return;
+        }
+
+        if (((double) sampledCompressedBytes) / sampledUncompressedBytes > minCompressionRatio) {
+            pagesToSkipCompression = COMPRESSION_SKIP_PAGES;
+        }
+        sampledPages = 0;
+        sampledUncompressedBytes = 0;
+        sampledCompressedBytes = 0;
+    }
+
+    private Decompressor getDecompressor(byte markers)
+    {
+        Optional<PageCompressionCodec> codec = PageCompressionCodec.fromMarkers(markers);
+        if (!codec.isPresent()) {
+            checkState(decompressor.isPresent(), "Page is compressed, but decompressor is missing");
+            return decompressor.get();
+        }
+        // Page may be written by a serde with a different codec, e.g. by a worker with another configuration
+        return codecDecompressors.computeIfAbsent(codec.get(), value -> value.createDecompressor()
+                .orElseThrow(() -> new IllegalStateException("Page is compressed, but decompressor is missing")));
+    }
+
+    /**
+     * Number of pages serialized by this serde
+     */
+    public long getSerializedPages()
+    {
+        return serializedPages;
+    }
+
+    /**
+     * Number of bytes copied while serializing pages, in addition to encoding, compressing and encrypting them
+     */
+    public long getBytesCopied()
+    {
+        return bytesCopied;
+    }
+
+    /**
+     * Size of the buffers kept to serialize the next pages
+     */
+    public long getRetainedSizeInBytes()
+    {
+        return serializationBuffer.getRetainedSize() + sizeOf(compressionBuffer) + sizeOf(encryptionBuffer);
+    }
+
+    private static byte[] ensureCapacity(byte[] buffer, int capacity)
+    {
+        if (buffer.length >= capacity) {
+            return buffer;
+        }
+        return new byte[capacity];
+    }
+
+    private void releaseOversizedBuffers()
+    {
+        if (serializationBuffer.getRetainedSize() > MAX_RETAINED_BUFFER_SIZE) {
+            serializationBuffer = new DynamicSliceOutput(INITIAL_BUFFER_SIZE);
+        }
+        if (compressionBuffer.length > MAX_RETAINED_BUFFER_SIZE) {
+            compressionBuffer = new byte[0];
+        }
+        if (encryptionBuffer.length > MAX_RETAINED_BUFFER_SIZE) {
+            encryptionBuffer = new byte[0];
+        }
+    }
 }
@@ -13,24 +13,30 @@
  */
 package io.hetu.core.transport.execution.buffer;
 
-import io.airlift.compress.zstd.ZstdCompressor;
-import io.airlift.compress.zstd.ZstdDecompressor;
 import io.prestosql.spi.block.BlockEncodingSerde;
 import io.prestosql.spi.spiller.SpillCipher;
 
 import java.util.Optional;
 
+import static io.hetu.core.transport.execution.buffer.PagesSerde.MINIMUM_COMPRESSION_RATIO;
 import static java.util.Objects.requireNonNull;
 
 public class PagesSerdeFactory
 {
     private final BlockEncodingSerde blockEncodingSerde;
-    private final boolean compressionEnabled;
+    private final PageCompressionCodec compressionCodec;
+    private final double minCompressionRatio;
 
     public PagesSerdeFactory(BlockEncodingSerde blockEncodingSerde, boolean compressionEnabled)
+    {
+        this(blockEncodingSerde, compressionEnabled ? PageCompressionCodec.ZSTD : PageCompressionCodec.NONE, MINIMUM_COMPRESSION_RATIO);
+    }
+
+    public PagesSerdeFactory(BlockEncodingSerde blockEncodingSerde, PageCompressionCodec compressionCodec, double minCompressionRatio)
     {
         this.blockEncodingSerde = requireNonNull(blockEncodingSerde, "blockEncodingSerde is null");
-        this.compressionEnabled = compressionEnabled;
+        this.compressionCodec = requireNonNull(compressionCodec, "compressionCodec is null");
+        this.minCompressionRatio = minCompressionRatio;
     }
 
     public PagesSerde createPagesSerde()
@@ -45,10 +51,6 @@ public class PagesSerdeFactory
 
     private PagesSerde createPagesSerdeInternal(Optional<SpillCipher> spillCipher)
     {
-        if (compressionEnabled) {
-            return new PagesSerde(blockEncodingSerde, Optional.of(new ZstdCompressor()), Optional.of(new ZstdDecompressor()), spillCipher);
-        }
-
-        return new PagesSerde(blockEncodingSerde, Optional.empty(), Optional.empty(), spillCipher);
+        return new PagesSerde(blockEncodingSerde, compressionCodec, spillCipher, minCompressionRatio);
     }
 }
@@ -13,7 +13,9 @@
  */
 package io.prestosql.plugin.jdbc;
 
+import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.CharMatcher;
+import com.google.common.base.Splitter;
 import com.google.common.cache.Cache;
 import com.google.common.cache.CacheBuilder;
 import com.google.common.collect.ImmutableList;
@@ -39,14 +41,23 @@ import io.prestosql.spi.type.VarcharType;
 
 import javax.annotation.PreDestroy;
 
+import java.math.BigDecimal;
+import java.math.BigInteger;
 import java.sql.Connection;
 import java.sql.DatabaseMetaData;
+import java.sql.Date;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
 import java.sql.SQLException;
 import java.sql.Statement;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.util.AbstractMap.SimpleImmutableEntry;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -55,15 +66,18 @@ import java.util.Set;
 import java.util.UUID;
 import java.util.function.BiFunction;
 import java.util.function.Function;
+import java.util.function.LongFunction;
 
 import static com.google.common.base.MoreObjects.firstNonNull;
 import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Strings.isNullOrEmpty;
 import static com.google.common.base.Verify.verify;
+import static com.google.common.collect.ImmutableList.toImmutableList;
 import static com.google.common.collect.ImmutableMap.toImmutableMap;
 import static com.google.common.collect.ImmutableSet.toImmutableSet;
 import static com.google.common.collect.Iterables.getOnlyElement;
 import static io.prestosql.plugin.jdbc.JdbcErrorCode.JDBC_ERROR;
+import static io.prestosql.plugin.jdbc.QueryBuilder.SUB_QUERY_ALIAS;
 import static io.prestosql.plugin.jdbc.StandardColumnMappings.bigintWriteFunction;
 import static io.prestosql.plugin.jdbc.StandardColumnMappings.booleanWriteFunction;
 import static io.prestosql.plugin.jdbc.StandardColumnMappings.charWriteFunction;
@@ -122,6 +136,9 @@ public class BaseJdbcClient
     protected final Cache<RemoteTableNameCacheKey, Map<String, String>> remoteTableNames;
     // Hetu: JDBC fetch size configuration
     protected final int fetchSize;
+    // Hetu: range split configuration
+    protected final int splitCount;
+    protected final Map<SchemaTableName, String> splitColumns;
 
     public BaseJdbcClient(BaseJdbcConfig config, String identifierQuote, ConnectionFactory connectionFactory)
     {
@@ -130,7 +147,9 @@ public class BaseJdbcClient
                 connectionFactory,
                 requireNonNull(config, "config is null").isCaseInsensitiveNameMatching(),
                 config.getCaseInsensitiveNameMatchingCacheTtl(),
-                config.getFetchSize()); // Hetu: Read JDBC fetch size configuration
+                config.getFetchSize(), // Hetu: Read JDBC fetch size configuration
+                config.getSplitCount(),
+                parseSplitColumns(config.getSplitColumns()));
     }
 
     public BaseJdbcClient(
@@ -158,6 +177,30 @@ public class BaseJdbcClient
             Duration caseInsensitiveNameMatchingCacheTtl,
             int fetchSize)
     {
+        this(identifierQuote, connectionFactory, caseInsensitiveNameMatching, caseInsensitiveNameMatchingCacheTtl, fetchSize, 1, ImmutableMap.of());
+    }
+
+    /**
+     * Hetu specific constructor to create BaseJdbcClient with fetch size and range splits.
+     *
+     * @param identifierQuote
+     * @param connectionFactory
+     * @param caseInsensitiveNameMatching
+     * @param caseInsensitiveNameMatchingCacheTtl
+     * @param fetchSize
+     * @param splitCount number of range splits per table scan, 1 disables splitting
+     * @param splitColumns split column of each table, other tables are split on their primary key or an index
+     */
+    public BaseJdbcClient(
+            String identifierQuote,
+            ConnectionFactory connectionFactory,
+            boolean caseInsensitiveNameMatching,
+            Duration caseInsensitiveNameMatchingCacheTtl,
+            int fetchSize,
+            int splitCount,
+            Map<SchemaTableName, String> splitColumns)
+    {
+        checkArgument(splitCount >= 1, "splitCount must be at least 1");
         this.identifierQuote = requireNonNull(identifierQuote, "identifierQuote is null");
         this.connectionFactory = requireNonNull(connectionFactory, "connectionFactory is null");
         requireNonNull(caseInsensitiveNameMatchingCacheTtl, "caseInsensitiveNameMatchingCacheTtl is null");
@@ -168,6 +211,8 @@ public class BaseJdbcClient
         this.remoteSchemaNames = remoteNamesCacheBuilder.build();
         this.remoteTableNames = remoteNamesCacheBuilder.build();
         this.fetchSize = fetchSize;
+        this.splitCount = splitCount;
+        this.splitColumns = ImmutableMap.copyOf(requireNonNull(splitColumns, "splitColumns is null"));
     }
 
     @PreDestroy
@@ -299,9 +344,203 @@ public class BaseJdbcClient
     @Override
     public ConnectorSplitSource getSplits(JdbcIdentity identity, JdbcTableHandle tableHandle)
     {
+        // Hetu: a pushed down sub-query or limit applies to the whole table, so such scans can not be split
+        if (splitCount > 1 && tableHandle.getSubQuery() == null && !tableHandle.getLimit().isPresent()) {
+            try (Connection connection = connectionFactory.openConnection(identity)) {
+                List<String> predicates = getRangeSplitPredicates(connection, tableHandle);
+                if (!predicates.isEmpty()) {
+                    return new FixedSplitSource(predicates.stream()
+                            .map(predicate -> new JdbcSplit(Optional.of(predicate)))
+                            .collect(toImmutableList()));
+                }
+            }
+            catch (SQLException e) {
+                log.warn(e, "Failed to create range splits for %s, scanning it with a single split", tableHandle.getSchemaTableName());
+            }
+        }
         return new FixedSplitSource(ImmutableList.of(new JdbcSplit(Optional.empty())));
     }
 
+    /**
+     * Hetu divides a table scan into range splits on a numeric or date column, so that the ranges are read in parallel.
+     * The column is the configured split column of the table, or else the leading column of its primary key or of an index.
+     *
+     * @return the predicates of the splits, empty if the table can not be split
+     */
+    protected List<String> getRangeSplitPredicates(Connection connection, JdbcTableHandle tableHandle)
+            throws SQLException
+    {
+        Optional<Map.Entry<String, Integer>> splitColumn = getSplitColumn(connection, tableHandle);
+        if (!splitColumn.isPresent()) {
+            return ImmutableList.of();
+        }
+        String column = quoted(splitColumn.get().getKey());
+        int jdbcType = splitColumn.get().getValue();
+        String sql = format(
+                "SELECT min(%s), max(%s) FROM %s",
+                column,
+                column,
+                quoted(tableHandle.getCatalogName(), tableHandle.getSchemaName(), tableHandle.getTableName()));
+        try (Statement statement = connection.createStatement();
+                ResultSet resultSet = statement.executeQuery(sql)) {
+            if (!resultSet.next()) {
+                return ImmutableList.of();
+            }
+            OptionalLong min = getSplitBoundary(resultSet, 1, jdbcType);
+            OptionalLong max = getSplitBoundary(resultSet, 2, jdbcType);
+            if (!min.isPresent() || !max.isPresent()) {
+                // empty table, or values out of the range of long
+                return ImmutableList.of();
+            }
+            return getRangePredicates(column, min.getAsLong(), max.getAsLong(), splitCount, value -> toSplitBoundaryLiteral(jdbcType, value));
+        }
+    }
+
+    private Optional<Map.Entry<String, Integer>> getSplitColumn(Connection connection, JdbcTableHandle tableHandle)
+            throws SQLException
+    {
+        DatabaseMetaData metadata = connection.getMetaData();
+        Map<String, Integer> candidates = new LinkedHashMap<>();
+        try (ResultSet resultSet = getColumns(tableHandle, metadata)) {
+            while (resultSet.next()) {
+                int dataType = resultSet.getInt("DATA_TYPE");
+                if (isSplitColumnType(dataType, resultSet.getInt("DECIMAL_DIGITS"))) {
+                    candidates.put(resultSet.getString("COLUMN_NAME"), dataType);
+                }
+            }
+        }
+
+        String configuredColumn = splitColumns.get(tableHandle.getSchemaTableName());
+        if (configuredColumn != null) {
+            Optional<Map.Entry<String, Integer>> column = candidates.entrySet().stream()
+                    .filter(candidate -> candidate.getKey().equalsIgnoreCase(configuredColumn))
+                    .findFirst();
+            if (!column.isPresent()) {
+                log.warn("Split column %s of %s does not exist or is not an integer or date column", configuredColumn, tableHandle.getSchemaTableName());
+            }
+            return column;
+        }
+
+        try (ResultSet resultSet = metadata.getPrimaryKeys(tableHandle.getCatalogName(), tableHandle.getSchemaName(), tableHandle.getTableName())) {
+            while (resultSet.next()) {
+                String columnName = resultSet.getString("COLUMN_NAME");
+                if (resultSet.getInt("KEY_SEQ") == 1 && candidates.containsKey(columnName)) {
+                    return Optional.of(new SimpleImmutableEntry<>(columnName, candidates.get(columnName)));
+                }
+            }
+        }
+        try (ResultSet resultSet = metadata.getIndexInfo(tableHandle.getCatalogName(), tableHandle.getSchemaName(), tableHandle.getTableName(), false, true)) {
+            while (resultSet.next()) {
+                String columnName = resultSet.getString("COLUMN_NAME");
+                if (resultSet.getInt("ORDINAL_POSITION") == 1 && candidates.containsKey(columnName)) {
+                    return Optional.of(new SimpleImmutableEntry<>(columnName, candidates.get(columnName)));
+                }
+            }
+        }
+        return Optional.empty();
+    }
+
+    private static boolean isSplitColumnType(int jdbcType, int decimalDigits)
+    {
+        switch (jdbcType) {
+            case Types.TINYINT:
+            case Types.SMALLINT:
+            case Types.INTEGER:
+            case Types.BIGINT:
+            case Types.DATE:
+                return true;
+            case Types.NUMERIC:
+            case Types.DECIMAL:
+                // e.g. NUMBER(19) keys in Oracle
+                return decimalDigits == 0;
+            default:
+                return false;
+        }
+    }
+
+    private static OptionalLong getSplitBoundary(ResultSet resultSet, int columnIndex, int jdbcType)
+            throws SQLException
+    {
+        if (jdbcType == Types.DATE) {
+            Date value = resultSet.getDate(columnIndex);
+            return value == null ? OptionalLong.empty() : OptionalLong.of(value.toLocalDate().toEpochDay());
+        }
+        BigDecimal value = resultSet.getBigDecimal(columnIndex);
+        if (value == null) {
+            return OptionalLong.empty();
+        }
+        try {
+            return OptionalLong.of(value.longValueExact());
+        }
+        catch (ArithmeticException e) {
+            return OptionalLong.empty();
+        }
+    }
+
+    /**
+     * Hetu writes the boundaries of range splits as SQL literals, dates are given as days since the epoch.
+     * Override this method if the remote database does not support ANSI date literals.
+     */
+    protected String toSplitBoundaryLiteral(int jdbcType, long value)
+    {
+        if (jdbcType == Types.DATE) {
+            return format("DATE '%s'", LocalDate.ofEpochDay(value));
+        }
+        return String.valueOf(value);
+    }
+
+    /**
+     * Divides [min, max] into at most splitCount ranges of about the same width.
+     * The first range also covers null values and the outer ranges are open,
+     * so rows inserted after planning are still read exactly once.
+     */
+    @VisibleForTesting
+    static List<String> getRangePredicates(String column, long min, long max, int splitCount, LongFunction<String> toLiteral)
+    {
+        BigInteger lower = BigInteger.valueOf(min);
+        BigInteger width = BigInteger.valueOf(max).subtract(lower).add(BigInteger.ONE);
+        int count = width.min(BigInteger.valueOf(splitCount)).intValue();
+        if (count <= 1) {
+            return ImmutableList.of();
+        }
+
+        ImmutableList.Builder<String> predicates = ImmutableList.builder();
+        String previous = null;
+        for (int i = 1; i <= count; i++) {
+            String boundary = null;
+            if (i < count) {
+                long value = lower.add(width.multiply(BigInteger.valueOf(i)).divide(BigInteger.valueOf(count))).longValueExact();
+                boundary = toLiteral.apply(value);
+            }
+            if (previous == null) {
+                predicates.add(format("(%s < %s OR %s IS NULL)", column, boundary, column));
+            }
+            else if (boundary == null) {
+                predicates.add(format("%s >= %s", column, previous));
+            }
+            else {
+                predicates.add(format("(%s >= %s AND %s < %s)", column, previous, column, boundary));
+            }
+            previous = boundary;
+        }
+        return predicates.build();
+    }
+
+    @VisibleForTesting
+    static Map<SchemaTableName, String> parseSplitColumns(String splitColumns)
+    {
+        if (isNullOrEmpty(splitColumns)) {
+            return ImmutableMap.of();
+        }
+        ImmutableMap.Builder<SchemaTableName, String> columns = ImmutableMap.builder();
+        for (String entry : Splitter.on(',').trimResults().omitEmptyStrings().split(splitColumns)) {
+            List<String> parts = Splitter.on('.').trimResults().splitToList(entry);
+            checkArgument(parts.size() == 3, "Invalid split column, expected schema.table.column: %s", entry);
+            columns.put(new SchemaTableName(parts.get(0), parts.get(1)), parts.get(2));
+        }
+        return columns.build();
+    }
+
     @Override
     public Connection getConnection(JdbcIdentity identity, JdbcSplit split)
             throws SQLException
@@ -592,6 +831,16 @@ public class BaseJdbcClient
                 join(",", nCopies(handle.getColumnNames().size(), "?")));
     }
 
+    @Override
+    public String buildInsertSql(JdbcOutputTableHandle handle, int rowCount)
+    {
+        String row = "(" + join(",", nCopies(handle.getColumnNames().size(), "?")) + ")";
+        return format(
+                "INSERT INTO %s VALUES %s",
+                quoted(handle.getCatalogName(), handle.getSchemaName(), handle.getTemporaryTableName()),
+                join(",", nCopies(rowCount, row)));
+    }
+
     @Override
     public Connection getConnection(JdbcIdentity identity, JdbcOutputTableHandle handle)
             throws SQLException
@@ -611,6 +860,54 @@ public class BaseJdbcClient
         return preparedStatement;
     }
 
+    /**
+     * Hetu describes a sub-query by running it without rows. JDBC clients supporting sub-query push down
+     * can implement {@link #getColumns(ConnectorSession, String, Map)} with this method.
+     *
+     * @param session Presto session
+     * @param sql the sub-query written by the {@link #getSqlQueryWriter()}
+     * @param types Hetu types of the output symbols
+     * @return the columns of the sub-query, or an empty map if the remote database can not execute it
+     */
+    protected Map<String, ColumnHandle> getSubQueryColumns(ConnectorSession session, String sql, Map<String, Type> types)
+    {
+        String describeSql = "SELECT * FROM " + sql + " " + quoted(SUB_QUERY_ALIAS) + " WHERE 1=0";
+        try (Connection connection = connectionFactory.openConnection(JdbcIdentity.from(session));
+                PreparedStatement statement = connection.prepareStatement(describeSql);
+                ResultSet resultSet = statement.executeQuery()) {
+            ResultSetMetaData metadata = resultSet.getMetaData();
+            ImmutableMap.Builder<String, ColumnHandle> builder = ImmutableMap.builder();
+            for (int i = 1; i <= metadata.getColumnCount(); i++) {
+                String columnName = metadata.getColumnLabel(i);
+                int dataType = metadata.getColumnType(i);
+                int precision = metadata.getPrecision(i);
+                int scale = metadata.getScale(i);
+
+                // aggregations like avg or sum may return a decimal without precision, use the type Hetu expects
+                Type expectedType = types.get(columnName.toLowerCase(ENGLISH));
+                if ((dataType == Types.DECIMAL || dataType == Types.NUMERIC) && precision <= 0 && expectedType instanceof DecimalType) {
+                    precision = ((DecimalType) expectedType).getPrecision();
+                    scale = ((DecimalType) expectedType).getScale();
+                }
+
+                JdbcTypeHandle typeHandle = new JdbcTypeHandle(dataType, Optional.ofNullable(metadata.getColumnTypeName(i)), precision, scale, Optional.empty());
+                Optional<ColumnMapping> columnMapping = toPrestoType(session, connection, typeHandle);
+                if (!columnMapping.isPresent()) {
+                    // Hetu can not read this column, execute the sub-query locally
+                    return Collections.emptyMap();
+                }
+                boolean nullable = metadata.isNullable(i) != ResultSetMetaData.columnNoNulls;
+                builder.put(columnName.toLowerCase(ENGLISH), new JdbcColumnHandle(columnName, typeHandle, columnMapping.get().getType(), nullable));
+            }
+            return builder.build();
+        }
+        catch (SQLException | PrestoException | UnsupportedOperationException e) {
+            // the remote database can not execute the sub-query, Hetu executes it instead
+            log.debug(e, "Failed to describe sub-query %s", sql);
+            return Collections.emptyMap();
+        }
+    }
+
     protected ResultSet getTables(Connection connection, Optional<String> schemaName, Optional<String> tableName)
             throws SQLException
     {
@@ -52,6 +52,15 @@ public class BaseJdbcConfig
     private boolean jmxEnabled = true;
     // Hetu: JDBC fetch size configuration
     private int fetchSize;
+    // Hetu: number of pages read ahead of the table scan
+    private int prefetchPages = 1;
+    private int prefetchThreads = 8;
+    // Hetu: pipelined page sink writes
+    private int writeThreads = 8;
+    private int writeBufferedPages = 2;
+    // Hetu: range split configuration
+    private int splitCount = 1;
+    private String splitColumns;
 
     public boolean isLifo()
     {
@@ -364,4 +373,118 @@ public class BaseJdbcConfig
         this.fetchSize = fetchSize;
         return this;
     }
+
+    /**
+     * Hetu reads the result set of a table scan ahead of the engine by a background thread.
+     *
+     * @return the number of pages read ahead, 0 reads on the engine thread
+     */
+    @Min(0)
+    public int getPrefetchPages()
+    {
+        return prefetchPages;
+    }
+
+    @Config("prefetch-pages")
+    @ConfigDescription("Number of pages read ahead of a table scan by a background thread, 0 disables prefetching")
+    public BaseJdbcConfig setPrefetchPages(int prefetchPages)
+    {
+        this.prefetchPages = prefetchPages;
+        return this;
+    }
+
+    /**
+     * Hetu reads ahead the table scans on a shared pool of background threads.
+     *
+     * @return the number of threads reading result sets ahead of the engine
+     */
+    @Min(1)
+    public int getPrefetchThreads()
+    {
+        return prefetchThreads;
+    }
+
+    @Config("prefetch-threads")
+    @ConfigDescription("Number of threads reading table scans ahead of the engine")
+    public BaseJdbcConfig setPrefetchThreads(int prefetchThreads)
+    {
+        this.prefetchThreads = prefetchThreads;
+        return this;
+    }
+
+    /**
+     * Hetu writes the pages of a page sink on a shared pool of background threads.
+     *
+     * @return the number of threads writing pages to the remote database
+     */
+    @Min(1)
+    public int getWriteThreads()
+    {
+        return writeThreads;
+    }
+
+    @Config("write-threads")
+    @ConfigDescription("Number of threads writing pages to the remote database")
+    public BaseJdbcConfig setWriteThreads(int writeThreads)
+    {
+        this.writeThreads = writeThreads;
+        return this;
+    }
+
+    /**
+     * Hetu blocks a page sink when this many pages are still waiting to be written.
+     *
+     * @return the number of pages buffered by a page sink
+     */
+    @Min(1)
+    public int getWriteBufferedPages()
+    {
+        return writeBufferedPages;
+    }
+
+    @Config("write-buffered-pages")
+    @ConfigDescription("Number of pages a page sink buffers before blocking the writer")
+    public BaseJdbcConfig setWriteBufferedPages(int writeBufferedPages)
+    {
+        this.writeBufferedPages = writeBufferedPages;
+        return this;
+    }
+
+    /**
+     * Hetu splits a table scan into this many range splits on a numeric or date column.
+     *
+     * @return the number of splits per table scan
+     */
+    @Min(1)
+    public int getSplitCount()
+    {
+        return splitCount;
+    }
+
+    @Config("split-count")
+    @ConfigDescription("Number of range splits a table scan is divided into, 1 disables splitting")
+    public BaseJdbcConfig setSplitCount(int splitCount)
+    {
+        this.splitCount = splitCount;
+        return this;
+    }
+
+    /**
+     * Hetu allows JDBC connectors to choose the split column per table.
+     *
+     * @return comma separated list of schema.table.column entries
+     */
+    @Nullable
+    public String getSplitColumns()
+    {
+        return splitColumns;
+    }
+
+    @Config("split-columns")
+    @ConfigDescription("Comma separated list of schema.table.column, the column used to split the scan of the table")
+    public BaseJdbcConfig setSplitColumns(String splitColumns)
+    {
+        this.splitColumns = splitColumns;
+        return this;
+    }
 }
@@ -32,6 +32,7 @@ import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.OptionalInt;
 import java.util.Set;
 
 public abstract class ForwardingJdbcClient
@@ -150,6 +151,24 @@ public abstract class ForwardingJdbcClient
         return getDelegate().buildInsertSql(handle);
     }
 
+    @Override
+    public boolean supportsMultiRowInsert()
+    {
+        return getDelegate().supportsMultiRowInsert();
+    }
+
+    @Override
+    public OptionalInt getMaxInsertParameters()
+    {
+        return getDelegate().getMaxInsertParameters();
+    }
+
+    @Override
+    public String buildInsertSql(JdbcOutputTableHandle handle, int rowCount)
+    {
+        return getDelegate().buildInsertSql(handle, rowCount);
+    }
+
     @Override
     public Connection getConnection(JdbcIdentity identity, JdbcOutputTableHandle handle)
             throws SQLException
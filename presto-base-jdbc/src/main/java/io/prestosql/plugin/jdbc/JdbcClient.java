@@ -13,6 +13,7 @@
  */
 package io.prestosql.plugin.jdbc;
 
+import io.prestosql.spi.PrestoException;
 import io.prestosql.spi.connector.ColumnHandle;
 import io.prestosql.spi.connector.ColumnMetadata;
 import io.prestosql.spi.connector.ConnectorSession;
@@ -32,8 +33,11 @@ import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.OptionalInt;
 import java.util.Set;
 
+import static io.prestosql.spi.StandardErrorCode.NOT_SUPPORTED;
+
 public interface JdbcClient
 {
     default boolean schemaExists(JdbcIdentity identity, String schema)
@@ -95,6 +99,40 @@ public interface JdbcClient
 
     String buildInsertSql(JdbcOutputTableHandle handle);
 
+    /**
+     * Hetu's page sink inserts several rows with one statement if the remote database supports multi-row VALUES.
+     *
+     * @return true if {@link #buildInsertSql(JdbcOutputTableHandle, int)} builds multi-row insert statements
+     */
+    default boolean supportsMultiRowInsert()
+    {
+        return false;
+    }
+
+    /**
+     * Hetu's page sink limits the rows of a multi-row insert statement to this number of bind parameters,
+     * only called if {@link #supportsMultiRowInsert()} returns true.
+     *
+     * @return the maximum number of bind parameters of an insert statement, empty if not limited
+     */
+    default OptionalInt getMaxInsertParameters()
+    {
+        return OptionalInt.empty();
+    }
+
+    /**
+     * Hetu's page sink uses this to build an insert statement of multiple rows,
+     * only called if {@link #supportsMultiRowInsert()} returns true.
+     *
+     * @param handle the table to insert into
+     * @param rowCount the number of rows of the statement
+     * @return the multi-row insert statement
+     */
+    default String buildInsertSql(JdbcOutputTableHandle handle, int rowCount)
+    {
+        throw new PrestoException(NOT_SUPPORTED, "This connector does not support multi-row inserts");
+    }
+
     Connection getConnection(JdbcIdentity identity, JdbcOutputTableHandle handle)
             throws SQLException;
 
@@ -27,30 +27,82 @@ import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.SQLException;
 import java.sql.SQLNonTransientException;
+import java.util.ArrayDeque;
 import java.util.Collection;
+import java.util.Deque;
 import java.util.List;
+import java.util.OptionalInt;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicLong;
 
+import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Verify.verify;
 import static com.google.common.collect.ImmutableList.toImmutableList;
+import static com.google.common.util.concurrent.MoreExecutors.directExecutor;
 import static io.prestosql.plugin.jdbc.JdbcErrorCode.JDBC_ERROR;
 import static io.prestosql.plugin.jdbc.JdbcErrorCode.JDBC_NON_TRANSIENT_ERROR;
+import static java.lang.Math.min;
 import static java.lang.String.format;
+import static java.util.Objects.requireNonNull;
 import static java.util.concurrent.CompletableFuture.completedFuture;
 
+/**
+ * Writes pages into the remote table.
+ * <p>
+ * Hetu writes the pages on an executor, so that the engine can produce the next page while the previous
+ * one is sent to the remote database. At most the configured number of pages are buffered before
+ * {@link #appendPage(Page)} blocks. Pages are written by one task at a time, in the order they were appended.
+ * If the remote database supports multi-row VALUES, several rows are sent with one insert statement.
+ */
 public class JdbcPageSink
         implements ConnectorPageSink
 {
+    // rows written between two commits
+    private static final int COMMIT_ROWS = 1000;
+    // rows of a multi-row insert statement
+    private static final int MAX_ROWS_PER_INSERT = 100;
+
     private final Connection connection;
     private final PreparedStatement statement;
+    // null if the remote database does not support multi-row inserts
+    private final PreparedStatement multiRowStatement;
+    private final int rowsPerInsert;
 
     private final List<Type> columnTypes;
     private final List<WriteFunction> columnWriters;
     private final List<WriteNullFunction> nullWriters;
+
+    private final Executor executor;
+    private final int maxBufferedPages;
+    private final AtomicLong bufferedBytes = new AtomicLong();
+    private volatile boolean aborted;
+
+    // only accessed by the thread appending pages
+    private CompletableFuture<?> writes = completedFuture(null);
+    private final Deque<CompletableFuture<?>> recentWrites = new ArrayDeque<>();
+
+    // only accessed by the task currently writing a page
     private int batchSize;
+    private boolean statementBatched;
+    private boolean multiRowStatementBatched;
 
     public JdbcPageSink(ConnectorSession session, JdbcOutputTableHandle handle, JdbcClient jdbcClient)
     {
+        this(session, handle, jdbcClient, directExecutor(), 1);
+    }
+
+    /**
+     * @param executor executor writing the pages
+     * @param maxBufferedPages number of pages buffered before {@link #appendPage(Page)} blocks
+     */
+    public JdbcPageSink(ConnectorSession session, JdbcOutputTableHandle handle, JdbcClient jdbcClient, Executor executor, int maxBufferedPages)
+    {
+        checkArgument(maxBufferedPages > 0, "maxBufferedPages must be positive");
+        this.executor = requireNonNull(executor, "executor is null");
+        this.maxBufferedPages = maxBufferedPages;
+
         try {
             connection = jdbcClient.getConnection(JdbcIdentity.from(session), handle);
         }
@@ -58,17 +110,26 @@ public class JdbcPageSink
             throw new PrestoException(JDBC_ERROR, e);
         }
 
+        columnTypes = handle.getColumnTypes();
+
+        if (jdbcClient.supportsMultiRowInsert()) {
+            OptionalInt maxInsertParameters = jdbcClient.getMaxInsertParameters();
+            rowsPerInsert = maxInsertParameters.isPresent() ? min(MAX_ROWS_PER_INSERT, maxInsertParameters.getAsInt() / columnTypes.size()) : MAX_ROWS_PER_INSERT;
+        }
+        else {
+            rowsPerInsert = 1;
+        }
+
         try {
             connection.setAutoCommit(false);
             statement = connection.prepareStatement(jdbcClient.buildInsertSql(handle));
+            multiRowStatement = rowsPerInsert > 1 ? connection.prepareStatement(jdbcClient.buildInsertSql(handle, rowsPerInsert)) : null;
         }
         catch (SQLException e) {
             closeWithSuppression(connection, e);
             throw new PrestoException(JDBC_ERROR, "jdbc connection failed to set auto commit or prepare statement");
         }
 
-        columnTypes = handle.getColumnTypes();
-
         List<WriteMapping> writeMappings = columnTypes.stream()
                 .map(type -> {
                     WriteMapping writeMapping = jdbcClient.toWriteMapping(session, type);
@@ -92,37 +153,111 @@ public class JdbcPageSink
                 .collect(toImmutableList());
     }
 
+    @Override
+    public long getSystemMemoryUsage()
+    {
+        return bufferedBytes.get();
+    }
+
     @Override
     public CompletableFuture<?> appendPage(Page page)
     {
-        try {
-            for (int position = 0; position < page.getPositionCount(); position++) {
-                for (int channel = 0; channel < page.getChannelCount(); channel++) {
-                    appendColumn(page, position, channel);
+        checkWriteFailure();
+
+        // lazy blocks can only be loaded while the source is still positioned on this page
+        Page loadedPage = page.getLoadedPage();
+        long pageBytes = loadedPage.getRetainedSizeInBytes();
+        bufferedBytes.addAndGet(pageBytes);
+        writes = writes.handleAsync((ignored, failure) -> {
+            try {
+                // the page is not written after a failure, but its memory is released
+                if (failure != null) {
+                    throw failure instanceof CompletionException ? (CompletionException) failure : new CompletionException(failure);
                 }
+                if (!aborted) {
+                    writePage(loadedPage);
+                }
+                return null;
+            }
+            finally {
+                bufferedBytes.addAndGet(-pageBytes);
+            }
+        }, executor);
 
-                statement.addBatch();
-                batchSize++;
+        recentWrites.addLast(writes);
+        if (recentWrites.size() > maxBufferedPages) {
+            recentWrites.removeFirst();
+        }
+        checkWriteFailure();
+
+        if (recentWrites.size() < maxBufferedPages) {
+            return NOT_BLOCKED;
+        }
+        // block until less than maxBufferedPages pages are waiting to be written, a failure is reported by the next call
+        return recentWrites.getFirst().handle((result, failure) -> null);
+    }
+
+    private void writePage(Page page)
+    {
+        try {
+            int position = 0;
+            if (multiRowStatement != null) {
+                int columnCount = columnTypes.size();
+                for (; position + rowsPerInsert <= page.getPositionCount(); position += rowsPerInsert) {
+                    for (int row = 0; row < rowsPerInsert; row++) {
+                        for (int channel = 0; channel < page.getChannelCount(); channel++) {
+                            appendColumn(multiRowStatement, page, position + row, channel, row * columnCount + channel + 1);
+                        }
+                    }
+                    multiRowStatement.addBatch();
+                    multiRowStatementBatched = true;
+                    addRows(rowsPerInsert);
+                }
+            }
 
-                if (batchSize >= 1000) {
-                    statement.executeBatch();
-                    connection.commit();
-                    connection.setAutoCommit(false);
-                    batchSize = 0;
+            for (; position < page.getPositionCount(); position++) {
+                for (int channel = 0; channel < page.getChannelCount(); channel++) {
+                    appendColumn(statement, page, position, channel, channel + 1);
                 }
+                statement.addBatch();
+                statementBatched = true;
+                addRows(1);
             }
         }
         catch (SQLException e) {
             throw new PrestoException(JDBC_ERROR, e);
         }
-        return NOT_BLOCKED;
     }
 
-    private void appendColumn(Page page, int position, int channel)
+    private void addRows(int rows)
+            throws SQLException
+    {
+        batchSize += rows;
+        if (batchSize >= COMMIT_ROWS) {
+            executeBatches();
+            connection.commit();
+            connection.setAutoCommit(false);
+            batchSize = 0;
+        }
+    }
+
+    private void executeBatches()
+            throws SQLException
+    {
+        if (multiRowStatementBatched) {
+            multiRowStatement.executeBatch();
+            multiRowStatementBatched = false;
+        }
+        if (statementBatched) {
+            statement.executeBatch();
+            statementBatched = false;
+        }
+    }
+
+    private void appendColumn(PreparedStatement statement, Page page, int position, int channel, int parameterIndex)
             throws SQLException
     {
         Block block = page.getBlock(channel);
-        int parameterIndex = channel + 1;
 
         if (block.isNull(position)) {
             nullWriters.get(channel).setNull(statement, parameterIndex);
@@ -155,11 +290,32 @@ public class JdbcPageSink
     @Override
     public CompletableFuture<Collection<Slice>> finish()
     {
-        // commit and close
+        // commit once the pages still being written are written, a failure is rolled back by abort()
+        CompletableFuture<Collection<Slice>> result = new CompletableFuture<>();
+        writes.whenCompleteAsync((ignored, failure) -> {
+            if (failure != null) {
+                result.completeExceptionally(propagateWriteFailure(failure));
+                return;
+            }
+            try {
+                commit();
+                // the committer does not need any additional info
+                result.complete(ImmutableList.of());
+            }
+            catch (Throwable t) {
+                result.completeExceptionally(t);
+            }
+        }, executor);
+        return result;
+    }
+
+    private void commit()
+    {
         try (Connection connection = this.connection;
-                PreparedStatement statement = this.statement) {
+                PreparedStatement statement = this.statement;
+                PreparedStatement multiRowStatement = this.multiRowStatement) {
             if (batchSize > 0) {
-                statement.executeBatch();
+                executeBatches();
                 connection.commit();
             }
         }
@@ -169,17 +325,20 @@ public class JdbcPageSink
         catch (SQLException e) {
             throw new PrestoException(JDBC_ERROR, e);
         }
-        // the committer does not need any additional info
-        return completedFuture(ImmutableList.of());
     }
 
     @SuppressWarnings("unused")
     @Override
     public void abort()
     {
+        // pages not written yet are skipped, the connection can only be used once the current one is written
+        aborted = true;
+        writes.handle((result, failure) -> null).join();
+
         // rollback and close
         try (Connection connection = this.connection;
-                PreparedStatement statement = this.statement) {
+                PreparedStatement statement = this.statement;
+                PreparedStatement multiRowStatement = this.multiRowStatement) {
             // skip rollback if implicitly closed due to an error
             if (!connection.isClosed()) {
                 connection.rollback();
@@ -190,6 +349,27 @@ public class JdbcPageSink
         }
     }
 
+    private void checkWriteFailure()
+    {
+        if (writes.isCompletedExceptionally()) {
+            try {
+                writes.join();
+            }
+            catch (CompletionException e) {
+                throw propagateWriteFailure(e);
+            }
+        }
+    }
+
+    private static PrestoException propagateWriteFailure(Throwable failure)
+    {
+        Throwable cause = failure instanceof CompletionException ? failure.getCause() : failure;
+        if (cause instanceof PrestoException) {
+            return (PrestoException) cause;
+        }
+        return new PrestoException(JDBC_ERROR, cause);
+    }
+
     @SuppressWarnings("ObjectEquality")
     private static void closeWithSuppression(Connection connection, Throwable throwable)
     {
@@ -20,30 +20,46 @@ import io.prestosql.spi.connector.ConnectorPageSinkProvider;
 import io.prestosql.spi.connector.ConnectorSession;
 import io.prestosql.spi.connector.ConnectorTransactionHandle;
 
+import javax.annotation.PreDestroy;
 import javax.inject.Inject;
 
+import java.util.concurrent.ExecutorService;
+
+import static io.airlift.concurrent.Threads.daemonThreadsNamed;
 import static java.util.Objects.requireNonNull;
+import static java.util.concurrent.Executors.newFixedThreadPool;
 
 public class JdbcPageSinkProvider
         implements ConnectorPageSinkProvider
 {
     private final JdbcClient jdbcClient;
+    private final int bufferedPages;
+    private final ExecutorService executor;
 
     @Inject
-    public JdbcPageSinkProvider(@InternalBaseJdbc JdbcClient jdbcClient)
+    public JdbcPageSinkProvider(@InternalBaseJdbc JdbcClient jdbcClient, BaseJdbcConfig config)
     {
         this.jdbcClient = requireNonNull(jdbcClient, "jdbcClient is null");
+        requireNonNull(config, "config is null");
+        this.bufferedPages = config.getWriteBufferedPages();
+        this.executor = newFixedThreadPool(config.getWriteThreads(), daemonThreadsNamed("jdbc-page-sink-%s"));
+    }
+
+    @PreDestroy
+    public void destroy()
+    {
+        executor.shutdownNow();
     }
 
     @Override
     public ConnectorPageSink createPageSink(ConnectorTransactionHandle transactionHandle, ConnectorSession session, ConnectorOutputTableHandle tableHandle)
     {
-        return new JdbcPageSink(session, (JdbcOutputTableHandle) tableHandle, jdbcClient);
+        return new JdbcPageSink(session, (JdbcOutputTableHandle) tableHandle, jdbcClient, executor, bufferedPages);
     }
 
     @Override
     public ConnectorPageSink createPageSink(ConnectorTransactionHandle transactionHandle, ConnectorSession session, ConnectorInsertTableHandle tableHandle)
     {
-        return new JdbcPageSink(session, (JdbcOutputTableHandle) tableHandle, jdbcClient);
+        return new JdbcPageSink(session, (JdbcOutputTableHandle) tableHandle, jdbcClient, executor, bufferedPages);
     }
 }
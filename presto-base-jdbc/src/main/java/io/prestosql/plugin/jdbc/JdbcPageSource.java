@@ -0,0 +1,497 @@
+/*
+ * Copyright (C) 2018-2020. Huawei Technologies Co., Ltd. All rights reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.plugin.jdbc;
+
+import com.google.common.base.VerifyException;
+import com.google.common.collect.ImmutableList;
+import io.airlift.log.Logger;
+import io.airlift.slice.Slice;
+import io.prestosql.spi.Page;
+import io.prestosql.spi.PageBuilder;
+import io.prestosql.spi.PrestoException;
+import io.prestosql.spi.block.Block;
+import io.prestosql.spi.block.BlockBuilder;
+import io.prestosql.spi.connector.ConnectorPageSource;
+import io.prestosql.spi.connector.ConnectorSession;
+import io.prestosql.spi.type.Type;
+
+import javax.annotation.concurrent.GuardedBy;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Throwables.throwIfUnchecked;
+import static com.google.common.collect.ImmutableList.toImmutableList;
+import static io.prestosql.plugin.jdbc.JdbcErrorCode.JDBC_ERROR;
+import static java.lang.String.format;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Reads a JDBC result set in batches directly into pages.
+ * <p>
+ * Each column is written by a column writer created once for its type, so a value is read and written
+ * without going through a record cursor. With a positive prefetch depth, the result set is read
+ * by a background thread up to that many pages ahead of the consumer, which hides the network
+ * round trips of the fetches behind the processing of the previous pages.
+ */
+public class JdbcPageSource
+        implements ConnectorPageSource
+{
+    private static final Logger log = Logger.get(JdbcPageSource.class);
+
+    private final JdbcClient jdbcClient;
+    private final ConnectorSession session;
+    private final JdbcSplit split;
+    private final JdbcTableHandle table;
+    private final List<JdbcColumnHandle> columnHandles;
+    private final int batchSize;
+    private final int prefetchPages;
+    private final Executor executor;
+    private final AtomicLong completedBytes = new AtomicLong();
+    private final AtomicLong readTimeNanos = new AtomicLong();
+
+    // only accessed by the thread currently reading the result set
+    private final PageBuilder pageBuilder;
+    private ColumnWriter[] columnWriters;
+    // also read by close() to abort a read in flight
+    private volatile Connection connection;
+    private volatile PreparedStatement statement;
+    private ResultSet resultSet;
+    private boolean exhausted;
+    private boolean resourcesClosed;
+
+    @GuardedBy("this")
+    private final Queue<Page> pages = new ArrayDeque<>();
+    @GuardedBy("this")
+    private long bufferedBytes;
+    @GuardedBy("this")
+    private boolean reading;
+    @GuardedBy("this")
+    private boolean readFinished;
+    @GuardedBy("this")
+    private boolean closed;
+    @GuardedBy("this")
+    private Throwable failure;
+    @GuardedBy("this")
+    private CompletableFuture<?> blocked = new CompletableFuture<>();
+
+    /**
+     * @param batchSize maximum number of rows of a page
+     * @param prefetchPages number of pages read ahead by a background thread, 0 reads on the calling thread
+     */
+    public JdbcPageSource(
+            JdbcClient jdbcClient,
+            ConnectorSession session,
+            JdbcSplit split,
+            JdbcTableHandle table,
+            List<JdbcColumnHandle> columnHandles,
+            int batchSize,
+            int prefetchPages,
+            Executor executor)
+    {
+        checkArgument(batchSize > 0, "batchSize must be positive");
+        checkArgument(prefetchPages >= 0, "prefetchPages is negative");
+        this.jdbcClient = requireNonNull(jdbcClient, "jdbcClient is null");
+        this.session = requireNonNull(session, "session is null");
+        this.split = requireNonNull(split, "split is null");
+        this.table = requireNonNull(table, "table is null");
+        this.columnHandles = ImmutableList.copyOf(requireNonNull(columnHandles, "columnHandles is null"));
+        this.batchSize = batchSize;
+        this.prefetchPages = prefetchPages;
+        this.executor = requireNonNull(executor, "executor is null");
+        this.pageBuilder = new PageBuilder(batchSize, columnHandles.stream()
+                .map(JdbcColumnHandle::getColumnType)
+                .collect(toImmutableList()));
+    }
+
+    @Override
+    public long getCompletedBytes()
+    {
+        return completedBytes.get();
+    }
+
+    @Override
+    public long getReadTimeNanos()
+    {
+        return readTimeNanos.get();
+    }
+
+    @Override
+    public synchronized boolean isFinished()
+    {
+        return closed || (readFinished && pages.isEmpty());
+    }
+
+    @Override
+    public Page getNextPage()
+    {
+        if (prefetchPages == 0) {
+            synchronized (this) {
+                if (closed || readFinished) {
+                    return null;
+                }
+            }
+            Page page = readPage();
+            if (page == null || exhausted) {
+                synchronized (this) {
+                    readFinished = true;
+                }
+            }
+            return page;
+        }
+
+        synchronized (this) {
+            if (failure != null) {
+                throwIfUnchecked(failure);
+                throw new PrestoException(JDBC_ERROR, failure);
+            }
+            Page page = pages.poll();
+            if (page != null) {
+                bufferedBytes -= page.getRetainedSizeInBytes();
+            }
+            startPrefetch();
+            return page;
+        }
+    }
+
+    @Override
+    public synchronized CompletableFuture<?> isBlocked()
+    {
+        if (prefetchPages == 0 || !pages.isEmpty() || readFinished || closed || failure != null) {
+            return NOT_BLOCKED;
+        }
+        startPrefetch();
+        if (blocked.isDone()) {
+            blocked = new CompletableFuture<>();
+        }
+        return blocked;
+    }
+
+    @Override
+    public synchronized long getSystemMemoryUsage()
+    {
+        return bufferedBytes;
+    }
+
+    @Override
+    public void close()
+    {
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            pages.clear();
+            bufferedBytes = 0;
+            blocked.complete(null);
+            if (reading) {
+                // abort the remote query now, the prefetching thread closes the result set once the current batch
+                // fails or finishes
+                abortRead();
+                return;
+            }
+        }
+        closeResources();
+    }
+
+    private void abortRead()
+    {
+        Connection connection = this.connection;
+        PreparedStatement statement = this.statement;
+        try {
+            if (statement != null) {
+                statement.cancel();
+            }
+            if (connection != null) {
+                jdbcClient.abortReadConnection(connection);
+            }
+        }
+        catch (SQLException e) {
+            // ignore exception from abort, the reading thread closes the resources
+        }
+    }
+
+    @GuardedBy("this")
+    private void startPrefetch()
+    {
+        if (!reading && !readFinished && !closed && failure == null && pages.size() < prefetchPages) {
+            reading = true;
+            executor.execute(this::prefetch);
+        }
+    }
+
+    private void prefetch()
+    {
+        while (true) {
+            Page page;
+            try {
+                page = readPage();
+            }
+            catch (Throwable t) {
+                synchronized (this) {
+                    failure = t;
+                    reading = false;
+                    blocked.complete(null);
+                }
+                return;
+            }
+
+            boolean closeResources;
+            synchronized (this) {
+                if (page != null && !closed) {
+                    pages.add(page);
+                    bufferedBytes += page.getRetainedSizeInBytes();
+                }
+                if (page == null || exhausted) {
+                    readFinished = true;
+                }
+                blocked.complete(null);
+                if (!closed && !readFinished && pages.size() < prefetchPages) {
+                    continue;
+                }
+                reading = false;
+                closeResources = closed;
+            }
+            if (closeResources) {
+                closeResources();
+            }
+            return;
+        }
+    }
+
+    /**
+     * Reads the next batch of rows, returns null once the result set is exhausted.
+     * Only one thread reads at a time.
+     */
+    private Page readPage()
+    {
+        if (exhausted) {
+            return null;
+        }
+
+        long start = System.nanoTime();
+        try {
+            if (resultSet == null) {
+                open();
+            }
+            while (pageBuilder.getPositionCount() < batchSize && !pageBuilder.isFull()) {
+                if (!resultSet.next()) {
+                    exhausted = true;
+                    break;
+                }
+                pageBuilder.declarePosition();
+                for (int i = 0; i < columnWriters.length; i++) {
+                    columnWriters[i].write(resultSet, i + 1, pageBuilder.getBlockBuilder(i));
+                }
+            }
+        }
+        catch (SQLException | RuntimeException e) {
+            throw handleSqlException(e);
+        }
+        finally {
+            readTimeNanos.addAndGet(System.nanoTime() - start);
+        }
+
+        if (exhausted) {
+            closeResources();
+        }
+        if (pageBuilder.isEmpty()) {
+            return null;
+        }
+        Page page = pageBuilder.build();
+        pageBuilder.reset();
+        completedBytes.addAndGet(page.getSizeInBytes());
+        return page;
+    }
+
+    private void open()
+            throws SQLException
+    {
+        connection = jdbcClient.getConnection(JdbcIdentity.from(session), split);
+
+        columnWriters = new ColumnWriter[columnHandles.size()];
+        for (int i = 0; i < columnWriters.length; i++) {
+            ColumnMapping columnMapping = jdbcClient.toPrestoType(session, connection, columnHandles.get(i).getJdbcTypeHandle())
+                    .orElseThrow(() -> new VerifyException("Unsupported column type"));
+            columnWriters[i] = createColumnWriter(columnMapping.getType(), columnMapping.getReadFunction());
+        }
+
+        statement = jdbcClient.buildSql(session, connection, split, table, columnHandles);
+        log.debug("Executing: %s", statement.toString());
+        resultSet = statement.executeQuery();
+    }
+
+    private void closeResources()
+    {
+        if (resourcesClosed) {
+            return;
+        }
+        resourcesClosed = true;
+
+        // use try with resources to close everything properly
+        try (Connection connection = this.connection;
+                Statement statement = this.statement;
+                ResultSet resultSet = this.resultSet) {
+            if (connection != null && !exhausted) {
+                jdbcClient.abortReadConnection(connection);
+            }
+        }
+        catch (SQLException e) {
+            // ignore exception from close
+        }
+    }
+
+    private RuntimeException handleSqlException(Exception e)
+    {
+        try {
+            closeResources();
+        }
+        catch (Exception closeException) {
+            // Self-suppression not permitted
+            if (e != closeException) {
+                e.addSuppressed(closeException);
+            }
+        }
+        return new PrestoException(JDBC_ERROR, e);
+    }
+
+    private static ColumnWriter createColumnWriter(Type type, ReadFunction readFunction)
+    {
+        Class<?> javaType = type.getJavaType();
+        if (javaType == boolean.class) {
+            BooleanReadFunction booleanReadFunction = (BooleanReadFunction) readFunction;
+            return (resultSet, columnIndex, output) -> {
+                boolean value;
+                try {
+                    value = booleanReadFunction.readBoolean(resultSet, columnIndex);
+                }
+                catch (NullPointerException e) {
+                    rethrowUnlessNull(resultSet, e);
+                    value = false;
+                }
+                if (resultSet.wasNull()) {
+                    output.appendNull();
+                }
+                else {
+                    type.writeBoolean(output, value);
+                }
+            };
+        }
+        if (javaType == long.class) {
+            LongReadFunction longReadFunction = (LongReadFunction) readFunction;
+            return (resultSet, columnIndex, output) -> {
+                long value;
+                try {
+                    value = longReadFunction.readLong(resultSet, columnIndex);
+                }
+                catch (NullPointerException e) {
+                    rethrowUnlessNull(resultSet, e);
+                    value = 0;
+                }
+                if (resultSet.wasNull()) {
+                    output.appendNull();
+                }
+                else {
+                    type.writeLong(output, value);
+                }
+            };
+        }
+        if (javaType == double.class) {
+            DoubleReadFunction doubleReadFunction = (DoubleReadFunction) readFunction;
+            return (resultSet, columnIndex, output) -> {
+                double value;
+                try {
+                    value = doubleReadFunction.readDouble(resultSet, columnIndex);
+                }
+                catch (NullPointerException e) {
+                    rethrowUnlessNull(resultSet, e);
+                    value = 0;
+                }
+                if (resultSet.wasNull()) {
+                    output.appendNull();
+                }
+                else {
+                    type.writeDouble(output, value);
+                }
+            };
+        }
+        if (javaType == Slice.class) {
+            SliceReadFunction sliceReadFunction = (SliceReadFunction) readFunction;
+            return (resultSet, columnIndex, output) -> {
+                Slice value;
+                try {
+                    value = sliceReadFunction.readSlice(resultSet, columnIndex);
+                }
+                catch (NullPointerException e) {
+                    rethrowUnlessNull(resultSet, e);
+                    value = null;
+                }
+                if (resultSet.wasNull()) {
+                    output.appendNull();
+                }
+                else {
+                    type.writeSlice(output, value);
+                }
+            };
+        }
+        if (javaType == Block.class) {
+            BlockReadFunction blockReadFunction = (BlockReadFunction) readFunction;
+            return (resultSet, columnIndex, output) -> {
+                Block value;
+                try {
+                    value = blockReadFunction.readBlock(resultSet, columnIndex);
+                }
+                catch (NullPointerException e) {
+                    rethrowUnlessNull(resultSet, e);
+                    value = null;
+                }
+                if (resultSet.wasNull()) {
+                    output.appendNull();
+                }
+                else {
+                    type.writeObject(output, value);
+                }
+            };
+        }
+        throw new IllegalStateException(format("Unsupported java type %s", javaType));
+    }
+
+    private static void rethrowUnlessNull(ResultSet resultSet, NullPointerException e)
+            throws SQLException
+    {
+        // the value is read before checking for null, and read functions that
+        // dereference the value returned by the driver are not null safe
+        if (!resultSet.wasNull()) {
+            throw e;
+        }
+    }
+
+    @FunctionalInterface
+    private interface ColumnWriter
+    {
+        void write(ResultSet resultSet, int columnIndex, BlockBuilder output)
+                throws SQLException;
+    }
+}
@@ -48,6 +48,8 @@ public class QueryBuilder
     // not all databases support booleans, so use 1=1 and 1=0 instead
     private static final String ALWAYS_TRUE = "1=1";
     private static final String ALWAYS_FALSE = "1=0";
+    // Hetu: some databases require an alias for a pushed down sub-query
+    static final String SUB_QUERY_ALIAS = "hetu_sub_query";
 
     private final String identifierQuote;
     private boolean isPushSubQueryDown;
@@ -126,7 +128,7 @@ public class QueryBuilder
             sql.append(quote(schema)).append('.');
         }
         if (isPushSubQueryDown) {
-            sql.append(table);
+            sql.append(table).append(' ').append(quote(SUB_QUERY_ALIAS));
         }
         else {
             sql.append(quote(table));
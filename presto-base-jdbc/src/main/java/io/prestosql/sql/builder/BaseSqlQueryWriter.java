@@ -16,6 +16,7 @@ package io.prestosql.sql.builder;
 
 import com.google.common.base.Joiner;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
 import io.prestosql.spi.block.SortOrder;
 import io.prestosql.spi.sql.SqlQueryWriter;
 import io.prestosql.spi.sql.expression.Operators;
@@ -34,7 +35,9 @@ import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.StringJoiner;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static com.google.common.base.Preconditions.checkArgument;
 import static java.util.Objects.requireNonNull;
@@ -45,10 +48,14 @@ public class BaseSqlQueryWriter
 {
     private static final String INTERNAL_FUNCTION_PREFIX = "$";
     private static final String DYNAMIC_FILTER_FUNCTION_NAME = "$internal$dynamic_filter_function";
+    private static final String DERIVED_TABLE_ALIAS_PREFIX = "hetu_dt_";
+    // keywords following a derived table without an alias
+    private static final Set<String> CLAUSE_KEYWORDS = ImmutableSet.of("WHERE", "GROUP", "HAVING", "ORDER", "LIMIT", "OFFSET", "FETCH");
 
     private final ThreadLocal<DecimalFormat> doubleFormatter = ThreadLocal.withInitial(
             () -> new DecimalFormat("0.###################E0###", new DecimalFormatSymbols(Locale.US)));
     private final Map<String, Integer> blacklistedFunctions;
+    private final AtomicInteger nextDerivedTableId = new AtomicInteger();
 
     public BaseSqlQueryWriter()
     {
@@ -755,6 +762,85 @@ public class BaseSqlQueryWriter
         return select(symbols, builder.toString());
     }
 
+    /**
+     * Hetu: databases like MySQL, PostgreSQL and SQL Server require an alias for every derived table.
+     * Writers of these databases pass the FROM clause of a query through this method.
+     *
+     * @param from the FROM clause without the FROM keyword
+     * @return the FROM clause with an alias after its leading derived table, if that table has none
+     */
+    protected String aliasDerivedTable(String from)
+    {
+        int start = 0;
+        while (start < from.length() && Character.isWhitespace(from.charAt(start))) {
+            start++;
+        }
+        if (start == from.length() || from.charAt(start) != '(') {
+            return from;
+        }
+        int end = findClosingParenthesis(from, start);
+        if (end < 0) {
+            return from;
+        }
+        String rest = from.substring(end + 1);
+        String nextWord = rest.trim().split("\\s+", 2)[0].toUpperCase(Locale.ENGLISH);
+        if (!nextWord.isEmpty() && !CLAUSE_KEYWORDS.contains(nextWord)) {
+            // already aliased, for example the sources of a join
+            return from;
+        }
+        return from.substring(0, end + 1) + " " + DERIVED_TABLE_ALIAS_PREFIX + nextDerivedTableId.getAndIncrement() + rest;
+    }
+
+    /**
+     * Hetu: databases like MySQL and SQL Server sort nulls as the smallest value and do not support
+     * NULLS FIRST or NULLS LAST. This writes an additional sort key where the order of nulls differs.
+     *
+     * @param orders the sort keys
+     * @return the ORDER BY clause with a leading space
+     */
+    protected String orderByWithoutNullOrdering(List<OrderBy> orders)
+    {
+        StringJoiner joiner = new StringJoiner(", ");
+        for (OrderBy orderBy : orders) {
+            SortOrder sortOrder = orderBy.getType();
+            String direction = sortOrder.isAscending() ? "ASC" : "DESC";
+            if (sortOrder.isAscending() != sortOrder.isNullsFirst()) {
+                // nulls are sorted first for descending or last for ascending order
+                joiner.add("CASE WHEN " + orderBy.getSymbol() + " IS NULL THEN 1 ELSE 0 END " + direction);
+            }
+            joiner.add(orderBy.getSymbol() + " " + direction);
+        }
+        return " ORDER BY " + joiner.toString();
+    }
+
+    private static int findClosingParenthesis(String sql, int start)
+    {
+        int depth = 0;
+        char quote = 0;
+        for (int i = start; i < sql.length(); i++) {
+            char c = sql.charAt(i);
+            if (quote != 0) {
+                // a doubled quote inside a literal closes and reopens it
+                if (c == quote) {
+                    quote = 0;
+                }
+            }
+            else if (c == '\'' || c == '"' || c == '`') {
+                quote = c;
+            }
+            else if (c == '(') {
+                depth++;
+            }
+            else if (c == ')') {
+                depth--;
+                if (depth == 0) {
+                    return i;
+                }
+            }
+        }
+        return -1;
+    }
+
     private static boolean isAsciiPrintable(int codePoint)
     {
         return codePoint < 0x7F && codePoint >= 0x20;
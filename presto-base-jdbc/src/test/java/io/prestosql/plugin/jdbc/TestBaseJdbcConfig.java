@@ -36,6 +36,12 @@ public class TestBaseJdbcConfig
                 .setPasswordCredentialName(null)
                 .setCaseInsensitiveNameMatching(false)
                 .setFetchSize(0)
+                .setPrefetchPages(1)
+                .setPrefetchThreads(8)
+                .setWriteThreads(8)
+                .setWriteBufferedPages(2)
+                .setSplitCount(1)
+                .setSplitColumns(null)
                 .setUseConnectionPool(false)
                 .setBlockWhenExhausted(false)
                 .setFairness(false)
@@ -68,6 +74,12 @@ public class TestBaseJdbcConfig
                 .put("case-insensitive-name-matching", "true")
                 .put("case-insensitive-name-matching.cache-ttl", "1s")
                 .put("fetch-size", "1000")
+                .put("prefetch-pages", "4")
+                .put("prefetch-threads", "2")
+                .put("write-threads", "4")
+                .put("write-buffered-pages", "3")
+                .put("split-count", "8")
+                .put("split-columns", "tpch.orders.orderkey")
                 .put("jdbc.connection.pool.lifo", "false")
                 .put("jdbc.connection.pool.fairness", "true")
                 .put("jdbc.connection.pool.maxWaitMillis", "1000")
@@ -94,6 +106,12 @@ public class TestBaseJdbcConfig
                 .setPasswordCredentialName("bar")
                 .setCaseInsensitiveNameMatching(true)
                 .setFetchSize(1000)
+                .setPrefetchPages(4)
+                .setPrefetchThreads(2)
+                .setWriteThreads(4)
+                .setWriteBufferedPages(3)
+                .setSplitCount(8)
+                .setSplitColumns("tpch.orders.orderkey")
                 .setUseConnectionPool(true)
                 .setBlockWhenExhausted(false)
                 .setFairness(true)
@@ -14,6 +14,7 @@
 package io.prestosql.plugin.jdbc;
 
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 import io.prestosql.spi.connector.ConnectorSession;
 import io.prestosql.spi.connector.SchemaTableName;
@@ -21,7 +22,13 @@ import org.testng.annotations.AfterClass;
 import org.testng.annotations.BeforeClass;
 import org.testng.annotations.Test;
 
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 import static io.prestosql.plugin.jdbc.TestingJdbcTypeHandle.JDBC_BIGINT;
 import static io.prestosql.plugin.jdbc.TestingJdbcTypeHandle.JDBC_DOUBLE;
@@ -33,6 +40,7 @@ import static io.prestosql.spi.type.RealType.REAL;
 import static io.prestosql.spi.type.VarcharType.VARCHAR;
 import static io.prestosql.spi.type.VarcharType.createVarcharType;
 import static io.prestosql.testing.TestingSession.testSessionBuilder;
+import static java.lang.String.format;
 import static java.util.Locale.ENGLISH;
 import static org.testng.Assert.assertEquals;
 import static org.testng.Assert.assertTrue;
@@ -111,4 +119,77 @@ public class TestJdbcClient
                 new JdbcColumnHandle("COL3", JDBC_DOUBLE, DOUBLE, true),
                 new JdbcColumnHandle("COL4", JDBC_REAL, REAL, true)));
     }
+
+    @Test
+    public void testRangePredicates()
+    {
+        assertEquals(BaseJdbcClient.getRangePredicates("c", 0, 99, 4, String::valueOf), ImmutableList.of(
+                "(c < 25 OR c IS NULL)",
+                "(c >= 25 AND c < 50)",
+                "(c >= 50 AND c < 75)",
+                "c >= 75"));
+        // no more splits than distinct values
+        assertEquals(BaseJdbcClient.getRangePredicates("c", 5, 6, 4, String::valueOf), ImmutableList.of("(c < 6 OR c IS NULL)", "c >= 6"));
+        assertEquals(BaseJdbcClient.getRangePredicates("c", 5, 5, 4, String::valueOf), ImmutableList.of());
+        assertEquals(BaseJdbcClient.getRangePredicates("c", Long.MIN_VALUE, Long.MAX_VALUE, 2, String::valueOf), ImmutableList.of(
+                "(c < 0 OR c IS NULL)",
+                "c >= 0"));
+    }
+
+    @Test
+    public void testParseSplitColumns()
+    {
+        assertEquals(BaseJdbcClient.parseSplitColumns(null), ImmutableMap.of());
+        assertEquals(BaseJdbcClient.parseSplitColumns("tpch.orders.orderkey, Example.Numbers.value"), ImmutableMap.of(
+                new SchemaTableName("tpch", "orders"), "orderkey",
+                new SchemaTableName("example", "numbers"), "value"));
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testInvalidSplitColumns()
+    {
+        BaseJdbcClient.parseSplitColumns("orders.orderkey");
+    }
+
+    @Test
+    public void testRangeSplits()
+            throws Exception
+    {
+        // the primary key is used by default
+        assertRangeSplits(new BaseJdbcConfig().setSplitCount(4), 4);
+        assertRangeSplits(new BaseJdbcConfig().setSplitCount(4).setSplitColumns("tpch.orders.custkey"), 2);
+        // varchar columns can not be split
+        assertRangeSplits(new BaseJdbcConfig().setSplitCount(4).setSplitColumns("tpch.orders.note"), 1);
+    }
+
+    private static void assertRangeSplits(BaseJdbcConfig config, int expectedSplits)
+            throws Exception
+    {
+        try (TestingDatabase database = new TestingDatabase(config)) {
+            Connection connection = database.getConnection();
+            connection.createStatement().execute("ALTER TABLE tpch.orders ADD COLUMN note varchar");
+            for (int i = 1; i <= 100; i++) {
+                // three distinct custkeys, one of them null
+                String custkey = i % 3 == 0 ? "null" : String.valueOf(i % 3);
+                connection.createStatement().execute(format("INSERT INTO tpch.orders VALUES (%s, %s, 'note')", i, custkey));
+            }
+            connection.commit();
+
+            JdbcTableHandle table = database.getTableHandle(session, new SchemaTableName("tpch", "orders"));
+            List<JdbcColumnHandle> columns = ImmutableList.copyOf(database.getColumnHandles(session, table).values());
+            List<JdbcSplit> splits = database.getSplits(session, table);
+            assertEquals(splits.size(), expectedSplits);
+
+            Set<Long> orderKeys = new HashSet<>();
+            for (JdbcSplit split : splits) {
+                try (PreparedStatement statement = database.getJdbcClient().buildSql(session, connection, split, table, columns);
+                        ResultSet resultSet = statement.executeQuery()) {
+                    while (resultSet.next()) {
+                        assertTrue(orderKeys.add(resultSet.getLong("ORDERKEY")), "row read twice");
+                    }
+                }
+            }
+            assertEquals(orderKeys.size(), 100);
+        }
+    }
 }
@@ -0,0 +1,251 @@
+/*
+ * Copyright (C) 2018-2020. Huawei Technologies Co., Ltd. All rights reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.plugin.jdbc;
+
+import com.google.common.collect.ImmutableList;
+import io.prestosql.spi.Page;
+import io.prestosql.spi.PrestoException;
+import io.prestosql.spi.block.BlockBuilder;
+import io.prestosql.spi.block.LazyBlock;
+import io.prestosql.spi.connector.ColumnMetadata;
+import io.prestosql.spi.connector.ConnectorPageSink;
+import io.prestosql.spi.connector.ConnectorSession;
+import io.prestosql.spi.connector.ConnectorTableMetadata;
+import io.prestosql.spi.connector.SchemaTableName;
+import io.prestosql.spi.type.Type;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayDeque;
+import java.util.OptionalInt;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static io.airlift.concurrent.Threads.daemonThreadsNamed;
+import static io.airlift.slice.Slices.utf8Slice;
+import static io.prestosql.plugin.jdbc.WriteMapping.longMapping;
+import static io.prestosql.spi.type.BigintType.BIGINT;
+import static io.prestosql.spi.type.VarcharType.VARCHAR;
+import static io.prestosql.testing.TestingConnectorSession.SESSION;
+import static java.util.concurrent.Executors.newFixedThreadPool;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+@Test(singleThreaded = true)
+public class TestJdbcPageSink
+{
+    private TestingDatabase database;
+    private ExecutorService executor;
+
+    @BeforeClass
+    public void setUp()
+            throws Exception
+    {
+        database = new TestingDatabase();
+        executor = newFixedThreadPool(2, daemonThreadsNamed("test-jdbc-page-sink-%s"));
+    }
+
+    @AfterClass(alwaysRun = true)
+    public void tearDown()
+            throws Exception
+    {
+        executor.shutdownNow();
+        database.close();
+    }
+
+    @DataProvider
+    public Object[][] maxInsertParameters()
+    {
+        // two columns: single row inserts, three and 100 rows per insert
+        return new Object[][] {{OptionalInt.empty()}, {OptionalInt.of(6)}, {OptionalInt.of(1000)}};
+    }
+
+    @Test(dataProvider = "maxInsertParameters")
+    public void testWritePages(OptionalInt maxInsertParameters)
+            throws Exception
+    {
+        JdbcClient jdbcClient = new ForwardingJdbcClient()
+        {
+            @Override
+            protected JdbcClient getDelegate()
+            {
+                return database.getJdbcClient();
+            }
+
+            @Override
+            public boolean supportsMultiRowInsert()
+            {
+                return maxInsertParameters.isPresent();
+            }
+
+            @Override
+            public OptionalInt getMaxInsertParameters()
+            {
+                return maxInsertParameters;
+            }
+        };
+
+        String tableName = "sink_" + maxInsertParameters.orElse(0);
+        JdbcOutputTableHandle handle = jdbcClient.beginCreateTable(SESSION, new ConnectorTableMetadata(
+                new SchemaTableName("example", tableName),
+                ImmutableList.of(new ColumnMetadata("id", BIGINT), new ColumnMetadata("name", VARCHAR))));
+
+        ConnectorPageSink pageSink = new JdbcPageSink(SESSION, handle, jdbcClient, executor, 1);
+        long expectedSum = 0;
+        for (int page = 0; page < 10; page++) {
+            // 7 rows fill two multi-row inserts of three rows and a single row insert
+            CompletableFuture<?> blocked = pageSink.appendPage(createPage(page * 7, 7));
+            expectedSum += (page * 7 * 2 + 6) * 7 / 2;
+            blocked.get();
+        }
+        pageSink.appendPage(createPage(70, 1500)).get();
+        expectedSum += (70L + 1569) * 1500 / 2;
+        pageSink.finish().get();
+        jdbcClient.commitCreateTable(JdbcIdentity.from(SESSION), handle);
+        assertEquals(pageSink.getSystemMemoryUsage(), 0);
+
+        try (Statement statement = database.getConnection().createStatement();
+                ResultSet resultSet = statement.executeQuery("SELECT count(*), sum(id), count(name) FROM example." + tableName)) {
+            assertTrue(resultSet.next());
+            assertEquals(resultSet.getLong(1), 1570);
+            assertEquals(resultSet.getLong(2), expectedSum);
+            // every fifth name is null
+            assertEquals(resultSet.getLong(3), 1570 - 1570 / 5);
+        }
+    }
+
+    @Test
+    public void testAbort()
+            throws Exception
+    {
+        JdbcClient jdbcClient = database.getJdbcClient();
+        JdbcOutputTableHandle handle = jdbcClient.beginCreateTable(SESSION, new ConnectorTableMetadata(
+                new SchemaTableName("example", "sink_abort"),
+                ImmutableList.of(new ColumnMetadata("id", BIGINT), new ColumnMetadata("name", VARCHAR))));
+
+        ConnectorPageSink pageSink = new JdbcPageSink(SESSION, handle, jdbcClient, executor, 2);
+        pageSink.appendPage(createPage(0, 10));
+        pageSink.appendPage(createPage(10, 10));
+        pageSink.abort();
+        assertEquals(pageSink.getSystemMemoryUsage(), 0);
+        jdbcClient.rollbackCreateTable(JdbcIdentity.from(SESSION), handle);
+    }
+
+    @Test
+    public void testWriteFailure()
+            throws Exception
+    {
+        JdbcClient jdbcClient = new ForwardingJdbcClient()
+        {
+            @Override
+            protected JdbcClient getDelegate()
+            {
+                return database.getJdbcClient();
+            }
+
+            @Override
+            public WriteMapping toWriteMapping(ConnectorSession session, Type type)
+            {
+                if (type == BIGINT) {
+                    return longMapping("bigint", (statement, index, value) -> {
+                        throw new SQLException("write failed");
+                    });
+                }
+                return getDelegate().toWriteMapping(session, type);
+            }
+        };
+        JdbcOutputTableHandle handle = jdbcClient.beginCreateTable(SESSION, new ConnectorTableMetadata(
+                new SchemaTableName("example", "sink_failure"),
+                ImmutableList.of(new ColumnMetadata("id", BIGINT), new ColumnMetadata("name", VARCHAR))));
+
+        // the writes run once all pages are appended, so that the failure is not reported by appendPage
+        Queue<Runnable> tasks = new ArrayDeque<>();
+        ConnectorPageSink pageSink = new JdbcPageSink(SESSION, handle, jdbcClient, tasks::add, 3);
+        pageSink.appendPage(createPage(0, 10));
+        pageSink.appendPage(createPage(10, 10));
+        pageSink.appendPage(createPage(20, 10));
+        CompletableFuture<?> finish = pageSink.finish();
+        for (Runnable task = tasks.poll(); task != null; task = tasks.poll()) {
+            task.run();
+        }
+        try {
+            finish.get();
+            fail("expected write failure");
+        }
+        catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof PrestoException);
+        }
+        // the pages skipped after the failure are released as well
+        assertEquals(pageSink.getSystemMemoryUsage(), 0);
+        pageSink.abort();
+        jdbcClient.rollbackCreateTable(JdbcIdentity.from(SESSION), handle);
+    }
+
+    @Test
+    public void testLazyPageLoadedOnAppend()
+            throws Exception
+    {
+        JdbcClient jdbcClient = database.getJdbcClient();
+        JdbcOutputTableHandle handle = jdbcClient.beginCreateTable(SESSION, new ConnectorTableMetadata(
+                new SchemaTableName("example", "sink_lazy"),
+                ImmutableList.of(new ColumnMetadata("id", BIGINT), new ColumnMetadata("name", VARCHAR))));
+
+        Queue<Runnable> tasks = new ArrayDeque<>();
+        ConnectorPageSink pageSink = new JdbcPageSink(SESSION, handle, jdbcClient, tasks::add, 2);
+        Page page = createPage(0, 10);
+        AtomicBoolean loaded = new AtomicBoolean();
+        LazyBlock lazyIds = new LazyBlock<>(page.getPositionCount(), lazyBlock -> {
+            loaded.set(true);
+            lazyBlock.setBlock(page.getBlock(0));
+        });
+        pageSink.appendPage(new Page(lazyIds, page.getBlock(1)));
+        // the source may move on once the page is appended, so the page is loaded before the write is queued
+        assertTrue(loaded.get());
+        assertEquals(pageSink.getSystemMemoryUsage(), page.getRetainedSizeInBytes());
+
+        CompletableFuture<?> finish = pageSink.finish();
+        for (Runnable task = tasks.poll(); task != null; task = tasks.poll()) {
+            task.run();
+        }
+        finish.get();
+        jdbcClient.commitCreateTable(JdbcIdentity.from(SESSION), handle);
+        assertEquals(pageSink.getSystemMemoryUsage(), 0);
+    }
+
+    private static Page createPage(long start, int rows)
+    {
+        BlockBuilder ids = BIGINT.createBlockBuilder(null, rows);
+        BlockBuilder names = VARCHAR.createBlockBuilder(null, rows);
+        for (long id = start; id < start + rows; id++) {
+            BIGINT.writeLong(ids, id);
+            if (id % 5 == 0) {
+                names.appendNull();
+            }
+            else {
+                VARCHAR.writeSlice(names, utf8Slice("name" + id));
+            }
+        }
+        return new Page(ids.build(), names.build());
+    }
+}
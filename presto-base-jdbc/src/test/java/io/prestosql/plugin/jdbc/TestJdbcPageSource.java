@@ -0,0 +1,213 @@
+/*
+ * Copyright (C) 2018-2020. Huawei Technologies Co., Ltd. All rights reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.plugin.jdbc;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import io.prestosql.spi.Page;
+import io.prestosql.spi.block.Block;
+import io.prestosql.spi.connector.ConnectorPageSource;
+import io.prestosql.spi.connector.ConnectorSession;
+import io.prestosql.spi.connector.SchemaTableName;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+
+import static io.airlift.concurrent.Threads.daemonThreadsNamed;
+import static io.prestosql.spi.type.BigintType.BIGINT;
+import static io.prestosql.spi.type.VarcharType.VARCHAR;
+import static io.prestosql.testing.TestingConnectorSession.SESSION;
+import static java.util.concurrent.Executors.newCachedThreadPool;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+@Test(singleThreaded = true)
+public class TestJdbcPageSource
+{
+    private TestingDatabase database;
+    private ExecutorService executor;
+    private JdbcClient jdbcClient;
+    private JdbcTableHandle table;
+    private JdbcSplit split;
+    private Map<String, JdbcColumnHandle> columnHandles;
+
+    @BeforeClass
+    public void setUp()
+            throws Exception
+    {
+        database = new TestingDatabase();
+        database.getConnection().createStatement().execute("INSERT INTO example.numbers(text, text_short, value) VALUES ('null', null, null)");
+        executor = newCachedThreadPool(daemonThreadsNamed("test-jdbc-prefetch-%s"));
+        jdbcClient = database.getJdbcClient();
+        table = database.getTableHandle(SESSION, new SchemaTableName("example", "numbers"));
+        split = database.getSplit(SESSION, table);
+        columnHandles = database.getColumnHandles(SESSION, table);
+    }
+
+    @AfterClass(alwaysRun = true)
+    public void tearDown()
+            throws Exception
+    {
+        executor.shutdownNow();
+        database.close();
+    }
+
+    @DataProvider
+    public Object[][] prefetchPages()
+    {
+        return new Object[][] {{0}, {1}, {3}};
+    }
+
+    @Test(dataProvider = "prefetchPages")
+    public void testReadPages(int prefetchPages)
+            throws Exception
+    {
+        ConnectorPageSource pageSource = new JdbcPageSource(jdbcClient, SESSION, split, table, ImmutableList.of(
+                columnHandles.get("text"),
+                columnHandles.get("text_short"),
+                columnHandles.get("value")), 3, prefetchPages, executor);
+
+        List<Page> pages = readAll(pageSource);
+        // 7 rows in batches of 3
+        assertEquals(pages.size(), 3);
+
+        Map<String, Long> data = new LinkedHashMap<>();
+        for (Page page : pages) {
+            assertTrue(page.getPositionCount() <= 3);
+            Block text = page.getBlock(0);
+            Block textShort = page.getBlock(1);
+            Block value = page.getBlock(2);
+            for (int position = 0; position < page.getPositionCount(); position++) {
+                String key = VARCHAR.getSlice(text, position).toStringUtf8();
+                if (key.equals("null")) {
+                    assertTrue(textShort.isNull(position));
+                    assertTrue(value.isNull(position));
+                    continue;
+                }
+                assertEquals(VARCHAR.getSlice(textShort, position).toStringUtf8(), key);
+                data.put(key, BIGINT.getLong(value, position));
+            }
+        }
+        assertEquals(data, ImmutableMap.<String, Long>builder()
+                .put("one", 1L)
+                .put("two", 2L)
+                .put("three", 3L)
+                .put("ten", 10L)
+                .put("eleven", 11L)
+                .put("twelve", 12L)
+                .build());
+        assertTrue(pageSource.getCompletedBytes() > 0);
+        assertEquals(pageSource.getSystemMemoryUsage(), 0);
+        pageSource.close();
+    }
+
+    @Test(dataProvider = "prefetchPages")
+    public void testNoColumns(int prefetchPages)
+            throws Exception
+    {
+        ConnectorPageSource pageSource = new JdbcPageSource(jdbcClient, SESSION, split, table, ImmutableList.of(), 5, prefetchPages, executor);
+        int positions = 0;
+        for (Page page : readAll(pageSource)) {
+            assertEquals(page.getChannelCount(), 0);
+            positions += page.getPositionCount();
+        }
+        assertEquals(positions, 7);
+        pageSource.close();
+    }
+
+    @Test(dataProvider = "prefetchPages")
+    public void testCloseBeforeFinished(int prefetchPages)
+            throws Exception
+    {
+        ConnectorPageSource pageSource = new JdbcPageSource(jdbcClient, SESSION, split, table, ImmutableList.of(columnHandles.get("value")), 1, prefetchPages, executor);
+        pageSource.getNextPage();
+        pageSource.close();
+        pageSource.close();
+        assertTrue(pageSource.isFinished());
+        assertEquals(pageSource.getSystemMemoryUsage(), 0);
+    }
+
+    @Test
+    public void testCloseAbortsReadInFlight()
+            throws Exception
+    {
+        CountDownLatch reading = new CountDownLatch(1);
+        CountDownLatch aborted = new CountDownLatch(1);
+        JdbcClient blockingClient = new ForwardingJdbcClient()
+        {
+            @Override
+            protected JdbcClient getDelegate()
+            {
+                return jdbcClient;
+            }
+
+            @Override
+            public Optional<ColumnMapping> toPrestoType(ConnectorSession session, Connection connection, JdbcTypeHandle typeHandle)
+            {
+                reading.countDown();
+                try {
+                    // hold the read until close() aborted the connection
+                    aborted.await(10, SECONDS);
+                }
+                catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return super.toPrestoType(session, connection, typeHandle);
+            }
+
+            @Override
+            public void abortReadConnection(Connection connection)
+                    throws SQLException
+            {
+                aborted.countDown();
+                super.abortReadConnection(connection);
+            }
+        };
+
+        ConnectorPageSource pageSource = new JdbcPageSource(blockingClient, SESSION, split, table, ImmutableList.of(columnHandles.get("value")), 1, 1, executor);
+        pageSource.isBlocked();
+        assertTrue(reading.await(10, SECONDS));
+        pageSource.close();
+        // the connection is aborted by close() while the prefetching thread is still reading
+        assertEquals(aborted.getCount(), 0);
+        assertTrue(pageSource.isFinished());
+    }
+
+    private static List<Page> readAll(ConnectorPageSource pageSource)
+            throws Exception
+    {
+        List<Page> pages = new ArrayList<>();
+        while (!pageSource.isFinished()) {
+            pageSource.isBlocked().get();
+            Page page = pageSource.getNextPage();
+            if (page != null) {
+                pages.add(page);
+            }
+        }
+        return pages;
+    }
+}
@@ -21,11 +21,13 @@ import org.h2.Driver;
 import java.sql.Connection;
 import java.sql.DriverManager;
 import java.sql.SQLException;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Properties;
 import java.util.concurrent.ThreadLocalRandom;
 
+import static com.google.common.collect.ImmutableList.toImmutableList;
 import static com.google.common.collect.ImmutableMap.toImmutableMap;
 import static com.google.common.collect.Iterables.getOnlyElement;
 import static io.airlift.concurrent.MoreFutures.getFutureValue;
@@ -40,10 +42,16 @@ public final class TestingDatabase
 
     public TestingDatabase()
             throws SQLException
+    {
+        this(new BaseJdbcConfig());
+    }
+
+    public TestingDatabase(BaseJdbcConfig config)
+            throws SQLException
     {
         String connectionUrl = "jdbc:h2:mem:test" + System.nanoTime() + ThreadLocalRandom.current().nextLong();
         jdbcClient = new BaseJdbcClient(
-                new BaseJdbcConfig(),
+                config,
                 "\"",
                 new DriverConnectionFactory(new Driver(), connectionUrl, Optional.empty(), Optional.empty(), new Properties()));
 
@@ -96,9 +104,16 @@ public final class TestingDatabase
     }
 
     public JdbcSplit getSplit(ConnectorSession session, JdbcTableHandle table)
+    {
+        return getOnlyElement(getSplits(session, table));
+    }
+
+    public List<JdbcSplit> getSplits(ConnectorSession session, JdbcTableHandle table)
     {
         ConnectorSplitSource splits = jdbcClient.getSplits(JdbcIdentity.from(session), table);
-        return (JdbcSplit) getOnlyElement(getFutureValue(splits.getNextBatch(NOT_PARTITIONED, 1000)).getSplits());
+        return getFutureValue(splits.getNextBatch(NOT_PARTITIONED, 1000)).getSplits().stream()
+                .map(JdbcSplit.class::cast)
+                .collect(toImmutableList());
     }
 
     public Map<String, JdbcColumnHandle> getColumnHandles(ConnectorSession session, JdbcTableHandle table)
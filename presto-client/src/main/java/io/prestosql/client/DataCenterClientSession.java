@@ -14,6 +14,7 @@
  */
 package io.prestosql.client;
 
+import io.airlift.units.DataSize;
 import io.airlift.units.Duration;
 import io.prestosql.spi.type.TypeManager;
 
@@ -32,13 +33,17 @@ public class DataCenterClientSession
 {
     private final Duration maxAnticipatedDelay;
     private final boolean compressionEnabled;
+    private final DataSize maxResultSize;
+    private final Duration targetRoundTripTime;
     private TypeManager typeManager;
 
-    private DataCenterClientSession(URI server, String user, String source, Optional<String> traceToken, Set<String> clientTags, String clientInfo, String catalog, String schema, String path, ZoneId timeZone, Locale locale, Map<String, String> resourceEstimates, Map<String, String> properties, Map<String, String> preparedStatements, Map<String, ClientSelectedRole> roles, Map<String, String> extraCredentials, String transactionId, Duration clientRequestTimeout, Duration maxAnticipatedDelay, boolean compressionEnabled, TypeManager typeManager)
+    private DataCenterClientSession(URI server, String user, String source, Optional<String> traceToken, Set<String> clientTags, String clientInfo, String catalog, String schema, String path, ZoneId timeZone, Locale locale, Map<String, String> resourceEstimates, Map<String, String> properties, Map<String, String> preparedStatements, Map<String, ClientSelectedRole> roles, Map<String, String> extraCredentials, String transactionId, Duration clientRequestTimeout, Duration maxAnticipatedDelay, boolean compressionEnabled, DataSize maxResultSize, Duration targetRoundTripTime, TypeManager typeManager)
     {
         super(server, user, source, traceToken, clientTags, clientInfo, catalog, schema, path, timeZone, locale, resourceEstimates, properties, preparedStatements, roles, extraCredentials, transactionId, clientRequestTimeout);
         this.maxAnticipatedDelay = maxAnticipatedDelay;
         this.compressionEnabled = compressionEnabled;
+        this.maxResultSize = maxResultSize;
+        this.targetRoundTripTime = targetRoundTripTime;
         this.typeManager = typeManager;
     }
 
@@ -62,6 +67,20 @@ public class DataCenterClientSession
         return compressionEnabled;
     }
 
+    /**
+     * Upper bound of the results returned by one request, the size of each request grows up to this bound
+     * while the round trips stay below {@link #getTargetRoundTripTime()}. Null means each request gets a single batch.
+     */
+    public DataSize getMaxResultSize()
+    {
+        return maxResultSize;
+    }
+
+    public Duration getTargetRoundTripTime()
+    {
+        return targetRoundTripTime;
+    }
+
     public TypeManager getTypeManager()
     {
         return typeManager;
@@ -92,6 +111,8 @@ public class DataCenterClientSession
         private Duration clientRequestTimeout;
         private Duration maxAnticipatedDelay;
         private boolean compressionEnabled;
+        private DataSize maxResultSize;
+        private Duration targetRoundTripTime;
         private TypeManager typeManager;
 
         private Builder(URI server, String user)
@@ -130,6 +151,8 @@ public class DataCenterClientSession
             clientRequestTimeout = clientSession.getClientRequestTimeout();
             maxAnticipatedDelay = clientSession.getMaxAnticipatedDelay();
             compressionEnabled = clientSession.isCompressionEnabled();
+            maxResultSize = clientSession.getMaxResultSize();
+            targetRoundTripTime = clientSession.getTargetRoundTripTime();
             typeManager = clientSession.getTypeManager();
         }
 
@@ -199,6 +222,18 @@ public class DataCenterClientSession
             return this;
         }
 
+        public Builder withMaxResultSize(DataSize maxResultSize)
+        {
+            this.maxResultSize = maxResultSize;
+            return this;
+        }
+
+        public Builder withTargetRoundTripTime(Duration targetRoundTripTime)
+        {
+            this.targetRoundTripTime = targetRoundTripTime;
+            return this;
+        }
+
         public Builder withSource(String source)
         {
             this.source = source;
@@ -264,6 +299,8 @@ public class DataCenterClientSession
                     clientRequestTimeout,
                     maxAnticipatedDelay,
                     compressionEnabled,
+                    maxResultSize,
+                    targetRoundTripTime,
                     typeManager);
         }
     }
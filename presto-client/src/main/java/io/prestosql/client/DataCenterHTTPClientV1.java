@@ -22,6 +22,7 @@ import com.google.common.collect.Iterables;
 import com.google.common.collect.Sets;
 import io.airlift.json.JsonCodec;
 import io.airlift.log.Logger;
+import io.airlift.units.DataSize;
 import io.airlift.units.Duration;
 import io.hetu.core.transport.execution.buffer.PagesSerde;
 import io.hetu.core.transport.execution.buffer.PagesSerdeFactory;
@@ -69,10 +70,13 @@ import static io.prestosql.client.PrestoHeaders.PRESTO_STARTED_TRANSACTION_ID;
 import static io.prestosql.client.util.HttpUtil.buildDynamicFilterRequest;
 import static io.prestosql.client.util.HttpUtil.prepareRequest;
 import static java.lang.String.format;
+import static java.net.HttpURLConnection.HTTP_BAD_GATEWAY;
+import static java.net.HttpURLConnection.HTTP_GATEWAY_TIMEOUT;
 import static java.net.HttpURLConnection.HTTP_OK;
 import static java.net.HttpURLConnection.HTTP_UNAVAILABLE;
 import static java.util.Objects.requireNonNull;
 import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
 
 public class DataCenterHTTPClientV1
         implements DataCenterStatementClient
@@ -84,6 +88,8 @@ public class DataCenterHTTPClientV1
     private static final JsonCodec<DataCenterQueryResults> DATA_CENTER_QUERY_RESULTS_JSON_CODEC = jsonCodec(DataCenterQueryResults.class);
     private static final JsonCodec<CrossRegionDynamicFilterResponse> CRDF_RESPONSE_JSON_CODEC = jsonCodec(CrossRegionDynamicFilterResponse.class);
     private static final Splitter SESSION_HEADER_SPLITTER = Splitter.on('=').limit(2).trimResults();
+    // size of the batches the remote query publishes, so the smallest result a request can get
+    private static final long MIN_TARGET_RESULT_BYTES = new DataSize(1, DataSize.Unit.MEGABYTE).toBytes();
 
     private final OkHttpClient httpClient;
     private final String query;
@@ -108,6 +114,7 @@ public class DataCenterHTTPClientV1
     private final String clientId;
 
     private long token;
+    private long targetResultBytes = MIN_TARGET_RESULT_BYTES;
     private final PagesSerde serde;
     private final DataCenterClientSession session;
     private TypeManager typeManager;
@@ -193,7 +200,37 @@ public class DataCenterHTTPClientV1
 
     private HttpUrl nextURL()
     {
-        return this.serverURI.newBuilder().encodedPath(ROOT_URL + DataCenterResponseType.HTTP_PULL + "/" + this.clientId + "/" + this.queryId + "/" + this.slug + "/" + this.token).build();
+        HttpUrl.Builder builder = this.serverURI.newBuilder().encodedPath(ROOT_URL + DataCenterResponseType.HTTP_PULL + "/" + this.clientId + "/" + this.queryId + "/" + this.slug + "/" + this.token);
+        if (session.getMaxResultSize() != null) {
+            builder.addQueryParameter("targetResultSize", this.targetResultBytes + "B");
+        }
+        return builder.build();
+    }
+
+    /**
+     * Adapt the size of the next request to the round trip of the last one: while a full response comes back
+     * faster than the target round trip time, the latency dominates and the next request asks for twice as much,
+     * a response slower than the target halves it again.
+     */
+    private void updateTargetResultSize(DataCenterQueryResults results, long roundTripNanos)
+    {
+        DataSize maxResultSize = session.getMaxResultSize();
+        Duration targetRoundTripTime = session.getTargetRoundTripTime();
+        if (maxResultSize == null || targetRoundTripTime == null || results.getData() == null) {
+            return;
+        }
+
+        long bytes = 0;
+        for (SerializedPage page : results.getData()) {
+            bytes += page.getSizeInBytes();
+        }
+        long targetRoundTripNanos = targetRoundTripTime.roundTo(NANOSECONDS);
+        if (roundTripNanos > targetRoundTripNanos) {
+            this.targetResultBytes = Math.max(MIN_TARGET_RESULT_BYTES, this.targetResultBytes / 2);
+        }
+        else if (bytes >= this.targetResultBytes) {
+            this.targetResultBytes = Math.min(maxResultSize.toBytes(), this.targetResultBytes * 2);
+        }
     }
 
     @Override
@@ -380,6 +417,8 @@ public class DataCenterHTTPClientV1
             state.compareAndSet(State.RUNNING, State.FINISHED);
             return false;
         }
+        // the token of the request only moves on once a response is processed, so a request retried after a
+        // dropped connection resumes from the last result received instead of restarting the remote query
         Request request = prepareRequest(this.nextURL(), this.session).build();
 
         Exception cause = null;
@@ -420,6 +459,7 @@ public class DataCenterHTTPClientV1
             attempts++;
 
             JsonResponse<DataCenterQueryResults> response;
+            long requestStart = System.nanoTime();
             try {
                 response = JsonResponse.execute(DATA_CENTER_QUERY_RESULTS_JSON_CODEC, httpClient, request);
             }
@@ -430,11 +470,12 @@ public class DataCenterHTTPClientV1
             }
 
             if ((response.getStatusCode() == HTTP_OK) && response.hasValue()) {
+                updateTargetResultSize(response.getValue(), System.nanoTime() - requestStart);
                 processResponse(response.getHeaders(), response.getValue());
                 return true;
             }
 
-            if (response.getStatusCode() != HTTP_UNAVAILABLE) {
+            if (!isRetryable(response.getStatusCode())) {
                 state.compareAndSet(State.RUNNING, State.CLIENT_ERROR);
                 log.error("response.getStatusCode=%s", response.getStatusCode());
                 throw new RuntimeException("fetching next result: " + response.toString());
@@ -442,6 +483,12 @@ public class DataCenterHTTPClientV1
         }
     }
 
+    private static boolean isRetryable(int statusCode)
+    {
+        // proxies between data centers answer with gateway errors when the connection to the remote server drops
+        return statusCode == HTTP_UNAVAILABLE || statusCode == HTTP_BAD_GATEWAY || statusCode == HTTP_GATEWAY_TIMEOUT;
+    }
+
     private void processResponse(Headers headers, DataCenterQueryResults results)
     {
         this.token++;
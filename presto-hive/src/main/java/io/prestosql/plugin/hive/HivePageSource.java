@@ -36,7 +36,6 @@ import io.prestosql.spi.dynamicfilter.BloomFilterDynamicFilter;
 import io.prestosql.spi.dynamicfilter.DynamicFilter;
 import io.prestosql.spi.type.Type;
 import io.prestosql.spi.type.TypeManager;
-import io.prestosql.spi.type.TypeUtils;
 import it.unimi.dsi.fastutil.ints.IntArrayList;
 import org.apache.hadoop.hive.serde2.typeinfo.TypeInfo;
 import org.joda.time.DateTimeZone;
@@ -82,7 +81,6 @@ public class HivePageSource
 
     private final List<HivePartitionKey> partitionKeys;
     private final Supplier<Map<ColumnHandle, DynamicFilter>> dynamicFilterSupplier;
-    private final long waitUntil;
     private boolean isSelectiveRead;
 
     public HivePageSource(
@@ -105,8 +103,6 @@ public class HivePageSource
         this.dynamicFilterSupplier = dynamicFilterSupplier;
 
         this.partitionKeys = partitionKeys;
-        //FIXME: KEN: BIG ASSUMPTION, assuming system time is synchronized across the cluster
-        this.waitUntil = session.getStartTime() + session.getDynamicFilteringWaitTime().toMillis();
         this.rowFilteringThreshold = getDynamicFilteringRowFilteringThreshold(session);
 
         int size = columnMappings.size();
@@ -171,28 +167,14 @@ public class HivePageSource
         return dynamicFilterSupplier == null ? ImmutableMap.of() : dynamicFilterSupplier.get();
     }
 
-    /**
-     * this method is design to wait until a specific time when there are expected dynamic filters
-     * The wait until time is relative to the SQL query start time
-     */
-    private boolean needToWait()
-    {
-        //assuming start time is global indicting the time query execution started
-        //assuming system time is accurate enough to ms level
-        return System.currentTimeMillis() <= waitUntil;
-    }
-
     @Override
     public Page getNextPage()
     {
         try {
+            // waiting for dynamic filters is done by the engine before the page source is created,
+            // filters arriving later are applied from the next page on
             final Map<ColumnHandle, DynamicFilter> dynamicFilters = getDynamicFilters();
             if (dynamicFilterSupplier != null) {
-                // Wait for any dynamic filter
-                if (dynamicFilters.isEmpty() && needToWait()) {
-                    return null;
-                }
-
                 // Close the current PageSource if the partition should be filtered
                 if (isPartitionFiltered(partitionKeys, new HashSet(dynamicFilters.values()), typeManager)) {
                     close();
@@ -340,7 +322,7 @@ public class HivePageSource
             }
             else {
                 for (int i = 0; i < block.getPositionCount(); i++) {
-                    result[i] = result[i] && dynamicFilter.contains(TypeUtils.readNativeValue(types[columnIndex], block, i));
+                    result[i] = result[i] && dynamicFilter.contains(block, i, types[columnIndex]);
                 }
             }
         }
@@ -32,6 +32,7 @@ import io.prestosql.spi.connector.RecordCursor;
 import io.prestosql.spi.connector.RecordPageSource;
 import io.prestosql.spi.dynamicfilter.DynamicFilter;
 import io.prestosql.spi.heuristicindex.IndexMetadata;
+import io.prestosql.spi.predicate.Domain;
 import io.prestosql.spi.predicate.TupleDomain;
 import io.prestosql.spi.type.Type;
 import io.prestosql.spi.type.TypeManager;
@@ -42,6 +43,7 @@ import org.joda.time.DateTimeZone;
 import javax.inject.Inject;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
@@ -172,6 +174,15 @@ public class HivePageSourceProvider
                     hiveSplit.getBucketNumber());
         }
 
+        // Narrow the predicate with the value ranges of available dynamic filters, so that readers can skip stripes and row groups
+        TupleDomain<HiveColumnHandle> effectivePredicate = hiveTable.getCompactEffectivePredicate();
+        if (dynamicFilters != null && !dynamicFilters.isEmpty()) {
+            effectivePredicate = effectivePredicate.intersect(getDynamicFilterRanges(dynamicFilters));
+            if (effectivePredicate.isNone()) {
+                return new FixedPageSource(ImmutableList.of());
+            }
+        }
+
         Optional<ConnectorPageSource> pageSource = createHivePageSource(
                 cursorProviders,
                 pageSourceFactories,
@@ -183,7 +194,7 @@ public class HivePageSourceProvider
                 hiveSplit.getLength(),
                 hiveSplit.getFileSize(),
                 hiveSplit.getSchema(),
-                hiveTable.getCompactEffectivePredicate(),
+                effectivePredicate,
                 hiveColumns,
                 hiveSplit.getPartitionKeys(),
                 hiveStorageTimeZone,
@@ -202,6 +213,24 @@ public class HivePageSourceProvider
         throw new RuntimeException("Could not find a file reader for split " + hiveSplit);
     }
 
+    /**
+     * Build a TupleDomain of the [min, max] ranges of the given dynamic filters on regular columns
+     */
+    private TupleDomain<HiveColumnHandle> getDynamicFilterRanges(Map<ColumnHandle, DynamicFilter> dynamicFilters)
+    {
+        Map<HiveColumnHandle, Domain> domains = new HashMap<>();
+        for (Map.Entry<ColumnHandle, DynamicFilter> entry : dynamicFilters.entrySet()) {
+            HiveColumnHandle column = (HiveColumnHandle) entry.getKey();
+            if (column.isPartitionKey()) {
+                // partitions are already filtered by isPartitionFiltered()
+                continue;
+            }
+            entry.getValue().getRangeDomain(typeManager.getType(column.getTypeSignature()))
+                    .ifPresent(domain -> domains.put(column, domain));
+        }
+        return TupleDomain.withColumnDomains(domains);
+    }
+
     /**
      * All partition columns have index as -1, since we are making map of this, we need to assign an unique index.
      * @param columns List of partition columns
@@ -16,6 +16,7 @@ package io.prestosql;
 import com.google.common.collect.ImmutableList;
 import io.airlift.units.DataSize;
 import io.airlift.units.Duration;
+import io.hetu.core.transport.execution.buffer.PageCompressionCodec;
 import io.prestosql.execution.QueryManagerConfig;
 import io.prestosql.execution.TaskManagerConfig;
 import io.prestosql.memory.MemoryManagerConfig;
@@ -43,6 +44,7 @@ import static io.prestosql.spi.session.PropertyMetadata.doubleProperty;
 import static io.prestosql.spi.session.PropertyMetadata.durationProperty;
 import static io.prestosql.spi.session.PropertyMetadata.enumProperty;
 import static io.prestosql.spi.session.PropertyMetadata.integerProperty;
+import static io.prestosql.spi.session.PropertyMetadata.longProperty;
 import static io.prestosql.spi.session.PropertyMetadata.stringProperty;
 import static io.prestosql.spi.type.BigintType.BIGINT;
 import static io.prestosql.spi.type.BooleanType.BOOLEAN;
@@ -99,11 +101,16 @@ public final class SystemSessionProperties
     public static final String SPILL_ORDER_BY = "spill_order_by";
     public static final String SPILL_WINDOW_OPERATOR = "spill_window_operator";
     public static final String AGGREGATION_OPERATOR_UNSPILL_MEMORY_LIMIT = "aggregation_operator_unspill_memory_limit";
+    public static final String SPILL_JOIN_REPARTITION = "spill_join_repartition";
+    public static final String JOIN_OPERATOR_UNSPILL_MEMORY_LIMIT = "join_operator_unspill_memory_limit";
+    public static final String JOIN_SPILL_MAX_RECURSION_DEPTH = "join_spill_max_recursion_depth";
     public static final String OPTIMIZE_DISTINCT_AGGREGATIONS = "optimize_mixed_distinct_aggregations";
     public static final String ITERATIVE_OPTIMIZER = "iterative_optimizer_enabled";
     public static final String ITERATIVE_OPTIMIZER_TIMEOUT = "iterative_optimizer_timeout";
     public static final String ENABLE_FORCED_EXCHANGE_BELOW_GROUP_ID = "enable_forced_exchange_below_group_id";
     public static final String EXCHANGE_COMPRESSION = "exchange_compression";
+    public static final String EXCHANGE_COMPRESSION_CODEC = "exchange_compression_codec";
+    public static final String EXCHANGE_MIN_COMPRESSION_RATIO = "exchange_min_compression_ratio";
     public static final String LEGACY_TIMESTAMP = "legacy_timestamp";
     public static final String ENABLE_INTERMEDIATE_AGGREGATIONS = "enable_intermediate_aggregations";
     public static final String PUSH_AGGREGATION_THROUGH_JOIN = "push_aggregation_through_join";
@@ -137,6 +144,7 @@ public final class SystemSessionProperties
     public static final String PUSH_LIMIT_DOWN = "push_limit_down";
     public static final String DYNAMIC_FILTERING_MAX_PER_DRIVER_VALUE_COUNT = "dynamic_filtering_max_per_driver_value_count";
     public static final String DYNAMIC_FILTERING_WAIT_TIME = "dynamic_filtering_wait_time";
+    public static final String DYNAMIC_FILTERING_WAIT_MIN_PROBE_ROWS = "dynamic_filtering_wait_min_probe_rows";
     public static final String DYNAMIC_FILTERING_DATA_TYPE = "dynamic_filtering_data_type";
     public static final String DYNAMIC_FILTERING_MAX_PER_DRIVER_SIZE = "dynamic_filtering_max_per_driver_size";
     public static final String DYNAMIC_FILTERING_BLOOM_FILTER_FPP = "dynamic_filtering_bloom_filter_fpp";
@@ -451,7 +459,7 @@ public final class SystemSessionProperties
                         false),
                 booleanProperty(
                         SPILL_WINDOW_OPERATOR,
-                        "Spill in WindowOperator if spill_enabled is also set",
+                        "Spill in WindowOperator and TopNRowNumberOperator if spill_enabled is also set",
                         featuresConfig.isSpillWindowOperator(),
                         false),
                 dataSizeProperty(
@@ -459,6 +467,21 @@ public final class SystemSessionProperties
                         "Experimental: How much memory can should be allocated per aggragation operator in unspilling process",
                         featuresConfig.getAggregationOperatorUnspillMemoryLimit(),
                         false),
+                booleanProperty(
+                        SPILL_JOIN_REPARTITION,
+                        "Experimental: Repartition spilled join partitions larger than join_operator_unspill_memory_limit, if spill_enabled is also set",
+                        featuresConfig.isSpillJoinRepartition(),
+                        false),
+                dataSizeProperty(
+                        JOIN_OPERATOR_UNSPILL_MEMORY_LIMIT,
+                        "Experimental: Spilled join partitions larger than this are repartitioned, or joined block by block, instead of being unspilled at once",
+                        featuresConfig.getJoinOperatorUnspillMemoryLimit(),
+                        false),
+                integerProperty(
+                        JOIN_SPILL_MAX_RECURSION_DEPTH,
+                        "Experimental: How many times an oversized spilled join partition may be recursively repartitioned",
+                        featuresConfig.getJoinSpillMaxRecursionDepth(),
+                        false),
                 booleanProperty(
                         OPTIMIZE_DISTINCT_AGGREGATIONS,
                         "Optimize mixed non-distinct and distinct aggregations",
@@ -484,6 +507,17 @@ public final class SystemSessionProperties
                         "Enable compression in exchanges",
                         featuresConfig.isExchangeCompressionEnabled(),
                         false),
+                enumProperty(
+                        EXCHANGE_COMPRESSION_CODEC,
+                        "Codec used to compress pages in exchanges, when exchange compression is enabled. LZ4 requires all nodes to support it",
+                        PageCompressionCodec.class,
+                        featuresConfig.getExchangeCompressionCodec(),
+                        false),
+                doubleProperty(
+                        EXCHANGE_MIN_COMPRESSION_RATIO,
+                        "Pages are sent uncompressed in exchanges unless compression shrinks them to this ratio of their size",
+                        featuresConfig.getExchangeMinCompressionRatio(),
+                        false),
                 booleanProperty(
                         LEGACY_TIMESTAMP,
                         "Use legacy TIME & TIMESTAMP semantics (warning: this will be removed)",
@@ -613,6 +647,11 @@ public final class SystemSessionProperties
                         "Maximum waiting time for dynamic filter to be ready",
                         new Duration(0, TimeUnit.MILLISECONDS),
                         false),
+                longProperty(
+                        DYNAMIC_FILTERING_WAIT_MIN_PROBE_ROWS,
+                        "Table scans estimated to produce fewer rows start without waiting for dynamic filters",
+                        featuresConfig.getDynamicFilteringWaitMinProbeRows(),
+                        false),
                 integerProperty(
                         DYNAMIC_FILTERING_MAX_PER_DRIVER_VALUE_COUNT,
                         "Maximum number of build-side rows to be collected for dynamic filtering per-driver",
@@ -925,6 +964,25 @@ public final class SystemSessionProperties
         return memoryLimitForMerge;
     }
 
+    public static boolean isSpillJoinRepartition(Session session)
+    {
+        return session.getSystemProperty(SPILL_JOIN_REPARTITION, Boolean.class);
+    }
+
+    public static DataSize getJoinOperatorUnspillMemoryLimit(Session session)
+    {
+        DataSize unspillMemoryLimit = session.getSystemProperty(JOIN_OPERATOR_UNSPILL_MEMORY_LIMIT, DataSize.class);
+        checkArgument(unspillMemoryLimit.toBytes() >= 0, "%s must be positive", JOIN_OPERATOR_UNSPILL_MEMORY_LIMIT);
+        return unspillMemoryLimit;
+    }
+
+    public static int getJoinSpillMaxRecursionDepth(Session session)
+    {
+        int maxRecursionDepth = session.getSystemProperty(JOIN_SPILL_MAX_RECURSION_DEPTH, Integer.class);
+        checkArgument(maxRecursionDepth >= 0, "%s must not be negative", JOIN_SPILL_MAX_RECURSION_DEPTH);
+        return maxRecursionDepth;
+    }
+
     public static boolean isOptimizeDistinctAggregationEnabled(Session session)
     {
         return session.getSystemProperty(OPTIMIZE_DISTINCT_AGGREGATIONS, Boolean.class);
@@ -955,6 +1013,25 @@ public final class SystemSessionProperties
         return session.getSystemProperty(EXCHANGE_COMPRESSION, Boolean.class);
     }
 
+    public static PageCompressionCodec getExchangeCompressionCodec(Session session)
+    {
+        if (!isExchangeCompressionEnabled(session)) {
+            return PageCompressionCodec.NONE;
+        }
+        return session.getSystemProperty(EXCHANGE_COMPRESSION_CODEC, PageCompressionCodec.class);
+    }
+
+    public static double getExchangeMinCompressionRatio(Session session)
+    {
+        double minCompressionRatio = session.getSystemProperty(EXCHANGE_MIN_COMPRESSION_RATIO, Double.class);
+        if (minCompressionRatio <= 0 || minCompressionRatio > 1) {
+            throw new PrestoException(
+                    INVALID_SESSION_PROPERTY,
+                    format("%s must be in (0, 1]: %s", EXCHANGE_MIN_COMPRESSION_RATIO, minCompressionRatio));
+        }
+        return minCompressionRatio;
+    }
+
     public static boolean isEnableIntermediateAggregations(Session session)
     {
         return session.getSystemProperty(ENABLE_INTERMEDIATE_AGGREGATIONS, Boolean.class);
@@ -1122,6 +1199,11 @@ public final class SystemSessionProperties
         return session.getSystemProperty(DYNAMIC_FILTERING_WAIT_TIME, Duration.class);
     }
 
+    public static long getDynamicFilteringWaitMinProbeRows(Session session)
+    {
+        return session.getSystemProperty(DYNAMIC_FILTERING_WAIT_MIN_PROBE_ROWS, Long.class);
+    }
+
     public static double getDynamicFilteringBloomFilterFpp(Session session)
     {
         return session.getSystemProperty(DYNAMIC_FILTERING_BLOOM_FILTER_FPP, Double.class);
@@ -14,6 +14,8 @@
  */
 package io.prestosql.datacenter;
 
+import com.google.common.collect.Ordering;
+import io.airlift.units.DataSize;
 import io.prestosql.client.CrossRegionDynamicFilterRequest;
 import io.prestosql.client.CrossRegionDynamicFilterResponse;
 import io.prestosql.client.DataCenterRequest;
@@ -41,6 +43,7 @@ import javax.ws.rs.POST;
 import javax.ws.rs.Path;
 import javax.ws.rs.PathParam;
 import javax.ws.rs.Produces;
+import javax.ws.rs.QueryParam;
 import javax.ws.rs.WebApplicationException;
 import javax.ws.rs.container.AsyncResponse;
 import javax.ws.rs.container.Suspended;
@@ -51,7 +54,9 @@ import javax.ws.rs.core.Response.Status;
 import javax.ws.rs.core.UriInfo;
 
 import java.util.Map;
+import java.util.Optional;
 
+import static io.airlift.units.DataSize.Unit.MEGABYTE;
 import static java.util.Objects.isNull;
 import static javax.ws.rs.core.MediaType.APPLICATION_JSON;
 import static javax.ws.rs.core.MediaType.TEXT_PLAIN_TYPE;
@@ -61,6 +66,8 @@ import static javax.ws.rs.core.Response.Status.INTERNAL_SERVER_ERROR;
 @Path("/")
 public class DataCenterStatementResource
 {
+    private static final DataSize MAX_TARGET_RESULT_SIZE = new DataSize(128, MEGABYTE);
+
     private final PagePublisherQueryManager queryManager;
     private final int splitCount;
 
@@ -156,11 +163,13 @@ public class DataCenterStatementResource
             @PathParam("globalQueryId") String globalQueryId,
             @PathParam("slug") String slug,
             @PathParam("token") long token,
+            @QueryParam("targetResultSize") DataSize targetResultSize,
             @Suspended AsyncResponse asyncResponse)
     {
         PageSubscriber subscriber = null;
         if (responseType == DataCenterResponseType.HTTP_PULL) {
-            subscriber = new SingleHTTPSubscriber(asyncResponse, token);
+            subscriber = new SingleHTTPSubscriber(asyncResponse, token,
+                    Optional.ofNullable(targetResultSize).map(size -> Ordering.<DataSize>natural().min(size, MAX_TARGET_RESULT_SIZE)));
         }
         else {
             badRequest(BAD_REQUEST, responseType + " not supported");
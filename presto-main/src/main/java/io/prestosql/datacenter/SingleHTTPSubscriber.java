@@ -14,12 +14,15 @@
  */
 package io.prestosql.datacenter;
 
+import io.airlift.units.DataSize;
 import io.prestosql.client.DataCenterQueryResults;
 import io.prestosql.server.protocol.PageSubscriber;
 import io.prestosql.server.protocol.Query;
 
 import javax.ws.rs.container.AsyncResponse;
 
+import java.util.Optional;
+
 import static io.prestosql.server.protocol.ExecutingStatementResource.toResponse;
 import static java.util.Objects.requireNonNull;
 
@@ -29,11 +32,13 @@ public class SingleHTTPSubscriber
     private final AsyncResponse asyncResponse;
     private boolean active = true;
     private final long token;
+    private final Optional<DataSize> targetResultSize;
 
-    public SingleHTTPSubscriber(AsyncResponse asyncResponse, long token)
+    public SingleHTTPSubscriber(AsyncResponse asyncResponse, long token, Optional<DataSize> targetResultSize)
     {
         this.asyncResponse = requireNonNull(asyncResponse, "asyncResponse is null");
         this.token = token;
+        this.targetResultSize = requireNonNull(targetResultSize, "targetResultSize is null");
     }
 
     @Override
@@ -54,6 +59,12 @@ public class SingleHTTPSubscriber
         return this.token;
     }
 
+    @Override
+    public Optional<DataSize> getTargetResultSize()
+    {
+        return this.targetResultSize;
+    }
+
     @Override
     public void send(Query query, DataCenterQueryResults results)
     {
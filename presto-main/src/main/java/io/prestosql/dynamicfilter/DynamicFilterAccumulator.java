@@ -0,0 +1,179 @@
+/*
+ * Copyright (C) 2018-2020. Huawei Technologies Co., Ltd. All rights reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.dynamicfilter;
+
+import io.prestosql.spi.dynamicfilter.DynamicFilter.DataType;
+import io.prestosql.spi.util.BloomFilter;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static io.prestosql.spi.dynamicfilter.DynamicFilter.DataType.BLOOM_FILTER;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Running merge state of a single global dynamic filter on the coordinator.
+ * Partial filters are folded in as soon as workers publish them, so that the final merge
+ * does not have to start from scratch once the last build-side driver finishes.
+ * Both merges are idempotent (set union and bitwise OR of the bloom filter bits),
+ * so partials are tracked by count only and a pass simply folds all published partials again.
+ * <p>
+ * An accumulator is only ever folded by one thread at a time, guarded by {@link #tryAcquire()}.
+ * Progress may be observed concurrently by the polling thread.
+ */
+final class DynamicFilterAccumulator
+{
+    private final DataType dataType;
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    private BloomFilter mergedBloomFilter;
+    private Set mergedSet;
+    private long[] mergedRange;
+    private int foldedCount;
+
+    private int observedPartials;
+    private int observedFinishedDrivers;
+    private long lastArrivalNanos;
+
+    DynamicFilterAccumulator(DataType dataType)
+    {
+        this.dataType = requireNonNull(dataType, "dataType is null");
+    }
+
+    boolean tryAcquire()
+    {
+        return running.compareAndSet(false, true);
+    }
+
+    void release()
+    {
+        running.set(false);
+    }
+
+    int getFoldedCount()
+    {
+        return foldedCount;
+    }
+
+    /**
+     * Fold all published partial filters into the running result,
+     * partials that were already folded in leave the result unchanged
+     *
+     * @param partials all partial filters currently published by the workers
+     * @return number of partial filters published since the previous pass
+     */
+    int fold(Collection<?> partials)
+            throws IOException
+    {
+        for (Object partial : partials) {
+            if (dataType == BLOOM_FILTER) {
+                if (!(partial instanceof byte[])) {
+                    throw new IOException("Partial BloomFilter DynamicFilter is invalid.");
+                }
+                foldBloomFilter(BloomFilter.readFrom(new ByteArrayInputStream((byte[]) partial)));
+            }
+            else {
+                if (!(partial instanceof Set)) {
+                    throw new IOException("Partial HashSet DynamicFilter is invalid.");
+                }
+                if (mergedSet == null) {
+                    mergedSet = new HashSet<>();
+                }
+                mergedSet.addAll((Set) partial);
+            }
+        }
+        int folded = Math.max(partials.size() - foldedCount, 0);
+        foldedCount = partials.size();
+        return folded;
+    }
+
+    private void foldBloomFilter(BloomFilter partial)
+    {
+        if (mergedBloomFilter == null) {
+            mergedBloomFilter = partial;
+        }
+        else {
+            mergedBloomFilter.merge(partial);
+        }
+    }
+
+    /**
+     * Fold the [min, max] value ranges published next to partial bloom filters
+     *
+     * @param ranges arrays of min and max of each partial filter
+     */
+    void foldRanges(Collection<?> ranges)
+    {
+        for (Object range : ranges) {
+            if (!(range instanceof long[]) || ((long[]) range).length != 2) {
+                continue;
+            }
+            long[] partialRange = (long[]) range;
+            if (mergedRange == null) {
+                mergedRange = partialRange.clone();
+            }
+            else {
+                mergedRange[0] = Math.min(mergedRange[0], partialRange[0]);
+                mergedRange[1] = Math.max(mergedRange[1], partialRange[1]);
+            }
+        }
+    }
+
+    /**
+     * @return array of merged min and max, or null if no ranges were published
+     */
+    long[] getMergedRange()
+    {
+        return mergedRange;
+    }
+
+    BloomFilter getMergedBloomFilter()
+    {
+        return mergedBloomFilter;
+    }
+
+    Set getMergedSet()
+    {
+        return mergedSet == null ? new HashSet<>() : mergedSet;
+    }
+
+    /**
+     * Record the time a new partial filter or finished build-side driver was first seen
+     *
+     * @param partialCount number of partial filters currently published
+     * @param finishedDriverCount number of build-side drivers currently finished
+     * @param nanos time of the observation
+     */
+    synchronized void observeProgress(int partialCount, int finishedDriverCount, long nanos)
+    {
+        if (partialCount > observedPartials || finishedDriverCount > observedFinishedDrivers) {
+            lastArrivalNanos = nanos;
+        }
+        observedPartials = Math.max(observedPartials, partialCount);
+        observedFinishedDrivers = Math.max(observedFinishedDrivers, finishedDriverCount);
+    }
+
+    /**
+     * @return time the last partial filter or driver completion was observed, 0 if none was observed yet
+     */
+    synchronized long getLastArrivalNanos()
+    {
+        return lastArrivalNanos;
+    }
+}
@@ -15,10 +15,15 @@
 package io.prestosql.dynamicfilter;
 
 import com.google.common.collect.ArrayListMultimap;
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.ListMultimap;
+import com.google.common.collect.Multimaps;
 import com.google.inject.Inject;
 import io.airlift.log.Logger;
+import io.airlift.stats.CounterStat;
+import io.airlift.stats.TimeStat;
 import io.prestosql.Session;
 import io.prestosql.execution.StageStateMachine;
 import io.prestosql.execution.TaskId;
@@ -29,13 +34,14 @@ import io.prestosql.spi.connector.ColumnHandle;
 import io.prestosql.spi.dynamicfilter.BloomFilterDynamicFilter;
 import io.prestosql.spi.dynamicfilter.DynamicFilter;
 import io.prestosql.spi.dynamicfilter.DynamicFilter.DataType;
-import io.prestosql.spi.dynamicfilter.HashSetDynamicFilter;
+import io.prestosql.spi.dynamicfilter.DynamicFilterFactory;
 import io.prestosql.spi.statestore.StateCollection;
 import io.prestosql.spi.statestore.StateMap;
 import io.prestosql.spi.statestore.StateSet;
 import io.prestosql.spi.statestore.StateStore;
 import io.prestosql.spi.util.BloomFilter;
 import io.prestosql.sql.DynamicFilters;
+import io.prestosql.sql.analyzer.FeaturesConfig;
 import io.prestosql.sql.planner.Symbol;
 import io.prestosql.sql.planner.plan.FilterNode;
 import io.prestosql.sql.planner.plan.JoinNode;
@@ -44,26 +50,25 @@ import io.prestosql.sql.tree.Expression;
 import io.prestosql.sql.tree.SymbolReference;
 import io.prestosql.statestore.StateStoreProvider;
 import io.prestosql.utils.DynamicFilterUtils;
+import org.weakref.jmx.Managed;
+import org.weakref.jmx.Nested;
 
 import javax.annotation.PostConstruct;
 import javax.annotation.PreDestroy;
 
-import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
-import java.util.Collection;
-import java.util.HashMap;
-import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledFuture;
-import java.util.concurrent.TimeUnit;
 import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
@@ -82,19 +87,29 @@ import static io.prestosql.utils.DynamicFilterUtils.createKey;
 import static io.prestosql.utils.DynamicFilterUtils.findFilterNodeInStage;
 import static io.prestosql.utils.DynamicFilterUtils.getDynamicFilterDataType;
 import static java.util.Objects.requireNonNull;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
 
 public class DynamicFilterService
 {
     private static final Logger log = Logger.get(DynamicFilterService.class);
     private final ScheduledExecutorService filterMergeExecutor;
+    private final List<ExecutorService> mergeExecutors;
     private static final int THREAD_POOL_SIZE = 1;
     private static final int MERGE_DYNAMIC_FILTER_INTERVAL = 1;
     private ScheduledFuture<?> backgroundTask;
 
     private Map<String, Map<String, DynamicFilterRegistryInfo>> dynamicFilters = new ConcurrentHashMap<>();
-    private ArrayListMultimap<String, String> mergedDynamicFilters = ArrayListMultimap.create();
+    private ListMultimap<String, String> mergedDynamicFilters = Multimaps.synchronizedListMultimap(ArrayListMultimap.create());
     private Map<String, CopyOnWriteArrayList<String>> dynamicFiltersToWorker = new ConcurrentHashMap<>();
-    private static Map<String, Map<String, DynamicFilter>> cachedDynamicFilters = new HashMap<>();
+    private final Map<String, DynamicFilterAccumulator> accumulators = new ConcurrentHashMap<>();
+    private static Map<String, Map<String, DynamicFilter>> cachedDynamicFilters = new ConcurrentHashMap<>();
+
+    private final TimeStat mergeTime = new TimeStat(MILLISECONDS);
+    private final TimeStat publishDelay = new TimeStat(MILLISECONDS);
+    private final CounterStat mergedPartialFilters = new CounterStat();
+    private final CounterStat publishedFilters = new CounterStat();
+    private final CounterStat failedFilters = new CounterStat();
 
     private final StateStoreProvider stateStoreProvider;
 
@@ -103,11 +118,27 @@ public class DynamicFilterService
      *
      * @param stateStoreProvider the State Store
      */
-    @Inject
     public DynamicFilterService(StateStoreProvider stateStoreProvider)
+    {
+        this(stateStoreProvider, new FeaturesConfig());
+    }
+
+    /**
+     * Dynamic Filter Service constructor
+     *
+     * @param stateStoreProvider the State Store
+     * @param featuresConfig features config providing the number of merge threads
+     */
+    @Inject
+    public DynamicFilterService(StateStoreProvider stateStoreProvider, FeaturesConfig featuresConfig)
     {
         this.stateStoreProvider = requireNonNull(stateStoreProvider, "StateStoreProvider is null");
         this.filterMergeExecutor = Executors.newScheduledThreadPool(THREAD_POOL_SIZE, threadsNamed("dynamic-filter-service-%s"));
+        ImmutableList.Builder<ExecutorService> executors = ImmutableList.builder();
+        for (int i = 0; i < featuresConfig.getDynamicFilteringMergeThreads(); i++) {
+            executors.add(Executors.newSingleThreadExecutor(threadsNamed("dynamic-filter-merge-" + i + "-%s")));
+        }
+        this.mergeExecutors = executors.build();
     }
 
     /**
@@ -126,7 +157,7 @@ public class DynamicFilterService
             catch (Exception e) {
                 log.error("Error merging Dynamic Filters: " + e.getMessage());
             }
-        }, 0, MERGE_DYNAMIC_FILTER_INTERVAL, TimeUnit.MILLISECONDS);
+        }, 0, MERGE_DYNAMIC_FILTER_INTERVAL, MILLISECONDS);
     }
 
     /**
@@ -136,107 +167,210 @@ public class DynamicFilterService
     public void stop()
     {
         filterMergeExecutor.shutdownNow();
+        mergeExecutors.forEach(ExecutorService::shutdownNow);
+    }
+
+    @Managed(description = "Time spent folding newly arrived partial dynamic filters")
+    @Nested
+    public TimeStat getMergeTime()
+    {
+        return mergeTime;
+    }
+
+    @Managed(description = "Time from the last partial dynamic filter or build-side driver completion being observed to the merged dynamic filter being published")
+    @Nested
+    public TimeStat getPublishDelay()
+    {
+        return publishDelay;
+    }
+
+    @Managed(description = "Partial dynamic filters folded into merged filters")
+    @Nested
+    public CounterStat getMergedPartialFilters()
+    {
+        return mergedPartialFilters;
+    }
+
+    @Managed(description = "Merged dynamic filters published")
+    @Nested
+    public CounterStat getPublishedFilters()
+    {
+        return publishedFilters;
+    }
+
+    @Managed(description = "Dynamic filters that could not be merged")
+    @Nested
+    public CounterStat getFailedFilters()
+    {
+        return failedFilters;
     }
 
     /**
-     * Global Dynamic Filter merging, periodically looks for dynamic filters that can be merged and merges them
+     * Global Dynamic Filter merging, periodically looks for dynamic filters with newly published partial results
+     * and hands them to the merge thread owning the filter, which folds them into the filter's accumulator
      */
     private void mergeDynamicFilters()
     {
-        final StateStore stateStore = stateStoreProvider.getStateStore();
         for (Map.Entry<String, Map<String, DynamicFilterRegistryInfo>> queryToDynamicFiltersEntry : dynamicFilters.entrySet()) {
             final String queryId = queryToDynamicFiltersEntry.getKey();
-            if (!cachedDynamicFilters.containsKey(queryId)) {
-                cachedDynamicFilters.put(queryId, new ConcurrentHashMap<>());
-            }
-            Map<String, DynamicFilter> cachedDynamicFiltersForQuery = cachedDynamicFilters.get(queryId);
+            cachedDynamicFilters.computeIfAbsent(queryId, key -> new ConcurrentHashMap<>());
 
             for (Map.Entry<String, DynamicFilterRegistryInfo> columnToDynamicFilterEntry : queryToDynamicFiltersEntry.getValue().entrySet()) {
                 final String filterId = columnToDynamicFilterEntry.getKey();
-                final Type filterType = columnToDynamicFilterEntry.getValue().getType();
-                final DataType filterDataType = columnToDynamicFilterEntry.getValue().getDataType();
-                final Symbol column = columnToDynamicFilterEntry.getValue().getSymbol();
-                final String filterKey = createKey(DynamicFilterUtils.FILTERPREFIX, filterId, queryId);
-
-                if (hasMergeCondition(filterId, queryId)) {
-                    Collection<Object> results = ((StateSet) stateStore.getStateCollection(createKey(DynamicFilterUtils.PARTIALPREFIX, filterId, queryId))).getAll();
-
+                final DynamicFilterRegistryInfo registryInfo = columnToDynamicFilterEntry.getValue();
+                final String accumulatorKey = filterId + "-" + queryId;
+                DynamicFilterAccumulator accumulator = accumulators.computeIfAbsent(accumulatorKey, key -> new DynamicFilterAccumulator(registryInfo.getDataType()));
+                // timestamped here rather than on the merge thread, so that the publish delay
+                // also covers the time a filter waits behind a busy merge thread
+                observeProgress(filterId, queryId, accumulator);
+
+                // at most one pending merge task per filter, the next poll picks up whatever arrived meanwhile
+                if (accumulator.tryAcquire()) {
                     try {
-                        DynamicFilter mergedFilter;
-                        if (filterDataType == BLOOM_FILTER) {
-                            BloomFilter mergedBloomFilter = mergeBloomFilters(results);
-                            if (mergedBloomFilter.expectedFpp() > DynamicFilterUtils.BLOOM_FILTER_EXPECTED_FPP) {
-                                throw new PrestoException(GENERIC_INTERNAL_ERROR, "FPP too high: " + mergedBloomFilter.approximateElementCount());
-                            }
-                            mergedFilter = new BloomFilterDynamicFilter(filterKey, null, mergedBloomFilter, filterType);
-                            mergedDynamicFilters.put(queryId, filterId);
-
-                            if (filterType == GLOBAL) {
-                                try (ByteArrayOutputStream out = new ByteArrayOutputStream()) {
-                                    mergedBloomFilter.writeTo(out);
-                                    byte[] filter = out.toByteArray();
-                                    ((StateMap) stateStore.getOrCreateStateCollection(DynamicFilterUtils.MERGEMAP, MAP)).put(filterKey, filter);
-                                }
+                        getMergeExecutor(accumulatorKey).execute(() -> {
+                            try {
+                                mergeDynamicFilter(filterId, queryId, registryInfo, accumulator);
                             }
-                        }
-                        else if (filterDataType == HASHSET) {
-                            Set mergedSet = mergeHashSets(results);
-                            mergedFilter = new HashSetDynamicFilter(filterKey, null, mergedSet, filterType);
-                            mergedDynamicFilters.put(queryId, filterId);
-
-                            if (filterType == GLOBAL) {
-                                ((StateMap) stateStore.getOrCreateStateCollection(DynamicFilterUtils.MERGEMAP, MAP)).put(filterKey, mergedSet);
+                            finally {
+                                accumulator.release();
                             }
-                        }
-                        else {
-                            throw new PrestoException(GENERIC_INTERNAL_ERROR, "Unsupported filter data type: " + filterDataType);
-                        }
-
-                        log.debug("Merged successfully dynamic filter id: "
-                                + filterId + "-" + queryId + " type: " + filterDataType
-                                + ", column: " + column + ", item count: " + mergedFilter.getSize());
-                        cachedDynamicFiltersForQuery.put(filterId, mergedFilter);
+                        });
                     }
-                    catch (IOException | PrestoException e) {
-                        log.error("Could not merge dynamic filter: " + e.getLocalizedMessage());
-                    }
-                    finally {
-                        // remove the filter so we don't need to monitor it anymore
-                        queryToDynamicFiltersEntry.getValue().remove(filterId);
+                    catch (RejectedExecutionException e) {
+                        accumulator.release();
                     }
                 }
             }
         }
     }
 
-    private static BloomFilter mergeBloomFilters(Collection partialBloomFilters)
-            throws IOException
+    private ExecutorService getMergeExecutor(String accumulatorKey)
+    {
+        return mergeExecutors.get(Math.floorMod(accumulatorKey.hashCode(), mergeExecutors.size()));
+    }
+
+    private void mergeDynamicFilter(String filterId, String queryId, DynamicFilterRegistryInfo registryInfo, DynamicFilterAccumulator accumulator)
     {
-        BloomFilter mergedFilter = null;
-        for (Object partialBloomFilter : partialBloomFilters) {
-            BloomFilter deserializedBloomFilter = BloomFilter.readFrom(new ByteArrayInputStream((byte[]) partialBloomFilter));
-            if (mergedFilter == null) {
-                mergedFilter = deserializedBloomFilter;
+        final StateStore stateStore = stateStoreProvider.getStateStore();
+        final Type filterType = registryInfo.getType();
+        final DataType filterDataType = registryInfo.getDataType();
+        final String filterKey = createKey(DynamicFilterUtils.FILTERPREFIX, filterId, queryId);
+        boolean removeFilter = false;
+
+        try {
+            // workers publish their partial results before marking the driver as finished,
+            // so once the merge condition holds, all partial results are visible
+            observeProgress(filterId, queryId, accumulator);
+            boolean complete = hasMergeCondition(filterId, queryId);
+
+            StateSet partials = (StateSet) stateStore.getStateCollection(createKey(DynamicFilterUtils.PARTIALPREFIX, filterId, queryId));
+            if (partials != null && partials.size() != accumulator.getFoldedCount()) {
+                long start = System.nanoTime();
+                int folded = accumulator.fold(partials.getAll());
+                if (folded > 0) {
+                    mergeTime.add(System.nanoTime() - start, NANOSECONDS);
+                    mergedPartialFilters.update(folded);
+                }
+            }
+
+            if (!complete) {
+                return;
+            }
+            removeFilter = true;
+            if (!dynamicFilters.containsKey(queryId)) {
+                // query was cleared while the filter was being merged
+                return;
+            }
+
+            DynamicFilter mergedFilter;
+            if (filterDataType == BLOOM_FILTER) {
+                BloomFilter mergedBloomFilter = accumulator.getMergedBloomFilter();
+                if (mergedBloomFilter == null) {
+                    throw new PrestoException(GENERIC_INTERNAL_ERROR, "No partial results for dynamic filter: " + filterId + "-" + queryId);
+                }
+                if (mergedBloomFilter.expectedFpp() > DynamicFilterUtils.BLOOM_FILTER_EXPECTED_FPP) {
+                    throw new PrestoException(GENERIC_INTERNAL_ERROR, "FPP too high: " + mergedBloomFilter.approximateElementCount());
+                }
+                mergedFilter = new BloomFilterDynamicFilter(filterKey, null, mergedBloomFilter, filterType);
+                mergedDynamicFilters.put(queryId, filterId);
+
+                StateSet ranges = (StateSet) stateStore.getStateCollection(createKey(DynamicFilterUtils.RANGEPREFIX, filterId, queryId));
+                if (ranges != null) {
+                    accumulator.foldRanges(ranges.getAll());
+                }
+                long[] mergedRange = accumulator.getMergedRange();
+                if (mergedRange != null) {
+                    mergedFilter.setMin(mergedRange[0]);
+                    mergedFilter.setMax(mergedRange[1]);
+                }
+
+                if (filterType == GLOBAL) {
+                    if (mergedRange != null) {
+                        // published before the filter, so workers usually know the range once the filter arrives
+                        ((StateMap) stateStore.getOrCreateStateCollection(DynamicFilterUtils.MERGEMAP, MAP)).put(createKey(DynamicFilterUtils.RANGEPREFIX, filterId, queryId), mergedRange);
+                    }
+                    try (ByteArrayOutputStream out = new ByteArrayOutputStream()) {
+                        mergedBloomFilter.writeTo(out);
+                        byte[] filter = out.toByteArray();
+                        ((StateMap) stateStore.getOrCreateStateCollection(DynamicFilterUtils.MERGEMAP, MAP)).put(filterKey, filter);
+                    }
+                }
+            }
+            else if (filterDataType == HASHSET) {
+                Set mergedSet = accumulator.getMergedSet();
+                mergedFilter = DynamicFilterFactory.create(filterKey, null, mergedSet, filterType);
+                mergedDynamicFilters.put(queryId, filterId);
+
+                if (filterType == GLOBAL) {
+                    ((StateMap) stateStore.getOrCreateStateCollection(DynamicFilterUtils.MERGEMAP, MAP)).put(filterKey, mergedSet);
+                }
             }
             else {
-                mergedFilter.merge(deserializedBloomFilter);
+                throw new PrestoException(GENERIC_INTERNAL_ERROR, "Unsupported filter data type: " + filterDataType);
+            }
+
+            log.debug("Merged successfully dynamic filter id: "
+                    + filterId + "-" + queryId + " type: " + filterDataType
+                    + ", column: " + registryInfo.getSymbol() + ", item count: " + mergedFilter.getSize());
+            Map<String, DynamicFilter> cachedDynamicFiltersForQuery = cachedDynamicFilters.get(queryId);
+            if (cachedDynamicFiltersForQuery != null) {
+                cachedDynamicFiltersForQuery.put(filterId, mergedFilter);
+            }
+            publishDelay.add(System.nanoTime() - accumulator.getLastArrivalNanos(), NANOSECONDS);
+            publishedFilters.update(1);
+        }
+        catch (IOException | PrestoException e) {
+            removeFilter = true;
+            failedFilters.update(1);
+            log.error("Could not merge dynamic filter: " + e.getLocalizedMessage());
+        }
+        finally {
+            if (removeFilter) {
+                // remove the filter so we don't need to monitor it anymore
+                Map<String, DynamicFilterRegistryInfo> filters = dynamicFilters.get(queryId);
+                if (filters != null) {
+                    filters.remove(filterId);
+                }
+                accumulators.remove(filterId + "-" + queryId);
             }
         }
-        return mergedFilter;
     }
 
-    private static Set mergeHashSets(Collection results)
-            throws IOException
+    private void observeProgress(String filterId, String queryId, DynamicFilterAccumulator accumulator)
     {
-        Set merged = new HashSet<>();
-        for (Object o : results) {
-            if (!(o instanceof Set)) {
-                throw new IOException("Partial HashSet DynamicFilter is invalid.");
-            }
-            Set s = (Set) o;
-            merged.addAll(s);
+        final StateStore stateStore = stateStoreProvider.getStateStore();
+        int partialCount = 0;
+        int finishedDriverCount = 0;
+
+        StateCollection temp = stateStore.getStateCollection(createKey(DynamicFilterUtils.PARTIALPREFIX, filterId, queryId));
+        if (temp != null) {
+            partialCount = temp.size();
+        }
+        temp = stateStore.getStateCollection(createKey(DynamicFilterUtils.FINISHPREFIX, filterId, queryId));
+        if (temp != null) {
+            finishedDriverCount = temp.size();
         }
-        return merged;
+        accumulator.observeProgress(partialCount, finishedDriverCount, System.nanoTime());
     }
 
     private boolean hasMergeCondition(String filterKey, String queryId)
@@ -260,8 +394,9 @@ public class DynamicFilterService
             workersNum = temp.size();
         }
 
-        if (registeredNum > 0 &&
-                registeredNum == finishedNum && workersNum > 0 && workersNum == dynamicFiltersToWorker.get(filterKey + "-" + queryId).size()) {
+        List<String> expectedWorkers = dynamicFiltersToWorker.get(filterKey + "-" + queryId);
+        if (registeredNum > 0 && expectedWorkers != null &&
+                registeredNum == finishedNum && workersNum > 0 && workersNum == expectedWorkers.size()) {
             return true;
         }
         return false;
@@ -291,6 +426,7 @@ public class DynamicFilterService
                 stateStore.createStateCollection(createKey(DynamicFilterUtils.WORKERSPREFIX, filterId, queryId), SET);
                 stateStore.createStateCollection(createKey(DynamicFilterUtils.PARTIALPREFIX, filterId, queryId), SET);
                 stateStore.createStateCollection(createKey(DynamicFilterUtils.FINISHPREFIX, filterId, queryId), SET);
+                stateStore.createStateCollection(createKey(DynamicFilterUtils.RANGEPREFIX, filterId, queryId), SET);
 
                 dynamicFilters.putIfAbsent(queryId, new ConcurrentHashMap<>());
                 Map<String, DynamicFilterRegistryInfo> filters = dynamicFilters.get(queryId);
@@ -324,13 +460,15 @@ public class DynamicFilterService
         }
         dynamicFilters.remove(queryId);
 
-        // Clear merged filters
-        mergedDynamicFilters.get(queryId).forEach(filterId -> {
+        // Clear merged filters, merge threads may still publish filters of this query concurrently
+        List<String> mergedFilterIds = mergedDynamicFilters.removeAll(queryId);
+        mergedFilterIds.forEach(filterId -> {
             String filterKey = createKey(DynamicFilterUtils.FILTERPREFIX, filterId, queryId);
-            ((StateMap) stateStoreProvider.getStateStore().getOrCreateStateCollection(DynamicFilterUtils.MERGEMAP, MAP)).remove(filterKey);
+            StateMap mergedStates = (StateMap) stateStoreProvider.getStateStore().getOrCreateStateCollection(DynamicFilterUtils.MERGEMAP, MAP);
+            mergedStates.remove(filterKey);
+            mergedStates.remove(createKey(DynamicFilterUtils.RANGEPREFIX, filterId, queryId));
             clearPartialResults(filterId, queryId);
         });
-        mergedDynamicFilters.removeAll(queryId);
 
         // Clear cached dynamic filters locally
         cachedDynamicFilters.remove(queryId);
@@ -350,8 +488,10 @@ public class DynamicFilterService
             clearStatesInStateStore(stateStore, createKey(DynamicFilterUtils.FINISHPREFIX, filterId, queryId));
             clearStatesInStateStore(stateStore, createKey(DynamicFilterUtils.PARTIALPREFIX, filterId, queryId));
             clearStatesInStateStore(stateStore, createKey(DynamicFilterUtils.WORKERSPREFIX, filterId, queryId));
+            clearStatesInStateStore(stateStore, createKey(DynamicFilterUtils.RANGEPREFIX, filterId, queryId));
         }
         dynamicFiltersToWorker.remove(filterId + "-" + queryId);
+        accumulators.remove(filterId + "-" + queryId);
     }
 
     private static void clearStatesInStateStore(StateStore stateStore, String stateCollectionName)
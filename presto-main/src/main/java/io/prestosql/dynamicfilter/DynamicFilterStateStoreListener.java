@@ -24,12 +24,14 @@ import io.prestosql.sql.analyzer.FeaturesConfig.DynamicFilterDataType;
 
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 import static io.prestosql.spi.StandardErrorCode.GENERIC_INTERNAL_ERROR;
 import static io.prestosql.spi.dynamicfilter.DynamicFilter.DataType.BLOOM_FILTER;
 import static io.prestosql.spi.dynamicfilter.DynamicFilter.DataType.HASHSET;
 import static io.prestosql.spi.dynamicfilter.DynamicFilter.Type.GLOBAL;
 import static io.prestosql.utils.DynamicFilterUtils.FILTERPREFIX;
+import static io.prestosql.utils.DynamicFilterUtils.RANGEPREFIX;
 import static io.prestosql.utils.DynamicFilterUtils.getDynamicFilterDataType;
 import static java.util.Objects.requireNonNull;
 
@@ -42,6 +44,7 @@ public class DynamicFilterStateStoreListener
     private final String queryId;
     private final DynamicFilterDataType dynamicFilterDataType;
     private final Map<String, DynamicFilter> cachedDynamicFilters;
+    private final Map<String, long[]> ranges = new ConcurrentHashMap<>();
     private static final Logger LOG = Logger.get(DynamicFilterStateStoreListener.class);
 
     public DynamicFilterStateStoreListener(
@@ -57,12 +60,33 @@ public class DynamicFilterStateStoreListener
     public void entryAdded(EntryEvent<String, Object> event)
     {
         String key = event.getKey();
+        if (key.startsWith(RANGEPREFIX)) {
+            if (key.contains(queryId) && event.getValue() instanceof long[]) {
+                applyRange(key.substring(RANGEPREFIX.length()).split("-")[0], (long[]) event.getValue());
+            }
+            return;
+        }
         String cacheKey = key.substring(FILTERPREFIX.length());
         if (key.contains(queryId) && !cachedDynamicFilters.containsKey(cacheKey)) {
             cacheDynamicFilters(cacheKey, event.getValue());
         }
     }
 
+    private void applyRange(String filterId, long[] range)
+    {
+        ranges.put(filterId, range);
+        DynamicFilter dynamicFilter = cachedDynamicFilters.get(filterId);
+        if (dynamicFilter != null) {
+            setRange(dynamicFilter, range);
+        }
+    }
+
+    private static void setRange(DynamicFilter dynamicFilter, long[] range)
+    {
+        dynamicFilter.setMin(range[0]);
+        dynamicFilter.setMax(range[1]);
+    }
+
     private void cacheDynamicFilters(String cacheKey, Object newDynamicFilter)
     {
         String filterId = cacheKey.split("-")[0];
@@ -82,6 +106,11 @@ public class DynamicFilterStateStoreListener
             byte[] serializedBloomFilter = (byte[]) newDynamicFilter;
             DynamicFilter dynamicFilter = DynamicFilterFactory.create(filterId, null, serializedBloomFilter, GLOBAL);
             LOG.debug("Got new BloomFilter DynamicFilter from state store: " + filterId + ", size: " + dynamicFilter.getSize());
+            // the range may have arrived before the filter
+            long[] range = ranges.get(filterId);
+            if (range != null) {
+                setRange(dynamicFilter, range);
+            }
             cachedDynamicFilters.put(filterId, dynamicFilter);
         }
     }
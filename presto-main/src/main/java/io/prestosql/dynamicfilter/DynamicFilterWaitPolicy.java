@@ -0,0 +1,116 @@
+/*
+ * Copyright (C) 2018-2020. Huawei Technologies Co., Ltd. All rights reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.dynamicfilter;
+
+import com.google.common.annotations.VisibleForTesting;
+import io.airlift.units.Duration;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.DoubleSupplier;
+import java.util.function.LongSupplier;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Decides how long the table scans of a probe side wait for their dynamic filters before they start without them.
+ * <p>
+ * Scans estimated to produce fewer rows than the configured minimum do not wait at all, scanning them
+ * unfiltered is cheaper than waiting. Other scans wait at most until the wait time after the query started,
+ * and stop earlier once the observed build side progress shows that the filters will not be ready in time.
+ * Filters arriving after a scan started are still applied to its remaining splits and pages.
+ * <p>
+ * A policy is shared by all drivers of a table scan within a task, so it is thread safe.
+ */
+public class DynamicFilterWaitPolicy
+{
+    @VisibleForTesting
+    static final long PROGRESS_CHECK_INTERVAL_MILLIS = 100;
+
+    private final long startMillis;
+    private final long deadlineMillis;
+    private final DoubleSupplier buildProgress;
+    private final LongSupplier currentTimeMillis;
+    private final AtomicLong nextProgressCheckMillis = new AtomicLong();
+    private volatile boolean expired;
+
+    /**
+     * @param queryStartMillis start time of the query, the wait time is relative to it
+     * @param maxWait maximum time to wait for the dynamic filters
+     * @param estimatedProbeRows estimated output row count of the table scan, NaN if unknown
+     * @param minProbeRows scans estimated to produce fewer rows do not wait
+     * @param buildProgress fraction of the build side that finished collecting the dynamic filters, NaN if unknown
+     */
+    public DynamicFilterWaitPolicy(long queryStartMillis, Duration maxWait, double estimatedProbeRows, long minProbeRows, DoubleSupplier buildProgress)
+    {
+        this(queryStartMillis, maxWait, estimatedProbeRows, minProbeRows, buildProgress, System::currentTimeMillis);
+    }
+
+    @VisibleForTesting
+    DynamicFilterWaitPolicy(long queryStartMillis, Duration maxWait, double estimatedProbeRows, long minProbeRows, DoubleSupplier buildProgress, LongSupplier currentTimeMillis)
+    {
+        requireNonNull(maxWait, "maxWait is null");
+        this.startMillis = queryStartMillis;
+        this.deadlineMillis = queryStartMillis + getWaitBudgetMillis(maxWait, estimatedProbeRows, minProbeRows);
+        this.buildProgress = requireNonNull(buildProgress, "buildProgress is null");
+        this.currentTimeMillis = requireNonNull(currentTimeMillis, "currentTimeMillis is null");
+    }
+
+    @VisibleForTesting
+    static long getWaitBudgetMillis(Duration maxWait, double estimatedProbeRows, long minProbeRows)
+    {
+        // an unknown (NaN) estimate keeps the full wait time
+        if (estimatedProbeRows < minProbeRows) {
+            return 0;
+        }
+        return maxWait.toMillis();
+    }
+
+    /**
+     * Whether a scan that has not received any dynamic filter yet should keep waiting for them.
+     * Once this returned false, it never returns true again.
+     */
+    public boolean shouldWait()
+    {
+        if (expired) {
+            return false;
+        }
+
+        long now = currentTimeMillis.getAsLong();
+        if (now > deadlineMillis) {
+            expired = true;
+            return false;
+        }
+
+        // reading the build side progress goes to the state store, only one caller checks it per interval
+        long nextCheck = nextProgressCheckMillis.get();
+        if (now >= nextCheck && nextProgressCheckMillis.compareAndSet(nextCheck, now + PROGRESS_CHECK_INTERVAL_MILLIS)) {
+            double progress = buildProgress.getAsDouble();
+            if (progress > 0 && progress < 1) {
+                // assume the build side keeps the pace it had since the query started
+                long projectedFinishMillis = now + (long) ((now - startMillis) * (1 - progress) / progress);
+                if (projectedFinishMillis > deadlineMillis) {
+                    expired = true;
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    public long getDeadlineMillis()
+    {
+        return deadlineMillis;
+    }
+}
@@ -79,7 +79,8 @@ public class SqlTaskExecutionFactory
                         fragment.getPartitioningScheme(),
                         fragment.getStageExecutionDescriptor(),
                         fragment.getPartitionedSources(),
-                        outputBuffer);
+                        outputBuffer,
+                        fragment.getStatsAndCosts());
             }
             catch (Throwable e) {
                 // planning failed
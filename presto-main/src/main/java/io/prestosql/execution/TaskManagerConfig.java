@@ -73,6 +73,7 @@ public class TaskManagerConfig
     private int taskYieldThreads = 3;
 
     private BigDecimal levelTimeMultiplier = new BigDecimal(2.0);
+    private int splitQueueGroups = 1;
 
     @MinDuration("1ms")
     @MaxDuration("10s")
@@ -208,6 +209,20 @@ public class TaskManagerConfig
         return this;
     }
 
+    @Min(1)
+    public int getSplitQueueGroups()
+    {
+        return splitQueueGroups;
+    }
+
+    @Config("task.split-queue-groups")
+    @ConfigDescription("Number of groups the worker threads and their split queues are divided into; idle threads steal splits from other groups")
+    public TaskManagerConfig setSplitQueueGroups(int splitQueueGroups)
+    {
+        this.splitQueueGroups = splitQueueGroups;
+        return this;
+    }
+
     @Min(1)
     public int getMaxWorkerThreads()
     {
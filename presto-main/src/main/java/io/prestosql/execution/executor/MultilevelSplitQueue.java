@@ -16,6 +16,7 @@ package io.prestosql.execution.executor;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.collect.ImmutableList;
 import io.airlift.stats.CounterStat;
+import io.airlift.stats.TimeStat;
 import io.prestosql.execution.TaskManagerConfig;
 import org.weakref.jmx.Managed;
 import org.weakref.jmx.Nested;
@@ -28,55 +29,80 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
 import java.util.PriorityQueue;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.locks.Condition;
 import java.util.concurrent.locks.ReentrantLock;
 
 import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkState;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
 import static java.util.concurrent.TimeUnit.NANOSECONDS;
 import static java.util.concurrent.TimeUnit.SECONDS;
 
+/**
+ * Queue of the splits waiting for a runner thread.
+ * <p>
+ * The queue is divided into groups, every runner thread takes splits from its own group and every task
+ * queues its splits in one group, so the drivers of a task run on the same subset of threads and the
+ * runner threads do not contend on a single lock. A runner thread whose group is empty steals splits
+ * from the other groups before it goes idle. The scheduled time of the levels is shared by all groups
+ * and is maintained without locks, so every group selects levels against the same targets.
+ */
 @ThreadSafe
 public class MultilevelSplitQueue
 {
     static final int[] LEVEL_THRESHOLD_SECONDS = {0, 1, 10, 60, 300};
     static final long LEVEL_CONTRIBUTION_CAP = SECONDS.toNanos(30);
 
-    @GuardedBy("lock")
-    private final List<PriorityQueue<PrioritizedSplitRunner>> levelWaitingSplits;
+    // idle runner threads look for splits queued in other groups at this interval, in case they missed the wake up
+    private static final long IDLE_STEAL_INTERVAL_NANOS = MILLISECONDS.toNanos(10);
+
+    private final List<SplitQueueGroup> groups;
 
     private final AtomicLong[] levelScheduledTime = new AtomicLong[LEVEL_THRESHOLD_SECONDS.length];
+    private final AtomicInteger[] levelWaitingSplitCount = new AtomicInteger[LEVEL_THRESHOLD_SECONDS.length];
 
     private final AtomicLong[] levelMinPriority;
     private final List<CounterStat> selectedLevelCounters;
 
-    private final ReentrantLock lock = new ReentrantLock();
-    private final Condition notEmpty = lock.newCondition();
+    private final CounterStat stolenSplits = new CounterStat();
+    private final TimeStat queuedTime = new TimeStat(NANOSECONDS);
 
     private final double levelTimeMultiplier;
 
     @Inject
     public MultilevelSplitQueue(TaskManagerConfig taskManagerConfig)
     {
-        this(taskManagerConfig.getLevelTimeMultiplier().doubleValue());
+        this(taskManagerConfig.getLevelTimeMultiplier().doubleValue(), taskManagerConfig.getSplitQueueGroups());
     }
 
     public MultilevelSplitQueue(double levelTimeMultiplier)
     {
+        this(levelTimeMultiplier, 1);
+    }
+
+    public MultilevelSplitQueue(double levelTimeMultiplier, int groupCount)
+    {
+        checkArgument(groupCount > 0, "groupCount must be at least 1");
         this.levelMinPriority = new AtomicLong[LEVEL_THRESHOLD_SECONDS.length];
-        this.levelWaitingSplits = new ArrayList<>(LEVEL_THRESHOLD_SECONDS.length);
         ImmutableList.Builder<CounterStat> counters = ImmutableList.builder();
 
         for (int i = 0; i < LEVEL_THRESHOLD_SECONDS.length; i++) {
             levelScheduledTime[i] = new AtomicLong();
+            levelWaitingSplitCount[i] = new AtomicInteger();
             levelMinPriority[i] = new AtomicLong(-1);
-            levelWaitingSplits.add(new PriorityQueue<>());
             counters.add(new CounterStat());
         }
 
         this.selectedLevelCounters = counters.build();
 
+        ImmutableList.Builder<SplitQueueGroup> groups = ImmutableList.builder();
+        for (int i = 0; i < groupCount; i++) {
+            groups.add(new SplitQueueGroup());
+        }
+        this.groups = groups.build();
+
         this.levelTimeMultiplier = levelTimeMultiplier;
     }
 
@@ -85,6 +111,11 @@ public class MultilevelSplitQueue
         levelScheduledTime[level].addAndGet(nanos);
     }
 
+    public int getGroupCount()
+    {
+        return groups.size();
+    }
+
     /**
      * During periods of time when a level has no waiting splits, it will not accumulate
      * scheduled time and will fall behind relative to other levels.
@@ -101,9 +132,11 @@ public class MultilevelSplitQueue
 
         split.setReady();
         int level = split.getPriority().getLevel();
-        lock.lock();
+        int groupIndex = getGroupIndex(split);
+        SplitQueueGroup group = groups.get(groupIndex);
+        group.lock.lock();
         try {
-            if (levelWaitingSplits.get(level).isEmpty()) {
+            if (levelWaitingSplitCount[level].get() == 0) {
                 // Accesses to levelScheduledTime are not synchronized, so we have a data race
                 // here - our level time math will be off. However, the staleness is bounded by
                 // the fact that only running splits that complete during this computation
@@ -114,42 +147,137 @@ public class MultilevelSplitQueue
                 levelScheduledTime[level].addAndGet(delta);
             }
 
-            levelWaitingSplits.get(level).offer(split);
-            notEmpty.signal();
+            group.levelWaitingSplits.get(level).offer(split);
+            levelWaitingSplitCount[level].incrementAndGet();
+            group.size.incrementAndGet();
+            group.notEmpty.signal();
         }
         finally {
-            lock.unlock();
+            group.lock.unlock();
+        }
+
+        if (group.size.get() > group.idleRunners.get()) {
+            // not enough idle runner threads in the group, let an idle runner thread of another group steal the split
+            wakeIdleRunner(groupIndex);
         }
     }
 
-    public PrioritizedSplitRunner take()
+    /**
+     * Takes the next split for a runner thread of the given group, stealing from the other groups when the
+     * group has no waiting splits, and waits until a split is available.
+     */
+    public PrioritizedSplitRunner take(int runnerGroup)
             throws InterruptedException
     {
+        int groupIndex = Math.floorMod(runnerGroup, groups.size());
+        SplitQueueGroup group = groups.get(groupIndex);
         while (true) {
-            lock.lockInterruptibly();
-            try {
-                PrioritizedSplitRunner result;
-                while ((result = pollSplit()) == null) {
-                    notEmpty.await();
-                }
+            PrioritizedSplitRunner result = poll(group, false);
+            if (result == null) {
+                result = steal(groupIndex);
+            }
+            if (result == null) {
+                awaitSplit(group);
+                continue;
+            }
 
-                if (result.updateLevelPriority()) {
-                    offer(result);
-                    continue;
-                }
+            if (result.updateLevelPriority()) {
+                offer(result);
+                continue;
+            }
+
+            int selectedLevel = result.getPriority().getLevel();
+            levelMinPriority[selectedLevel].set(result.getPriority().getLevelPriority());
+            selectedLevelCounters.get(selectedLevel).update(1);
+            queuedTime.add(result.getQueuedNanos(), NANOSECONDS);
+
+            return result;
+        }
+    }
 
-                int selectedLevel = result.getPriority().getLevel();
-                levelMinPriority[selectedLevel].set(result.getPriority().getLevelPriority());
-                selectedLevelCounters.get(selectedLevel).update(1);
+    private PrioritizedSplitRunner poll(SplitQueueGroup group, boolean tryLock)
+            throws InterruptedException
+    {
+        if (group.size.get() == 0) {
+            return null;
+        }
+        if (tryLock) {
+            if (!group.lock.tryLock()) {
+                return null;
+            }
+        }
+        else {
+            group.lock.lockInterruptibly();
+        }
+        try {
+            return pollSplit(group);
+        }
+        finally {
+            group.lock.unlock();
+        }
+    }
 
+    private PrioritizedSplitRunner steal(int groupIndex)
+            throws InterruptedException
+    {
+        for (int i = 1; i < groups.size(); i++) {
+            PrioritizedSplitRunner result = poll(groups.get((groupIndex + i) % groups.size()), true);
+            if (result != null) {
+                stolenSplits.update(1);
                 return result;
             }
+        }
+        return null;
+    }
+
+    private void awaitSplit(SplitQueueGroup group)
+            throws InterruptedException
+    {
+        group.lock.lockInterruptibly();
+        try {
+            if (group.size.get() > 0) {
+                return;
+            }
+            group.idleRunners.incrementAndGet();
+            try {
+                if (groups.size() == 1) {
+                    group.notEmpty.await();
+                }
+                else {
+                    group.notEmpty.awaitNanos(IDLE_STEAL_INTERVAL_NANOS);
+                }
+            }
             finally {
-                lock.unlock();
+                group.idleRunners.decrementAndGet();
+            }
+        }
+        finally {
+            group.lock.unlock();
+        }
+    }
+
+    private void wakeIdleRunner(int groupIndex)
+    {
+        for (int i = 1; i < groups.size(); i++) {
+            SplitQueueGroup group = groups.get((groupIndex + i) % groups.size());
+            if (group.idleRunners.get() > 0) {
+                group.lock.lock();
+                try {
+                    group.notEmpty.signal();
+                }
+                finally {
+                    group.lock.unlock();
+                }
+                return;
             }
         }
     }
 
+    private int getGroupIndex(PrioritizedSplitRunner split)
+    {
+        return Math.floorMod(split.getTaskHandle().getTaskId().hashCode(), groups.size());
+    }
+
     /**
      * Presto attempts to give each level a target amount of scheduled time, which is configurable
      * using levelTimeMultiplier.
@@ -158,14 +286,14 @@ public class MultilevelSplitQueue
      * with the objective of minimizing deviation from the target scheduled time. From this level,
      * we pick the split with the lowest priority.
      */
-    @GuardedBy("lock")
-    private PrioritizedSplitRunner pollSplit()
+    @GuardedBy("group.lock")
+    private PrioritizedSplitRunner pollSplit(SplitQueueGroup group)
     {
         long targetScheduledTime = getLevel0TargetTime();
         double worstRatio = 1;
         int selectedLevel = -1;
         for (int level = 0; level < LEVEL_THRESHOLD_SECONDS.length; level++) {
-            if (!levelWaitingSplits.get(level).isEmpty()) {
+            if (!group.levelWaitingSplits.get(level).isEmpty()) {
                 long levelTime = levelScheduledTime[level].get();
                 double ratio = levelTime == 0 ? 0 : targetScheduledTime / (1.0 * levelTime);
                 if (selectedLevel == -1 || ratio > worstRatio) {
@@ -181,13 +309,14 @@ public class MultilevelSplitQueue
             return null;
         }
 
-        PrioritizedSplitRunner result = levelWaitingSplits.get(selectedLevel).poll();
+        PrioritizedSplitRunner result = group.levelWaitingSplits.get(selectedLevel).poll();
         checkState(result != null, "pollSplit cannot return null");
+        levelWaitingSplitCount[selectedLevel].decrementAndGet();
+        group.size.decrementAndGet();
 
         return result;
     }
 
-    @GuardedBy("lock")
     private long getLevel0TargetTime()
     {
         long level0TargetTime = levelScheduledTime[0].get();
@@ -247,27 +376,41 @@ public class MultilevelSplitQueue
     public void remove(PrioritizedSplitRunner split)
     {
         checkArgument(split != null, "split is null");
-        lock.lock();
+        SplitQueueGroup group = groups.get(getGroupIndex(split));
+        group.lock.lock();
         try {
-            for (PriorityQueue<PrioritizedSplitRunner> level : levelWaitingSplits) {
-                level.remove(split);
+            for (int level = 0; level < LEVEL_THRESHOLD_SECONDS.length; level++) {
+                if (group.levelWaitingSplits.get(level).remove(split)) {
+                    levelWaitingSplitCount[level].decrementAndGet();
+                    group.size.decrementAndGet();
+                }
             }
         }
         finally {
-            lock.unlock();
+            group.lock.unlock();
         }
     }
 
     public void removeAll(Collection<PrioritizedSplitRunner> splits)
     {
-        lock.lock();
-        try {
-            for (PriorityQueue<PrioritizedSplitRunner> level : levelWaitingSplits) {
-                level.removeAll(splits);
+        for (SplitQueueGroup group : groups) {
+            if (group.size.get() == 0) {
+                continue;
+            }
+            group.lock.lock();
+            try {
+                for (int level = 0; level < LEVEL_THRESHOLD_SECONDS.length; level++) {
+                    PriorityQueue<PrioritizedSplitRunner> levelSplits = group.levelWaitingSplits.get(level);
+                    int sizeBefore = levelSplits.size();
+                    levelSplits.removeAll(splits);
+                    int removed = sizeBefore - levelSplits.size();
+                    levelWaitingSplitCount[level].addAndGet(-removed);
+                    group.size.addAndGet(-removed);
+                }
+            }
+            finally {
+                group.lock.unlock();
             }
-        }
-        finally {
-            lock.unlock();
         }
     }
 
@@ -279,17 +422,11 @@ public class MultilevelSplitQueue
 
     public int size()
     {
-        lock.lock();
-        try {
-            int total = 0;
-            for (PriorityQueue<PrioritizedSplitRunner> level : levelWaitingSplits) {
-                total += level.size();
-            }
-            return total;
-        }
-        finally {
-            lock.unlock();
+        int total = 0;
+        for (SplitQueueGroup group : groups) {
+            total += group.size.get();
         }
+        return total;
     }
 
     public static int computeLevel(long threadUsageNanos)
@@ -340,6 +477,26 @@ public class MultilevelSplitQueue
         return getLevelScheduledTime(4);
     }
 
+    @Managed
+    public int getGroups()
+    {
+        return groups.size();
+    }
+
+    @Managed
+    @Nested
+    public CounterStat getStolenSplits()
+    {
+        return stolenSplits;
+    }
+
+    @Managed
+    @Nested
+    public TimeStat getQueuedTime()
+    {
+        return queuedTime;
+    }
+
     @Managed
     @Nested
     public CounterStat getSelectedCountLevel0()
@@ -374,4 +531,23 @@ public class MultilevelSplitQueue
     {
         return selectedLevelCounters.get(4);
     }
+
+    private static class SplitQueueGroup
+    {
+        private final ReentrantLock lock = new ReentrantLock();
+        private final Condition notEmpty = lock.newCondition();
+
+        @GuardedBy("lock")
+        private final List<PriorityQueue<PrioritizedSplitRunner>> levelWaitingSplits = new ArrayList<>(LEVEL_THRESHOLD_SECONDS.length);
+
+        private final AtomicInteger size = new AtomicInteger();
+        private final AtomicInteger idleRunners = new AtomicInteger();
+
+        private SplitQueueGroup()
+        {
+            for (int i = 0; i < LEVEL_THRESHOLD_SECONDS.length; i++) {
+                levelWaitingSplits.add(new PriorityQueue<>());
+            }
+        }
+    }
 }
@@ -195,6 +195,14 @@ public class PrioritizedSplitRunner
         lastReady.set(ticker.read());
     }
 
+    /**
+     * Time since the split was last queued, only meaningful while the split waits in the queue
+     */
+    public long getQueuedNanos()
+    {
+        return ticker.read() - lastReady.get();
+    }
+
     /**
      * Updates the (potentially stale) priority value cached in this object.
      * This should be called when this object is outside the queue.
@@ -215,7 +215,8 @@ public class TaskExecutor
     {
         checkState(!closed, "TaskExecutor is closed");
         for (int i = 0; i < runnerThreads; i++) {
-            addRunnerThread();
+            // spread the runner threads evenly over the split queue groups
+            addRunnerThread(i % waitingSplits.getGroupCount());
         }
     }
 
@@ -232,6 +233,7 @@ public class TaskExecutor
     {
         return toStringHelper(this)
                 .add("runnerThreads", runnerThreads)
+                .add("splitQueueGroups", waitingSplits.getGroupCount())
                 .add("allSplits", allSplits.size())
                 .add("intermediateSplits", intermediateSplits.size())
                 .add("waitingSplits", waitingSplits.size())
@@ -240,10 +242,10 @@ public class TaskExecutor
                 .toString();
     }
 
-    private synchronized void addRunnerThread()
+    private synchronized void addRunnerThread(int splitQueueGroup)
     {
         try {
-            executor.execute(embedVersion.embedVersion(new TaskRunner()));
+            executor.execute(embedVersion.embedVersion(new TaskRunner(splitQueueGroup)));
         }
         catch (RejectedExecutionException ignored) {
         }
@@ -457,6 +459,12 @@ public class TaskExecutor
             implements Runnable
     {
         private final long runnerId = NEXT_RUNNER_ID.getAndIncrement();
+        private final int splitQueueGroup;
+
+        public TaskRunner(int splitQueueGroup)
+        {
+            this.splitQueueGroup = splitQueueGroup;
+        }
 
         @Override
         public void run()
@@ -466,7 +474,7 @@ public class TaskExecutor
                     // select next worker
                     final PrioritizedSplitRunner split;
                     try {
-                        split = waitingSplits.take();
+                        split = waitingSplits.take(splitQueueGroup);
                     }
                     catch (InterruptedException e) {
                         Thread.currentThread().interrupt();
@@ -525,7 +533,7 @@ public class TaskExecutor
             finally {
                 // unless we have been closed, we need to replace this thread
                 if (!closed) {
-                    addRunnerThread();
+                    addRunnerThread(splitQueueGroup);
                 }
             }
         }
@@ -27,21 +27,31 @@ import io.prestosql.testing.NoOpIndexClient;
 import java.io.IOException;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
 
 public class HeuristicIndexerManager
 {
     private final FileSystemClientManager fileSystemClientManager;
+    private final IndexCacheStats indexCacheStats;
     private IndexClient indexClient = new NoOpIndexClient();
+    private IndexCache indexCache;
     private static final Map<String, IndexFactory> indexFactories = new ConcurrentHashMap<>();
 
     private static final Logger LOG = Logger.get(HeuristicIndexerManager.class);
 
-    @Inject
     public HeuristicIndexerManager(FileSystemClientManager fileSystemClientManager)
+    {
+        this(fileSystemClientManager, new IndexCacheStats());
+    }
+
+    @Inject
+    public HeuristicIndexerManager(FileSystemClientManager fileSystemClientManager, IndexCacheStats indexCacheStats)
     {
         this.fileSystemClientManager = fileSystemClientManager;
+        this.indexCacheStats = indexCacheStats;
     }
 
     public void loadIndexFactories(IndexFactory indexFactory)
@@ -62,9 +72,50 @@ public class HeuristicIndexerManager
 
             indexClient = factory.getIndexClient(fs, root);
             LOG.info("Heuristic Indexer Client created on %s at %s", fsProfile, indexStoreRoot);
+
+            // Hetu: create the split filtering cache up front, so the configured tables are warm before the first query
+            indexCache = new IndexCache(new IndexCacheLoader(indexClient, buildIndexDiskCache(factory, fs, root)), indexClient, indexCacheStats);
+            List<String> preloadTables = PropertyService.getCommaSeparatedList(HetuConstant.FILTER_CACHE_PRELOAD_INDICES).stream()
+                    .map(String::trim)
+                    .filter(table -> !table.isEmpty())
+                    .collect(Collectors.toList());
+            indexCache.preloadIndices(preloadTables, PropertyService.getDurationProperty(HetuConstant.FILTER_CACHE_PRELOAD_INTERVAL).toMillis());
         }
     }
 
+    private IndexDiskCache buildIndexDiskCache(IndexFactory factory, HetuFileSystemClient fs, Path root)
+            throws IOException
+    {
+        if (!PropertyService.containsProperty(HetuConstant.FILTER_CACHE_LOCAL_DIR)) {
+            return null;
+        }
+        String localDir = PropertyService.getStringProperty(HetuConstant.FILTER_CACHE_LOCAL_DIR);
+        if (localDir.trim().isEmpty()) {
+            return null;
+        }
+
+        // Hetu: index files are copied to a local directory and read from there, the index store is only read on a local miss
+        Path localRoot = Paths.get(localDir.trim());
+        Path cacheRoot = IndexDiskCache.getCacheRoot(localRoot);
+        HetuFileSystemClient localFs = fileSystemClientManager.getFileSystemClient(localRoot);
+        long maxSize = PropertyService.getLongProperty(HetuConstant.FILTER_CACHE_LOCAL_MAX_SIZE);
+        LOG.info("Heuristic index disk cache created at %s with max size %s bytes", cacheRoot, maxSize);
+        return new IndexDiskCache(indexClient, fs, root, factory.getIndexClient(localFs, cacheRoot), localFs, localRoot, maxSize, indexCacheStats);
+    }
+
+    /**
+     * @return the index cache used for split filtering, or null if it has not been created by {@link #buildIndexClient()}
+     */
+    public IndexCache getIndexCache()
+    {
+        return indexCache;
+    }
+
+    public IndexCacheStats getIndexCacheStats()
+    {
+        return indexCacheStats;
+    }
+
     public IndexClient getIndexClient()
     {
         return indexClient;
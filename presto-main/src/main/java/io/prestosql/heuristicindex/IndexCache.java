@@ -25,6 +25,7 @@ import io.airlift.log.Logger;
 import io.hetu.core.common.heuristicindex.IndexCacheKey;
 import io.prestosql.metadata.Split;
 import io.prestosql.spi.HetuConstant;
+import io.prestosql.spi.heuristicindex.IndexClient;
 import io.prestosql.spi.heuristicindex.IndexMetadata;
 import io.prestosql.spi.service.PropertyService;
 
@@ -32,13 +33,23 @@ import java.net.URI;
 import java.util.Collections;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 import static io.prestosql.spi.HetuConstant.KILOBYTE;
+import static java.util.Comparator.comparingLong;
+import static java.util.Locale.ENGLISH;
+import static java.util.Objects.requireNonNull;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+import static java.util.stream.Collectors.groupingBy;
 
 public class IndexCache
 {
@@ -49,13 +60,28 @@ public class IndexCache
     private static ScheduledExecutorService executor;
 
     private Long loadDelay; // in millisecond
+    private long loadingWait; // in nanosecond, 0 if split filtering does not wait for cold indices
     private LoadingCache<IndexCacheKey, List<IndexMetadata>> cache;
+    private final IndexClient indexClient;
+    private final IndexCacheStats stats;
+    // loads that are scheduled but not finished yet, so that a cold key is only loaded once
+    private final Map<IndexCacheKey, Future<?>> pendingLoads = new ConcurrentHashMap<>();
 
     public IndexCache(CacheLoader loader)
     {
+        this(loader, null, new IndexCacheStats());
+    }
+
+    public IndexCache(CacheLoader loader, IndexClient indexClient, IndexCacheStats stats)
+    {
+        this.indexClient = indexClient;
+        this.stats = requireNonNull(stats, "stats is null");
         // If the static variables have not been initialized
         if (PropertyService.getBooleanProperty(HetuConstant.FILTER_ENABLED)) {
             loadDelay = PropertyService.getDurationProperty(HetuConstant.FILTER_CACHE_LOADING_DELAY).toMillis();
+            if (PropertyService.containsProperty(HetuConstant.FILTER_CACHE_LOADING_WAIT)) {
+                loadingWait = PropertyService.getDurationProperty(HetuConstant.FILTER_CACHE_LOADING_WAIT).roundTo(NANOSECONDS);
+            }
             int numThreads = Math.min(Runtime.getRuntime().availableProcessors(), PropertyService.getLongProperty(HetuConstant.FILTER_CACHE_LOADING_THREADS).intValue());
             executor = Executors.newScheduledThreadPool(numThreads, threadFactory);
             CacheBuilder cacheBuilder = CacheBuilder.newBuilder()
@@ -77,7 +103,67 @@ public class IndexCache
         }
     }
 
+    /**
+     * Loads the indices of the given tables into the cache now, and again at every interval,
+     * so that the first queries after a restart or after the cache entries expired, as well as
+     * queries on newly created indices, do not run without split filtering.
+     * The loading runs on the index loading pool.
+     *
+     * @param tables fully qualified names of the tables
+     * @param interval the interval at which the indices are reloaded, in milliseconds
+     */
+    public void preloadIndices(List<String> tables, long interval)
+    {
+        if (cache == null || indexClient == null || tables.isEmpty()) {
+            return;
+        }
+
+        executor.scheduleWithFixedDelay(() -> tables.forEach(this::preloadIndices), 0, interval, MILLISECONDS);
+    }
+
+    private void preloadIndices(String table)
+    {
+        long start = System.nanoTime();
+        List<IndexMetadata> indices;
+        try {
+            indices = indexClient.readSplitIndex(table);
+        }
+        catch (Exception e) {
+            LOG.warn(e, "Unable to preload indices of table %s", table);
+            return;
+        }
+
+        // group the indices the way getIndices looks them up: table/column/type/split path
+        Map<String, List<IndexMetadata>> indicesByKey = indices.stream()
+                .filter(index -> INDEX_TYPES.contains(index.getIndex().getId().toLowerCase(ENGLISH)))
+                .collect(groupingBy(index -> index.getTable() + "/" + index.getColumn() + "/"
+                        + index.getIndex().getId().toLowerCase(ENGLISH) + index.getUri()));
+        for (Map.Entry<String, List<IndexMetadata>> entry : indicesByKey.entrySet()) {
+            List<IndexMetadata> keyIndices = new LinkedList<>(entry.getValue());
+            keyIndices.sort(comparingLong(IndexMetadata::getSplitStart));
+            cache.put(new IndexCacheKey(entry.getKey(), keyIndices.get(0).getLastUpdated()), keyIndices);
+        }
+
+        stats.recordPreloaded(indicesByKey.size());
+        stats.getPreloadTime().add(System.nanoTime() - start, NANOSECONDS);
+        LOG.info("Preloaded %s index entries of table %s", indicesByKey.size(), table);
+    }
+
+    /**
+     * Returns the deadline, in {@link System#nanoTime()}, until which split filtering may wait for indices
+     * that are not cached yet. Lookups sharing one deadline wait no longer than the configured loading wait in total.
+     */
+    public long getLoadingWaitDeadline()
+    {
+        return System.nanoTime() + loadingWait;
+    }
+
     public List<IndexMetadata> getIndices(String table, String column, Split split)
+    {
+        return getIndices(table, column, split, getLoadingWaitDeadline());
+    }
+
+    public List<IndexMetadata> getIndices(String table, String column, Split split, long loadingWaitDeadline)
     {
         if (cache == null) {
             return Collections.emptyList();
@@ -99,17 +185,20 @@ public class IndexCache
             indexOfThisType = cache.getIfPresent(filterKey);
 
             if (indexOfThisType == null) {
-                executor.schedule(() -> {
-                    try {
-                        cache.get(filterKey);
-                        LOG.debug("Loaded index for %s.", filterKey);
+                stats.recordMiss();
+                if (loadingWait > 0) {
+                    // load right away and wait for it until the deadline
+                    Future<?> load = scheduleLoad(filterKey, 0);
+                    if (awaitLoad(load, loadingWaitDeadline)) {
+                        indexOfThisType = cache.getIfPresent(filterKey);
                     }
-                    catch (ExecutionException e) {
-                        if (LOG.isDebugEnabled()) {
-                            LOG.debug(e, "Unable to load index for %s. ", filterKey);
-                        }
-                    }
-                }, loadDelay, TimeUnit.MILLISECONDS);
+                }
+                else {
+                    scheduleLoad(filterKey, loadDelay);
+                }
+            }
+            else {
+                stats.recordHit();
             }
 
             if (indexOfThisType != null) {
@@ -129,6 +218,57 @@ public class IndexCache
         return indices;
     }
 
+    private Future<?> scheduleLoad(IndexCacheKey filterKey, long delay)
+    {
+        return pendingLoads.computeIfAbsent(filterKey, key -> executor.schedule(() -> {
+            long start = System.nanoTime();
+            try {
+                cache.get(key);
+                stats.getLoadTime().add(System.nanoTime() - start, NANOSECONDS);
+                LOG.debug("Loaded index for %s.", key);
+            }
+            catch (ExecutionException e) {
+                stats.recordLoadFailure();
+                if (LOG.isDebugEnabled()) {
+                    LOG.debug(e, "Unable to load index for %s. ", key);
+                }
+            }
+            finally {
+                pendingLoads.remove(key);
+            }
+        }, delay, MILLISECONDS));
+    }
+
+    private boolean awaitLoad(Future<?> load, long deadline)
+    {
+        long remaining = deadline - System.nanoTime();
+        if (remaining <= 0) {
+            stats.recordLoadWaitTimeout();
+            return false;
+        }
+
+        try {
+            load.get(remaining, NANOSECONDS);
+            return true;
+        }
+        catch (TimeoutException e) {
+            stats.recordLoadWaitTimeout();
+            return false;
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+        catch (ExecutionException e) {
+            return false;
+        }
+    }
+
+    public IndexCacheStats getStats()
+    {
+        return stats;
+    }
+
     @VisibleForTesting
     protected long getCacheSize()
     {
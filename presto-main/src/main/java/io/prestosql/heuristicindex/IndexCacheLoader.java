@@ -29,10 +29,21 @@ public class IndexCacheLoader
         extends CacheLoader<IndexCacheKey, List<IndexMetadata>>
 {
     private static IndexClient indexClient;
+    private final IndexDiskCache diskCache;
 
     public IndexCacheLoader(IndexClient client)
+    {
+        this(client, null);
+    }
+
+    /**
+     * @param client index client reading the index store
+     * @param diskCache local disk tier holding copies of the index files, or null to always read the index store
+     */
+    public IndexCacheLoader(IndexClient client, IndexDiskCache diskCache)
     {
         IndexCacheLoader.indexClient = client;
+        this.diskCache = diskCache;
     }
 
     @Override
@@ -42,6 +53,10 @@ public class IndexCacheLoader
         requireNonNull(key);
         requireNonNull(indexClient);
 
+        if (diskCache != null) {
+            return sort(key, loadFromDisk(key));
+        }
+
         // only load index files if index lastModified matches key lastModified
         long lastModified;
 
@@ -65,6 +80,23 @@ public class IndexCacheLoader
             throw new Exception("No valid index file found for key " + key, e);
         }
 
+        return sort(key, indices);
+    }
+
+    private List<IndexMetadata> loadFromDisk(IndexCacheKey key)
+            throws Exception
+    {
+        try {
+            return diskCache.readSplitIndex(key);
+        }
+        catch (Exception e) {
+            throw new Exception("No valid index file found for key " + key, e);
+        }
+    }
+
+    private static List<IndexMetadata> sort(IndexCacheKey key, List<IndexMetadata> indices)
+            throws Exception
+    {
         // lastModified file was valid, but no index files for the given types
         if (indices.isEmpty()) {
             throw new Exception("No index files found for key " + key);
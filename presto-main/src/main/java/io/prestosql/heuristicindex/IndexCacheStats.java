@@ -0,0 +1,149 @@
+/*
+ * Copyright (C) 2018-2020. Huawei Technologies Co., Ltd. All rights reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.heuristicindex;
+
+import io.airlift.stats.CounterStat;
+import io.airlift.stats.TimeStat;
+import org.weakref.jmx.Managed;
+import org.weakref.jmx.Nested;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+/**
+ * Hit, miss and loading statistics of the heuristic index cache used for split filtering
+ */
+public class IndexCacheStats
+{
+    private final CounterStat hits = new CounterStat();
+    private final CounterStat misses = new CounterStat();
+    private final CounterStat loadFailures = new CounterStat();
+    private final CounterStat preloadedIndices = new CounterStat();
+    private final CounterStat loadWaitTimeouts = new CounterStat();
+    private final CounterStat diskHits = new CounterStat();
+    private final CounterStat diskMisses = new CounterStat();
+    private final CounterStat remoteFetchedBytes = new CounterStat();
+    private final TimeStat loadTime = new TimeStat(MILLISECONDS);
+    private final TimeStat preloadTime = new TimeStat(MILLISECONDS);
+
+    public void recordHit()
+    {
+        hits.update(1);
+    }
+
+    public void recordMiss()
+    {
+        misses.update(1);
+    }
+
+    public void recordLoadFailure()
+    {
+        loadFailures.update(1);
+    }
+
+    public void recordPreloaded(long count)
+    {
+        preloadedIndices.update(count);
+    }
+
+    public void recordLoadWaitTimeout()
+    {
+        loadWaitTimeouts.update(1);
+    }
+
+    public void recordDiskHit()
+    {
+        diskHits.update(1);
+    }
+
+    public void recordDiskMiss()
+    {
+        diskMisses.update(1);
+    }
+
+    public void recordRemoteFetch(long bytes)
+    {
+        remoteFetchedBytes.update(bytes);
+    }
+
+    @Managed
+    @Nested
+    public CounterStat getHits()
+    {
+        return hits;
+    }
+
+    @Managed
+    @Nested
+    public CounterStat getMisses()
+    {
+        return misses;
+    }
+
+    @Managed
+    @Nested
+    public CounterStat getLoadFailures()
+    {
+        return loadFailures;
+    }
+
+    @Managed
+    @Nested
+    public CounterStat getPreloadedIndices()
+    {
+        return preloadedIndices;
+    }
+
+    @Managed
+    @Nested
+    public CounterStat getLoadWaitTimeouts()
+    {
+        return loadWaitTimeouts;
+    }
+
+    @Managed
+    @Nested
+    public CounterStat getDiskHits()
+    {
+        return diskHits;
+    }
+
+    @Managed
+    @Nested
+    public CounterStat getDiskMisses()
+    {
+        return diskMisses;
+    }
+
+    @Managed
+    @Nested
+    public CounterStat getRemoteFetchedBytes()
+    {
+        return remoteFetchedBytes;
+    }
+
+    @Managed
+    @Nested
+    public TimeStat getLoadTime()
+    {
+        return loadTime;
+    }
+
+    @Managed
+    @Nested
+    public TimeStat getPreloadTime()
+    {
+        return preloadTime;
+    }
+}
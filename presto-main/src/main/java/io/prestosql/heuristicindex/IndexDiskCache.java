@@ -0,0 +1,205 @@
+/*
+ * Copyright (C) 2018-2020. Huawei Technologies Co., Ltd. All rights reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.heuristicindex;
+
+import com.google.common.io.ByteStreams;
+import io.airlift.log.Logger;
+import io.hetu.core.common.heuristicindex.IndexCacheKey;
+import io.prestosql.spi.filesystem.HetuFileSystemClient;
+import io.prestosql.spi.heuristicindex.IndexClient;
+import io.prestosql.spi.heuristicindex.IndexMetadata;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Local disk tier of the index cache.
+ * <p>
+ * The index files of a cache key are copied, as they are stored in the index store, from the
+ * index store to a subdirectory of the configured local directory with the same layout, and read from
+ * there by a local index client.
+ * The index store is only accessed when the local directory does not hold the index of the key,
+ * or holds an outdated one. Keys are evicted in least recently used order once the files
+ * take more than the maximum size.
+ */
+public class IndexDiskCache
+{
+    private static final Logger LOG = Logger.get(IndexDiskCache.class);
+    private static final String CACHE_DIRECTORY = "hetu-index-cache";
+
+    private final IndexClient remoteIndexClient;
+    private final HetuFileSystemClient remoteFs;
+    private final Path remoteRoot;
+    private final IndexClient localIndexClient;
+    private final HetuFileSystemClient localFs;
+    private final Path localRoot;
+    private final long maxSizeInBytes;
+    private final IndexCacheStats stats;
+
+    // size on disk of the cached key paths, in access order
+    private final LinkedHashMap<String, Long> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long sizeInBytes;
+
+    public IndexDiskCache(
+            IndexClient remoteIndexClient,
+            HetuFileSystemClient remoteFs,
+            Path remoteRoot,
+            IndexClient localIndexClient,
+            HetuFileSystemClient localFs,
+            Path localDir,
+            long maxSizeInBytes,
+            IndexCacheStats stats)
+            throws IOException
+    {
+        checkArgument(maxSizeInBytes > 0, "maxSizeInBytes must be positive");
+        this.remoteIndexClient = requireNonNull(remoteIndexClient, "remoteIndexClient is null");
+        this.remoteFs = requireNonNull(remoteFs, "remoteFs is null");
+        this.remoteRoot = requireNonNull(remoteRoot, "remoteRoot is null");
+        this.localIndexClient = requireNonNull(localIndexClient, "localIndexClient is null");
+        this.localFs = requireNonNull(localFs, "localFs is null");
+        this.localRoot = getCacheRoot(requireNonNull(localDir, "localDir is null"));
+        this.maxSizeInBytes = maxSizeInBytes;
+        this.stats = requireNonNull(stats, "stats is null");
+
+        // files left by a previous run are not accounted for, start empty. Only the cache's own
+        // subdirectory is cleared, the local directory may hold other files
+        if (localFs.exists(localRoot)) {
+            localFs.deleteRecursively(localRoot);
+        }
+        localFs.createDirectories(localRoot);
+    }
+
+    /**
+     * @param localDir the configured local directory
+     * @return the subdirectory of the local directory that holds the cached index files
+     */
+    public static Path getCacheRoot(Path localDir)
+    {
+        return localDir.resolve(CACHE_DIRECTORY);
+    }
+
+    /**
+     * Reads the indices of the key from the local disk, copying them from the index store first
+     * if the local disk does not hold them yet.
+     *
+     * @param key cache key, its path is relative to the index store root
+     * @return indices of the key, sorted as read by the index client
+     * @throws IOException if the index files are outdated or cannot be read
+     */
+    public List<IndexMetadata> readSplitIndex(IndexCacheKey key)
+            throws IOException
+    {
+        String path = key.getPath();
+        boolean cached;
+        synchronized (this) {
+            cached = entries.get(path) != null;
+        }
+
+        if (cached) {
+            try {
+                if (localIndexClient.getLastModified(path) == key.getLastModifiedTime()) {
+                    List<IndexMetadata> indices = localIndexClient.readSplitIndex(path);
+                    stats.recordDiskHit();
+                    return indices;
+                }
+            }
+            catch (IOException e) {
+                // the files can be evicted by a concurrent fetch while they are read, fetch them again once
+                LOG.debug(e, "Unable to read the cached index files of %s, fetching them again", path);
+            }
+        }
+
+        stats.recordDiskMiss();
+        long lastModified = remoteIndexClient.getLastModified(path);
+        if (lastModified != key.getLastModifiedTime()) {
+            throw new IOException("Index file(s) are expired for key " + key);
+        }
+        fetch(path);
+        return localIndexClient.readSplitIndex(path);
+    }
+
+    private void fetch(String path)
+            throws IOException
+    {
+        Path remoteDir = Paths.get(remoteRoot.toString(), path);
+        Path localDir = Paths.get(localRoot.toString(), path);
+        if (localFs.exists(localDir)) {
+            localFs.deleteRecursively(localDir);
+        }
+
+        long bytes = 0;
+        try (Stream<Path> files = remoteFs.walk(remoteDir)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                if (remoteFs.isDirectory(file)) {
+                    continue;
+                }
+                Path target = Paths.get(localDir.toString(), remoteDir.relativize(file).toString());
+                Path parent = target.getParent();
+                if (parent != null) {
+                    localFs.createDirectories(parent);
+                }
+                try (InputStream in = remoteFs.newInputStream(file);
+                        OutputStream out = localFs.newOutputStream(target)) {
+                    bytes += ByteStreams.copy(in, out);
+                }
+            }
+        }
+        stats.recordRemoteFetch(bytes);
+
+        List<String> evicted = new ArrayList<>();
+        synchronized (this) {
+            Long previous = entries.put(path, bytes);
+            if (previous != null) {
+                sizeInBytes -= previous;
+            }
+            sizeInBytes += bytes;
+
+            // the entry just fetched is the most recently used one and is never evicted here
+            Iterator<Map.Entry<String, Long>> iterator = entries.entrySet().iterator();
+            while (sizeInBytes > maxSizeInBytes && entries.size() > 1) {
+                Map.Entry<String, Long> eldest = iterator.next();
+                sizeInBytes -= eldest.getValue();
+                evicted.add(eldest.getKey());
+                iterator.remove();
+            }
+        }
+
+        for (String evictedPath : evicted) {
+            try {
+                localFs.deleteRecursively(Paths.get(localRoot.toString(), evictedPath));
+            }
+            catch (IOException e) {
+                LOG.warn(e, "Unable to delete evicted index files of %s", evictedPath);
+            }
+        }
+    }
+
+    public synchronized long getSizeInBytes()
+    {
+        return sizeInBytes;
+    }
+}
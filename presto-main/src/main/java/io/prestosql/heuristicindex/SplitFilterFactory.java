@@ -48,10 +48,12 @@ public class SplitFilterFactory
     public SplitFilter getFilter(Predicate predicate, List<Split> splits)
     {
         Map<String, List<IndexMetadata>> indices = new ConcurrentHashMap<>();
+        // all splits share one deadline for waiting on indices that are not cached yet
+        long loadingWaitDeadline = indexCache.getLoadingWaitDeadline();
         splits.stream().parallel().forEach(split -> {
             String splitKey = getSplitKey(split);
             if (!indices.containsKey(splitKey)) {
-                List<IndexMetadata> allIndices = indexCache.getIndices(predicate.getTableName(), predicate.getColumnName(), split);
+                List<IndexMetadata> allIndices = indexCache.getIndices(predicate.getTableName(), predicate.getColumnName(), split, loadingWaitDeadline);
                 List<IndexMetadata> matchingIndices = new LinkedList<>();
 
                 for (IndexMetadata i : allIndices) {
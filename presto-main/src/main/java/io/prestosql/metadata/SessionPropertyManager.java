@@ -363,6 +363,12 @@ public final class SessionPropertyManager
             PropertyService.setProperty(HetuConstant.FILTER_CACHE_LOADING_DELAY, hetuConfig.getIndexCacheLoadingDelay());
             PropertyService.setProperty(HetuConstant.FILTER_CACHE_LOADING_THREADS, hetuConfig.getIndexCacheLoadingThreads());
             PropertyService.setProperty(HetuConstant.FILTER_CACHE_SOFT_REFERENCE, hetuConfig.isIndexCacheSoftReferenceEnabled());
+            PropertyService.setProperty(HetuConstant.FILTER_CACHE_LOADING_WAIT, hetuConfig.getIndexCacheLoadingWait());
+            PropertyService.setProperty(HetuConstant.FILTER_CACHE_PRELOAD_INDICES, hetuConfig.getIndexCachePreloadIndices());
+            PropertyService.setProperty(HetuConstant.FILTER_CACHE_PRELOAD_INTERVAL, hetuConfig.getIndexCachePreloadInterval());
+            PropertyService.setProperty(HetuConstant.FILTER_CACHE_LOCAL_DIR, hetuConfig.getIndexCacheLocalDir());
+            // set the local max size in bytes
+            PropertyService.setProperty(HetuConstant.FILTER_CACHE_LOCAL_MAX_SIZE, hetuConfig.getIndexCacheLocalMaxSize().toBytes());
             PropertyService.setProperty(HetuConstant.INDEXSTORE_URI, hetuConfig.getIndexStoreUri());
             PropertyService.setProperty(HetuConstant.INDEXSTORE_FILESYSTEM_PROFILE, hetuConfig.getIndexStoreFileSystemProfile());
         }
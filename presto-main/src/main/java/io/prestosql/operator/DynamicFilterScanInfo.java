@@ -0,0 +1,103 @@
+/*
+ * Copyright (C) 2018-2020. Huawei Technologies Co., Ltd. All rights reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.operator;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import io.airlift.units.Duration;
+
+import javax.annotation.Nullable;
+
+import static com.google.common.base.MoreObjects.toStringHelper;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+/**
+ * Info of a table scan with dynamic filters: how long it waited for the filters,
+ * and how many rows it produced before and after the first filter arrived.
+ */
+public class DynamicFilterScanInfo
+        implements Mergeable<DynamicFilterScanInfo>, OperatorInfo
+{
+    // NOTE: this deserializes to a map instead of the expected type
+    private final Object splitInfo;
+    private final Duration waitTime;
+    private final long positionsBeforeDynamicFilter;
+    private final long positionsAfterDynamicFilter;
+
+    @JsonCreator
+    public DynamicFilterScanInfo(
+            @JsonProperty("splitInfo") @Nullable Object splitInfo,
+            @JsonProperty("waitTime") Duration waitTime,
+            @JsonProperty("positionsBeforeDynamicFilter") long positionsBeforeDynamicFilter,
+            @JsonProperty("positionsAfterDynamicFilter") long positionsAfterDynamicFilter)
+    {
+        this.splitInfo = splitInfo;
+        this.waitTime = waitTime;
+        this.positionsBeforeDynamicFilter = positionsBeforeDynamicFilter;
+        this.positionsAfterDynamicFilter = positionsAfterDynamicFilter;
+    }
+
+    @Nullable
+    @JsonProperty
+    public Object getSplitInfo()
+    {
+        return splitInfo;
+    }
+
+    @JsonProperty
+    public Duration getWaitTime()
+    {
+        return waitTime;
+    }
+
+    @JsonProperty
+    public long getPositionsBeforeDynamicFilter()
+    {
+        return positionsBeforeDynamicFilter;
+    }
+
+    @JsonProperty
+    public long getPositionsAfterDynamicFilter()
+    {
+        return positionsAfterDynamicFilter;
+    }
+
+    @Override
+    public DynamicFilterScanInfo mergeWith(DynamicFilterScanInfo other)
+    {
+        // split infos of different drivers can not be merged
+        return new DynamicFilterScanInfo(
+                null,
+                new Duration(waitTime.roundTo(NANOSECONDS) + other.waitTime.roundTo(NANOSECONDS), NANOSECONDS).convertToMostSuccinctTimeUnit(),
+                positionsBeforeDynamicFilter + other.positionsBeforeDynamicFilter,
+                positionsAfterDynamicFilter + other.positionsAfterDynamicFilter);
+    }
+
+    @Override
+    public boolean isFinal()
+    {
+        return true;
+    }
+
+    @Override
+    public String toString()
+    {
+        return toStringHelper(this)
+                .add("waitTime", waitTime)
+                .add("positionsBeforeDynamicFilter", positionsBeforeDynamicFilter)
+                .add("positionsAfterDynamicFilter", positionsAfterDynamicFilter)
+                .toString();
+    }
+}
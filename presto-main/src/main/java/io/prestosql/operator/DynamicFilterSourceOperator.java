@@ -46,6 +46,7 @@ import static io.prestosql.spi.dynamicfilter.DynamicFilter.DataType.BLOOM_FILTER
 import static io.prestosql.spi.statestore.StateCollection.Type.SET;
 import static io.prestosql.utils.DynamicFilterUtils.FINISHPREFIX;
 import static io.prestosql.utils.DynamicFilterUtils.PARTIALPREFIX;
+import static io.prestosql.utils.DynamicFilterUtils.RANGEPREFIX;
 import static io.prestosql.utils.DynamicFilterUtils.REGISTERPREFIX;
 import static io.prestosql.utils.DynamicFilterUtils.WORKERSPREFIX;
 import static io.prestosql.utils.DynamicFilterUtils.createKey;
@@ -120,7 +121,7 @@ public class DynamicFilterSourceOperator
 
     private static BloomFilter createBloomFilterFromSet(Channel channel, Set values, double bloomFilterFpp)
     {
-        BloomFilter bloomFilter = new BloomFilter(BloomFilterDynamicFilter.DEFAULT_DYNAMIC_FILTER_SIZE, bloomFilterFpp);
+        BloomFilter bloomFilter = BloomFilter.createBlocked(BloomFilterDynamicFilter.DEFAULT_DYNAMIC_FILTER_SIZE, bloomFilterFpp);
         if (channel.type.getJavaType() == long.class) {
             for (Object value : values) {
                 long lv = (Long) value;
@@ -146,6 +147,26 @@ public class DynamicFilterSourceOperator
         return bloomFilter;
     }
 
+    /**
+     * Min/max of the collected values of an integer channel
+     *
+     * @return array of min and max, or null if the channel is not an integer type or has no values
+     */
+    private static long[] getRange(Channel channel, Set values)
+    {
+        if (channel.type.getJavaType() != long.class || values.isEmpty()) {
+            return null;
+        }
+        long min = Long.MAX_VALUE;
+        long max = Long.MIN_VALUE;
+        for (Object value : values) {
+            long longValue = (Long) value;
+            min = Math.min(min, longValue);
+            max = Math.max(max, longValue);
+        }
+        return new long[] {min, max};
+    }
+
     @Override
     public OperatorContext getOperatorContext()
     {
@@ -241,6 +262,7 @@ public class DynamicFilterSourceOperator
                 stateStore.createStateCollection(createKey(WORKERSPREFIX, channel.filterId, queryId), SET);
                 stateStore.createStateCollection(createKey(PARTIALPREFIX, channel.filterId, queryId), SET);
                 stateStore.createStateCollection(createKey(FINISHPREFIX, channel.filterId, queryId), SET);
+                stateStore.createStateCollection(createKey(RANGEPREFIX, channel.filterId, queryId), SET);
                 registeredTasks.add(driverId);
                 this.haveRegistered = true;
             }
@@ -265,6 +287,12 @@ public class DynamicFilterSourceOperator
             String key = createKey(PARTIALPREFIX, id, channel.queryId);
 
             if (dataType == BLOOM_FILTER) {
+                // bloom filters lose the values, so the value range is published next to them
+                long[] range = getRange(channel, values);
+                StateSet ranges = (StateSet) stateStore.getStateCollection(createKey(RANGEPREFIX, id, channel.queryId));
+                if (range != null && ranges != null) {
+                    ranges.add(range);
+                }
                 byte[] finalOutput = convertBloomFilterToByteArray(createBloomFilterFromSet(channel, values, bloomFilterFpp));
                 if (finalOutput != null) {
                     ((StateSet) stateStore.getStateCollection(key)).add(finalOutput);
@@ -36,6 +36,8 @@ public class ExchangeClientConfig
     private int clientThreads = 25;
     private int pageBufferClientMaxCallbackThreads = 25;
     private boolean acknowledgePages = true;
+    private boolean multiplexedRequestsEnabled;
+    private int maxMultiplexedRequestsPerNode = 2;
 
     @NotNull
     public DataSize getMaxBufferSize()
@@ -141,4 +143,29 @@ public class ExchangeClientConfig
         this.acknowledgePages = acknowledgePages;
         return this;
     }
+
+    public boolean isMultiplexedRequestsEnabled()
+    {
+        return multiplexedRequestsEnabled;
+    }
+
+    @Config("exchange.multiplexed-requests-enabled")
+    public ExchangeClientConfig setMultiplexedRequestsEnabled(boolean multiplexedRequestsEnabled)
+    {
+        this.multiplexedRequestsEnabled = multiplexedRequestsEnabled;
+        return this;
+    }
+
+    @Min(1)
+    public int getMaxMultiplexedRequestsPerNode()
+    {
+        return maxMultiplexedRequestsPerNode;
+    }
+
+    @Config("exchange.max-multiplexed-requests-per-node")
+    public ExchangeClientConfig setMaxMultiplexedRequestsPerNode(int maxMultiplexedRequestsPerNode)
+    {
+        this.maxMultiplexedRequestsPerNode = maxMultiplexedRequestsPerNode;
+        return this;
+    }
 }
@@ -24,6 +24,7 @@ import org.weakref.jmx.Nested;
 import javax.annotation.PreDestroy;
 import javax.inject.Inject;
 
+import java.util.Optional;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ThreadPoolExecutor;
@@ -46,6 +47,7 @@ public class ExchangeClientFactory
     private final ScheduledExecutorService scheduler;
     private final ThreadPoolExecutorMBean executorMBean;
     private final ExecutorService pageBufferClientCallbackExecutor;
+    private final Optional<MultiplexedExchangeChannels> exchangeChannels;
 
     @Inject
     public ExchangeClientFactory(
@@ -61,7 +63,8 @@ public class ExchangeClientFactory
                 config.isAcknowledgePages(),
                 config.getPageBufferClientMaxCallbackThreads(),
                 httpClient,
-                scheduler);
+                scheduler,
+                config.isMultiplexedRequestsEnabled() ? Optional.of(new MultiplexedExchangeChannels(httpClient, config.getMaxMultiplexedRequestsPerNode())) : Optional.empty());
     }
 
     public ExchangeClientFactory(
@@ -73,6 +76,29 @@ public class ExchangeClientFactory
             int pageBufferClientMaxCallbackThreads,
             HttpClient httpClient,
             ScheduledExecutorService scheduler)
+    {
+        this(
+                maxBufferedBytes,
+                maxResponseSize,
+                concurrentRequestMultiplier,
+                maxErrorDuration,
+                acknowledgePages,
+                pageBufferClientMaxCallbackThreads,
+                httpClient,
+                scheduler,
+                Optional.empty());
+    }
+
+    public ExchangeClientFactory(
+            DataSize maxBufferedBytes,
+            DataSize maxResponseSize,
+            int concurrentRequestMultiplier,
+            Duration maxErrorDuration,
+            boolean acknowledgePages,
+            int pageBufferClientMaxCallbackThreads,
+            HttpClient httpClient,
+            ScheduledExecutorService scheduler,
+            Optional<MultiplexedExchangeChannels> exchangeChannels)
     {
         this.maxBufferedBytes = requireNonNull(maxBufferedBytes, "maxBufferedBytes is null");
         this.concurrentRequestMultiplier = concurrentRequestMultiplier;
@@ -87,6 +113,7 @@ public class ExchangeClientFactory
         this.maxResponseSize = new DataSize(maxResponseSizeBytes, BYTE);
 
         this.scheduler = requireNonNull(scheduler, "scheduler is null");
+        this.exchangeChannels = requireNonNull(exchangeChannels, "exchangeChannels is null");
 
         this.pageBufferClientCallbackExecutor = newFixedThreadPool(pageBufferClientMaxCallbackThreads, daemonThreadsNamed("page-buffer-client-callback-%s"));
         this.executorMBean = new ThreadPoolExecutorMBean((ThreadPoolExecutor) pageBufferClientCallbackExecutor);
@@ -121,6 +148,7 @@ public class ExchangeClientFactory
                 httpClient,
                 scheduler,
                 systemMemoryContext,
-                pageBufferClientCallbackExecutor);
+                pageBufferClientCallbackExecutor,
+                exchangeChannels);
     }
 }
@@ -0,0 +1,60 @@
+/*
+ * Copyright (C) 2018-2020. Huawei Technologies Co., Ltd. All rights reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.operator;
+
+import io.airlift.slice.XxHash64;
+import io.prestosql.spi.Page;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Partitions the rows of a spilled join partition into sub-partitions. The raw hash is mixed with a seed
+ * derived from the recursion depth, so rows that ended up in the same (sub)partition at the previous depth
+ * are spread again. Build and probe sides must use the same depth to agree on the sub-partitions.
+ */
+public class GraceJoinPartitionFunction
+        implements PartitionFunction
+{
+    private static final long SEED_MULTIPLIER = 0x9E3779B97F4A7C15L;
+
+    private final HashGenerator hashGenerator;
+    private final int partitionCount;
+    private final int hashMask;
+    private final long seed;
+
+    public GraceJoinPartitionFunction(HashGenerator hashGenerator, int partitionCount, int depth)
+    {
+        this.hashGenerator = requireNonNull(hashGenerator, "hashGenerator is null");
+        checkArgument(Integer.bitCount(partitionCount) == 1, "partitionCount must be a power of 2");
+        checkArgument(depth > 0, "depth must be positive");
+        this.partitionCount = partitionCount;
+        this.hashMask = partitionCount - 1;
+        this.seed = depth * SEED_MULTIPLIER;
+    }
+
+    @Override
+    public int getPartitionCount()
+    {
+        return partitionCount;
+    }
+
+    @Override
+    public int getPartition(Page page, int position)
+    {
+        long rawHash = hashGenerator.hashPosition(position, page);
+        return (int) XxHash64.hash(Long.reverse(rawHash) ^ seed) & hashMask;
+    }
+}
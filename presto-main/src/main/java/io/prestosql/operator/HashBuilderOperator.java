@@ -17,9 +17,14 @@ import com.google.common.annotations.VisibleForTesting;
 import com.google.common.collect.ImmutableList;
 import com.google.common.io.Closer;
 import com.google.common.util.concurrent.ListenableFuture;
+import io.airlift.units.DataSize;
 import io.prestosql.execution.Lifespan;
 import io.prestosql.memory.context.LocalMemoryContext;
+import io.prestosql.operator.SpilledLookupSourceHandle.Step;
 import io.prestosql.spi.Page;
+import io.prestosql.spi.type.Type;
+import io.prestosql.spiller.PartitioningSpiller;
+import io.prestosql.spiller.PartitioningSpillerFactory;
 import io.prestosql.spiller.SingleStreamSpiller;
 import io.prestosql.spiller.SingleStreamSpillerFactory;
 import io.prestosql.sql.gen.JoinFilterFunctionCompiler.JoinFilterFunctionFactory;
@@ -30,21 +35,28 @@ import javax.annotation.concurrent.ThreadSafe;
 
 import java.io.IOException;
 import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.OptionalInt;
 import java.util.OptionalLong;
 import java.util.Queue;
+import java.util.function.Supplier;
 
 import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkState;
 import static com.google.common.base.Verify.verify;
+import static com.google.common.collect.ImmutableList.toImmutableList;
 import static com.google.common.util.concurrent.Futures.immediateFuture;
 import static io.airlift.concurrent.MoreFutures.checkSuccess;
 import static io.airlift.concurrent.MoreFutures.getDone;
+import static io.prestosql.spiller.PartitioningSpillerFactory.unsupportedPartitioningSpillerFactory;
 import static java.lang.String.format;
+import static java.util.Collections.emptyIterator;
 import static java.util.Objects.requireNonNull;
 
 @ThreadSafe
@@ -68,6 +80,9 @@ public class HashBuilderOperator
         private final int expectedPositions;
         private final boolean spillEnabled;
         private final SingleStreamSpillerFactory singleStreamSpillerFactory;
+        private final PartitioningSpillerFactory partitioningSpillerFactory;
+        private final DataSize unspillMemoryLimit;
+        private final int maxSpillRecursionDepth;
 
         private final Map<Lifespan, Integer> partitionIndexManager = new HashMap<>();
 
@@ -88,6 +103,44 @@ public class HashBuilderOperator
                 boolean spillEnabled,
                 SingleStreamSpillerFactory singleStreamSpillerFactory)
         {
+            this(
+                    operatorId,
+                    planNodeId,
+                    lookupSourceFactoryManager,
+                    outputChannels,
+                    hashChannels,
+                    preComputedHashChannel,
+                    filterFunctionFactory,
+                    sortChannel,
+                    searchFunctionFactories,
+                    expectedPositions,
+                    pagesIndexFactory,
+                    spillEnabled,
+                    singleStreamSpillerFactory,
+                    unsupportedPartitioningSpillerFactory(),
+                    new DataSize(Long.MAX_VALUE, DataSize.Unit.BYTE),
+                    0);
+        }
+
+        public HashBuilderOperatorFactory(
+                int operatorId,
+                PlanNodeId planNodeId,
+                JoinBridgeManager<PartitionedLookupSourceFactory> lookupSourceFactoryManager,
+                List<Integer> outputChannels,
+                List<Integer> hashChannels,
+                OptionalInt preComputedHashChannel,
+                Optional<JoinFilterFunctionFactory> filterFunctionFactory,
+                Optional<Integer> sortChannel,
+                List<JoinFilterFunctionFactory> searchFunctionFactories,
+                int expectedPositions,
+                PagesIndex.Factory pagesIndexFactory,
+                boolean spillEnabled,
+                SingleStreamSpillerFactory singleStreamSpillerFactory,
+                PartitioningSpillerFactory partitioningSpillerFactory,
+                DataSize unspillMemoryLimit,
+                int maxSpillRecursionDepth)
+        {
+            checkArgument(maxSpillRecursionDepth >= 0, "maxSpillRecursionDepth is negative");
             this.operatorId = operatorId;
             this.planNodeId = requireNonNull(planNodeId, "planNodeId is null");
             requireNonNull(sortChannel, "sortChannel can not be null");
@@ -104,6 +157,9 @@ public class HashBuilderOperator
             this.pagesIndexFactory = requireNonNull(pagesIndexFactory, "pagesIndexFactory is null");
             this.spillEnabled = spillEnabled;
             this.singleStreamSpillerFactory = requireNonNull(singleStreamSpillerFactory, "singleStreamSpillerFactory is null");
+            this.partitioningSpillerFactory = requireNonNull(partitioningSpillerFactory, "partitioningSpillerFactory is null");
+            this.unspillMemoryLimit = requireNonNull(unspillMemoryLimit, "unspillMemoryLimit is null");
+            this.maxSpillRecursionDepth = maxSpillRecursionDepth;
 
             this.expectedPositions = expectedPositions;
         }
@@ -130,7 +186,10 @@ public class HashBuilderOperator
                     expectedPositions,
                     pagesIndexFactory,
                     spillEnabled,
-                    singleStreamSpillerFactory);
+                    singleStreamSpillerFactory,
+                    partitioningSpillerFactory,
+                    unspillMemoryLimit.toBytes(),
+                    maxSpillRecursionDepth);
         }
 
         @Override
@@ -175,12 +234,17 @@ public class HashBuilderOperator
         INPUT_SPILLED,
 
         /**
-         * Spilled input is being unspilled
+         * Spilled input is too large to be unspilled at once and is being split into sub-partitions
+         */
+        INPUT_REPARTITIONING,
+
+        /**
+         * Spilled input (or a part of it) is being unspilled
          */
         INPUT_UNSPILLING,
 
         /**
-         * Spilled input has been unspilled, LookupSource built from it
+         * Spilled input (or a part of it) has been unspilled, LookupSource built from it
          */
         INPUT_UNSPILLED_AND_BUILT,
 
@@ -191,6 +255,9 @@ public class HashBuilderOperator
     }
 
     private static final double INDEX_COMPACTION_ON_REVOCATION_TARGET = 0.8;
+    private static final int GRACE_PARTITION_COUNT = 8;
+    // a sub-partition keeping more than this fraction of its parent is dominated by a few keys and is not split any further
+    private static final double SKEWED_PARTITION_RATIO = 0.9;
 
     private final OperatorContext operatorContext;
     private final LocalMemoryContext localUserMemoryContext;
@@ -210,6 +277,10 @@ public class HashBuilderOperator
 
     private final boolean spillEnabled;
     private final SingleStreamSpillerFactory singleStreamSpillerFactory;
+    private final PartitioningSpillerFactory partitioningSpillerFactory;
+    private final long unspillMemoryLimit;
+    private final int maxSpillRecursionDepth;
+    private final HashGenerator hashGenerator;
 
     private final HashCollisionsCounter hashCollisionsCounter;
 
@@ -225,6 +296,11 @@ public class HashBuilderOperator
 
     private Optional<Runnable> finishMemoryRevoke = Optional.empty();
 
+    private final Deque<SpilledSlice> pendingSlices = new ArrayDeque<>();
+    private Optional<Iterator<Page>> unspilledBlockPages = Optional.empty();
+    private Optional<Repartitioning> repartitioning = Optional.empty();
+    private final List<PartitioningSpiller> repartitioningSpillers = new ArrayList<>();
+
     public HashBuilderOperator(
             OperatorContext operatorContext,
             PartitionedLookupSourceFactory lookupSourceFactory,
@@ -238,7 +314,10 @@ public class HashBuilderOperator
             int expectedPositions,
             PagesIndex.Factory pagesIndexFactory,
             boolean spillEnabled,
-            SingleStreamSpillerFactory singleStreamSpillerFactory)
+            SingleStreamSpillerFactory singleStreamSpillerFactory,
+            PartitioningSpillerFactory partitioningSpillerFactory,
+            long unspillMemoryLimit,
+            int maxSpillRecursionDepth)
     {
         requireNonNull(pagesIndexFactory, "pagesIndexFactory is null");
 
@@ -263,6 +342,18 @@ public class HashBuilderOperator
 
         this.spillEnabled = spillEnabled;
         this.singleStreamSpillerFactory = requireNonNull(singleStreamSpillerFactory, "singleStreamSpillerFactory is null");
+        this.partitioningSpillerFactory = requireNonNull(partitioningSpillerFactory, "partitioningSpillerFactory is null");
+        this.unspillMemoryLimit = unspillMemoryLimit;
+        this.maxSpillRecursionDepth = maxSpillRecursionDepth;
+        if (preComputedHashChannel.isPresent()) {
+            this.hashGenerator = new PrecomputedHashGenerator(preComputedHashChannel.getAsInt());
+        }
+        else {
+            List<Type> hashChannelTypes = hashChannels.stream()
+                    .map(lookupSourceFactory.getTypes()::get)
+                    .collect(toImmutableList());
+            this.hashGenerator = new InterpretedHashGenerator(hashChannelTypes, hashChannels);
+        }
     }
 
     @Override
@@ -293,10 +384,22 @@ public class HashBuilderOperator
             case INPUT_SPILLED:
                 return spilledLookupSourceHandle.getUnspillingOrDisposeRequested();
 
+            case INPUT_REPARTITIONING:
+                if (!spillInProgress.isDone() || repartitioning.isPresent()) {
+                    return spillInProgress;
+                }
+                return spilledLookupSourceHandle.getStepReleased();
+
             case INPUT_UNSPILLING:
+                if (unspilledBlockPages.isPresent()) {
+                    return NOT_BLOCKED;
+                }
                 return unspillInProgress.orElseThrow(() -> new IllegalStateException("Unspilling in progress, but unspilling future not set"));
 
             case INPUT_UNSPILLED_AND_BUILT:
+                if (hasPendingSlices()) {
+                    return spilledLookupSourceHandle.getStepReleased();
+                }
                 return spilledLookupSourceHandle.getDisposeRequested();
 
             case CLOSED:
@@ -459,6 +562,10 @@ public class HashBuilderOperator
                 }
                 return;
 
+            case INPUT_REPARTITIONING:
+                repartitionSpilledInput();
+                return;
+
             case INPUT_UNSPILLING:
                 finishLookupSourceUnspilling();
                 return;
@@ -532,15 +639,92 @@ public class HashBuilderOperator
         verify(spiller.isPresent());
         verify(!unspillInProgress.isPresent());
 
-        localUserMemoryContext.setBytes(getSpiller().getSpilledPagesInMemorySize() + index.getEstimatedSize().toBytes());
+        long spilledPagesInMemorySize = getSpiller().getSpilledPagesInMemorySize();
+        // A lookup source that was built before being spilled is known to fit in memory, and is restored as a whole
+        // so that probe rows saved in the middle of the join can resume at their join position.
+        if (spilledPagesInMemorySize > unspillMemoryLimit && !lookupSourceChecksum.isPresent()) {
+            pendingSlices.push(new SpilledSlice(0, getSpiller()::getSpilledPages, spilledPagesInMemorySize, true));
+            unspillNextSlice();
+            return;
+        }
+
+        localUserMemoryContext.setBytes(spilledPagesInMemorySize + index.getEstimatedSize().toBytes());
         unspillInProgress = Optional.of(getSpiller().getAllSpilledPages());
 
         state = State.INPUT_UNSPILLING;
     }
 
+    private void unspillNextSlice()
+    {
+        if (!unspilledBlockPages.isPresent()) {
+            SpilledSlice slice = pendingSlices.pop();
+            if (slice.isSplittable() && slice.getSizeInBytes() > unspillMemoryLimit && slice.getDepth() < maxSpillRecursionDepth) {
+                startRepartitioning(slice);
+                return;
+            }
+            // Slice is small enough, or can not be split any further. Fall back to joining it block by block.
+            unspilledBlockPages = Optional.of(slice.getPages());
+        }
+        state = State.INPUT_UNSPILLING;
+    }
+
+    private void startRepartitioning(SpilledSlice slice)
+    {
+        int depth = slice.getDepth() + 1;
+        PartitioningSpiller repartitioningSpiller = partitioningSpillerFactory.create(
+                index.getTypes(),
+                new GraceJoinPartitionFunction(hashGenerator, GRACE_PARTITION_COUNT, depth),
+                operatorContext.getSpillContext().newLocalSpillContext(),
+                operatorContext.newAggregateSystemMemoryContext());
+        repartitioningSpillers.add(repartitioningSpiller);
+        repartitioning = Optional.of(new Repartitioning(slice, repartitioningSpiller));
+
+        spilledLookupSourceHandle.addStep(Step.repartition(depth, GRACE_PARTITION_COUNT));
+        state = State.INPUT_REPARTITIONING;
+    }
+
+    private void repartitionSpilledInput()
+    {
+        checkState(state == State.INPUT_REPARTITIONING);
+        if (!spillInProgress.isDone()) {
+            return;
+        }
+        checkSuccess(spillInProgress, "spilling failed");
+
+        if (repartitioning.isPresent()) {
+            Repartitioning current = repartitioning.get();
+            if (current.getPages().hasNext()) {
+                spillInProgress = current.getSpiller().partitionAndSpill(current.getPages().next(), partition -> true).getSpillingFuture();
+                return;
+            }
+            repartitioning = Optional.empty();
+
+            SpilledSlice parent = current.getSlice();
+            PartitioningSpiller repartitioningSpiller = current.getSpiller();
+            for (int partition = GRACE_PARTITION_COUNT - 1; partition >= 0; partition--) {
+                int subPartition = partition;
+                long sizeInBytes = repartitioningSpiller.getSpilledPagesInMemorySize(subPartition);
+                Supplier<Iterator<Page>> pages = () -> sizeInBytes == 0 ? emptyIterator() : repartitioningSpiller.getSpilledPages(subPartition);
+                boolean splittable = sizeInBytes <= parent.getSizeInBytes() * SKEWED_PARTITION_RATIO;
+                pendingSlices.push(new SpilledSlice(parent.getDepth() + 1, pages, sizeInBytes, splittable));
+            }
+        }
+
+        if (!spilledLookupSourceHandle.getStepReleased().isDone()) {
+            // Probe side is still repartitioning its rows
+            return;
+        }
+        unspillNextSlice();
+    }
+
     private void finishLookupSourceUnspilling()
     {
         checkState(state == State.INPUT_UNSPILLING);
+        if (unspilledBlockPages.isPresent()) {
+            unspillBlock(unspilledBlockPages.get());
+            return;
+        }
+
         if (!unspillInProgress.get().isDone()) {
             // Pages have not be unspilled yet.
             return;
@@ -566,7 +750,30 @@ public class HashBuilderOperator
                 checkState(partition.checksum() == checksum, "Unspilled lookupSource checksum does not match original one"));
         localUserMemoryContext.setBytes(partition.get().getInMemorySizeInBytes());
 
-        spilledLookupSourceHandle.setLookupSource(partition);
+        spilledLookupSourceHandle.addStep(Step.lookupSource(partition, true));
+
+        state = State.INPUT_UNSPILLED_AND_BUILT;
+    }
+
+    private void unspillBlock(Iterator<Page> pages)
+    {
+        DriverYieldSignal yieldSignal = operatorContext.getDriverContext().getYieldSignal();
+        while (pages.hasNext() && (index.getPositionCount() == 0 || index.getEstimatedSize().toBytes() < unspillMemoryLimit)) {
+            if (yieldSignal.isSet()) {
+                return;
+            }
+            index.addPage(pages.next());
+            localUserMemoryContext.setBytes(index.getEstimatedSize().toBytes());
+        }
+
+        LookupSourceSupplier partition = buildLookupSource();
+        localUserMemoryContext.setBytes(partition.get().getInMemorySizeInBytes());
+
+        boolean lastBlock = !pages.hasNext();
+        if (lastBlock) {
+            unspilledBlockPages = Optional.empty();
+        }
+        spilledLookupSourceHandle.addStep(Step.lookupSource(partition, lastBlock));
 
         state = State.INPUT_UNSPILLED_AND_BUILT;
     }
@@ -574,6 +781,18 @@ public class HashBuilderOperator
     private void disposeUnspilledLookupSourceIfRequested()
     {
         checkState(state == State.INPUT_UNSPILLED_AND_BUILT);
+        if (hasPendingSlices()) {
+            if (!spilledLookupSourceHandle.getStepReleased().isDone()) {
+                return;
+            }
+            // All probe operators are done with the current block, continue with the next one
+            index.clear();
+            lookupSourceSupplier = null;
+            localUserMemoryContext.setBytes(index.getEstimatedSize().toBytes());
+            unspillNextSlice();
+            return;
+        }
+
         if (!spilledLookupSourceHandle.getDisposeRequested().isDone()) {
             return;
         }
@@ -584,6 +803,11 @@ public class HashBuilderOperator
         close();
     }
 
+    private boolean hasPendingSlices()
+    {
+        return unspilledBlockPages.isPresent() || !pendingSlices.isEmpty();
+    }
+
     private LookupSourceSupplier buildLookupSource()
     {
         LookupSourceSupplier partition = index.createLookupSourceSupplier(operatorContext.getSession(), hashChannels, preComputedHashChannel, filterFunctionFactory, sortChannel, searchFunctionFactories, Optional.of(outputChannels));
@@ -622,9 +846,14 @@ public class HashBuilderOperator
         state = State.CLOSED;
         finishMemoryRevoke = finishMemoryRevoke.map(ifPresent -> () -> {});
 
+        pendingSlices.clear();
+        unspilledBlockPages = Optional.empty();
+        repartitioning = Optional.empty();
+
         try (Closer closer = Closer.create()) {
             closer.register(index::clear);
             spiller.ifPresent(closer::register);
+            repartitioningSpillers.forEach(closer::register);
             closer.register(() -> localUserMemoryContext.setBytes(0));
             closer.register(() -> localRevocableMemoryContext.setBytes(0));
         }
@@ -632,4 +861,69 @@ public class HashBuilderOperator
             throw new RuntimeException(e);
         }
     }
+
+    private static class SpilledSlice
+    {
+        private final int depth;
+        private final Supplier<Iterator<Page>> pages;
+        private final long sizeInBytes;
+        private final boolean splittable;
+
+        public SpilledSlice(int depth, Supplier<Iterator<Page>> pages, long sizeInBytes, boolean splittable)
+        {
+            this.depth = depth;
+            this.pages = requireNonNull(pages, "pages is null");
+            this.sizeInBytes = sizeInBytes;
+            this.splittable = splittable;
+        }
+
+        public int getDepth()
+        {
+            return depth;
+        }
+
+        public Iterator<Page> getPages()
+        {
+            return pages.get();
+        }
+
+        public long getSizeInBytes()
+        {
+            return sizeInBytes;
+        }
+
+        public boolean isSplittable()
+        {
+            return splittable;
+        }
+    }
+
+    private static class Repartitioning
+    {
+        private final SpilledSlice slice;
+        private final PartitioningSpiller spiller;
+        private final Iterator<Page> pages;
+
+        public Repartitioning(SpilledSlice slice, PartitioningSpiller spiller)
+        {
+            this.slice = requireNonNull(slice, "slice is null");
+            this.spiller = requireNonNull(spiller, "spiller is null");
+            this.pages = slice.getPages();
+        }
+
+        public SpilledSlice getSlice()
+        {
+            return slice;
+        }
+
+        public PartitioningSpiller getSpiller()
+        {
+            return spiller;
+        }
+
+        public Iterator<Page> getPages()
+        {
+            return pages;
+        }
+    }
 }
@@ -41,6 +41,11 @@ public class JoinStatisticsCounter
      */
     private Optional<Long> lookupSourcePositions = Optional.empty();
 
+    /**
+     * Deepest recursive repartitioning of a spilled partition that was too large to be unspilled at once
+     */
+    private int spillRecursionDepth;
+
     public JoinStatisticsCounter(JoinType joinType)
     {
         this.joinType = requireNonNull(joinType, "joinType is null");
@@ -51,6 +56,11 @@ public class JoinStatisticsCounter
         this.lookupSourcePositions = Optional.of(this.lookupSourcePositions.orElse(0L) + lookupSourcePositionsDelta);
     }
 
+    public void recordSpillRecursionDepth(int depth)
+    {
+        spillRecursionDepth = Math.max(spillRecursionDepth, depth);
+    }
+
     public void recordProbe(int numSourcePositions)
     {
         int bucket;
@@ -73,6 +83,6 @@ public class JoinStatisticsCounter
     @Override
     public JoinOperatorInfo get()
     {
-        return createJoinOperatorInfo(joinType, logHistogramCounters, lookupSourcePositions);
+        return createJoinOperatorInfo(joinType, logHistogramCounters, lookupSourcePositions, spillRecursionDepth);
     }
 }
@@ -20,8 +20,11 @@ import io.prestosql.operator.JoinProbe.JoinProbeFactory;
 import io.prestosql.operator.LookupJoinOperators.JoinType;
 import io.prestosql.operator.LookupSourceProvider.LookupSourceLease;
 import io.prestosql.operator.PartitionedConsumption.Partition;
+import io.prestosql.operator.SpilledLookupSourceHandle.Step;
 import io.prestosql.operator.exchange.LocalPartitionGenerator;
 import io.prestosql.spi.Page;
+import io.prestosql.spi.block.Block;
+import io.prestosql.spi.block.BlockBuilder;
 import io.prestosql.spi.type.Type;
 import io.prestosql.spiller.PartitioningSpiller;
 import io.prestosql.spiller.PartitioningSpiller.PartitioningSpillResult;
@@ -30,6 +33,9 @@ import io.prestosql.spiller.PartitioningSpillerFactory;
 import javax.annotation.Nullable;
 
 import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
@@ -41,11 +47,14 @@ import java.util.function.Supplier;
 
 import static com.google.common.base.Preconditions.checkState;
 import static com.google.common.base.Verify.verify;
+import static com.google.common.util.concurrent.Futures.transformAsync;
+import static com.google.common.util.concurrent.MoreExecutors.directExecutor;
 import static io.airlift.concurrent.MoreFutures.addSuccessCallback;
 import static io.airlift.concurrent.MoreFutures.checkSuccess;
 import static io.airlift.concurrent.MoreFutures.getDone;
 import static io.prestosql.operator.LookupJoinOperators.JoinType.FULL_OUTER;
 import static io.prestosql.operator.LookupJoinOperators.JoinType.PROBE_OUTER;
+import static io.prestosql.spi.type.BooleanType.BOOLEAN;
 import static java.lang.String.format;
 import static java.util.Collections.emptyIterator;
 import static java.util.Objects.requireNonNull;
@@ -53,6 +62,21 @@ import static java.util.Objects.requireNonNull;
 public class LookupJoinOperator
         implements Operator
 {
+    private static final PartitionFunction SINGLE_PARTITION = new PartitionFunction()
+    {
+        @Override
+        public int getPartitionCount()
+        {
+            return 1;
+        }
+
+        @Override
+        public int getPartition(Page page, int position)
+        {
+            return 0;
+        }
+    };
+
     private final OperatorContext operatorContext;
     private final List<Type> probeTypes;
     private final JoinProbeFactory joinProbeFactory;
@@ -89,13 +113,25 @@ public class LookupJoinOperator
 
     private final Map<Integer, SavedRow> savedRows = new HashMap<>();
     @Nullable
-    private ListenableFuture<PartitionedConsumption<Supplier<LookupSource>>> partitionedConsumption;
+    private ListenableFuture<PartitionedConsumption<SpilledLookupSourceHandle>> partitionedConsumption;
     @Nullable
-    private Iterator<Partition<Supplier<LookupSource>>> lookupPartitions;
-    private Optional<Partition<Supplier<LookupSource>>> currentPartition = Optional.empty();
-    private Optional<ListenableFuture<Supplier<LookupSource>>> unspilledLookupSource = Optional.empty();
+    private Iterator<Partition<SpilledLookupSourceHandle>> lookupPartitions;
+    private Optional<Partition<SpilledLookupSourceHandle>> currentPartition = Optional.empty();
+    private Optional<ListenableFuture<Step>> unspillStep = Optional.empty();
+    private int unspillStepIndex;
+    private Optional<Step> currentStep = Optional.empty();
     private Iterator<Page> unspilledInputPages = emptyIterator();
 
+    // Spilled probe rows of the current partition, in the same order the build side unspills its rows
+    private final Deque<SpilledProbe> spilledProbes = new ArrayDeque<>();
+    private Optional<ProbeRepartitioning> repartitioning = Optional.empty();
+    private Optional<PartitioningSpiller> nextBlockSpiller = Optional.empty();
+    private final List<PartitioningSpiller> unspillingSpillers = new ArrayList<>();
+    private boolean unspilledProbeHasMatchedChannel;
+    // Tracks the probe rows of the current page that found a match, when lookup source is unspilled block by block for an outer join
+    @Nullable
+    private boolean[] probeRowsMatched;
+
     public LookupJoinOperator(
             OperatorContext operatorContext,
             List<Type> probeTypes,
@@ -169,9 +205,9 @@ public class LookupJoinOperator
             // Input spilling can happen only after lookupSourceProviderFuture was done.
             return spillInProgress;
         }
-        if (unspilledLookupSource.isPresent()) {
+        if (unspillStep.isPresent()) {
             // Unspilling can happen only after lookupSourceProviderFuture was done.
-            return unspilledLookupSource.get();
+            return unspillStep.get();
         }
 
         if (finishing) {
@@ -337,44 +373,53 @@ public class LookupJoinOperator
         }
 
         if (unspilledInputPages.hasNext()) {
-            addInput(unspilledInputPages.next());
+            addUnspilledInput(unspilledInputPages.next());
+            return;
+        }
+
+        if (repartitioning.isPresent()) {
+            repartitionSpilledProbe(repartitioning.get());
             return;
         }
 
-        if (unspilledLookupSource.isPresent()) {
-            if (!unspilledLookupSource.get().isDone()) {
+        if (currentStep.isPresent()) {
+            finishLookupSourceStep(currentStep.get());
+            return;
+        }
+
+        if (unspillStep.isPresent()) {
+            if (!unspillStep.get().isDone()) {
                 // Not unspilled yet
                 return;
             }
-            LookupSource lookupSource = getDone(unspilledLookupSource.get()).get();
-            unspilledLookupSource = Optional.empty();
+            Step step = getDone(unspillStep.get());
+            unspillStep = Optional.empty();
 
-            // Close previous lookupSourceProvider (either supplied initially or for the previous partition)
-            lookupSourceProvider.close();
-            lookupSourceProvider = new StaticLookupSourceProvider(lookupSource);
-            // If the partition was spilled during processing, its position count will be considered twice.
-            statisticsCounter.updateLookupSourcePositions(lookupSource.getJoinPositionCount());
-
-            int partition = currentPartition.get().number();
-            unspilledInputPages = spiller.map(spiller -> spiller.getSpilledPages(partition))
-                    .orElse(emptyIterator());
-
-            Optional.ofNullable(savedRows.remove(partition)).ifPresent(savedRow -> {
-                restoreProbe(
-                        savedRow.row,
-                        savedRow.joinPositionWithinPartition,
-                        savedRow.currentProbePositionProducedRow,
-                        savedRow.joinSourcePositions,
-                        SpillInfoSnapshot.noSpill());
-            });
+            if (step.isRepartition()) {
+                startRepartitioning(step);
+            }
+            else {
+                startLookupSourceStep(step);
+            }
+            return;
+        }
 
+        if (!spilledProbes.isEmpty()) {
+            // Build side split the partition, wait for its next part
+            unspillStep = Optional.of(getSpilledLookupSourceHandle().getStep(unspillStepIndex));
             return;
         }
 
         if (lookupPartitions.hasNext()) {
             currentPartition.ifPresent(Partition::release);
             currentPartition = Optional.of(lookupPartitions.next());
-            unspilledLookupSource = Optional.of(currentPartition.get().load());
+
+            int partition = currentPartition.get().number();
+            spilledProbes.push(new SpilledProbe(
+                    () -> spiller.map(spiller -> spiller.getSpilledPages(partition)).orElse(emptyIterator()),
+                    false));
+            unspillStepIndex = 0;
+            unspillStep = Optional.of(transformAsync(currentPartition.get().load(), handle -> handle.getStep(0), directExecutor()));
 
             return;
         }
@@ -389,6 +434,145 @@ public class LookupJoinOperator
         finished = true;
     }
 
+    private void startLookupSourceStep(Step step)
+    {
+        LookupSource lookupSource = step.getLookupSource().get();
+
+        // Close previous lookupSourceProvider (either supplied initially or for the previous partition)
+        lookupSourceProvider.close();
+        lookupSourceProvider = new StaticLookupSourceProvider(lookupSource);
+        // If the partition was spilled during processing, its position count will be considered twice.
+        statisticsCounter.updateLookupSourcePositions(lookupSource.getJoinPositionCount());
+
+        // Probe rows are dropped after the last block of lookup source rows, and spilled again for the next block otherwise
+        SpilledProbe spilledProbe = step.isLastBlock() ? spilledProbes.pop() : spilledProbes.peek();
+        unspilledInputPages = spilledProbe.getPages();
+        unspilledProbeHasMatchedChannel = spilledProbe.hasMatchedChannel();
+        if (!step.isLastBlock()) {
+            List<Type> types = probeTypes;
+            if (probeOnOuterSide) {
+                types = ImmutableList.<Type>builder().addAll(probeTypes).add(BOOLEAN).build();
+            }
+            nextBlockSpiller = Optional.of(createUnspillingSpiller(types, SINGLE_PARTITION));
+        }
+        currentStep = Optional.of(step);
+
+        int partition = currentPartition.get().number();
+        if (unspillStepIndex == 0 && savedRows.containsKey(partition)) {
+            verify(step.isLastBlock() && spilledProbes.isEmpty(), "Partition %s with a saved row was not unspilled as a whole", partition);
+            SavedRow savedRow = savedRows.remove(partition);
+            restoreProbe(
+                    savedRow.row,
+                    savedRow.joinPositionWithinPartition,
+                    savedRow.currentProbePositionProducedRow,
+                    savedRow.joinSourcePositions,
+                    SpillInfoSnapshot.noSpill());
+        }
+    }
+
+    private void addUnspilledInput(Page page)
+    {
+        Step step = currentStep.orElseThrow(() -> new IllegalStateException("No lookup source unspilled"));
+        if (probeOnOuterSide && (!step.isLastBlock() || unspilledProbeHasMatchedChannel)) {
+            probeRowsMatched = new boolean[page.getPositionCount()];
+            if (unspilledProbeHasMatchedChannel) {
+                Block matched = page.getBlock(page.getChannelCount() - 1);
+                for (int position = 0; position < page.getPositionCount(); position++) {
+                    probeRowsMatched[position] = BOOLEAN.getBoolean(matched, position);
+                }
+            }
+        }
+        addInput(page);
+    }
+
+    private void finishLookupSourceStep(Step step)
+    {
+        if (!step.isLastBlock()) {
+            // Continue with the same probe rows and the next block of lookup source rows
+            PartitioningSpiller blockSpiller = nextBlockSpiller.orElseThrow(() -> new IllegalStateException("Next block spiller not created"));
+            nextBlockSpiller = Optional.empty();
+            spilledProbes.pop();
+            spilledProbes.push(new SpilledProbe(
+                    () -> blockSpiller.getSpilledPagesInMemorySize(0) == 0 ? emptyIterator() : blockSpiller.getSpilledPages(0),
+                    probeOnOuterSide));
+        }
+        currentStep = Optional.empty();
+        releaseUnspillStep();
+    }
+
+    private void startRepartitioning(Step step)
+    {
+        SpilledProbe spilledProbe = spilledProbes.pop();
+        verify(!spilledProbe.hasMatchedChannel(), "Probe rows joined with some blocks already can not be repartitioned");
+        statisticsCounter.recordSpillRecursionDepth(step.getDepth());
+
+        PartitioningSpiller repartitioningSpiller = createUnspillingSpiller(
+                probeTypes,
+                new GraceJoinPartitionFunction(hashGenerator, step.getPartitionCount(), step.getDepth()));
+        repartitioning = Optional.of(new ProbeRepartitioning(repartitioningSpiller, spilledProbe.getPages(), step.getPartitionCount()));
+    }
+
+    private void repartitionSpilledProbe(ProbeRepartitioning current)
+    {
+        if (current.pages.hasNext()) {
+            spillInProgress = current.spiller.partitionAndSpill(current.pages.next(), partition -> true).getSpillingFuture();
+            return;
+        }
+        repartitioning = Optional.empty();
+
+        PartitioningSpiller repartitioningSpiller = current.spiller;
+        for (int partition = current.partitionCount - 1; partition >= 0; partition--) {
+            int subPartition = partition;
+            spilledProbes.push(new SpilledProbe(
+                    () -> repartitioningSpiller.getSpilledPagesInMemorySize(subPartition) == 0 ? emptyIterator() : repartitioningSpiller.getSpilledPages(subPartition),
+                    false));
+        }
+        releaseUnspillStep();
+    }
+
+    private void releaseUnspillStep()
+    {
+        getSpilledLookupSourceHandle().releaseStep(unspillStepIndex);
+        unspillStepIndex++;
+    }
+
+    private SpilledLookupSourceHandle getSpilledLookupSourceHandle()
+    {
+        Partition<SpilledLookupSourceHandle> partition = currentPartition.orElseThrow(() -> new IllegalStateException("No partition is being unspilled"));
+        return getDone(partition.load());
+    }
+
+    private PartitioningSpiller createUnspillingSpiller(List<Type> types, PartitionFunction partitionFunction)
+    {
+        PartitioningSpiller unspillingSpiller = partitioningSpillerFactory.create(
+                types,
+                partitionFunction,
+                operatorContext.getSpillContext().newLocalSpillContext(),
+                operatorContext.newAggregateSystemMemoryContext());
+        unspillingSpillers.add(unspillingSpiller);
+        return unspillingSpiller;
+    }
+
+    private void spillForNextBlock(Page page)
+    {
+        checkState(spillInProgress.isDone(), "Previous spill still in progress");
+        checkSuccess(spillInProgress, "spilling failed");
+
+        if (probeOnOuterSide) {
+            BlockBuilder matched = BOOLEAN.createBlockBuilder(null, page.getPositionCount());
+            for (int position = 0; position < page.getPositionCount(); position++) {
+                BOOLEAN.writeBoolean(matched, probeRowsMatched[position]);
+            }
+            Block[] blocks = new Block[probeTypes.size() + 1];
+            for (int channel = 0; channel < probeTypes.size(); channel++) {
+                blocks[channel] = page.getBlock(channel);
+            }
+            blocks[probeTypes.size()] = matched.build();
+            page = new Page(page.getPositionCount(), blocks);
+        }
+        spillInProgress = nextBlockSpiller.get().partitionAndSpill(page, partition -> true).getSpillingFuture();
+    }
+
     private void processProbe()
     {
         verify(probe != null);
@@ -517,6 +701,7 @@ public class LookupJoinOperator
             closer.register(pageBuilder::reset);
             closer.register(() -> Optional.ofNullable(lookupSourceProvider).ifPresent(LookupSourceProvider::close));
             spiller.ifPresent(closer::register);
+            unspillingSpillers.forEach(closer::register);
         }
         catch (IOException e) {
             throw new RuntimeException(e);
@@ -536,6 +721,9 @@ public class LookupJoinOperator
         while (joinPosition >= 0) {
             if (lookupSource.isJoinPositionEligible(joinPosition, probe.getPosition(), probe.getPage())) {
                 currentProbePositionProducedRow = true;
+                if (probeRowsMatched != null) {
+                    probeRowsMatched[probe.getPosition()] = true;
+                }
 
                 pageBuilder.appendRow(probe, lookupSource, joinPosition);
                 joinSourcePositions++;
@@ -557,6 +745,10 @@ public class LookupJoinOperator
     private boolean advanceProbePosition(LookupSource lookupSource)
     {
         if (!probe.advanceNextPosition()) {
+            if (nextBlockSpiller.isPresent()) {
+                spillForNextBlock(probe.getPage());
+            }
+            probeRowsMatched = null;
             clearProbe();
             return false;
         }
@@ -574,6 +766,10 @@ public class LookupJoinOperator
     private boolean outerJoinCurrentPosition()
     {
         if (probeOnOuterSide && joinPosition < 0) {
+            if (probeRowsMatched != null && (nextBlockSpiller.isPresent() || probeRowsMatched[probe.getPosition()])) {
+                // Row may still match a later block of lookup source rows, or did match an earlier one
+                return true;
+            }
             pageBuilder.appendNullForBuild(probe);
             if (tryBuildPage()) {
                 return false;
@@ -659,6 +855,47 @@ public class LookupJoinOperator
         }
     }
 
+    // This class must be public because LookupJoinOperator is isolated.
+    public static class SpilledProbe
+    {
+        private final Supplier<Iterator<Page>> pages;
+        private final boolean hasMatchedChannel;
+
+        public SpilledProbe(Supplier<Iterator<Page>> pages, boolean hasMatchedChannel)
+        {
+            this.pages = requireNonNull(pages, "pages is null");
+            this.hasMatchedChannel = hasMatchedChannel;
+        }
+
+        public Iterator<Page> getPages()
+        {
+            return pages.get();
+        }
+
+        /**
+         * Whether the pages carry an extra trailing channel telling if the row matched an earlier block of lookup source rows
+         */
+        public boolean hasMatchedChannel()
+        {
+            return hasMatchedChannel;
+        }
+    }
+
+    // This class must be public because LookupJoinOperator is isolated.
+    public static class ProbeRepartitioning
+    {
+        public final PartitioningSpiller spiller;
+        public final Iterator<Page> pages;
+        public final int partitionCount;
+
+        public ProbeRepartitioning(PartitioningSpiller spiller, Iterator<Page> pages, int partitionCount)
+        {
+            this.spiller = requireNonNull(spiller, "spiller is null");
+            this.pages = requireNonNull(pages, "pages is null");
+            this.partitionCount = partitionCount;
+        }
+    }
+
     private boolean tryBuildPage()
     {
         if (pageBuilder.isFull()) {
@@ -0,0 +1,361 @@
+/*
+ * Copyright (C) 2018-2020. Huawei Technologies Co., Ltd. All rights reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.operator;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.net.MediaType;
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.SettableFuture;
+import io.airlift.http.client.HttpClient;
+import io.airlift.http.client.HttpClient.HttpResponseFuture;
+import io.airlift.http.client.HttpStatus;
+import io.airlift.http.client.HttpUriBuilder;
+import io.airlift.http.client.Request;
+import io.airlift.http.client.Response;
+import io.airlift.http.client.ResponseHandler;
+import io.airlift.json.JsonCodec;
+import io.airlift.log.Logger;
+import io.airlift.slice.InputStreamSliceInput;
+import io.airlift.slice.SliceInput;
+import io.airlift.units.DataSize;
+import io.hetu.core.transport.execution.buffer.SerializedPage;
+import io.prestosql.execution.TaskId;
+import io.prestosql.execution.buffer.OutputBuffers.OutputBufferId;
+import io.prestosql.operator.HttpPageBufferClient.PagesResponse;
+import io.prestosql.server.MultiplexedResultsRequest;
+
+import javax.annotation.concurrent.GuardedBy;
+import javax.annotation.concurrent.ThreadSafe;
+
+import java.io.IOException;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.net.HttpHeaders.CONTENT_TYPE;
+import static com.google.common.net.MediaType.JSON_UTF_8;
+import static com.google.common.util.concurrent.MoreExecutors.directExecutor;
+import static io.airlift.http.client.JsonBodyGenerator.jsonBodyGenerator;
+import static io.airlift.http.client.Request.Builder.preparePost;
+import static io.airlift.http.client.ResponseHandlerUtils.propagate;
+import static io.airlift.json.JsonCodec.listJsonCodec;
+import static io.airlift.units.DataSize.Unit.BYTE;
+import static io.hetu.core.transport.execution.buffer.PagesSerdeUtil.readSerializedPage;
+import static io.prestosql.PrestoMediaTypes.PRESTO_PAGES_BATCH_TYPE;
+import static io.prestosql.client.PrestoHeaders.PRESTO_MAX_SIZE;
+import static io.prestosql.operator.HttpPageBufferClient.PagesResponse.createPagesResponse;
+import static java.lang.String.format;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Exchange channel to one remote node. Result requests of all the {@link HttpPageBufferClient}s reading output
+ * buffers on the node are batched into a single POST to {@code /v1/task/results}, so the node is polled by a few
+ * requests over a kept alive connection rather than by one long poll per buffer. Reads queued while the maximum
+ * number of requests is in flight are sent together with the next request. Acknowledgements are not sent on their
+ * own, they are carried by the next request to the node.
+ * <p/>
+ * When the remote node does not support batched requests, the channel turns itself off and fails the pending reads
+ * with {@link MultiplexedRequestsNotSupportedException}, and the clients fall back to plain result requests.
+ */
+@ThreadSafe
+public class MultiplexedExchangeChannel
+{
+    private static final Logger log = Logger.get(MultiplexedExchangeChannel.class);
+    private static final JsonCodec<List<MultiplexedResultsRequest>> REQUESTS_CODEC = listJsonCodec(MultiplexedResultsRequest.class);
+    private static final String RESULTS_PATH = "/v1/task/results";
+
+    private final HttpClient httpClient;
+    private final URI uri;
+    private final int maxRequestsInFlight;
+
+    @GuardedBy("this")
+    private final List<PendingRead> queuedReads = new ArrayList<>();
+    @GuardedBy("this")
+    private final Map<URI, Long> queuedAcknowledgements = new LinkedHashMap<>();
+    @GuardedBy("this")
+    private int requestsInFlight;
+
+    private volatile boolean supported = true;
+
+    public MultiplexedExchangeChannel(HttpClient httpClient, URI uri, int maxRequestsInFlight)
+    {
+        checkArgument(maxRequestsInFlight > 0, "maxRequestsInFlight must be at least 1: %s", maxRequestsInFlight);
+        this.httpClient = requireNonNull(httpClient, "httpClient is null");
+        this.uri = requireNonNull(uri, "uri is null");
+        this.maxRequestsInFlight = maxRequestsInFlight;
+    }
+
+    /**
+     * Returns the uri of the batched results resource on the node of an output buffer location
+     * ({@code .../v1/task/{taskId}/results/{bufferId}}), or empty if the location has another form.
+     */
+    public static Optional<URI> getChannelUri(URI location)
+    {
+        if (parseLocation(location) == null) {
+            return Optional.empty();
+        }
+        return Optional.of(HttpUriBuilder.uriBuilder()
+                .scheme(location.getScheme())
+                .host(location.getHost())
+                .port(location.getPort())
+                .replacePath(RESULTS_PATH)
+                .build());
+    }
+
+    public boolean isSupported()
+    {
+        return supported;
+    }
+
+    /**
+     * Reads the pages of the output buffer at {@code location} starting at {@code token}. Reading a token also
+     * acknowledges the pages before it.
+     */
+    public ListenableFuture<PagesResponse> getResults(URI location, long token, DataSize maxSize)
+    {
+        PendingRead read = new PendingRead(location, token, maxSize);
+        synchronized (this) {
+            queuedAcknowledgements.remove(location);
+            queuedReads.add(read);
+        }
+        sendIfPossible();
+        return read.getFuture();
+    }
+
+    /**
+     * Acknowledges the pages before {@code token} with the next request sent to the node.
+     */
+    public synchronized void acknowledge(URI location, long token)
+    {
+        queuedAcknowledgements.merge(location, token, Math::max);
+    }
+
+    @VisibleForTesting
+    synchronized int getRequestsInFlight()
+    {
+        return requestsInFlight;
+    }
+
+    private void sendIfPossible()
+    {
+        List<PendingRead> reads;
+        Map<URI, Long> acknowledgements;
+        synchronized (this) {
+            // reads of closed clients are cancelled and need not be sent
+            queuedReads.removeIf(read -> read.getFuture().isDone());
+            if (queuedReads.isEmpty() || requestsInFlight >= maxRequestsInFlight) {
+                return;
+            }
+            reads = ImmutableList.copyOf(queuedReads);
+            queuedReads.clear();
+            acknowledgements = ImmutableMap.copyOf(queuedAcknowledgements);
+            queuedAcknowledgements.clear();
+            requestsInFlight++;
+        }
+
+        ImmutableList.Builder<MultiplexedResultsRequest> requests = ImmutableList.builder();
+        acknowledgements.forEach((location, token) -> requests.add(createRequest(location, token, new DataSize(0, BYTE), true)));
+        long maxSizeInBytes = 0;
+        for (PendingRead read : reads) {
+            requests.add(createRequest(read.getLocation(), read.getToken(), read.getMaxSize(), false));
+            // every read is given the full response size, the node cuts the pages of all reads down to this size
+            maxSizeInBytes = Math.max(maxSizeInBytes, read.getMaxSize().toBytes());
+        }
+
+        HttpResponseFuture<List<PagesResponse>> responseFuture = httpClient.executeAsync(
+                preparePost()
+                        .setUri(uri)
+                        .setHeader(CONTENT_TYPE, JSON_UTF_8.toString())
+                        .setHeader(PRESTO_MAX_SIZE, new DataSize(maxSizeInBytes, BYTE).toString())
+                        .setBodyGenerator(jsonBodyGenerator(REQUESTS_CODEC, requests.build()))
+                        .build(),
+                new MultiplexedPagesResponseHandler(reads.size()));
+
+        Futures.addCallback(responseFuture, new FutureCallback<List<PagesResponse>>()
+        {
+            @Override
+            public void onSuccess(List<PagesResponse> responses)
+            {
+                for (int i = 0; i < reads.size(); i++) {
+                    reads.get(i).getFuture().set(responses.get(i));
+                }
+                requestFinished();
+            }
+
+            @Override
+            public void onFailure(Throwable t)
+            {
+                if (t instanceof MultiplexedRequestsNotSupportedException && supported) {
+                    log.info("Batched result requests are not supported by %s, falling back to one request per output buffer", uri);
+                    supported = false;
+                }
+                for (PendingRead read : reads) {
+                    read.getFuture().setException(t);
+                }
+                requestFinished();
+            }
+        }, directExecutor());
+    }
+
+    private void requestFinished()
+    {
+        synchronized (this) {
+            requestsInFlight--;
+        }
+        sendIfPossible();
+    }
+
+    private static MultiplexedResultsRequest createRequest(URI location, long token, DataSize maxSize, boolean acknowledgeOnly)
+    {
+        String[] segments = requireNonNull(parseLocation(location), "location is not an output buffer location");
+        return new MultiplexedResultsRequest(TaskId.valueOf(segments[3]), OutputBufferId.fromString(segments[5]), token, maxSize, acknowledgeOnly);
+    }
+
+    private static String[] parseLocation(URI location)
+    {
+        // path of an output buffer location is /v1/task/{taskId}/results/{bufferId}
+        if (location.getPath() == null) {
+            return null;
+        }
+        String[] segments = location.getPath().split("/");
+        if (segments.length != 6 || !segments[1].equals("v1") || !segments[2].equals("task") || !segments[4].equals("results")) {
+            return null;
+        }
+        return segments;
+    }
+
+    private static class PendingRead
+    {
+        private final URI location;
+        private final long token;
+        private final DataSize maxSize;
+        private final SettableFuture<PagesResponse> future = SettableFuture.create();
+
+        public PendingRead(URI location, long token, DataSize maxSize)
+        {
+            this.location = requireNonNull(location, "location is null");
+            this.token = token;
+            this.maxSize = requireNonNull(maxSize, "maxSize is null");
+        }
+
+        public URI getLocation()
+        {
+            return location;
+        }
+
+        public long getToken()
+        {
+            return token;
+        }
+
+        public DataSize getMaxSize()
+        {
+            return maxSize;
+        }
+
+        public SettableFuture<PagesResponse> getFuture()
+        {
+            return future;
+        }
+    }
+
+    /**
+     * Thrown when the remote node does not know the batched results resource
+     */
+    public static class MultiplexedRequestsNotSupportedException
+            extends RuntimeException
+    {
+        public MultiplexedRequestsNotSupportedException(String message)
+        {
+            super(message);
+        }
+    }
+
+    private static class MultiplexedPagesResponseHandler
+            implements ResponseHandler<List<PagesResponse>, RuntimeException>
+    {
+        private final int expectedResults;
+
+        public MultiplexedPagesResponseHandler(int expectedResults)
+        {
+            this.expectedResults = expectedResults;
+        }
+
+        @Override
+        public List<PagesResponse> handleException(Request request, Exception exception)
+        {
+            throw propagate(request, exception);
+        }
+
+        @Override
+        public List<PagesResponse> handle(Request request, Response response)
+        {
+            int statusCode = response.getStatusCode();
+            if (statusCode == HttpStatus.NOT_FOUND.code() || statusCode == HttpStatus.METHOD_NOT_ALLOWED.code() || statusCode == HttpStatus.UNSUPPORTED_MEDIA_TYPE.code()) {
+                throw new MultiplexedRequestsNotSupportedException(format("Batched results request to %s failed with response code %s", request.getUri(), statusCode));
+            }
+            if (statusCode != HttpStatus.OK.code()) {
+                throw new PageTransportErrorException(format("Error fetching %s: Expected response code to be 200, but was %s", request.getUri(), statusCode));
+            }
+            String contentType = response.getHeader(CONTENT_TYPE);
+            if (contentType == null || !mediaTypeMatches(contentType, PRESTO_PAGES_BATCH_TYPE)) {
+                throw new PageTransportErrorException(format("Error fetching %s: Expected %s response from server but got %s", request.getUri(), PRESTO_PAGES_BATCH_TYPE, contentType));
+            }
+
+            // format is written by io.prestosql.server.MultiplexedPagesResponseWriter
+            try (SliceInput input = new InputStreamSliceInput(response.getInputStream())) {
+                int resultCount = input.readInt();
+                if (resultCount != expectedResults) {
+                    throw new PageTransportErrorException(format("Error fetching %s: Expected %s results but got %s", request.getUri(), expectedResults, resultCount));
+                }
+                ImmutableList.Builder<PagesResponse> responses = ImmutableList.builder();
+                for (int i = 0; i < resultCount; i++) {
+                    String taskInstanceId = input.readSlice(input.readInt()).toStringUtf8();
+                    long token = input.readLong();
+                    long nextToken = input.readLong();
+                    boolean complete = input.readBoolean();
+                    int pageCount = input.readInt();
+                    ImmutableList.Builder<SerializedPage> pages = ImmutableList.builder();
+                    for (int page = 0; page < pageCount; page++) {
+                        pages.add(readSerializedPage(input));
+                    }
+                    responses.add(createPagesResponse(taskInstanceId, token, nextToken, pages.build(), complete));
+                }
+                return responses.build();
+            }
+            catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+        }
+
+        private static boolean mediaTypeMatches(String value, MediaType range)
+        {
+            try {
+                return MediaType.parse(value).is(range);
+            }
+            catch (IllegalArgumentException | IllegalStateException e) {
+                return false;
+            }
+        }
+    }
+}
@@ -0,0 +1,52 @@
+/*
+ * Copyright (C) 2018-2020. Huawei Technologies Co., Ltd. All rights reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.operator;
+
+import io.airlift.http.client.HttpClient;
+
+import java.net.URI;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * The {@link MultiplexedExchangeChannel}s of this node, one per remote node, shared by all exchange clients
+ */
+public class MultiplexedExchangeChannels
+{
+    private final HttpClient httpClient;
+    private final int maxRequestsInFlight;
+    private final ConcurrentMap<URI, MultiplexedExchangeChannel> channels = new ConcurrentHashMap<>();
+
+    public MultiplexedExchangeChannels(HttpClient httpClient, int maxRequestsInFlight)
+    {
+        checkArgument(maxRequestsInFlight > 0, "maxRequestsInFlight must be at least 1: %s", maxRequestsInFlight);
+        this.httpClient = requireNonNull(httpClient, "httpClient is null");
+        this.maxRequestsInFlight = maxRequestsInFlight;
+    }
+
+    /**
+     * Returns the channel to the node of an output buffer location, or empty if the location can not be read
+     * through a channel
+     */
+    public Optional<MultiplexedExchangeChannel> getChannel(URI location)
+    {
+        return MultiplexedExchangeChannel.getChannelUri(location)
+                .map(uri -> channels.computeIfAbsent(uri, key -> new MultiplexedExchangeChannel(httpClient, key, maxRequestsInFlight)));
+    }
+}
@@ -305,6 +305,8 @@ public class PartitionedOutputOperator
         private final OptionalInt nullChannel; // when present, send the position to every partition if this channel is null.
         private final AtomicLong rowsAdded = new AtomicLong();
         private final AtomicLong pagesAdded = new AtomicLong();
+        private final AtomicLong serializedPages = new AtomicLong();
+        private final AtomicLong serializedBytesCopied = new AtomicLong();
         private boolean hasAnyRowBeenReplicated;
 
         public PagePartitioner(
@@ -348,7 +350,7 @@ public class PartitionedOutputOperator
         {
             // We use a foreach loop instead of streams
             // as it has much better performance.
-            long sizeInBytes = 0;
+            long sizeInBytes = serde.getRetainedSizeInBytes();
             for (PageBuilder pageBuilder : pageBuilders) {
                 sizeInBytes += pageBuilder.getSizeInBytes();
             }
@@ -369,7 +371,7 @@ public class PartitionedOutputOperator
 
         public PartitionedOutputInfo getInfo()
         {
-            return new PartitionedOutputInfo(rowsAdded.get(), pagesAdded.get(), outputBuffer.getPeakMemoryUsage());
+            return new PartitionedOutputInfo(rowsAdded.get(), pagesAdded.get(), outputBuffer.getPeakMemoryUsage(), serializedPages.get(), serializedBytesCopied.get());
         }
 
         public void partitionPage(Page page)
@@ -437,6 +439,8 @@ public class PartitionedOutputOperator
                     rowsAdded.addAndGet(pagePartition.getPositionCount());
                 }
             }
+            serializedPages.set(serde.getSerializedPages());
+            serializedBytesCopied.set(serde.getBytesCopied());
         }
     }
 
@@ -446,16 +450,22 @@ public class PartitionedOutputOperator
         private final long rowsAdded;
         private final long pagesAdded;
         private final long outputBufferPeakMemoryUsage;
+        private final long serializedPages;
+        private final long serializedBytesCopied;
 
         @JsonCreator
         public PartitionedOutputInfo(
                 @JsonProperty("rowsAdded") long rowsAdded,
                 @JsonProperty("pagesAdded") long pagesAdded,
-                @JsonProperty("outputBufferPeakMemoryUsage") long outputBufferPeakMemoryUsage)
+                @JsonProperty("outputBufferPeakMemoryUsage") long outputBufferPeakMemoryUsage,
+                @JsonProperty("serializedPages") long serializedPages,
+                @JsonProperty("serializedBytesCopied") long serializedBytesCopied)
         {
             this.rowsAdded = rowsAdded;
             this.pagesAdded = pagesAdded;
             this.outputBufferPeakMemoryUsage = outputBufferPeakMemoryUsage;
+            this.serializedPages = serializedPages;
+            this.serializedBytesCopied = serializedBytesCopied;
         }
 
         @JsonProperty
@@ -476,13 +486,38 @@ public class PartitionedOutputOperator
             return outputBufferPeakMemoryUsage;
         }
 
+        @JsonProperty
+        public long getSerializedPages()
+        {
+            return serializedPages;
+        }
+
+        /**
+         * Bytes copied while serializing pages for the exchange, in addition to encoding, compressing and encrypting them
+         */
+        @JsonProperty
+        public long getSerializedBytesCopied()
+        {
+            return serializedBytesCopied;
+        }
+
+        public double getSerializedBytesCopiedPerPage()
+        {
+            if (serializedPages == 0) {
+                return 0;
+            }
+            return ((double) serializedBytesCopied) / serializedPages;
+        }
+
         @Override
         public PartitionedOutputInfo mergeWith(PartitionedOutputInfo other)
         {
             return new PartitionedOutputInfo(
                     rowsAdded + other.rowsAdded,
                     pagesAdded + other.pagesAdded,
-                    Math.max(outputBufferPeakMemoryUsage, other.outputBufferPeakMemoryUsage));
+                    Math.max(outputBufferPeakMemoryUsage, other.outputBufferPeakMemoryUsage),
+                    serializedPages + other.serializedPages,
+                    serializedBytesCopied + other.serializedBytesCopied);
         }
 
         @Override
@@ -498,6 +533,7 @@ public class PartitionedOutputOperator
                     .add("rowsAdded", rowsAdded)
                     .add("pagesAdded", pagesAdded)
                     .add("outputBufferPeakMemoryUsage", outputBufferPeakMemoryUsage)
+                    .add("serializedBytesCopiedPerPage", getSerializedBytesCopiedPerPage())
                     .toString();
         }
     }
@@ -17,6 +17,7 @@ import com.google.common.collect.ImmutableList;
 import io.airlift.units.DataSize;
 import io.airlift.units.Duration;
 import io.prestosql.Session;
+import io.prestosql.dynamicfilter.DynamicFilterWaitPolicy;
 import io.prestosql.memory.context.AggregatedMemoryContext;
 import io.prestosql.memory.context.LocalMemoryContext;
 import io.prestosql.memory.context.MemoryTrackingContext;
@@ -73,6 +74,13 @@ public class ScanFilterAndProjectOperator
     private long physicalBytes;
     private long readTimeNanos;
 
+    private final Supplier<Map<ColumnHandle, DynamicFilter>> dynamicFilter;
+    private boolean dynamicFilterArrived;
+    private long dynamicFilterWaitStartNanos;
+    private long dynamicFilterWaitNanos;
+    private long positionsBeforeDynamicFilter;
+    private long positionsAfterDynamicFilter;
+
     private ScanFilterAndProjectOperator(
             Session session,
             MemoryTrackingContext memoryTrackingContext,
@@ -84,10 +92,12 @@ public class ScanFilterAndProjectOperator
             TableHandle table,
             Iterable<ColumnHandle> columns,
             Supplier<Map<ColumnHandle, DynamicFilter>> dynamicFilter,
+            Optional<DynamicFilterWaitPolicy> dynamicFilterWaitPolicy,
             Iterable<Type> types,
             DataSize minOutputPageSize,
             int minOutputPageRowCount)
     {
+        this.dynamicFilter = dynamicFilter;
         pages = splits.flatTransform(
                 new SplitToPages(
                         session,
@@ -98,6 +108,7 @@ public class ScanFilterAndProjectOperator
                         table,
                         columns,
                         dynamicFilter,
+                        requireNonNull(dynamicFilterWaitPolicy, "dynamicFilterWaitPolicy is null"),
                         types,
                         requireNonNull(memoryTrackingContext, "memoryTrackingContext is null").aggregateSystemMemoryContext(),
                         minOutputPageSize,
@@ -151,6 +162,30 @@ public class ScanFilterAndProjectOperator
         return pages;
     }
 
+    @Override
+    public OperatorInfo getOperatorInfo(Object splitInfo)
+    {
+        if (dynamicFilter == null) {
+            return WorkProcessorSourceOperator.super.getOperatorInfo(splitInfo);
+        }
+        return new DynamicFilterScanInfo(
+                splitInfo,
+                new Duration(dynamicFilterWaitNanos, NANOSECONDS).convertToMostSuccinctTimeUnit(),
+                positionsBeforeDynamicFilter,
+                positionsAfterDynamicFilter);
+    }
+
+    /**
+     * Dynamic filters only ever get added, so once one arrived there is no need to check again
+     */
+    private boolean isDynamicFilterArrived()
+    {
+        if (!dynamicFilterArrived && dynamicFilter != null) {
+            dynamicFilterArrived = !dynamicFilter.get().isEmpty();
+        }
+        return dynamicFilterArrived;
+    }
+
     @Override
     public void close()
     {
@@ -167,6 +202,19 @@ public class ScanFilterAndProjectOperator
         }
     }
 
+    private void recordDynamicFilterPositions(long positions)
+    {
+        if (dynamicFilter == null) {
+            return;
+        }
+        if (isDynamicFilterArrived()) {
+            positionsAfterDynamicFilter += positions;
+        }
+        else {
+            positionsBeforeDynamicFilter += positions;
+        }
+    }
+
     private class SplitToPages
             implements WorkProcessor.Transformation<Split, WorkProcessor<Page>>
     {
@@ -178,6 +226,7 @@ public class ScanFilterAndProjectOperator
         final TableHandle table;
         final List<ColumnHandle> columns;
         final Supplier<Map<ColumnHandle, DynamicFilter>> dynamicFilter;
+        final Optional<DynamicFilterWaitPolicy> dynamicFilterWaitPolicy;
         final List<Type> types;
         final LocalMemoryContext memoryContext;
         final AggregatedMemoryContext localAggregatedMemoryContext;
@@ -195,6 +244,7 @@ public class ScanFilterAndProjectOperator
                 TableHandle table,
                 Iterable<ColumnHandle> columns,
                 Supplier<Map<ColumnHandle, DynamicFilter>> dynamicFilter,
+                Optional<DynamicFilterWaitPolicy> dynamicFilterWaitPolicy,
                 Iterable<Type> types,
                 AggregatedMemoryContext aggregatedMemoryContext,
                 DataSize minOutputPageSize,
@@ -208,6 +258,7 @@ public class ScanFilterAndProjectOperator
             this.table = requireNonNull(table, "table is null");
             this.columns = ImmutableList.copyOf(requireNonNull(columns, "columns is null"));
             this.dynamicFilter = dynamicFilter;
+            this.dynamicFilterWaitPolicy = dynamicFilterWaitPolicy;
             this.types = ImmutableList.copyOf(requireNonNull(types, "types is null"));
             this.memoryContext = aggregatedMemoryContext.newLocalMemoryContext(ScanFilterAndProjectOperator.class.getSimpleName());
             this.localAggregatedMemoryContext = newSimpleAggregatedMemoryContext();
@@ -227,6 +278,18 @@ public class ScanFilterAndProjectOperator
 
             checkState(cursor == null && pageSource == null, "Table scan split already set");
 
+            // wait before creating the page source, so that the filters can already be used to prune the split
+            if (dynamicFilterWaitPolicy.isPresent() && !isDynamicFilterArrived() && dynamicFilterWaitPolicy.get().shouldWait()) {
+                if (dynamicFilterWaitStartNanos == 0) {
+                    dynamicFilterWaitStartNanos = System.nanoTime();
+                }
+                return TransformationState.yield();
+            }
+            if (dynamicFilterWaitStartNanos != 0) {
+                dynamicFilterWaitNanos += System.nanoTime() - dynamicFilterWaitStartNanos;
+                dynamicFilterWaitStartNanos = 0;
+            }
+
             ConnectorPageSource source;
             if (split.getConnectorSplit() instanceof EmptySplit) {
                 source = new EmptySplitPageSource();
@@ -304,6 +367,7 @@ public class ScanFilterAndProjectOperator
                 pageSourceMemoryContext.setBytes(cursor.getSystemMemoryUsage());
 
                 processedPositions += output.getProcessedRows();
+                recordDynamicFilterPositions(output.getProcessedRows());
                 // TODO: derive better values for cursors
                 processedBytes = cursor.getCompletedBytes();
                 physicalBytes = cursor.getCompletedBytes();
@@ -369,6 +433,7 @@ public class ScanFilterAndProjectOperator
 
             // update operator stats
             processedPositions += page.getPositionCount();
+            recordDynamicFilterPositions(page.getPositionCount());
             physicalBytes = pageSource.getCompletedBytes();
             readTimeNanos = pageSource.getReadTimeNanos();
 
@@ -388,6 +453,7 @@ public class ScanFilterAndProjectOperator
         private final TableHandle table;
         private final List<ColumnHandle> columns;
         private final Supplier<Map<ColumnHandle, DynamicFilter>> dynamicFilter;
+        private final Optional<DynamicFilterWaitPolicy> dynamicFilterWaitPolicy;
         private final List<Type> types;
         private final DataSize minOutputPageSize;
         private final int minOutputPageRowCount;
@@ -406,6 +472,24 @@ public class ScanFilterAndProjectOperator
                 List<Type> types,
                 DataSize minOutputPageSize,
                 int minOutputPageRowCount)
+        {
+            this(operatorId, planNodeId, sourceId, pageSourceProvider, cursorProcessor, pageProcessor, table, columns, dynamicFilter, Optional.empty(), types, minOutputPageSize, minOutputPageRowCount);
+        }
+
+        public ScanFilterAndProjectOperatorFactory(
+                int operatorId,
+                PlanNodeId planNodeId,
+                PlanNodeId sourceId,
+                PageSourceProvider pageSourceProvider,
+                Supplier<CursorProcessor> cursorProcessor,
+                Supplier<PageProcessor> pageProcessor,
+                TableHandle table,
+                Iterable<ColumnHandle> columns,
+                Supplier<Map<ColumnHandle, DynamicFilter>> dynamicFilter,
+                Optional<DynamicFilterWaitPolicy> dynamicFilterWaitPolicy,
+                List<Type> types,
+                DataSize minOutputPageSize,
+                int minOutputPageRowCount)
         {
             this.operatorId = operatorId;
             this.planNodeId = requireNonNull(planNodeId, "planNodeId is null");
@@ -416,6 +500,7 @@ public class ScanFilterAndProjectOperator
             this.table = requireNonNull(table, "table is null");
             this.columns = ImmutableList.copyOf(requireNonNull(columns, "columns is null"));
             this.dynamicFilter = dynamicFilter;
+            this.dynamicFilterWaitPolicy = requireNonNull(dynamicFilterWaitPolicy, "dynamicFilterWaitPolicy is null");
             this.types = requireNonNull(types, "types is null");
             this.minOutputPageSize = requireNonNull(minOutputPageSize, "minOutputPageSize is null");
             this.minOutputPageRowCount = minOutputPageRowCount;
@@ -465,6 +550,7 @@ public class ScanFilterAndProjectOperator
                     table,
                     columns,
                     dynamicFilter,
+                    dynamicFilterWaitPolicy,
                     types,
                     minOutputPageSize,
                     minOutputPageRowCount);
@@ -17,24 +17,34 @@ import com.google.common.collect.ImmutableList;
 import com.google.common.util.concurrent.ListenableFuture;
 import com.google.common.util.concurrent.SettableFuture;
 
-import javax.annotation.Nullable;
 import javax.annotation.concurrent.GuardedBy;
 import javax.annotation.concurrent.ThreadSafe;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
 import java.util.function.Supplier;
 
+import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkState;
 import static io.airlift.concurrent.MoreFutures.whenAnyComplete;
 import static java.util.Objects.requireNonNull;
 
+/**
+ * Hands a spilled partition of the lookup source over from its {@link HashBuilderOperator} to the probe operators.
+ * <p>
+ * The partition is unspilled as a sequence of {@link Step}s. Usually there is a single step carrying the whole
+ * partition, but a partition too large to be unspilled at once is recursively repartitioned and, when it can not
+ * be split any further, unspilled in blocks. Every consumer processes every step and releases it, and the next step
+ * is only produced once all consumers released the previous one.
+ */
 @ThreadSafe
-final class SpilledLookupSourceHandle
+public final class SpilledLookupSourceHandle
 {
     private enum State
     {
         SPILLED,
         UNSPILLING,
-        PRODUCED,
         DISPOSED
     }
 
@@ -44,8 +54,19 @@ final class SpilledLookupSourceHandle
     private final SettableFuture<?> unspillingRequested = SettableFuture.create();
 
     @GuardedBy("this")
-    @Nullable
-    private SettableFuture<Supplier<LookupSource>> unspilledLookupSource;
+    private int consumersCount;
+
+    @GuardedBy("this")
+    private final List<SettableFuture<Step>> steps = new ArrayList<>();
+
+    @GuardedBy("this")
+    private int producedSteps;
+
+    @GuardedBy("this")
+    private int pendingReleases;
+
+    @GuardedBy("this")
+    private SettableFuture<?> stepReleased = SettableFuture.create();
 
     private final SettableFuture<?> disposeRequested = SettableFuture.create();
 
@@ -56,35 +77,62 @@ final class SpilledLookupSourceHandle
         return unspillingRequested;
     }
 
-    public synchronized ListenableFuture<Supplier<LookupSource>> getLookupSource()
+    public synchronized void requestUnspilling(int consumersCount)
     {
+        checkArgument(consumersCount > 0, "consumersCount must be positive");
         assertState(State.SPILLED);
-        unspillingRequested.set(null);
+        this.consumersCount = consumersCount;
         setState(State.UNSPILLING);
-        checkState(unspilledLookupSource == null, "unspilledLookupSource already set");
-        unspilledLookupSource = SettableFuture.create();
-        return unspilledLookupSource;
+        unspillingRequested.set(null);
     }
 
-    public synchronized void setLookupSource(Supplier<LookupSource> lookupSource)
+    public synchronized ListenableFuture<Step> getStep(int step)
     {
-        requireNonNull(lookupSource, "lookupSource is null");
+        checkState(state != State.SPILLED, "Unspilling not requested");
+        return getStepFuture(step);
+    }
+
+    public synchronized void releaseStep(int step)
+    {
+        checkState(step == producedSteps - 1, "Step %s is not the current step", step);
+        pendingReleases--;
+        checkState(pendingReleases >= 0, "Step %s released too many times", step);
+        if (pendingReleases == 0) {
+            steps.set(step, null); // let the memory go
+            stepReleased.set(null);
+        }
+    }
+
+    public synchronized void addStep(Step step)
+    {
+        requireNonNull(step, "step is null");
 
         if (state == State.DISPOSED) {
             return;
         }
 
         assertState(State.UNSPILLING);
-        checkState(unspilledLookupSource != null, "unspilledLookupSource not set");
-        unspilledLookupSource.set(lookupSource);
-        unspilledLookupSource = null; // let the memory go
-        setState(State.PRODUCED);
+        checkState(producedSteps == 0 || stepReleased.isDone(), "Previous step not released yet");
+        SettableFuture<Step> future = getStepFuture(producedSteps);
+        producedSteps++;
+        pendingReleases = consumersCount;
+        stepReleased = SettableFuture.create();
+        future.set(step);
+    }
+
+    /**
+     * Completes when all consumers released the last produced step, or when the handle is disposed.
+     */
+    public synchronized ListenableFuture<?> getStepReleased()
+    {
+        return stepReleased;
     }
 
     public synchronized void dispose()
     {
         disposeRequested.set(null);
-        unspilledLookupSource = null; // let the memory go
+        steps.clear(); // let the memory go
+        stepReleased.set(null);
         setState(State.DISPOSED);
     }
 
@@ -98,6 +146,18 @@ final class SpilledLookupSourceHandle
         return unspillingOrDisposeRequested;
     }
 
+    @GuardedBy("this")
+    private SettableFuture<Step> getStepFuture(int step)
+    {
+        checkArgument(step >= 0, "step is negative");
+        while (steps.size() <= step) {
+            steps.add(SettableFuture.create());
+        }
+        SettableFuture<Step> future = steps.get(step);
+        checkState(future != null, "Step %s already released", step);
+        return future;
+    }
+
     @GuardedBy("this")
     private void assertState(State expectedState)
     {
@@ -110,4 +170,73 @@ final class SpilledLookupSourceHandle
     {
         this.state = requireNonNull(newState, "newState is null");
     }
+
+    /**
+     * A single step of unspilling a partition, visited by the build and probe sides in the same depth-first order.
+     * Either all rows of the current (sub)partition are split into {@link #getPartitionCount()} sub-partitions,
+     * or a lookup source is built from (a block of) the rows of the current (sub)partition.
+     */
+    public static final class Step
+    {
+        private final int depth;
+        private final int partitionCount;
+        private final Optional<Supplier<LookupSource>> lookupSource;
+        private final boolean lastBlock;
+
+        private Step(int depth, int partitionCount, Optional<Supplier<LookupSource>> lookupSource, boolean lastBlock)
+        {
+            this.depth = depth;
+            this.partitionCount = partitionCount;
+            this.lookupSource = requireNonNull(lookupSource, "lookupSource is null");
+            this.lastBlock = lastBlock;
+        }
+
+        public static Step repartition(int depth, int partitionCount)
+        {
+            checkArgument(depth > 0, "depth must be positive");
+            checkArgument(partitionCount > 1, "partitionCount must be greater than one");
+            return new Step(depth, partitionCount, Optional.empty(), false);
+        }
+
+        public static Step lookupSource(Supplier<LookupSource> lookupSource, boolean lastBlock)
+        {
+            return new Step(0, 0, Optional.of(requireNonNull(lookupSource, "lookupSource is null")), lastBlock);
+        }
+
+        public boolean isRepartition()
+        {
+            return !lookupSource.isPresent();
+        }
+
+        /**
+         * Recursion depth of the repartitioning, used to seed the {@link GraceJoinPartitionFunction}
+         */
+        public int getDepth()
+        {
+            checkState(isRepartition(), "Not a repartitioning step");
+            return depth;
+        }
+
+        public int getPartitionCount()
+        {
+            checkState(isRepartition(), "Not a repartitioning step");
+            return partitionCount;
+        }
+
+        public Supplier<LookupSource> getLookupSource()
+        {
+            return lookupSource.orElseThrow(() -> new IllegalStateException("Not a lookup source step"));
+        }
+
+        /**
+         * Whether the lookup source holds the last (or only) block of the rows of the current (sub)partition.
+         * Probe rows are joined with all blocks before being dropped, and unmatched rows of an outer join
+         * are only produced with the last block.
+         */
+        public boolean isLastBlock()
+        {
+            checkState(!isRepartition(), "Not a lookup source step");
+            return lastBlock;
+        }
+    }
 }
@@ -16,12 +16,19 @@ package io.prestosql.operator;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.collect.ImmutableList;
 import com.google.common.primitives.Ints;
+import com.google.common.util.concurrent.ListenableFuture;
 import io.prestosql.memory.context.LocalMemoryContext;
+import io.prestosql.operator.WorkProcessor.Transformation;
+import io.prestosql.operator.WorkProcessor.TransformationState;
 import io.prestosql.spi.Page;
+import io.prestosql.spi.PageBuilder;
 import io.prestosql.spi.block.Block;
 import io.prestosql.spi.block.SortOrder;
 import io.prestosql.spi.type.Type;
+import io.prestosql.spiller.Spiller;
+import io.prestosql.spiller.SpillerFactory;
 import io.prestosql.sql.gen.JoinCompiler;
+import io.prestosql.sql.gen.OrderingCompiler;
 import io.prestosql.sql.planner.plan.PlanNodeId;
 
 import java.util.Iterator;
@@ -30,9 +37,17 @@ import java.util.Optional;
 
 import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkState;
+import static com.google.common.collect.Iterables.concat;
+import static com.google.common.collect.Iterators.transform;
+import static com.google.common.util.concurrent.Futures.immediateFuture;
+import static io.airlift.concurrent.MoreFutures.checkSuccess;
 import static io.prestosql.SystemSessionProperties.isDictionaryAggregationEnabled;
 import static io.prestosql.operator.GroupByHash.createGroupByHash;
+import static io.prestosql.spi.block.SortOrder.ASC_NULLS_LAST;
 import static io.prestosql.spi.type.BigintType.BIGINT;
+import static io.prestosql.type.TypeUtils.positionEqualsPosition;
+import static io.prestosql.util.MergeSortedPages.mergeSortedPages;
+import static java.util.Collections.nCopies;
 import static java.util.Objects.requireNonNull;
 
 public class TopNRowNumberOperator
@@ -59,6 +74,10 @@ public class TopNRowNumberOperator
         private final boolean generateRowNumber;
         private boolean closed;
         private final JoinCompiler joinCompiler;
+        private final PagesIndex.Factory pagesIndexFactory;
+        private final boolean spillEnabled;
+        private final Optional<SpillerFactory> spillerFactory;
+        private final OrderingCompiler orderingCompiler;
 
         public TopNRowNumberOperatorFactory(
                 int operatorId,
@@ -73,7 +92,11 @@ public class TopNRowNumberOperator
                 boolean partial,
                 Optional<Integer> hashChannel,
                 int expectedPositions,
-                JoinCompiler joinCompiler)
+                JoinCompiler joinCompiler,
+                PagesIndex.Factory pagesIndexFactory,
+                boolean spillEnabled,
+                Optional<SpillerFactory> spillerFactory,
+                OrderingCompiler orderingCompiler)
         {
             this.operatorId = operatorId;
             this.planNodeId = requireNonNull(planNodeId, "planNodeId is null");
@@ -91,6 +114,12 @@ public class TopNRowNumberOperator
             this.generateRowNumber = !partial;
             this.expectedPositions = expectedPositions;
             this.joinCompiler = requireNonNull(joinCompiler, "joinCompiler is null");
+            this.pagesIndexFactory = requireNonNull(pagesIndexFactory, "pagesIndexFactory is null");
+            // spilled runs are sorted on the partition channels, which is not possible for types that are only comparable
+            this.spillEnabled = spillEnabled && this.partitionTypes.stream().allMatch(Type::isOrderable);
+            this.spillerFactory = requireNonNull(spillerFactory, "spillerFactory is null");
+            this.orderingCompiler = requireNonNull(orderingCompiler, "orderingCompiler is null");
+            checkArgument(!spillEnabled || spillerFactory.isPresent(), "Spiller Factory is not present when spill is enabled");
         }
 
         @Override
@@ -110,7 +139,11 @@ public class TopNRowNumberOperator
                     generateRowNumber,
                     hashChannel,
                     expectedPositions,
-                    joinCompiler);
+                    joinCompiler,
+                    pagesIndexFactory,
+                    spillEnabled,
+                    spillerFactory,
+                    orderingCompiler);
         }
 
         @Override
@@ -122,21 +155,63 @@ public class TopNRowNumberOperator
         @Override
         public OperatorFactory duplicate()
         {
-            return new TopNRowNumberOperatorFactory(operatorId, planNodeId, sourceTypes, outputChannels, partitionChannels, partitionTypes, sortChannels, sortOrder, maxRowCountPerPartition, partial, hashChannel, expectedPositions, joinCompiler);
+            return new TopNRowNumberOperatorFactory(
+                    operatorId,
+                    planNodeId,
+                    sourceTypes,
+                    outputChannels,
+                    partitionChannels,
+                    partitionTypes,
+                    sortChannels,
+                    sortOrder,
+                    maxRowCountPerPartition,
+                    partial,
+                    hashChannel,
+                    expectedPositions,
+                    joinCompiler,
+                    pagesIndexFactory,
+                    spillEnabled,
+                    spillerFactory,
+                    orderingCompiler);
         }
     }
 
     private final OperatorContext operatorContext;
     private final LocalMemoryContext localUserMemoryContext;
+    private final LocalMemoryContext localRevocableMemoryContext;
 
+    private final List<Type> sourceTypes;
     private final List<Integer> outputChannels;
-
-    private final GroupByHash groupByHash;
-    private final GroupedTopNBuilder groupedTopNBuilder;
-
+    private final List<Integer> partitionChannels;
+    private final List<Type> partitionTypes;
+    private final List<Integer> sortChannels;
+    private final List<SortOrder> sortOrders;
+    private final int maxRowCountPerPartition;
+    private final boolean generateRowNumber;
+    private final Optional<Integer> hashChannel;
+    private final int expectedPositions;
+    private final JoinCompiler joinCompiler;
+
+    private final PagesIndex.Factory pagesIndexFactory;
+    private final boolean spillEnabled;
+    private final Optional<SpillerFactory> spillerFactory;
+    private final OrderingCompiler orderingCompiler;
+    // spilled runs are sorted on the partition channels and then on the sort channels
+    private final List<Integer> spillSortChannels;
+    private final List<SortOrder> spillSortOrders;
+
+    private GroupByHash groupByHash;
+    private GroupedTopNBuilder groupedTopNBuilder;
+
+    private Optional<Spiller> spiller = Optional.empty();
+    private ListenableFuture<?> spillInProgress = immediateFuture(null);
+    private Runnable finishMemoryRevoke = () -> {};
+
+    // whether the builder holds rows that have not been spilled yet
+    private boolean hasUnspilledRows;
     private boolean finishing;
     private Work<?> unfinishedWork;
-    private Iterator<Page> outputIterator;
+    private Iterator<Optional<Page>> outputIterator;
 
     public TopNRowNumberOperator(
             OperatorContext operatorContext,
@@ -150,10 +225,15 @@ public class TopNRowNumberOperator
             boolean generateRowNumber,
             Optional<Integer> hashChannel,
             int expectedPositions,
-            JoinCompiler joinCompiler)
+            JoinCompiler joinCompiler,
+            PagesIndex.Factory pagesIndexFactory,
+            boolean spillEnabled,
+            Optional<SpillerFactory> spillerFactory,
+            OrderingCompiler orderingCompiler)
     {
         this.operatorContext = requireNonNull(operatorContext, "operatorContext is null");
         this.localUserMemoryContext = operatorContext.localUserMemoryContext();
+        this.localRevocableMemoryContext = operatorContext.localRevocableMemoryContext();
 
         ImmutableList.Builder<Integer> outputChannelsBuilder = ImmutableList.builder();
         for (int channel : requireNonNull(outputChannels, "outputChannels is null")) {
@@ -165,9 +245,34 @@ public class TopNRowNumberOperator
         this.outputChannels = outputChannelsBuilder.build();
 
         checkArgument(maxRowCountPerPartition > 0, "maxRowCountPerPartition must be > 0");
+        checkArgument(partitionChannels.isEmpty() || expectedPositions > 0, "expectedPositions must be > 0");
+
+        this.sourceTypes = ImmutableList.copyOf(sourceTypes);
+        this.partitionChannels = ImmutableList.copyOf(partitionChannels);
+        this.partitionTypes = ImmutableList.copyOf(partitionTypes);
+        this.sortChannels = ImmutableList.copyOf(sortChannels);
+        this.sortOrders = ImmutableList.copyOf(sortOrders);
+        this.maxRowCountPerPartition = maxRowCountPerPartition;
+        this.generateRowNumber = generateRowNumber;
+        this.hashChannel = requireNonNull(hashChannel, "hashChannel is null");
+        this.expectedPositions = expectedPositions;
+        this.joinCompiler = requireNonNull(joinCompiler, "joinCompiler is null");
+
+        this.pagesIndexFactory = requireNonNull(pagesIndexFactory, "pagesIndexFactory is null");
+        this.spillEnabled = spillEnabled;
+        this.spillerFactory = requireNonNull(spillerFactory, "spillerFactory is null");
+        this.orderingCompiler = requireNonNull(orderingCompiler, "orderingCompiler is null");
+        checkArgument(!spillEnabled || spillerFactory.isPresent(), "Spiller Factory is not present when spill is enabled");
+        checkArgument(!spillEnabled || partitionTypes.stream().allMatch(Type::isOrderable), "Partition types must be orderable when spill is enabled");
+        this.spillSortChannels = ImmutableList.copyOf(concat(partitionChannels, sortChannels));
+        this.spillSortOrders = ImmutableList.copyOf(concat(nCopies(partitionChannels.size(), ASC_NULLS_LAST), sortOrders));
+
+        createGroupedTopNBuilder();
+    }
 
+    private void createGroupedTopNBuilder()
+    {
         if (!partitionChannels.isEmpty()) {
-            checkArgument(expectedPositions > 0, "expectedPositions must be > 0");
             groupByHash = createGroupByHash(
                     partitionTypes,
                     Ints.toArray(partitionChannels),
@@ -182,8 +287,8 @@ public class TopNRowNumberOperator
         }
 
         List<Type> types = toTypes(sourceTypes, outputChannels, generateRowNumber);
-        this.groupedTopNBuilder = new GroupedTopNBuilder(
-                ImmutableList.copyOf(sourceTypes),
+        groupedTopNBuilder = new GroupedTopNBuilder(
+                sourceTypes,
                 new SimplePageWithPositionComparator(types, sortChannels, sortOrders),
                 maxRowCountPerPartition,
                 generateRowNumber,
@@ -216,6 +321,13 @@ public class TopNRowNumberOperator
         return !finishing && outputIterator == null && unfinishedWork == null;
     }
 
+    @Override
+    public ListenableFuture<?> isBlocked()
+    {
+        // the result is built once the spill started by getOutput() is done
+        return spillInProgress.isDone() ? NOT_BLOCKED : spillInProgress;
+    }
+
     @Override
     public void addInput(Page page)
     {
@@ -223,6 +335,8 @@ public class TopNRowNumberOperator
         checkState(unfinishedWork == null, "Cannot add input with the operator when unfinished work is not empty");
         checkState(outputIterator == null, "Cannot add input with the operator when flushing");
         requireNonNull(page, "page is null");
+        checkSuccess(spillInProgress, "spilling failed");
+        hasUnspilledRows = true;
         unfinishedWork = groupedTopNBuilder.processPage(page);
         if (unfinishedWork.process()) {
             unfinishedWork = null;
@@ -233,6 +347,7 @@ public class TopNRowNumberOperator
     @Override
     public Page getOutput()
     {
+        checkSuccess(spillInProgress, "spilling failed");
         if (unfinishedWork != null) {
             boolean finished = unfinishedWork.process();
             updateMemoryReservation();
@@ -242,29 +357,57 @@ public class TopNRowNumberOperator
             unfinishedWork = null;
         }
 
-        if (!finishing) {
+        if (!finishing || !spillInProgress.isDone()) {
             return null;
         }
 
         if (outputIterator == null) {
+            // release the rows spilled by a previous call
+            finishMemoryRevoke();
+            if (!convertRevocableMemory()) {
+                return null;
+            }
             // start flushing
-            outputIterator = groupedTopNBuilder.buildResult();
+            outputIterator = buildResult();
         }
 
         Page output = null;
         if (outputIterator.hasNext()) {
-            Page page = outputIterator.next();
-            // rewrite to expected column ordering
-            Block[] blocks = new Block[page.getChannelCount()];
-            for (int i = 0; i < outputChannels.size(); i++) {
-                blocks[i] = page.getBlock(outputChannels.get(i));
+            Optional<Page> next = outputIterator.next();
+            if (next.isPresent()) {
+                Page page = next.get();
+                // rewrite to expected column ordering
+                Block[] blocks = new Block[page.getChannelCount()];
+                for (int i = 0; i < outputChannels.size(); i++) {
+                    blocks[i] = page.getBlock(outputChannels.get(i));
+                }
+                output = new Page(blocks);
             }
-            output = new Page(blocks);
         }
         updateMemoryReservation();
         return output;
     }
 
+    @Override
+    public ListenableFuture<?> startMemoryRevoke()
+    {
+        return spillToDisk();
+    }
+
+    @Override
+    public void finishMemoryRevoke()
+    {
+        finishMemoryRevoke.run();
+        finishMemoryRevoke = () -> {};
+    }
+
+    @Override
+    public void close()
+    {
+        outputIterator = null;
+        spiller.ifPresent(Spiller::close);
+    }
+
     @VisibleForTesting
     public int getCapacity()
     {
@@ -272,9 +415,110 @@ public class TopNRowNumberOperator
         return groupByHash.getCapacity();
     }
 
+    /**
+     * Converts revocable memory to user memory, as the result holds on to memory that can no longer be revoked.
+     * If the user memory cannot be reserved, the rows are spilled instead and the result is built once the spill is done.
+     *
+     * @return true if the result can be built
+     */
+    private boolean convertRevocableMemory()
+    {
+        long revocableBytes = localRevocableMemoryContext.getBytes();
+        if (revocableBytes == 0) {
+            return true;
+        }
+        localRevocableMemoryContext.setBytes(0);
+        if (localUserMemoryContext.trySetBytes(localUserMemoryContext.getBytes() + revocableBytes)) {
+            return true;
+        }
+        localRevocableMemoryContext.setBytes(revocableBytes);
+        spillToDisk();
+        return false;
+    }
+
+    private Iterator<Optional<Page>> buildResult()
+    {
+        if (!spiller.isPresent()) {
+            return transform(groupedTopNBuilder.buildResult(), Optional::of);
+        }
+
+        // the rows still in memory are sorted like the spilled runs, and all runs are merged
+        ImmutableList.Builder<WorkProcessor<Page>> sortedStreams = ImmutableList.builder();
+        spiller.get().getSpills().stream()
+                .map(WorkProcessor::fromIterator)
+                .forEach(sortedStreams::add);
+        sortedStreams.add(WorkProcessor.fromIterator(sortTopNRows().getSortedPages()));
+
+        return mergeSortedPages(
+                sortedStreams.build(),
+                orderingCompiler.compilePageWithPositionComparator(sourceTypes, spillSortChannels, spillSortOrders),
+                sourceTypes,
+                operatorContext.aggregateUserMemoryContext(),
+                operatorContext.getDriverContext().getYieldSignal())
+                .transform(new MergedPagesToTopNRows())
+                .yieldingIterator();
+    }
+
+    private ListenableFuture<?> spillToDisk()
+    {
+        checkSuccess(spillInProgress, "spilling failed");
+
+        // rows can only be spilled between input pages, and not once the result is being built
+        if (!hasUnspilledRows || localRevocableMemoryContext.getBytes() == 0 || unfinishedWork != null || outputIterator != null) {
+            finishMemoryRevoke = () -> {};
+            return immediateFuture(null);
+        }
+
+        if (!spiller.isPresent()) {
+            spiller = Optional.of(spillerFactory.get().create(
+                    sourceTypes,
+                    operatorContext.getSpillContext(),
+                    operatorContext.newAggregateSystemMemoryContext()));
+        }
+
+        // only the current top rows of every partition are spilled, as a run sorted on the partition and sort channels
+        PagesIndex pagesIndex = sortTopNRows();
+        createGroupedTopNBuilder();
+        hasUnspilledRows = false;
+        spillInProgress = spiller.get().spill(pagesIndex.getSortedPages());
+        finishMemoryRevoke = () -> {
+            pagesIndex.clear();
+            updateMemoryReservation();
+        };
+
+        return spillInProgress;
+    }
+
+    private PagesIndex sortTopNRows()
+    {
+        PagesIndex pagesIndex = pagesIndexFactory.newPagesIndex(sourceTypes, expectedPositions);
+        Iterator<Page> result = groupedTopNBuilder.buildResult();
+        while (result.hasNext()) {
+            Page page = result.next();
+            if (generateRowNumber) {
+                // the row numbers are computed again once the runs are merged
+                Block[] blocks = new Block[sourceTypes.size()];
+                for (int channel = 0; channel < blocks.length; channel++) {
+                    blocks[channel] = page.getBlock(channel);
+                }
+                page = new Page(page.getPositionCount(), blocks);
+            }
+            pagesIndex.addPage(page);
+        }
+        pagesIndex.sort(spillSortChannels, spillSortOrders);
+        return pagesIndex;
+    }
+
     private boolean updateMemoryReservation()
     {
+        if (spillEnabled && outputIterator == null && hasUnspilledRows) {
+            localUserMemoryContext.setBytes(0);
+            localRevocableMemoryContext.setBytes(groupedTopNBuilder.getEstimatedSizeInBytes());
+            // the rows are spilled when memory is needed, instead of yielding
+            return true;
+        }
         // TODO: may need to use trySetMemoryReservation with a compaction to free memory (but that may cause GC pressure)
+        localRevocableMemoryContext.setBytes(0);
         localUserMemoryContext.setBytes(groupedTopNBuilder.getEstimatedSizeInBytes());
         return operatorContext.isWaitingForMemory().isDone();
     }
@@ -290,4 +534,78 @@ public class TopNRowNumberOperator
         }
         return types.build();
     }
+
+    /**
+     * Keeps the first rows of every partition from the merged runs, which are sorted on the partition and sort channels.
+     */
+    private class MergedPagesToTopNRows
+            implements Transformation<Page, Page>
+    {
+        final PageBuilder pageBuilder;
+
+        Page currentPartitionRow;
+        long rowNumber;
+
+        MergedPagesToTopNRows()
+        {
+            List<Type> types = sourceTypes;
+            if (generateRowNumber) {
+                types = ImmutableList.<Type>builder().addAll(sourceTypes).add(BIGINT).build();
+            }
+            this.pageBuilder = new PageBuilder(types);
+        }
+
+        @Override
+        public TransformationState<Page> process(Page page)
+        {
+            if (page == null) {
+                if (pageBuilder.isEmpty()) {
+                    return TransformationState.finished();
+                }
+                Page output = pageBuilder.build();
+                pageBuilder.reset();
+                return TransformationState.ofResult(output, false);
+            }
+
+            for (int position = 0; position < page.getPositionCount(); position++) {
+                if (currentPartitionRow == null || !isSamePartition(page, position)) {
+                    currentPartitionRow = page.getSingleValuePage(position);
+                    rowNumber = 0;
+                }
+                rowNumber++;
+                if (rowNumber <= maxRowCountPerPartition) {
+                    appendRow(page, position);
+                }
+            }
+
+            if (!pageBuilder.isFull()) {
+                return TransformationState.needsMoreData();
+            }
+            Page output = pageBuilder.build();
+            pageBuilder.reset();
+            return TransformationState.ofResult(output);
+        }
+
+        private boolean isSamePartition(Page page, int position)
+        {
+            for (int i = 0; i < partitionChannels.size(); i++) {
+                int channel = partitionChannels.get(i);
+                if (!positionEqualsPosition(partitionTypes.get(i), currentPartitionRow.getBlock(channel), 0, page.getBlock(channel), position)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private void appendRow(Page page, int position)
+        {
+            pageBuilder.declarePosition();
+            for (int channel = 0; channel < sourceTypes.size(); channel++) {
+                sourceTypes.get(channel).appendTo(page.getBlock(channel), position, pageBuilder.getBlockBuilder(channel));
+            }
+            if (generateRowNumber) {
+                BIGINT.writeLong(pageBuilder.getBlockBuilder(sourceTypes.size()), rowNumber);
+            }
+        }
+    }
 }
@@ -339,9 +339,9 @@ public class WorkProcessorPipelineSourceOperator
         }
 
         Object splitInfo = split.getInfo();
-        if (splitInfo != null) {
-            operatorContext.setInfoSupplier(() -> new SplitOperatorInfo(splitInfo));
-        }
+        // the source operator is released when this operator closes
+        WorkProcessorSourceOperator source = sourceOperator;
+        operatorContext.setInfoSupplier(() -> source.getOperatorInfo(splitInfo));
 
         pendingSplits.add(split);
         blockedOnSplits.set(null);
@@ -17,6 +17,8 @@ import io.airlift.units.DataSize;
 import io.airlift.units.Duration;
 import io.prestosql.spi.connector.UpdatablePageSource;
 
+import javax.annotation.Nullable;
+
 import java.util.Optional;
 import java.util.function.Supplier;
 
@@ -63,4 +65,14 @@ public interface WorkProcessorSourceOperator
     {
         return new Duration(0, NANOSECONDS);
     }
+
+    /**
+     * @param splitInfo info of the current split, may be null
+     * @return info of this operator, or null if there is none
+     */
+    @Nullable
+    default OperatorInfo getOperatorInfo(@Nullable Object splitInfo)
+    {
+        return splitInfo == null ? null : new SplitOperatorInfo(splitInfo);
+    }
 }
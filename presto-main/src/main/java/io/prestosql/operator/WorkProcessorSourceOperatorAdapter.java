@@ -85,9 +85,7 @@ public class WorkProcessorSourceOperatorAdapter
         }
 
         Object splitInfo = split.getInfo();
-        if (splitInfo != null) {
-            operatorContext.setInfoSupplier(() -> new SplitOperatorInfo(splitInfo));
-        }
+        operatorContext.setInfoSupplier(() -> sourceOperator.getOperatorInfo(splitInfo));
 
         splitBuffer.add(split);
         return sourceOperator.getUpdatablePageSourceSupplier();
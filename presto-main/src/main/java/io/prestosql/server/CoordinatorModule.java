@@ -290,6 +290,7 @@ public class CoordinatorModule
 
         // dynamic filtering service
         binder.bind(DynamicFilterService.class).in(Scopes.SINGLETON);
+        newExporter(binder).export(DynamicFilterService.class).withGeneratedName();
 
         // query explainer
         binder.bind(QueryExplainer.class).in(Scopes.SINGLETON);
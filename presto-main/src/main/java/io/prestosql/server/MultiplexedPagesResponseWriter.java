@@ -0,0 +1,114 @@
+/*
+ * Copyright (C) 2018-2020. Huawei Technologies Co., Ltd. All rights reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.server;
+
+import com.google.common.reflect.TypeToken;
+import io.airlift.slice.OutputStreamSliceOutput;
+import io.airlift.slice.SliceOutput;
+import io.hetu.core.transport.execution.buffer.SerializedPage;
+import io.prestosql.execution.buffer.BufferResult;
+
+import javax.ws.rs.Produces;
+import javax.ws.rs.WebApplicationException;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.MultivaluedMap;
+import javax.ws.rs.ext.MessageBodyWriter;
+import javax.ws.rs.ext.Provider;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Type;
+import java.util.List;
+
+import static io.hetu.core.transport.execution.buffer.PagesSerdeUtil.writeSerializedPage;
+import static io.prestosql.PrestoMediaTypes.PRESTO_PAGES_BATCH;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Writes the buffer results of a batched results request. The response holds the number of results followed by,
+ * for every result in request order, the task instance id, token, next token, buffer complete flag, page count
+ * and the serialized pages.
+ */
+@Provider
+@Produces(PRESTO_PAGES_BATCH)
+public class MultiplexedPagesResponseWriter
+        implements MessageBodyWriter<List<BufferResult>>
+{
+    private static final MediaType PRESTO_PAGES_BATCH_TYPE = MediaType.valueOf(PRESTO_PAGES_BATCH);
+    private static final Type LIST_GENERIC_TOKEN;
+
+    static {
+        try {
+            LIST_GENERIC_TOKEN = List.class.getMethod("get", int.class).getGenericReturnType();
+        }
+        catch (NoSuchMethodException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    @Override
+    public boolean isWriteable(Class<?> type, Type genericType, Annotation[] annotations, MediaType mediaType)
+    {
+        return List.class.isAssignableFrom(type) &&
+                TypeToken.of(genericType).resolveType(LIST_GENERIC_TOKEN).getRawType().equals(BufferResult.class) &&
+                mediaType.isCompatible(PRESTO_PAGES_BATCH_TYPE);
+    }
+
+    @Override
+    public long getSize(List<BufferResult> results, Class<?> type, Type genericType, Annotation[] annotations, MediaType mediaType)
+    {
+        return -1;
+    }
+
+    @Override
+    public void writeTo(List<BufferResult> results,
+            Class<?> type,
+            Type genericType,
+            Annotation[] annotations,
+            MediaType mediaType,
+            MultivaluedMap<String, Object> httpHeaders,
+            OutputStream output)
+            throws IOException, WebApplicationException
+    {
+        try {
+            SliceOutput sliceOutput = new OutputStreamSliceOutput(output);
+            sliceOutput.writeInt(results.size());
+            for (BufferResult result : results) {
+                byte[] taskInstanceId = result.getTaskInstanceId().getBytes(UTF_8);
+                sliceOutput.writeInt(taskInstanceId.length);
+                sliceOutput.writeBytes(taskInstanceId);
+                sliceOutput.writeLong(result.getToken());
+                sliceOutput.writeLong(result.getNextToken());
+                sliceOutput.writeBoolean(result.isBufferComplete());
+                sliceOutput.writeInt(result.getSerializedPages().size());
+                for (SerializedPage page : result.getSerializedPages()) {
+                    writeSerializedPage(sliceOutput, page);
+                }
+            }
+            // We use flush instead of close, because the underlying stream would be closed and that is not allowed.
+            sliceOutput.flush();
+        }
+        catch (UncheckedIOException e) {
+            // EOF exception occurs when the client disconnects while writing data
+            // This is not a "server" problem so we don't want to log this
+            if (!(e.getCause() instanceof EOFException)) {
+                throw e;
+            }
+        }
+    }
+}
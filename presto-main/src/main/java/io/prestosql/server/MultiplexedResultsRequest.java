@@ -0,0 +1,94 @@
+/*
+ * Copyright (C) 2018-2020. Huawei Technologies Co., Ltd. All rights reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.server;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import io.airlift.units.DataSize;
+import io.prestosql.execution.TaskId;
+import io.prestosql.execution.buffer.OutputBuffers.OutputBufferId;
+
+import static com.google.common.base.MoreObjects.toStringHelper;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * One output buffer read of a batched results request. The entry either fetches the pages starting at
+ * {@code token}, up to {@code maxSize} bytes, or only acknowledges the pages before {@code token}.
+ */
+public class MultiplexedResultsRequest
+{
+    private final TaskId taskId;
+    private final OutputBufferId bufferId;
+    private final long token;
+    private final DataSize maxSize;
+    private final boolean acknowledgeOnly;
+
+    @JsonCreator
+    public MultiplexedResultsRequest(
+            @JsonProperty("taskId") TaskId taskId,
+            @JsonProperty("bufferId") OutputBufferId bufferId,
+            @JsonProperty("token") long token,
+            @JsonProperty("maxSize") DataSize maxSize,
+            @JsonProperty("acknowledgeOnly") boolean acknowledgeOnly)
+    {
+        this.taskId = requireNonNull(taskId, "taskId is null");
+        this.bufferId = requireNonNull(bufferId, "bufferId is null");
+        this.token = token;
+        this.maxSize = requireNonNull(maxSize, "maxSize is null");
+        this.acknowledgeOnly = acknowledgeOnly;
+    }
+
+    @JsonProperty
+    public TaskId getTaskId()
+    {
+        return taskId;
+    }
+
+    @JsonProperty
+    public OutputBufferId getBufferId()
+    {
+        return bufferId;
+    }
+
+    @JsonProperty
+    public long getToken()
+    {
+        return token;
+    }
+
+    @JsonProperty
+    public DataSize getMaxSize()
+    {
+        return maxSize;
+    }
+
+    @JsonProperty
+    public boolean isAcknowledgeOnly()
+    {
+        return acknowledgeOnly;
+    }
+
+    @Override
+    public String toString()
+    {
+        return toStringHelper(this)
+                .add("taskId", taskId)
+                .add("bufferId", bufferId)
+                .add("token", token)
+                .add("maxSize", maxSize)
+                .add("acknowledgeOnly", acknowledgeOnly)
+                .toString();
+    }
+}
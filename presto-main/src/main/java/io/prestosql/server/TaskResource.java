@@ -62,11 +62,15 @@ import java.util.concurrent.Executor;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ThreadLocalRandom;
 
+import static com.google.common.collect.ImmutableList.toImmutableList;
 import static com.google.common.collect.Iterables.transform;
 import static com.google.common.util.concurrent.MoreExecutors.directExecutor;
 import static io.airlift.concurrent.MoreFutures.addTimeout;
+import static io.airlift.concurrent.MoreFutures.getDone;
+import static io.airlift.concurrent.MoreFutures.whenAnyComplete;
 import static io.airlift.jaxrs.AsyncResponseHandler.bindAsyncResponse;
 import static io.prestosql.PrestoMediaTypes.PRESTO_PAGES;
+import static io.prestosql.PrestoMediaTypes.PRESTO_PAGES_BATCH;
 import static io.prestosql.client.PrestoHeaders.PRESTO_BUFFER_COMPLETE;
 import static io.prestosql.client.PrestoHeaders.PRESTO_CURRENT_STATE;
 import static io.prestosql.client.PrestoHeaders.PRESTO_MAX_SIZE;
@@ -301,6 +305,66 @@ public class TaskResource
         asyncResponse.register((CompletionCallback) throwable -> resultsRequestTime.add(Duration.nanosSince(start)));
     }
 
+    /**
+     * Reads several output buffers of this node with one request. Acknowledge only entries are applied
+     * immediately; the response is sent as soon as any buffer has results or the wait time expires, and
+     * holds one result per read entry in request order. The pages of all results are limited to
+     * {@code maxSize} bytes, results that do not fit are cut short and continue in the next request.
+     */
+    @POST
+    @Path("results")
+    @Consumes(MediaType.APPLICATION_JSON)
+    @Produces(PRESTO_PAGES_BATCH)
+    public void getMultiplexedResults(
+            List<MultiplexedResultsRequest> requests,
+            @HeaderParam(PRESTO_MAX_SIZE) DataSize maxSize,
+            @Suspended AsyncResponse asyncResponse)
+    {
+        SecurityRequireNonNull.requireNonNull(requests, "requests is null");
+        SecurityRequireNonNull.requireNonNull(maxSize, "maxSize is null");
+
+        long start = System.nanoTime();
+        ImmutableList.Builder<MultiplexedResultsRequest> readsBuilder = ImmutableList.builder();
+        ImmutableList.Builder<ListenableFuture<BufferResult>> resultFuturesBuilder = ImmutableList.builder();
+        for (MultiplexedResultsRequest request : requests) {
+            if (request.isAcknowledgeOnly()) {
+                taskManager.acknowledgeTaskResults(request.getTaskId(), request.getBufferId(), request.getToken());
+            }
+            else {
+                readsBuilder.add(request);
+                resultFuturesBuilder.add(taskManager.getTaskResults(request.getTaskId(), request.getBufferId(), request.getToken(), request.getMaxSize()));
+            }
+        }
+        List<MultiplexedResultsRequest> reads = readsBuilder.build();
+        List<ListenableFuture<BufferResult>> resultFutures = resultFuturesBuilder.build();
+        if (reads.isEmpty()) {
+            asyncResponse.resume(createMultiplexedResponse(ImmutableList.of()));
+            return;
+        }
+
+        Duration waitTime = randomizeWaitTime(DEFAULT_MAX_WAIT_TIME);
+        ListenableFuture<BufferResult> anyResultFuture = addTimeout(
+                whenAnyComplete(resultFutures),
+                () -> null,
+                waitTime,
+                timeoutExecutor);
+        ListenableFuture<Response> responseFuture = Futures.transform(
+                anyResultFuture,
+                ignored -> createMultiplexedResponse(collectMultiplexedResults(reads, resultFutures, maxSize)),
+                directExecutor());
+
+        // For hard timeout, add an additional time to max wait for thread scheduling contention and GC
+        Duration timeout = new Duration(waitTime.toMillis() + ADDITIONAL_WAIT_TIME.toMillis(), MILLISECONDS);
+        List<BufferResult> emptyResults = reads.stream()
+                .map(read -> BufferResult.emptyResults(taskManager.getTaskInstanceId(read.getTaskId()), read.getToken(), false))
+                .collect(toImmutableList());
+        bindAsyncResponse(asyncResponse, responseFuture, responseExecutor)
+                .withTimeout(timeout, createMultiplexedResponse(emptyResults));
+
+        responseFuture.addListener(() -> readFromOutputBufferTime.add(Duration.nanosSince(start)), directExecutor());
+        asyncResponse.register((CompletionCallback) throwable -> resultsRequestTime.add(Duration.nanosSince(start)));
+    }
+
     @GET
     @Path("{taskId}/results/{bufferId}/{token}/acknowledge")
     public void acknowledgeResults(
@@ -339,6 +403,44 @@ public class TaskResource
         return resultsRequestTime;
     }
 
+    private List<BufferResult> collectMultiplexedResults(List<MultiplexedResultsRequest> reads, List<ListenableFuture<BufferResult>> resultFutures, DataSize maxSize)
+    {
+        ImmutableList.Builder<BufferResult> results = ImmutableList.builder();
+        long maxBytes = maxSize.toBytes();
+        long bytes = 0;
+        for (int i = 0; i < reads.size(); i++) {
+            MultiplexedResultsRequest read = reads.get(i);
+            ListenableFuture<BufferResult> resultFuture = resultFutures.get(i);
+            if (!resultFuture.isDone()) {
+                results.add(BufferResult.emptyResults(taskManager.getTaskInstanceId(read.getTaskId()), read.getToken(), false));
+                continue;
+            }
+
+            BufferResult result = getDone(resultFuture);
+            List<SerializedPage> pages = result.getSerializedPages();
+            int pageCount = 0;
+            // always send at least one page, so a page larger than maxSize still makes progress
+            while (pageCount < pages.size() && (bytes == 0 || bytes + pages.get(pageCount).getRetainedSizeInBytes() <= maxBytes)) {
+                bytes += pages.get(pageCount).getRetainedSizeInBytes();
+                pageCount++;
+            }
+            if (pageCount < pages.size()) {
+                // the remaining pages are not acknowledged, so the client reads them again from the next token
+                result = new BufferResult(result.getTaskInstanceId(), result.getToken(), result.getToken() + pageCount, false, pages.subList(0, pageCount));
+            }
+            results.add(result);
+        }
+        return results.build();
+    }
+
+    private static Response createMultiplexedResponse(List<BufferResult> results)
+    {
+        return Response.ok()
+                .entity(new GenericEntity<>(results, new TypeToken<List<BufferResult>>() {}.getType()))
+                .type(PRESTO_PAGES_BATCH)
+                .build();
+    }
+
     private static boolean shouldSummarize(UriInfo uriInfo)
     {
         return uriInfo.getQueryParameters().containsKey("summarize");
@@ -14,12 +14,17 @@
  */
 package io.prestosql.server.protocol;
 
+import com.google.common.collect.ImmutableList;
+import io.airlift.units.DataSize;
 import io.airlift.units.Duration;
+import io.hetu.core.transport.execution.buffer.SerializedPage;
 import io.prestosql.client.DataCenterQueryResults;
 
 import javax.ws.rs.WebApplicationException;
 import javax.ws.rs.core.Response;
 
+import java.util.List;
+import java.util.Optional;
 import java.util.concurrent.BlockingQueue;
 
 public class PageConsumer
@@ -65,11 +70,14 @@ public class PageConsumer
         return System.currentTimeMillis() - this.lastSubscriberTime <= this.pageConsumerTimeout;
     }
 
-    private DataCenterQueryResults getResult(long token, BlockingQueue<DataCenterQueryResults> queryResults)
+    private DataCenterQueryResults getResult(long token, Optional<DataSize> targetResultSize, BlockingQueue<DataCenterQueryResults> queryResults)
     {
         if (token == (lastToken + 1)) {
             // Current result
             lastResult = queryResults.poll();
+            if (lastResult != null && targetResultSize.isPresent()) {
+                lastResult = addQueuedResults(lastResult, targetResultSize.get().toBytes(), queryResults);
+            }
 
             if (lastResult == null) {
                 if (this.sentFinalStatus && (token == (lastToken + 1))) {
@@ -116,6 +124,64 @@ public class PageConsumer
         throw new WebApplicationException(Response.Status.NOT_FOUND);
     }
 
+    /**
+     * Merge the results already queued into the response until it reaches the size the subscriber asked for,
+     * the merged response is kept as the last result so a repeated request gets it again.
+     */
+    private static DataCenterQueryResults addQueuedResults(DataCenterQueryResults first, long targetResultBytes,
+            BlockingQueue<DataCenterQueryResults> queryResults)
+    {
+        long bytes = sizeOf(first.getData());
+        if (bytes >= targetResultBytes || first.getNextUri() == null) {
+            return first;
+        }
+
+        ImmutableList.Builder<SerializedPage> data = ImmutableList.builder();
+        if (first.getData() != null) {
+            data.addAll(first.getData());
+        }
+        DataCenterQueryResults last = first;
+        while (bytes < targetResultBytes && last.getNextUri() != null) {
+            DataCenterQueryResults next = queryResults.poll();
+            if (next == null) {
+                break;
+            }
+            if (next.getData() != null) {
+                data.addAll(next.getData());
+                bytes += sizeOf(next.getData());
+            }
+            last = next;
+        }
+        if (last == first) {
+            return first;
+        }
+
+        List<SerializedPage> pages = data.build();
+        return new DataCenterQueryResults(
+                last.getId(),
+                last.getInfoUri(),
+                last.getPartialCancelUri(),
+                last.getNextUri(),
+                last.getColumns() != null ? last.getColumns() : first.getColumns(),
+                pages.isEmpty() ? null : pages,
+                last.getStats(),
+                last.getError(),
+                last.getWarnings(),
+                last.getUpdateType(),
+                last.getUseHeaderInformation());
+    }
+
+    private static long sizeOf(List<SerializedPage> pages)
+    {
+        long bytes = 0;
+        if (pages != null) {
+            for (SerializedPage page : pages) {
+                bytes += page.getSizeInBytes();
+            }
+        }
+        return bytes;
+    }
+
     public void add(Query query, PageSubscriber subscriber, BlockingQueue<DataCenterQueryResults> queryResults)
     {
         if (this.query == null && query != null) {
@@ -123,7 +189,7 @@ public class PageConsumer
         }
         long clientToken = subscriber.getToken();
         this.lastSubscriberTime = System.currentTimeMillis();
-        subscriber.send(this.query, getResult(clientToken, queryResults));
+        subscriber.send(this.query, getResult(clientToken, subscriber.getTargetResultSize(), queryResults));
     }
 
     public void stop()
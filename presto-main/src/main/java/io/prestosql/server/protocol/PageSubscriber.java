@@ -14,8 +14,11 @@
  */
 package io.prestosql.server.protocol;
 
+import io.airlift.units.DataSize;
 import io.prestosql.client.DataCenterQueryResults;
 
+import java.util.Optional;
+
 public interface PageSubscriber
 {
     String getId();
@@ -24,5 +27,10 @@ public interface PageSubscriber
 
     long getToken();
 
+    /**
+     * Size of the results the subscriber wants in one response, empty to get a single batch of results
+     */
+    Optional<DataSize> getTargetResultSize();
+
     void send(Query query, DataCenterQueryResults results);
 }
@@ -16,6 +16,7 @@ package io.prestosql.spiller;
 import io.prestosql.spi.PrestoException;
 import io.prestosql.spi.spiller.SpillCipher;
 
+import javax.annotation.concurrent.GuardedBy;
 import javax.crypto.Cipher;
 import javax.crypto.KeyGenerator;
 import javax.crypto.SecretKey;
@@ -39,6 +40,14 @@ final class AesSpillCipher
     //  Instance used only for determining encrypted output lengths
     private Cipher encryptSizer;
     private final int ivBytes;
+    //  Cipher instances are expensive to create, they are initialized again for every page instead.
+    //  Pages may be encrypted and decrypted by different threads, each mode has its own instance.
+    private final Object encryptLock = new Object();
+    @GuardedBy("encryptLock")
+    private Cipher encryptCipher;
+    private final Object decryptLock = new Object();
+    @GuardedBy("decryptLock")
+    private Cipher decryptCipher;
 
     AesSpillCipher()
     {
@@ -67,13 +76,15 @@ final class AesSpillCipher
     {
         checkArgument(data.length - inputOffset >= length, "data buffer too small for length argument");
         checkArgument(destination.length - destinationOffset >= encryptedMaxLength(length), "destination buffer too small for encrypted output");
-        Cipher cipher = createEncryptCipher(key);
-        System.arraycopy(cipher.getIV(), 0, destination, destinationOffset, ivBytes);
-        try {
-            return ivBytes + cipher.doFinal(data, inputOffset, length, destination, destinationOffset + ivBytes);
-        }
-        catch (GeneralSecurityException e) {
-            throw new PrestoException(GENERIC_INTERNAL_ERROR, "Failed to encrypt data: " + e.getMessage(), e);
+        synchronized (encryptLock) {
+            Cipher cipher = initEncryptCipher();
+            System.arraycopy(cipher.getIV(), 0, destination, destinationOffset, ivBytes);
+            try {
+                return ivBytes + cipher.doFinal(data, inputOffset, length, destination, destinationOffset + ivBytes);
+            }
+            catch (GeneralSecurityException e) {
+                throw new PrestoException(GENERIC_INTERNAL_ERROR, "Failed to encrypt data: " + e.getMessage(), e);
+            }
         }
     }
 
@@ -82,12 +93,14 @@ final class AesSpillCipher
     {
         checkArgument(encryptedData.length - inputOffset >= length, "encryptedData too small for length argument");
         checkArgument(destination.length - destinationOffset >= decryptedMaxLength(length), "destination buffer too small for decrypted output");
-        Cipher cipher = createDecryptCipher(key, new IvParameterSpec(encryptedData, inputOffset, ivBytes));
-        try {
-            return cipher.doFinal(encryptedData, inputOffset + ivBytes, length - ivBytes, destination, destinationOffset);
-        }
-        catch (GeneralSecurityException e) {
-            throw new PrestoException(GENERIC_INTERNAL_ERROR, "Cannot decrypt previously encrypted data: " + e.getMessage(), e);
+        synchronized (decryptLock) {
+            Cipher cipher = initDecryptCipher(new IvParameterSpec(encryptedData, inputOffset, ivBytes));
+            try {
+                return cipher.doFinal(encryptedData, inputOffset + ivBytes, length - ivBytes, destination, destinationOffset);
+            }
+            catch (GeneralSecurityException e) {
+                throw new PrestoException(GENERIC_INTERNAL_ERROR, "Cannot decrypt previously encrypted data: " + e.getMessage(), e);
+            }
         }
     }
 
@@ -110,35 +123,54 @@ final class AesSpillCipher
         return toStringHelper(this).add("closed", key == null).toString();
     }
 
-    private static <T> T throwCipherClosedIfNull(T value)
+    @GuardedBy("encryptLock")
+    private Cipher initEncryptCipher()
     {
-        if (value == null) {
-            throw new PrestoException(GENERIC_INTERNAL_ERROR, "Spill cipher already closed");
+        if (encryptCipher == null) {
+            encryptCipher = createUninitializedCipher();
+        }
+        try {
+            //  initializing for encryption without parameters generates a new random IV
+            encryptCipher.init(Cipher.ENCRYPT_MODE, throwCipherClosedIfNull(key));
+            return encryptCipher;
+        }
+        catch (GeneralSecurityException e) {
+            throw new PrestoException(GENERIC_INTERNAL_ERROR, "Failed to initialize spill cipher for encryption: " + e.getMessage(), e);
         }
-        return value;
     }
 
-    private static Cipher createEncryptCipher(SecretKey key)
+    @GuardedBy("decryptLock")
+    private Cipher initDecryptCipher(IvParameterSpec iv)
     {
-        Cipher cipher = createUninitializedCipher();
+        if (decryptCipher == null) {
+            decryptCipher = createUninitializedCipher();
+        }
         try {
-            cipher.init(Cipher.ENCRYPT_MODE, throwCipherClosedIfNull(key));
-            return cipher;
+            decryptCipher.init(Cipher.DECRYPT_MODE, throwCipherClosedIfNull(key), iv);
+            return decryptCipher;
         }
         catch (GeneralSecurityException e) {
-            throw new PrestoException(GENERIC_INTERNAL_ERROR, "Failed to initialize spill cipher for encryption: " + e.getMessage(), e);
+            throw new PrestoException(GENERIC_INTERNAL_ERROR, "Failed to initialize spill cipher for decryption: " + e.getMessage(), e);
         }
     }
 
-    private static Cipher createDecryptCipher(SecretKey key, IvParameterSpec iv)
+    private static <T> T throwCipherClosedIfNull(T value)
+    {
+        if (value == null) {
+            throw new PrestoException(GENERIC_INTERNAL_ERROR, "Spill cipher already closed");
+        }
+        return value;
+    }
+
+    private static Cipher createEncryptCipher(SecretKey key)
     {
         Cipher cipher = createUninitializedCipher();
         try {
-            cipher.init(Cipher.DECRYPT_MODE, throwCipherClosedIfNull(key), iv);
+            cipher.init(Cipher.ENCRYPT_MODE, throwCipherClosedIfNull(key));
             return cipher;
         }
         catch (GeneralSecurityException e) {
-            throw new PrestoException(GENERIC_INTERNAL_ERROR, "Failed to initialize spill cipher for decryption: " + e.getMessage(), e);
+            throw new PrestoException(GENERIC_INTERNAL_ERROR, "Failed to initialize spill cipher for encryption: " + e.getMessage(), e);
         }
     }
 
@@ -40,16 +40,20 @@ import java.io.InputStream;
 import java.io.UncheckedIOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Optional;
 
+import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkState;
 import static io.hetu.core.transport.execution.buffer.PagesSerdeUtil.writeSerializedPage;
 import static io.prestosql.spi.StandardErrorCode.GENERIC_INTERNAL_ERROR;
 import static io.prestosql.spiller.FileSingleStreamSpillerFactory.SPILL_FILE_PREFIX;
 import static io.prestosql.spiller.FileSingleStreamSpillerFactory.SPILL_FILE_SUFFIX;
 import static java.nio.file.StandardOpenOption.APPEND;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.WRITE;
 import static java.util.Objects.requireNonNull;
 
 @NotThreadSafe
@@ -59,7 +63,8 @@ public class FileSingleStreamSpiller
     @VisibleForTesting
     static final int BUFFER_SIZE = 4 * 1024;
 
-    private final FileHolder targetFile;
+    // pages are striped round robin across the files, which are on different spill paths
+    private final List<FileHolder> targetFiles;
     private final Closer closer = Closer.create();
     private final PagesSerde serde;
     private final SpillerStats spillerStats;
@@ -67,15 +72,20 @@ public class FileSingleStreamSpiller
     private final LocalMemoryContext memoryContext;
 
     private final ListeningExecutorService executor;
+    private final ListeningExecutorService ioExecutor;
+    private final SpillBufferPool bufferPool;
 
     private boolean writable = true;
     private long spilledPagesInMemorySize;
+    private int nextStripe;
     private ListenableFuture<?> spillInProgress = Futures.immediateFuture(null);
 
     public FileSingleStreamSpiller(
             PagesSerde serde,
             ListeningExecutorService executor,
-            Path spillPath,
+            ListeningExecutorService ioExecutor,
+            SpillBufferPool bufferPool,
+            List<Path> spillPaths,
             SpillerStats spillerStats,
             SpillContext spillContext,
             LocalMemoryContext memoryContext,
@@ -83,6 +93,9 @@ public class FileSingleStreamSpiller
     {
         this.serde = requireNonNull(serde, "serde is null");
         this.executor = requireNonNull(executor, "executor is null");
+        this.ioExecutor = requireNonNull(ioExecutor, "ioExecutor is null");
+        this.bufferPool = requireNonNull(bufferPool, "bufferPool is null");
+        checkArgument(!requireNonNull(spillPaths, "spillPaths is null").isEmpty(), "spillPaths is empty");
         this.spillerStats = requireNonNull(spillerStats, "spillerStats is null");
         this.localSpillContext = spillContext.newLocalSpillContext();
         this.memoryContext = requireNonNull(memoryContext, "memoryContext is null");
@@ -99,9 +112,14 @@ public class FileSingleStreamSpiller
         // This means we start accounting for the memory before the spiller thread allocates it, and we release the memory reservation
         // before/after the spiller thread allocates that memory -- -- whether before or after depends on whether writePages() is in the
         // middle of execution when close() is called (note that this applies to both readPages() and writePages() methods).
-        this.memoryContext.setBytes(BUFFER_SIZE);
+        // Every stripe holds a slice buffer and two direct buffers of the pool while it is written or read.
+        this.memoryContext.setBytes(spillPaths.size() * getStripeMemoryInBytes(bufferPool));
         try {
-            this.targetFile = closer.register(new FileHolder(Files.createTempFile(spillPath, SPILL_FILE_PREFIX, SPILL_FILE_SUFFIX)));
+            ImmutableList.Builder<FileHolder> files = ImmutableList.builder();
+            for (Path spillPath : spillPaths) {
+                files.add(closer.register(new FileHolder(Files.createTempFile(spillPath, SPILL_FILE_PREFIX, SPILL_FILE_SUFFIX))));
+            }
+            this.targetFiles = files.build();
         }
         catch (IOException e) {
             throw new PrestoException(GENERIC_INTERNAL_ERROR, "Failed to create spill file", e);
@@ -139,7 +157,12 @@ public class FileSingleStreamSpiller
     private void writePages(Iterator<Page> pageIterator)
     {
         checkState(writable, "Spilling no longer allowed. The spiller has been made non-writable on first read for subsequent reads to be consistent");
-        try (SliceOutput output = new OutputStreamSliceOutput(targetFile.newOutputStream(APPEND), BUFFER_SIZE)) {
+        try (Closer outputs = Closer.create()) {
+            List<SliceOutput> stripes = new ArrayList<>(targetFiles.size());
+            for (FileHolder targetFile : targetFiles) {
+                SpillFileOutputStream output = new SpillFileOutputStream(targetFile.newChannel(WRITE, APPEND), ioExecutor, bufferPool);
+                stripes.add(outputs.register(new OutputStreamSliceOutput(output, BUFFER_SIZE)));
+            }
             while (pageIterator.hasNext()) {
                 Page page = pageIterator.next();
                 spilledPagesInMemorySize += page.getSizeInBytes();
@@ -147,7 +170,8 @@ public class FileSingleStreamSpiller
                 long pageSize = serializedPage.getSizeInBytes();
                 localSpillContext.updateBytes(pageSize);
                 spillerStats.addToTotalSpilledBytes(pageSize);
-                writeSerializedPage(output, serializedPage);
+                writeSerializedPage(stripes.get(nextStripe), serializedPage);
+                nextStripe = (nextStripe + 1) % stripes.size();
             }
         }
         catch (UncheckedIOException | IOException e) {
@@ -161,9 +185,13 @@ public class FileSingleStreamSpiller
         writable = false;
 
         try {
-            InputStream input = closer.register(targetFile.newInputStream());
-            Iterator<Page> pages = PagesSerdeUtil.readPages(serde, new InputStreamSliceInput(input, BUFFER_SIZE));
-            return closeWhenExhausted(pages, input);
+            Closer inputs = closer.register(Closer.create());
+            List<Iterator<Page>> stripes = new ArrayList<>(targetFiles.size());
+            for (FileHolder targetFile : targetFiles) {
+                InputStream input = inputs.register(new SpillFileInputStream(targetFile.newChannel(READ), ioExecutor, bufferPool));
+                stripes.add(PagesSerdeUtil.readPages(serde, new InputStreamSliceInput(input, BUFFER_SIZE)));
+            }
+            return closeWhenExhausted(interleave(stripes), inputs);
         }
         catch (IOException e) {
             throw new PrestoException(GENERIC_INTERNAL_ERROR, "Failed to read spilled pages", e);
@@ -188,6 +216,34 @@ public class FileSingleStreamSpiller
         checkState(spillInProgress.isDone(), "spill in progress");
     }
 
+    private static long getStripeMemoryInBytes(SpillBufferPool bufferPool)
+    {
+        return BUFFER_SIZE + 2L * bufferPool.getBufferSize();
+    }
+
+    /**
+     * Reads the stripes in the round robin order the pages were written in,
+     * the stream ends with the first stripe that has no page left.
+     */
+    private static <T> Iterator<T> interleave(List<Iterator<T>> stripes)
+    {
+        return new AbstractIterator<T>()
+        {
+            private int next;
+
+            @Override
+            protected T computeNext()
+            {
+                Iterator<T> stripe = stripes.get(next);
+                if (!stripe.hasNext()) {
+                    return endOfData();
+                }
+                next = (next + 1) % stripes.size();
+                return stripe.next();
+            }
+        };
+    }
+
     private static <T> Iterator<T> closeWhenExhausted(Iterator<T> iterator, Closeable resource)
     {
         requireNonNull(iterator, "iterator is null");
@@ -18,8 +18,8 @@ import com.google.common.collect.ImmutableList;
 import com.google.common.util.concurrent.ListeningExecutorService;
 import com.google.inject.Inject;
 import io.airlift.log.Logger;
+import io.airlift.units.DataSize;
 import io.hetu.core.transport.execution.buffer.PagesSerde;
-import io.hetu.core.transport.execution.buffer.PagesSerdeFactory;
 import io.prestosql.memory.context.LocalMemoryContext;
 import io.prestosql.metadata.Metadata;
 import io.prestosql.operator.SpillContext;
@@ -36,18 +36,22 @@ import java.io.IOException;
 import java.nio.file.DirectoryStream;
 import java.nio.file.FileStore;
 import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 
+import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.util.concurrent.MoreExecutors.listeningDecorator;
 import static io.airlift.concurrent.Threads.daemonThreadsNamed;
 import static io.prestosql.spi.StandardErrorCode.OUT_OF_SPILL_SPACE;
+import static java.lang.Math.toIntExact;
 import static java.lang.String.format;
 import static java.nio.file.Files.createDirectories;
 import static java.nio.file.Files.delete;
 import static java.nio.file.Files.getFileStore;
 import static java.nio.file.Files.newDirectoryStream;
 import static java.util.Objects.requireNonNull;
+import static java.util.concurrent.Executors.newCachedThreadPool;
 import static java.util.concurrent.Executors.newFixedThreadPool;
 
 public class FileSingleStreamSpillerFactory
@@ -60,13 +64,22 @@ public class FileSingleStreamSpillerFactory
     @VisibleForTesting
     static final String SPILL_FILE_SUFFIX = ".bin";
     private static final String SPILL_FILE_GLOB = "spill*.bin";
+    @VisibleForTesting
+    static final DataSize DEFAULT_IO_BUFFER_SIZE = new DataSize(64, DataSize.Unit.KILOBYTE);
+    // direct buffers retained by the pool for each spiller thread
+    private static final int POOLED_BUFFERS_PER_THREAD = 8;
 
     private final ListeningExecutorService executor;
-    private final PagesSerdeFactory serdeFactory;
+    private final ListeningExecutorService ioExecutor;
+    private final BlockEncodingSerde blockEncodingSerde;
     private final List<Path> spillPaths;
     private final SpillerStats spillerStats;
     private final double maxUsedSpaceThreshold;
+    private final boolean spillCompressionEnabled;
+    private final SpillCompressionCodec spillCompressionCodec;
     private final boolean spillEncryptionEnabled;
+    private final int spillerStripes;
+    private final SpillBufferPool bufferPool;
     private int roundRobinIndex;
 
     @Inject
@@ -76,12 +89,18 @@ public class FileSingleStreamSpillerFactory
                 listeningDecorator(newFixedThreadPool(
                         requireNonNull(featuresConfig, "featuresConfig is null").getSpillerThreads(),
                         daemonThreadsNamed("binary-spiller-%s"))),
+                // writes and read aheads are waited for by the spiller threads, they must not queue behind them
+                listeningDecorator(newCachedThreadPool(daemonThreadsNamed("binary-spiller-io-%s"))),
                 requireNonNull(metadata, "metadata is null").getBlockEncodingSerde(),
                 spillerStats,
                 requireNonNull(featuresConfig, "featuresConfig is null").getSpillerSpillPaths(),
                 requireNonNull(featuresConfig, "featuresConfig is null").getSpillMaxUsedSpaceThreshold(),
                 requireNonNull(nodeSpillConfig, "nodeSpillConfig is null").isSpillCompressionEnabled(),
-                requireNonNull(nodeSpillConfig, "nodeSpillConfig is null").isSpillEncryptionEnabled());
+                requireNonNull(nodeSpillConfig, "nodeSpillConfig is null").getSpillCompressionCodec(),
+                requireNonNull(nodeSpillConfig, "nodeSpillConfig is null").isSpillEncryptionEnabled(),
+                requireNonNull(featuresConfig, "featuresConfig is null").getSpillerStripes(),
+                requireNonNull(featuresConfig, "featuresConfig is null").getSpillerIoBufferSize(),
+                requireNonNull(featuresConfig, "featuresConfig is null").getSpillerThreads() * POOLED_BUFFERS_PER_THREAD);
     }
 
     @VisibleForTesting
@@ -94,8 +113,41 @@ public class FileSingleStreamSpillerFactory
             boolean spillCompressionEnabled,
             boolean spillEncryptionEnabled)
     {
-        this.serdeFactory = new PagesSerdeFactory(blockEncodingSerde, spillCompressionEnabled);
+        // the executor also runs the spill file writes and read aheads, so it must not be bounded
+        this(
+                executor,
+                executor,
+                blockEncodingSerde,
+                spillerStats,
+                spillPaths,
+                maxUsedSpaceThreshold,
+                spillCompressionEnabled,
+                SpillCompressionCodec.ZSTD,
+                spillEncryptionEnabled,
+                1,
+                DEFAULT_IO_BUFFER_SIZE,
+                POOLED_BUFFERS_PER_THREAD);
+    }
+
+    @VisibleForTesting
+    public FileSingleStreamSpillerFactory(
+            ListeningExecutorService executor,
+            ListeningExecutorService ioExecutor,
+            BlockEncodingSerde blockEncodingSerde,
+            SpillerStats spillerStats,
+            List<Path> spillPaths,
+            double maxUsedSpaceThreshold,
+            boolean spillCompressionEnabled,
+            SpillCompressionCodec spillCompressionCodec,
+            boolean spillEncryptionEnabled,
+            int spillerStripes,
+            DataSize ioBufferSize,
+            int maxPooledBuffers)
+    {
+        checkArgument(spillerStripes > 0, "spillerStripes must be positive");
+        this.blockEncodingSerde = requireNonNull(blockEncodingSerde, "blockEncodingSerde is null");
         this.executor = requireNonNull(executor, "executor is null");
+        this.ioExecutor = requireNonNull(ioExecutor, "ioExecutor is null");
         this.spillerStats = requireNonNull(spillerStats, "spillerStats can not be null");
         requireNonNull(spillPaths, "spillPaths is null");
         this.spillPaths = ImmutableList.copyOf(spillPaths);
@@ -113,7 +165,11 @@ public class FileSingleStreamSpillerFactory
             }
         });
         this.maxUsedSpaceThreshold = maxUsedSpaceThreshold;
+        this.spillCompressionEnabled = spillCompressionEnabled;
+        this.spillCompressionCodec = requireNonNull(spillCompressionCodec, "spillCompressionCodec is null");
         this.spillEncryptionEnabled = spillEncryptionEnabled;
+        this.spillerStripes = spillerStripes;
+        this.bufferPool = new SpillBufferPool(toIntExact(requireNonNull(ioBufferSize, "ioBufferSize is null").toBytes()), maxPooledBuffers);
         this.roundRobinIndex = 0;
     }
 
@@ -127,6 +183,7 @@ public class FileSingleStreamSpillerFactory
     public void destroy()
     {
         executor.shutdownNow();
+        ioExecutor.shutdownNow();
     }
 
     private static void cleanupOldSpillFiles(Path path)
@@ -154,21 +211,38 @@ public class FileSingleStreamSpillerFactory
         if (spillEncryptionEnabled) {
             spillCipher = Optional.of(new AesSpillCipher());
         }
-        PagesSerde serde = serdeFactory.createPagesSerdeForSpill(spillCipher);
-        return new FileSingleStreamSpiller(serde, executor, getNextSpillPath(), spillerStats, spillContext, memoryContext, spillCipher);
+        PagesSerde serde = createPagesSerde(spillCipher);
+        return new FileSingleStreamSpiller(serde, executor, ioExecutor, bufferPool, getNextSpillPaths(), spillerStats, spillContext, memoryContext, spillCipher);
     }
 
-    private synchronized Path getNextSpillPath()
+    private PagesSerde createPagesSerde(Optional<SpillCipher> spillCipher)
+    {
+        if (spillCompressionEnabled) {
+            return new PagesSerde(blockEncodingSerde, Optional.of(spillCompressionCodec.createCompressor()), Optional.of(spillCompressionCodec.createDecompressor()), spillCipher);
+        }
+        return new PagesSerde(blockEncodingSerde, Optional.empty(), Optional.empty(), spillCipher);
+    }
+
+    /**
+     * Returns up to spillerStripes distinct spill paths with enough free space, in round robin order.
+     */
+    private synchronized List<Path> getNextSpillPaths()
     {
         int spillPathsCount = spillPaths.size();
-        for (int i = 0; i < spillPathsCount; ++i) {
+        List<Path> paths = new ArrayList<>(spillerStripes);
+        int lastIndex = -1;
+        for (int i = 0; i < spillPathsCount && paths.size() < spillerStripes; ++i) {
             int pathIndex = (roundRobinIndex + i) % spillPathsCount;
             Path path = spillPaths.get(pathIndex);
             if (hasEnoughDiskSpace(path)) {
-                roundRobinIndex = (roundRobinIndex + i + 1) % spillPathsCount;
-                return path;
+                paths.add(path);
+                lastIndex = i;
             }
         }
+        if (!paths.isEmpty()) {
+            roundRobinIndex = (roundRobinIndex + lastIndex + 1) % spillPathsCount;
+            return paths;
+        }
         if (spillPaths.isEmpty()) {
             throw new PrestoException(OUT_OF_SPILL_SPACE, "No spill paths configured");
         }
@@ -104,6 +104,15 @@ public class GenericPartitioningSpiller
         verify(spilledPartitions.isEmpty(), "Some partitions were spilled but not read: %s", spilledPartitions);
     }
 
+    @Override
+    public synchronized long getSpilledPagesInMemorySize(int partition)
+    {
+        long bufferedSize = pageBuilders.get(partition).getSizeInBytes();
+        return spillers.get(partition)
+                .map(SingleStreamSpiller::getSpilledPagesInMemorySize)
+                .orElse(0L) + bufferedSize;
+    }
+
     @Override
     public synchronized PartitioningSpillResult partitionAndSpill(Page page, IntPredicate spillPartitionMask)
     {
@@ -24,6 +24,7 @@ public class NodeSpillConfig
     private DataSize queryMaxSpillPerNode = new DataSize(100, DataSize.Unit.GIGABYTE);
 
     private boolean spillCompressionEnabled;
+    private SpillCompressionCodec spillCompressionCodec = SpillCompressionCodec.ZSTD;
     private boolean spillEncryptionEnabled;
 
     @NotNull
@@ -64,6 +65,19 @@ public class NodeSpillConfig
         return this;
     }
 
+    @NotNull
+    public SpillCompressionCodec getSpillCompressionCodec()
+    {
+        return spillCompressionCodec;
+    }
+
+    @Config("experimental.spill-compression-codec")
+    public NodeSpillConfig setSpillCompressionCodec(SpillCompressionCodec spillCompressionCodec)
+    {
+        this.spillCompressionCodec = spillCompressionCodec;
+        return this;
+    }
+
     public boolean isSpillEncryptionEnabled()
     {
         return spillEncryptionEnabled;
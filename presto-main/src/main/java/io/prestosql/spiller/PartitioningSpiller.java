@@ -47,6 +47,11 @@ public interface PartitioningSpiller
 
     void verifyAllPartitionsRead();
 
+    /**
+     * Returns estimated size of pages that were spilled to given partition, if they were to be loaded back into memory.
+     */
+    long getSpilledPagesInMemorySize(int partition);
+
     /**
      * Closes and removes all underlying resources used during spilling.
      */
@@ -0,0 +1,139 @@
+/*
+ * Copyright (C) 2018-2020. Huawei Technologies Co., Ltd. All rights reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.spiller;
+
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListeningExecutorService;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+import static com.google.common.util.concurrent.Futures.getChecked;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Reads a spill file through two direct buffers: while the caller consumes one buffer,
+ * the next part of the file is read ahead into the other one on the I/O executor.
+ */
+class SpillFileInputStream
+        extends InputStream
+{
+    private final FileChannel channel;
+    private final ListeningExecutorService ioExecutor;
+    private final SpillBufferPool bufferPool;
+
+    private ByteBuffer buffer;
+    private ListenableFuture<ByteBuffer> pendingRead;
+    private boolean endOfFile;
+    private boolean closed;
+
+    SpillFileInputStream(FileChannel channel, ListeningExecutorService ioExecutor, SpillBufferPool bufferPool)
+    {
+        this.ioExecutor = requireNonNull(ioExecutor, "ioExecutor is null");
+        this.bufferPool = requireNonNull(bufferPool, "bufferPool is null");
+        this.channel = requireNonNull(channel, "channel is null");
+        this.buffer = bufferPool.acquire();
+        buffer.limit(0);
+        this.pendingRead = readAhead(bufferPool.acquire());
+    }
+
+    @Override
+    public int read()
+            throws IOException
+    {
+        if (!buffer.hasRemaining() && !advance()) {
+            return -1;
+        }
+        return buffer.get() & 0xFF;
+    }
+
+    @Override
+    public int read(byte[] destination, int offset, int length)
+            throws IOException
+    {
+        if (length == 0) {
+            return 0;
+        }
+        if (!buffer.hasRemaining() && !advance()) {
+            return -1;
+        }
+        int chunk = Math.min(length, buffer.remaining());
+        buffer.get(destination, offset, chunk);
+        return chunk;
+    }
+
+    @Override
+    public int available()
+    {
+        return buffer.remaining();
+    }
+
+    @Override
+    public void close()
+            throws IOException
+    {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            // the buffer of the read ahead can only be reused once the read is done
+            pendingRead.cancel(false);
+            if (!pendingRead.isCancelled()) {
+                bufferPool.release(getChecked(pendingRead, IOException.class));
+            }
+        }
+        finally {
+            try {
+                channel.close();
+            }
+            finally {
+                bufferPool.release(buffer);
+            }
+        }
+    }
+
+    private boolean advance()
+            throws IOException
+    {
+        if (endOfFile) {
+            return false;
+        }
+        ByteBuffer next = getChecked(pendingRead, IOException.class);
+        if (!next.hasRemaining()) {
+            // the completed read keeps holding the empty buffer until the stream is closed
+            endOfFile = true;
+            return false;
+        }
+        pendingRead = readAhead(buffer);
+        buffer = next;
+        return true;
+    }
+
+    private ListenableFuture<ByteBuffer> readAhead(ByteBuffer target)
+    {
+        return ioExecutor.submit(() -> {
+            target.clear();
+            int bytes = 0;
+            while (target.hasRemaining() && bytes >= 0) {
+                bytes = channel.read(target);
+            }
+            target.flip();
+            return target;
+        });
+    }
+}
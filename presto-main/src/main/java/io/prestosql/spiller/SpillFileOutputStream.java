@@ -0,0 +1,130 @@
+/*
+ * Copyright (C) 2018-2020. Huawei Technologies Co., Ltd. All rights reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.spiller;
+
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListeningExecutorService;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+import static com.google.common.util.concurrent.Futures.getChecked;
+import static com.google.common.util.concurrent.Futures.immediateFuture;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Appends to a spill file through two direct buffers: while one buffer is written to the file
+ * on the I/O executor, the caller fills the other one.
+ */
+class SpillFileOutputStream
+        extends OutputStream
+{
+    private final FileChannel channel;
+    private final ListeningExecutorService ioExecutor;
+    private final SpillBufferPool bufferPool;
+
+    private ByteBuffer buffer;
+    private ByteBuffer writeBuffer;
+    private ListenableFuture<?> pendingWrite = immediateFuture(null);
+    private boolean closed;
+
+    SpillFileOutputStream(FileChannel channel, ListeningExecutorService ioExecutor, SpillBufferPool bufferPool)
+    {
+        this.ioExecutor = requireNonNull(ioExecutor, "ioExecutor is null");
+        this.bufferPool = requireNonNull(bufferPool, "bufferPool is null");
+        this.channel = requireNonNull(channel, "channel is null");
+        this.buffer = bufferPool.acquire();
+        this.writeBuffer = bufferPool.acquire();
+    }
+
+    @Override
+    public void write(int b)
+            throws IOException
+    {
+        buffer.put((byte) b);
+        if (!buffer.hasRemaining()) {
+            writeBehind();
+        }
+    }
+
+    @Override
+    public void write(byte[] source, int offset, int length)
+            throws IOException
+    {
+        while (length > 0) {
+            int chunk = Math.min(length, buffer.remaining());
+            buffer.put(source, offset, chunk);
+            offset += chunk;
+            length -= chunk;
+            if (!buffer.hasRemaining()) {
+                writeBehind();
+            }
+        }
+    }
+
+    @Override
+    public void close()
+            throws IOException
+    {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            if (buffer.position() > 0) {
+                writeBehind();
+            }
+            awaitPendingWrite();
+        }
+        finally {
+            try {
+                channel.close();
+            }
+            finally {
+                // a failed write may still be running, its buffer is not reused
+                if (pendingWrite.isDone()) {
+                    bufferPool.release(writeBuffer);
+                }
+                bufferPool.release(buffer);
+            }
+        }
+    }
+
+    private void writeBehind()
+            throws IOException
+    {
+        // the previous write has to complete before its buffer is filled again
+        awaitPendingWrite();
+        ByteBuffer full = buffer;
+        full.flip();
+        buffer = writeBuffer;
+        buffer.clear();
+        writeBuffer = full;
+        pendingWrite = ioExecutor.submit(() -> {
+            while (full.hasRemaining()) {
+                channel.write(full);
+            }
+            return null;
+        });
+    }
+
+    private void awaitPendingWrite()
+            throws IOException
+    {
+        getChecked(pendingWrite, IOException.class);
+    }
+}
@@ -22,6 +22,7 @@ import io.airlift.configuration.DefunctConfig;
 import io.airlift.units.DataSize;
 import io.airlift.units.Duration;
 import io.airlift.units.MaxDataSize;
+import io.hetu.core.transport.execution.buffer.PageCompressionCodec;
 import io.prestosql.operator.aggregation.arrayagg.ArrayAggGroupImplementation;
 import io.prestosql.operator.aggregation.histogram.HistogramGroupImplementation;
 import io.prestosql.operator.aggregation.multimapagg.MultimapAggGroupImplementation;
@@ -93,6 +94,8 @@ public class FeaturesConfig
     private boolean pushLimitThroughSemiJoin = true;
     private boolean pushLimitThroughOuterJoin = true;
     private boolean exchangeCompressionEnabled;
+    private PageCompressionCodec exchangeCompressionCodec = PageCompressionCodec.ZSTD;
+    private double exchangeMinCompressionRatio = 0.8;
     private boolean legacyTimestamp = true;
     private boolean optimizeMixedDistinctAggregations;
     private boolean unwrapCasts = true;
@@ -115,8 +118,13 @@ public class FeaturesConfig
     private boolean spillOrderBy = true;
     private boolean spillWindowOperator = true;
     private DataSize aggregationOperatorUnspillMemoryLimit = new DataSize(4, DataSize.Unit.MEGABYTE);
+    private boolean spillJoinRepartition;
+    private DataSize joinOperatorUnspillMemoryLimit = new DataSize(256, DataSize.Unit.MEGABYTE);
+    private int joinSpillMaxRecursionDepth = 3;
     private List<Path> spillerSpillPaths = ImmutableList.of();
     private int spillerThreads = 4;
+    private int spillerStripes = 1;
+    private DataSize spillerIoBufferSize = new DataSize(64, KILOBYTE);
     private double spillMaxUsedSpaceThreshold = 0.9;
     private boolean iterativeOptimizerEnabled = true;
     private boolean enableStatsCalculator = true;
@@ -140,6 +148,8 @@ public class FeaturesConfig
     private DynamicFilterDataType dynamicFilteringDataType = BLOOM_FILTER;
     private DataSize dynamicFilteringMaxPerDriverSize = new DataSize(10, KILOBYTE);
     private double dynamicFilteringBloomFilterFpp = 0.1D;
+    private int dynamicFilteringMergeThreads = 4;
+    private long dynamicFilteringWaitMinProbeRows = 1_000_000;
     // enable or disable execution plan cache functionality via Session properties
     private boolean enableExecutionPlanCache = true;
 
@@ -742,6 +752,46 @@ public class FeaturesConfig
         return this;
     }
 
+    public boolean isSpillJoinRepartition()
+    {
+        return spillJoinRepartition;
+    }
+
+    @Config("experimental.spill-join-repartition")
+    @ConfigDescription("Repartition spilled join partitions larger than experimental.join-operator-unspill-memory-limit instead of unspilling them at once")
+    public FeaturesConfig setSpillJoinRepartition(boolean spillJoinRepartition)
+    {
+        this.spillJoinRepartition = spillJoinRepartition;
+        return this;
+    }
+
+    public DataSize getJoinOperatorUnspillMemoryLimit()
+    {
+        return joinOperatorUnspillMemoryLimit;
+    }
+
+    @Config("experimental.join-operator-unspill-memory-limit")
+    @ConfigDescription("Spilled join partitions larger than this are repartitioned, or joined block by block, instead of being unspilled at once")
+    public FeaturesConfig setJoinOperatorUnspillMemoryLimit(DataSize joinOperatorUnspillMemoryLimit)
+    {
+        this.joinOperatorUnspillMemoryLimit = joinOperatorUnspillMemoryLimit;
+        return this;
+    }
+
+    @Min(0)
+    public int getJoinSpillMaxRecursionDepth()
+    {
+        return joinSpillMaxRecursionDepth;
+    }
+
+    @Config("experimental.join-spill-max-recursion-depth")
+    @ConfigDescription("How many times an oversized spilled join partition may be recursively repartitioned")
+    public FeaturesConfig setJoinSpillMaxRecursionDepth(int joinSpillMaxRecursionDepth)
+    {
+        this.joinSpillMaxRecursionDepth = joinSpillMaxRecursionDepth;
+        return this;
+    }
+
     public List<Path> getSpillerSpillPaths()
     {
         return spillerSpillPaths;
@@ -774,6 +824,35 @@ public class FeaturesConfig
         return this;
     }
 
+    @Min(1)
+    public int getSpillerStripes()
+    {
+        return spillerStripes;
+    }
+
+    @Config("experimental.spiller-stripes")
+    @ConfigDescription("Number of spill paths the pages of a single spill file are striped across")
+    public FeaturesConfig setSpillerStripes(int spillerStripes)
+    {
+        this.spillerStripes = spillerStripes;
+        return this;
+    }
+
+    @NotNull
+    @MaxDataSize("16MB")
+    public DataSize getSpillerIoBufferSize()
+    {
+        return spillerIoBufferSize;
+    }
+
+    @Config("experimental.spiller-io-buffer-size")
+    @ConfigDescription("Size of the direct buffers used to write and read ahead spill files")
+    public FeaturesConfig setSpillerIoBufferSize(DataSize spillerIoBufferSize)
+    {
+        this.spillerIoBufferSize = spillerIoBufferSize;
+        return this;
+    }
+
     @DecimalMin("0.0")
     @DecimalMax("1.0")
     public double getMemoryRevokingThreshold()
@@ -876,6 +955,34 @@ public class FeaturesConfig
         return this;
     }
 
+    @Min(1)
+    public int getDynamicFilteringMergeThreads()
+    {
+        return dynamicFilteringMergeThreads;
+    }
+
+    @Config("dynamic-filtering-merge-threads")
+    @ConfigDescription("Number of coordinator threads merging partial dynamic filters, partitioned by filter ID")
+    public FeaturesConfig setDynamicFilteringMergeThreads(int dynamicFilteringMergeThreads)
+    {
+        this.dynamicFilteringMergeThreads = dynamicFilteringMergeThreads;
+        return this;
+    }
+
+    @Min(0)
+    public long getDynamicFilteringWaitMinProbeRows()
+    {
+        return dynamicFilteringWaitMinProbeRows;
+    }
+
+    @Config("dynamic-filtering-wait-min-probe-rows")
+    @ConfigDescription("Table scans estimated to produce fewer rows start without waiting for dynamic filters")
+    public FeaturesConfig setDynamicFilteringWaitMinProbeRows(long dynamicFilteringWaitMinProbeRows)
+    {
+        this.dynamicFilteringWaitMinProbeRows = dynamicFilteringWaitMinProbeRows;
+        return this;
+    }
+
     /**
      * Presto can only cache execution plans for supported connectors.
      * This method checks if the session property for enabled execution plan caching
@@ -928,6 +1035,35 @@ public class FeaturesConfig
         return this;
     }
 
+    @NotNull
+    public PageCompressionCodec getExchangeCompressionCodec()
+    {
+        return exchangeCompressionCodec;
+    }
+
+    @Config("exchange.compression-codec")
+    @ConfigDescription("Codec used to compress exchanged pages when exchange compression is enabled. LZ4 requires all nodes to support it")
+    public FeaturesConfig setExchangeCompressionCodec(PageCompressionCodec exchangeCompressionCodec)
+    {
+        this.exchangeCompressionCodec = exchangeCompressionCodec;
+        return this;
+    }
+
+    @DecimalMin(value = "0.0", inclusive = false)
+    @DecimalMax("1.0")
+    public double getExchangeMinCompressionRatio()
+    {
+        return exchangeMinCompressionRatio;
+    }
+
+    @Config("exchange.min-compression-ratio")
+    @ConfigDescription("Exchanged pages are sent uncompressed unless compression shrinks them to this ratio of their size")
+    public FeaturesConfig setExchangeMinCompressionRatio(double exchangeMinCompressionRatio)
+    {
+        this.exchangeMinCompressionRatio = exchangeMinCompressionRatio;
+        return this;
+    }
+
     public boolean isEnableIntermediateAggregations()
     {
         return enableIntermediateAggregations;
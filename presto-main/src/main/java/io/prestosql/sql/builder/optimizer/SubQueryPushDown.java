@@ -18,6 +18,9 @@ import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import io.airlift.log.Logger;
 import io.prestosql.Session;
+import io.prestosql.cost.CachingStatsProvider;
+import io.prestosql.cost.StatsCalculator;
+import io.prestosql.cost.StatsProvider;
 import io.prestosql.execution.warnings.WarningCollector;
 import io.prestosql.metadata.Metadata;
 import io.prestosql.metadata.TableHandle;
@@ -60,21 +63,37 @@ import java.util.Stack;
 import java.util.WeakHashMap;
 
 import static io.prestosql.sql.planner.plan.ChildReplacer.replaceChildren;
+import static java.lang.Double.isNaN;
 import static java.util.Objects.requireNonNull;
 
 /**
  * Legacy optimizer to push sub-query with join down to the connector.
+ * <p>
+ * If a {@link StatsCalculator} is given, a sub-tree is only pushed down if the estimated size of its output
+ * is not much larger than the estimated output of its sources. Otherwise the sources are pushed down on their
+ * own and the sub-tree is executed by Hetu, for example a join multiplying the rows of its sources.
  */
 public class SubQueryPushDown
         implements PlanOptimizer
 {
     private static final Logger logger = Logger.get(SubQueryPushDown.class);
 
+    // remote execution saves local work, so a sub-tree is still pushed down if its output is a little larger
+    private static final double MAX_OUTPUT_GROWTH = 1.2;
+
     private final Metadata metadata;
+    private final Optional<StatsCalculator> statsCalculator;
 
     public SubQueryPushDown(Metadata metadata)
     {
         this.metadata = metadata;
+        this.statsCalculator = Optional.empty();
+    }
+
+    public SubQueryPushDown(Metadata metadata, StatsCalculator statsCalculator)
+    {
+        this.metadata = metadata;
+        this.statsCalculator = Optional.of(requireNonNull(statsCalculator, "statsCalculator is null"));
     }
 
     @Override
@@ -87,7 +106,8 @@ public class SubQueryPushDown
         requireNonNull(symbolAllocator, "symbolAllocator is null");
         requireNonNull(idAllocator, "idAllocator is null");
 
-        return SimplePlanRewriter.rewriteWith(new OptimizedPlanRewriter(session, metadata, symbolAllocator, idAllocator, types), plan);
+        Optional<StatsProvider> statsProvider = statsCalculator.map(calculator -> new CachingStatsProvider(calculator, session, types));
+        return SimplePlanRewriter.rewriteWith(new OptimizedPlanRewriter(session, metadata, symbolAllocator, idAllocator, types, statsProvider), plan);
     }
 
     private static class OptimizedPlanRewriter
@@ -107,8 +127,10 @@ public class SubQueryPushDown
 
         private final TypeProvider typeProvider;
 
+        private final Optional<StatsProvider> statsProvider;
+
         private OptimizedPlanRewriter(Session session, Metadata metadata, SymbolAllocator symbolAllocator, PlanNodeIdAllocator idAllocator,
-                TypeProvider typeProvider)
+                TypeProvider typeProvider, Optional<StatsProvider> statsProvider)
         {
             this.session = session;
             this.metadata = metadata;
@@ -116,6 +138,7 @@ public class SubQueryPushDown
             this.symbolAllocator = symbolAllocator;
             this.idAllocator = idAllocator;
             this.typeProvider = typeProvider;
+            this.statsProvider = statsProvider;
         }
 
         @Override
@@ -219,7 +242,11 @@ public class SubQueryPushDown
             // Build SQL query from the sub-tree
             Optional<SqlQueryBuilder.Result> builderResult = sqlQueryBuilder.build(node);
 
-            if (builderResult.isPresent()) {
+            if (builderResult.isPresent() && !isPushDownCheaper(node)) {
+                // push the sources down on their own
+                rewrittenNode = context.defaultRewrite(node, context.get());
+            }
+            else if (builderResult.isPresent()) {
                 Map<String, Type> types = new HashMap<>();
                 for (Symbol symbol : node.getOutputSymbols()) {
                     types.put(symbol.getName().toLowerCase(Locale.ENGLISH), typeProvider.get(symbol));
@@ -254,6 +281,39 @@ public class SubQueryPushDown
             return rewrittenNode;
         }
 
+        /**
+         * Compares the estimated data transferred from the remote database if the sub-tree is pushed down
+         * with the data transferred if only its sources are pushed down. Unknown estimates push the sub-tree down.
+         */
+        private boolean isPushDownCheaper(PlanNode node)
+        {
+            if (!statsProvider.isPresent() || node.getSources().isEmpty()) {
+                return true;
+            }
+            double remoteBytes = getOutputSizeInBytes(node);
+            if (isNaN(remoteBytes)) {
+                return true;
+            }
+            double localBytes = 0;
+            for (PlanNode source : node.getSources()) {
+                double sourceBytes = getOutputSizeInBytes(source);
+                if (isNaN(sourceBytes)) {
+                    return true;
+                }
+                localBytes += sourceBytes;
+            }
+            if (remoteBytes <= localBytes * MAX_OUTPUT_GROWTH) {
+                return true;
+            }
+            logger.debug("Sub-tree %s is not pushed down, estimated output %s bytes exceeds %s bytes of its sources", node.getId(), remoteBytes, localBytes);
+            return false;
+        }
+
+        private double getOutputSizeInBytes(PlanNode node)
+        {
+            return statsProvider.get().getStats(node).getOutputSizeInBytes(node.getOutputSymbols(), typeProvider);
+        }
+
         private Optional<PlanNode> build(PlanNode root, String sql, TableHandle tableHandle,
                 Map<String, Type> types)
         {
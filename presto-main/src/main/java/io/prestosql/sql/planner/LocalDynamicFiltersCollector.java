@@ -14,13 +14,17 @@
 package io.prestosql.sql.planner;
 
 import io.airlift.log.Logger;
+import io.airlift.units.Duration;
 import io.prestosql.Session;
 import io.prestosql.dynamicfilter.DynamicFilterStateStoreListener;
+import io.prestosql.dynamicfilter.DynamicFilterWaitPolicy;
 import io.prestosql.operator.TaskContext;
 import io.prestosql.spi.connector.ColumnHandle;
 import io.prestosql.spi.dynamicfilter.DynamicFilter;
 import io.prestosql.spi.dynamicfilter.DynamicFilterFactory;
+import io.prestosql.spi.statestore.StateCollection;
 import io.prestosql.spi.statestore.StateMap;
+import io.prestosql.spi.statestore.StateStore;
 import io.prestosql.sql.DynamicFilters;
 import io.prestosql.sql.analyzer.FeaturesConfig;
 import io.prestosql.sql.planner.plan.TableScanNode;
@@ -35,8 +39,14 @@ import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 
 import static io.prestosql.SystemSessionProperties.getDynamicFilteringDataType;
+import static io.prestosql.SystemSessionProperties.getDynamicFilteringWaitMinProbeRows;
+import static io.prestosql.SystemSessionProperties.getDynamicFilteringWaitTime;
 import static io.prestosql.SystemSessionProperties.isEnableDynamicFiltering;
 import static io.prestosql.spi.dynamicfilter.DynamicFilter.Type.LOCAL;
+import static io.prestosql.utils.DynamicFilterUtils.FINISHPREFIX;
+import static io.prestosql.utils.DynamicFilterUtils.REGISTERPREFIX;
+import static io.prestosql.utils.DynamicFilterUtils.createKey;
+import static java.lang.Double.NaN;
 import static java.util.Objects.requireNonNull;
 
 public class LocalDynamicFiltersCollector
@@ -55,6 +65,9 @@ public class LocalDynamicFiltersCollector
     private Map<Symbol, Set> predicates = new ConcurrentHashMap<>();
     private Map<String, DynamicFilter> cachedDynamicFilters = new ConcurrentHashMap<>();
     private final String queryId;
+    private final long queryStartMillis;
+    private final Duration waitTime;
+    private final long waitMinProbeRows;
 
     /**
      * Constructor for the LocalDynamicFiltersCollector
@@ -66,6 +79,9 @@ public class LocalDynamicFiltersCollector
         this.stateStoreProvider = requireNonNull(stateStoreProvider, "stateStoreProvider is null");
         this.dynamicFilterDataType = getDynamicFilteringDataType(session);
         this.queryId = session.getQueryId().getId();
+        this.queryStartMillis = session.getStartTime();
+        this.waitTime = getDynamicFilteringWaitTime(session);
+        this.waitMinProbeRows = getDynamicFilteringWaitMinProbeRows(session);
 
         // add StateStoreListeners and remove them when task finishes
         // only when dynamic filtering is enabled
@@ -136,6 +152,48 @@ public class LocalDynamicFiltersCollector
         return result;
     }
 
+    /**
+     * Create the policy deciding how long the drivers of a table scan wait for its dynamic filters
+     *
+     * @param tableScan TableScanNode that has DynamicFilter applied
+     * @param estimatedProbeRows estimated output row count of the table scan, NaN if unknown
+     * @return the wait policy shared by all drivers of the table scan
+     */
+    DynamicFilterWaitPolicy createWaitPolicy(TableScanNode tableScan, double estimatedProbeRows)
+    {
+        return new DynamicFilterWaitPolicy(queryStartMillis, waitTime, estimatedProbeRows, waitMinProbeRows, () -> getBuildProgress(tableScan));
+    }
+
+    /**
+     * The scan can start filtering as soon as any of its dynamic filters is ready,
+     * so the progress is the one of the build side closest to completion.
+     *
+     * @return fraction of build side drivers that finished collecting a dynamic filter of the table scan, NaN if unknown
+     */
+    private double getBuildProgress(TableScanNode tableScan)
+    {
+        StateStore stateStore = stateStoreProvider.getStateStore();
+        if (stateStore == null || context == null) {
+            return NaN;
+        }
+
+        double progress = NaN;
+        for (Symbol symbol : tableScan.getAssignments().keySet()) {
+            String filterId = context.getId(symbol);
+            if (filterId == null) {
+                continue;
+            }
+            StateCollection registered = stateStore.getStateCollection(createKey(REGISTERPREFIX, filterId, queryId));
+            StateCollection finished = stateStore.getStateCollection(createKey(FINISHPREFIX, filterId, queryId));
+            if (registered == null || finished == null || registered.size() == 0) {
+                continue;
+            }
+            double filterProgress = Math.min(1, (double) finished.size() / registered.size());
+            progress = Double.isNaN(progress) ? filterProgress : Math.max(progress, filterProgress);
+        }
+        return progress;
+    }
+
     public void addStateStoreListeners()
     {
         this.stateStoreListeners = new DynamicFilterStateStoreListener(cachedDynamicFilters, queryId, dynamicFilterDataType);
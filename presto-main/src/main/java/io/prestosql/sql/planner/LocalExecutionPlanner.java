@@ -32,6 +32,9 @@ import io.airlift.units.DataSize;
 import io.hetu.core.transport.execution.buffer.PagesSerdeFactory;
 import io.prestosql.Session;
 import io.prestosql.SystemSessionProperties;
+import io.prestosql.cost.PlanNodeStatsEstimate;
+import io.prestosql.cost.StatsAndCosts;
+import io.prestosql.dynamicfilter.DynamicFilterWaitPolicy;
 import io.prestosql.execution.ExplainAnalyzeContext;
 import io.prestosql.execution.StageId;
 import io.prestosql.execution.TaskId;
@@ -235,14 +238,18 @@ import static io.prestosql.SystemSessionProperties.getAggregationOperatorUnspill
 import static io.prestosql.SystemSessionProperties.getDynamicFilteringDataType;
 import static io.prestosql.SystemSessionProperties.getDynamicFilteringMaxPerDriverSize;
 import static io.prestosql.SystemSessionProperties.getDynamicFilteringMaxPerDriverValueCount;
+import static io.prestosql.SystemSessionProperties.getExchangeCompressionCodec;
+import static io.prestosql.SystemSessionProperties.getExchangeMinCompressionRatio;
 import static io.prestosql.SystemSessionProperties.getFilterAndProjectMinOutputPageRowCount;
 import static io.prestosql.SystemSessionProperties.getFilterAndProjectMinOutputPageSize;
+import static io.prestosql.SystemSessionProperties.getJoinOperatorUnspillMemoryLimit;
+import static io.prestosql.SystemSessionProperties.getJoinSpillMaxRecursionDepth;
 import static io.prestosql.SystemSessionProperties.getTaskConcurrency;
 import static io.prestosql.SystemSessionProperties.getTaskWriterCount;
 import static io.prestosql.SystemSessionProperties.isCrossRegionDynamicFilterEnabled;
 import static io.prestosql.SystemSessionProperties.isEnableDynamicFiltering;
-import static io.prestosql.SystemSessionProperties.isExchangeCompressionEnabled;
 import static io.prestosql.SystemSessionProperties.isSpillEnabled;
+import static io.prestosql.SystemSessionProperties.isSpillJoinRepartition;
 import static io.prestosql.SystemSessionProperties.isSpillOrderBy;
 import static io.prestosql.SystemSessionProperties.isSpillWindowOperator;
 import static io.prestosql.operator.DistinctLimitOperator.DistinctLimitOperatorFactory;
@@ -385,6 +392,19 @@ public class LocalExecutionPlanner
             StageExecutionDescriptor stageExecutionDescriptor,
             List<PlanNodeId> partitionedSourceOrder,
             OutputBuffer outputBuffer)
+    {
+        return plan(taskContext, plan, types, partitioningScheme, stageExecutionDescriptor, partitionedSourceOrder, outputBuffer, StatsAndCosts.empty());
+    }
+
+    public LocalExecutionPlan plan(
+            TaskContext taskContext,
+            PlanNode plan,
+            TypeProvider types,
+            PartitioningScheme partitioningScheme,
+            StageExecutionDescriptor stageExecutionDescriptor,
+            List<PlanNodeId> partitionedSourceOrder,
+            OutputBuffer outputBuffer,
+            StatsAndCosts statsAndCosts)
     {
         List<Symbol> outputLayout = partitioningScheme.getOutputLayout();
 
@@ -393,7 +413,7 @@ public class LocalExecutionPlanner
                 partitioningScheme.getPartitioning().getHandle().equals(SCALED_WRITER_DISTRIBUTION) ||
                 partitioningScheme.getPartitioning().getHandle().equals(SINGLE_DISTRIBUTION) ||
                 partitioningScheme.getPartitioning().getHandle().equals(COORDINATOR_DISTRIBUTION)) {
-            return plan(taskContext, stageExecutionDescriptor, plan, outputLayout, types, partitionedSourceOrder, new TaskOutputFactory(outputBuffer));
+            return plan(taskContext, stageExecutionDescriptor, plan, outputLayout, types, partitionedSourceOrder, new TaskOutputFactory(outputBuffer), statsAndCosts);
         }
 
         // We can convert the symbols directly into channels, because the root must be a sink and therefore the layout is fixed
@@ -456,7 +476,8 @@ public class LocalExecutionPlanner
                         partitioningScheme.isReplicateNullsAndAny(),
                         nullChannel,
                         outputBuffer,
-                        maxPagePartitioningBufferSize));
+                        maxPagePartitioningBufferSize),
+                statsAndCosts);
     }
 
     public LocalExecutionPlan plan(
@@ -467,6 +488,22 @@ public class LocalExecutionPlanner
             TypeProvider types,
             List<PlanNodeId> partitionedSourceOrder,
             OutputFactory outputOperatorFactory)
+    {
+        return plan(taskContext, stageExecutionDescriptor, plan, outputLayout, types, partitionedSourceOrder, outputOperatorFactory, StatsAndCosts.empty());
+    }
+
+    /**
+     * @param statsAndCosts estimates of the plan fragment, used to tune execution (e.g. dynamic filter waits)
+     */
+    public LocalExecutionPlan plan(
+            TaskContext taskContext,
+            StageExecutionDescriptor stageExecutionDescriptor,
+            PlanNode plan,
+            List<Symbol> outputLayout,
+            TypeProvider types,
+            List<PlanNodeId> partitionedSourceOrder,
+            OutputFactory outputOperatorFactory,
+            StatsAndCosts statsAndCosts)
     {
         Session session = taskContext.getSession();
         LocalExecutionPlanContext context = new LocalExecutionPlanContext(taskContext, types, stateStoreProvider);
@@ -476,7 +513,7 @@ public class LocalExecutionPlanner
             columns = Optional.of(((OutputNode) plan).getColumnNames());
         }
 
-        PhysicalOperation physicalOperation = plan.accept(new Visitor(session, stageExecutionDescriptor, columns), context);
+        PhysicalOperation physicalOperation = plan.accept(new Visitor(session, stageExecutionDescriptor, columns, statsAndCosts), context);
 
         Function<Page, Page> pagePreprocessor = enforceLayoutProcessor(outputLayout, physicalOperation.getLayout());
 
@@ -494,7 +531,7 @@ public class LocalExecutionPlanner
                                 plan.getId(),
                                 outputTypes,
                                 pagePreprocessor,
-                                new PagesSerdeFactory(metadata.getBlockEncodingSerde(), isExchangeCompressionEnabled(session))))
+                                new PagesSerdeFactory(metadata.getBlockEncodingSerde(), getExchangeCompressionCodec(session), getExchangeMinCompressionRatio(session))))
                         .build(),
                 context.getDriverInstanceCount(),
                 physicalOperation.getPipelineExecutionStrategy());
@@ -731,12 +768,14 @@ public class LocalExecutionPlanner
         private final Session session;
         private final StageExecutionDescriptor stageExecutionDescriptor;
         private final Optional<List<String>> outputColumns;  // save outputNode's column names
+        private final StatsAndCosts statsAndCosts;
 
-        private Visitor(Session session, StageExecutionDescriptor stageExecutionDescriptor, Optional<List<String>> outputColumns)
+        private Visitor(Session session, StageExecutionDescriptor stageExecutionDescriptor, Optional<List<String>> outputColumns, StatsAndCosts statsAndCosts)
         {
             this.session = session;
             this.stageExecutionDescriptor = stageExecutionDescriptor;
             this.outputColumns = outputColumns;
+            this.statsAndCosts = requireNonNull(statsAndCosts, "statsAndCosts is null");
         }
 
         @Override
@@ -770,7 +809,7 @@ public class LocalExecutionPlanner
                     context.getNextOperatorId(),
                     node.getId(),
                     exchangeClientSupplier,
-                    new PagesSerdeFactory(metadata.getBlockEncodingSerde(), isExchangeCompressionEnabled(session)),
+                    new PagesSerdeFactory(metadata.getBlockEncodingSerde(), getExchangeCompressionCodec(session), getExchangeMinCompressionRatio(session)),
                     orderingCompiler,
                     types,
                     outputChannels,
@@ -790,7 +829,7 @@ public class LocalExecutionPlanner
                     context.getNextOperatorId(),
                     node.getId(),
                     exchangeClientSupplier,
-                    new PagesSerdeFactory(metadata.getBlockEncodingSerde(), isExchangeCompressionEnabled(session)));
+                    new PagesSerdeFactory(metadata.getBlockEncodingSerde(), getExchangeCompressionCodec(session), getExchangeMinCompressionRatio(session)));
 
             return new PhysicalOperation(operatorFactory, makeLayout(node), context, UNGROUPED_EXECUTION);
         }
@@ -912,7 +951,11 @@ public class LocalExecutionPlanner
                     node.isPartial(),
                     hashChannel,
                     1000,
-                    joinCompiler);
+                    joinCompiler,
+                    pagesIndexFactory,
+                    isSpillEnabled(session) && isSpillWindowOperator(session),
+                    Optional.of(spillerFactory),
+                    orderingCompiler);
 
             return new PhysicalOperation(operatorFactory, makeLayout(node), context, source);
         }
@@ -1276,6 +1319,13 @@ public class LocalExecutionPlanner
 
             // TODO: Execution must be plugged in here
             Supplier<Map<ColumnHandle, DynamicFilter>> dynamicFilterSupplier = getDynamicFilterSupplier(extractDynamicFilterResult, sourceNode, context);
+            Optional<DynamicFilterWaitPolicy> dynamicFilterWaitPolicy = Optional.empty();
+            if (dynamicFilterSupplier != null) {
+                double estimatedProbeRows = Optional.ofNullable(statsAndCosts.getStats().get(sourceNode.getId()))
+                        .map(PlanNodeStatsEstimate::getOutputRowCount)
+                        .orElse(Double.NaN);
+                dynamicFilterWaitPolicy = Optional.of(context.getDynamicFiltersCollector().createWaitPolicy((TableScanNode) sourceNode, estimatedProbeRows));
+            }
 
             List<Expression> projections = new ArrayList<>();
             for (Symbol symbol : outputSymbols) {
@@ -1307,6 +1357,7 @@ public class LocalExecutionPlanner
                             table,
                             columns,
                             dynamicFilterSupplier,
+                            dynamicFilterWaitPolicy,
                             getTypes(projections, expressionTypes),
                             getFilterAndProjectMinOutputPageSize(session),
                             getFilterAndProjectMinOutputPageRowCount(session));
@@ -2212,7 +2263,11 @@ public class LocalExecutionPlanner
                     10_000,
                     pagesIndexFactory,
                     spillEnabled && !buildOuter && taskCount > 1,
-                    singleStreamSpillerFactory);
+                    singleStreamSpillerFactory,
+                    partitioningSpillerFactory,
+                    // partitions are unspilled as a whole unless recursive repartitioning is enabled
+                    isSpillJoinRepartition(context.getSession()) ? getJoinOperatorUnspillMemoryLimit(context.getSession()) : new DataSize(Long.MAX_VALUE, BYTE),
+                    isSpillJoinRepartition(context.getSession()) ? getJoinSpillMaxRecursionDepth(context.getSession()) : 0);
 
             factoriesBuilder.add(hashBuilderOperatorFactory);
 
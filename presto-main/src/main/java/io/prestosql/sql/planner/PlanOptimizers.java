@@ -414,7 +414,7 @@ public class PlanOptimizers
                         new PredicatePushDown(metadata, typeAnalyzer, false)),
                 new PruneUnreferencedOutputs(), // Prune unreferenced outputs to make the sub-query simple
                 inlineProjections,              // Remove redundant projects to make the sub-query simple
-                new SubQueryPushDown(metadata), // SubQueryPushDown is introduced in Hetu. It must run before AddExchanges
+                new SubQueryPushDown(metadata, statsCalculator), // SubQueryPushDown is introduced in Hetu. It must run before AddExchanges
                 new IterativeOptimizer(
                         ruleStats,
                         statsCalculator,
@@ -0,0 +1,162 @@
+/*
+ * Copyright (C) 2018-2020. Huawei Technologies Co., Ltd. All rights reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.statestore;
+
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import io.airlift.json.ObjectMapperProvider;
+import io.airlift.log.Logger;
+import io.prestosql.spi.statestore.StateMap;
+import io.prestosql.spi.statestore.listener.EntryAddedListener;
+import io.prestosql.spi.statestore.listener.EntryEvent;
+import io.prestosql.spi.statestore.listener.EntryRemovedListener;
+import io.prestosql.spi.statestore.listener.EntryUpdatedListener;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Local copy of a query state collection kept up to date with entry events.
+ * Events only invalidate keys and are received without values, the changed values are read back
+ * in one batch on the next refresh, so only the states that changed since the last refresh are deserialized.
+ * A full reload is done on the first refresh and every full resync interval to repair any missed events.
+ */
+class SharedQueryStateCache
+        implements EntryAddedListener<String, String>, EntryUpdatedListener<String, String>, EntryRemovedListener<String, String>
+{
+    private static final Logger LOG = Logger.get(SharedQueryStateCache.class);
+    private static final ObjectReader READER = new ObjectMapperProvider().get().readerFor(SharedQueryState.class);
+
+    private final StateMap<String, String> stateMap;
+    private final long fullResyncIntervalMillis;
+    private final Set<String> invalidatedKeys = ConcurrentHashMap.newKeySet();
+    private final Map<String, String> serializedStates = new HashMap<>();
+    private final Map<String, SharedQueryState> states = new HashMap<>();
+    private long lastFullResyncMillis;
+    private boolean loaded;
+
+    SharedQueryStateCache(StateMap<String, String> stateMap, long fullResyncIntervalMillis)
+    {
+        this.stateMap = requireNonNull(stateMap, "stateMap is null");
+        this.fullResyncIntervalMillis = fullResyncIntervalMillis;
+        // register before the first load so no change made during the load is missed
+        stateMap.addEntryListener(this, false);
+    }
+
+    StateMap<String, String> getStateMap()
+    {
+        return stateMap;
+    }
+
+    @Override
+    public void entryAdded(EntryEvent<String, String> event)
+    {
+        invalidatedKeys.add(event.getKey());
+    }
+
+    @Override
+    public void entryUpdated(EntryEvent<String, String> event)
+    {
+        invalidatedKeys.add(event.getKey());
+    }
+
+    @Override
+    public void entryRemoved(EntryEvent<String, String> event)
+    {
+        invalidatedKeys.add(event.getKey());
+    }
+
+    /**
+     * Bring the local copy up to date with the state map
+     *
+     * @return snapshot of all cached query states
+     * @throws IOException exception when failed to deserialize states
+     */
+    synchronized Map<String, SharedQueryState> refresh()
+            throws IOException
+    {
+        long now = System.currentTimeMillis();
+        // keys invalidated while reading are kept and read again on the next refresh
+        Set<String> keys = drainInvalidatedKeys();
+        try {
+            if (!loaded || now - lastFullResyncMillis >= fullResyncIntervalMillis) {
+                Map<String, String> all = stateMap.getAll();
+                states.keySet().retainAll(all.keySet());
+                serializedStates.keySet().retainAll(all.keySet());
+                for (Map.Entry<String, String> entry : all.entrySet()) {
+                    update(entry.getKey(), entry.getValue());
+                }
+                lastFullResyncMillis = now;
+                loaded = true;
+            }
+            else if (!keys.isEmpty()) {
+                Map<String, String> changed = stateMap.getAll(keys);
+                for (String key : keys) {
+                    String value = changed.get(key);
+                    if (value == null) {
+                        states.remove(key);
+                        serializedStates.remove(key);
+                    }
+                    else {
+                        update(key, value);
+                    }
+                }
+                LOG.debug("Refreshed %s changed states of %s", keys.size(), stateMap.getName());
+            }
+        }
+        catch (IOException | RuntimeException e) {
+            // read the drained keys again on the next refresh, states that were already updated are not deserialized again
+            invalidatedKeys.addAll(keys);
+            throw e;
+        }
+        return ImmutableMap.copyOf(states);
+    }
+
+    /**
+     * Stop receiving events from the state map
+     */
+    void close()
+    {
+        try {
+            stateMap.removeEntryListener(this);
+        }
+        catch (RuntimeException e) {
+            LOG.warn("Failed to remove state cache listener of %s: %s", stateMap.getName(), e.getMessage());
+        }
+    }
+
+    private Set<String> drainInvalidatedKeys()
+    {
+        Set<String> keys = ImmutableSet.copyOf(invalidatedKeys);
+        invalidatedKeys.removeAll(keys);
+        return keys;
+    }
+
+    private void update(String key, String value)
+            throws IOException
+    {
+        if (value.equals(serializedStates.get(key))) {
+            return;
+        }
+        states.put(key, READER.readValue(value));
+        serializedStates.put(key, value);
+    }
+}
@@ -15,7 +15,6 @@
 package io.prestosql.statestore;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.google.common.collect.ImmutableMap;
 import io.airlift.json.ObjectMapperProvider;
 import io.airlift.log.Logger;
 import io.airlift.units.Duration;
@@ -30,6 +29,7 @@ import org.joda.time.DateTimeZone;
 import java.io.IOException;
 import java.text.SimpleDateFormat;
 import java.util.Date;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Map;
 import java.util.Optional;
@@ -44,6 +44,7 @@ import static com.google.common.base.Preconditions.checkState;
 import static io.airlift.concurrent.Threads.threadsNamed;
 import static io.prestosql.spi.StandardErrorCode.SERVER_SHUTTING_DOWN;
 import static io.prestosql.utils.StateUtils.removeState;
+import static java.util.concurrent.TimeUnit.MINUTES;
 
 /**
  * State fetcher service used to fetch externalized query states from external state store
@@ -57,18 +58,27 @@ public class StateFetcher
     private final StateStoreProvider stateStoreProvider;
     private final Duration fetchInterval;
     private final Duration stateExpireTime;
+    private final Duration fullResyncInterval;
     private final Set<String> stateCollections = new HashSet<>();
+    private final Map<String, SharedQueryStateCache> queryStateCaches = new HashMap<>();
     private final ScheduledExecutorService stateUpdateExecutor;
     private ScheduledFuture<?> backgroundTask;
 
     private static final ObjectMapper MAPPER = new ObjectMapperProvider().get();
     private static final int THREAD_POOL_SIZE = 2;
+    private static final Duration DEFAULT_FULL_RESYNC_INTERVAL = new Duration(1, MINUTES);
 
     public StateFetcher(StateStoreProvider stateStoreProvider, Duration fetchInterval, Duration stateExpireTime)
+    {
+        this(stateStoreProvider, fetchInterval, stateExpireTime, DEFAULT_FULL_RESYNC_INTERVAL);
+    }
+
+    StateFetcher(StateStoreProvider stateStoreProvider, Duration fetchInterval, Duration stateExpireTime, Duration fullResyncInterval)
     {
         this.stateStoreProvider = stateStoreProvider;
         this.fetchInterval = fetchInterval;
         this.stateExpireTime = stateExpireTime;
+        this.fullResyncInterval = fullResyncInterval;
         this.stateUpdateExecutor = Executors.newScheduledThreadPool(THREAD_POOL_SIZE, threadsNamed("state-fetcher-%s"));
     }
 
@@ -97,6 +107,8 @@ public class StateFetcher
             if (backgroundTask != null) {
                 backgroundTask.cancel(true);
                 stateCollections.clear();
+                queryStateCaches.values().forEach(SharedQueryStateCache::close);
+                queryStateCaches.clear();
             }
         }
     }
@@ -119,7 +131,13 @@ public class StateFetcher
      */
     public void unregisterStateCollection(String stateCollectionName)
     {
-        stateCollections.remove(stateCollectionName);
+        synchronized (this) {
+            stateCollections.remove(stateCollectionName);
+            SharedQueryStateCache cache = queryStateCaches.remove(stateCollectionName);
+            if (cache != null) {
+                cache.close();
+            }
+        }
     }
 
     /**
@@ -153,17 +171,13 @@ public class StateFetcher
                 }
 
                 if (stateCollection.getType() == StateCollection.Type.MAP) {
-                    Map<String, String> states = ((StateMap<String, String>) stateCollection).getAll();
-
-                    ImmutableMap.Builder<String, SharedQueryState> queryStatesBuilder = ImmutableMap.builder();
-                    for (Map.Entry<String, String> entry : states.entrySet()) {
-                        SharedQueryState state = MAPPER.readerFor(SharedQueryState.class).readValue(entry.getValue());
+                    Map<String, SharedQueryState> states = getQueryStateCache(stateCollectionName, (StateMap<String, String>) stateCollection).refresh();
+                    for (SharedQueryState state : states.values()) {
                         if (isStateExpired(state, currentTime)) {
                             handleExpiredQueryState(state);
                         }
-                        queryStatesBuilder.put(entry.getKey(), state);
                     }
-                    StateCacheStore.get().setCachedStates(stateCollectionName, queryStatesBuilder.build());
+                    StateCacheStore.get().setCachedStates(stateCollectionName, states);
                 }
                 else {
                     LOG.warn("Unsupported state collection type: %s", stateCollection.getType());
@@ -177,6 +191,23 @@ public class StateFetcher
         }
     }
 
+    /**
+     * Get the local cache of a query state collection, a new cache is created when the state store
+     * returns a different state map, e.g. after the state store is reloaded
+     */
+    private SharedQueryStateCache getQueryStateCache(String stateCollectionName, StateMap<String, String> stateMap)
+    {
+        SharedQueryStateCache cache = queryStateCaches.get(stateCollectionName);
+        if (cache == null || cache.getStateMap() != stateMap) {
+            if (cache != null) {
+                cache.close();
+            }
+            cache = new SharedQueryStateCache(stateMap, fullResyncInterval.toMillis());
+            queryStateCaches.put(stateCollectionName, cache);
+        }
+        return cache;
+    }
+
     /**
      * Check if state is expired, no need to count expired states
      * expired states are likely from inactive coordinators that are not cleaned properly
@@ -220,8 +251,7 @@ public class StateFetcher
                 // update query to failed in stateCollection if exists
                 stateCollection = stateStoreProvider.getStateStore().getStateCollection(StateStoreConstants.QUERY_STATE_COLLECTION_NAME);
                 if (stateCollection != null && stateCollection.getType().equals(StateCollection.Type.MAP)) {
-                    Map<String, String> queryStateMap = ((StateMap<String, String>) stateCollection).getAll();
-                    if (queryStateMap.get(state.getBasicQueryInfo().getQueryId().getId()) != null) {
+                    if (((StateMap<String, String>) stateCollection).containsKey(state.getBasicQueryInfo().getQueryId().getId())) {
                         BasicQueryInfo oldQueryInfo = state.getBasicQueryInfo();
                         SharedQueryState newState = createNewState(oldQueryInfo, state);
 
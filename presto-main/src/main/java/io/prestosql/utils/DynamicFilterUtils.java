@@ -41,6 +41,7 @@ public class DynamicFilterUtils
     public static final String FINISHPREFIX = "finish-";
     public static final String PARTIALPREFIX = "partial-";
     public static final String WORKERSPREFIX = "workers-";
+    public static final String RANGEPREFIX = "range-";
     public static final String MERGEMAP = "merged";
     public static final double BLOOM_FILTER_EXPECTED_FPP = 0.25F;
 
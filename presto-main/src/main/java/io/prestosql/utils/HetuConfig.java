@@ -40,6 +40,11 @@ public class HetuConfig
     private Duration indexCacheLoadingDelay = new Duration(10, TimeUnit.SECONDS);
     private Duration indexCacheTTL = new Duration(1, TimeUnit.HOURS);
     private Boolean indexCacheSoftReference = Boolean.FALSE;
+    private Duration indexCacheLoadingWait = new Duration(0, TimeUnit.MILLISECONDS);
+    private String indexCachePreloadIndices = "";
+    private Duration indexCachePreloadInterval = new Duration(30, TimeUnit.MINUTES);
+    private String indexCacheLocalDir = "";
+    private DataSize indexCacheLocalMaxSize = new DataSize(10, GIGABYTE);
     private String indexStoreUri = "/opt/hetu/indices/";
     private String indexStoreFileSystemProfile = "local-config-default";
     private Boolean enableEmbeddedStateStore = Boolean.FALSE;
@@ -170,6 +175,76 @@ public class HetuConfig
         return this;
     }
 
+    public Duration getIndexCacheLoadingWait()
+    {
+        return this.indexCacheLoadingWait;
+    }
+
+    @Config(HetuConstant.FILTER_CACHE_LOADING_WAIT)
+    @ConfigDescription("The maximum time split filtering waits for indices that are not cached yet, 0 to not wait")
+    public HetuConfig setIndexCacheLoadingWait(Duration indexCacheLoadingWait)
+    {
+        this.indexCacheLoadingWait = indexCacheLoadingWait;
+        return this;
+    }
+
+    @NotNull
+    public String getIndexCachePreloadIndices()
+    {
+        return this.indexCachePreloadIndices;
+    }
+
+    @Config(HetuConstant.FILTER_CACHE_PRELOAD_INDICES)
+    @ConfigDescription("Comma separated list of fully qualified tables whose indices are loaded into the cache at startup")
+    public HetuConfig setIndexCachePreloadIndices(String indexCachePreloadIndices)
+    {
+        this.indexCachePreloadIndices = indexCachePreloadIndices;
+        return this;
+    }
+
+    @NotNull
+    @MinDuration("1s")
+    public Duration getIndexCachePreloadInterval()
+    {
+        return this.indexCachePreloadInterval;
+    }
+
+    @Config(HetuConstant.FILTER_CACHE_PRELOAD_INTERVAL)
+    @ConfigDescription("The interval at which the indices of the preloaded tables are reloaded, to pick up new indices")
+    public HetuConfig setIndexCachePreloadInterval(Duration indexCachePreloadInterval)
+    {
+        this.indexCachePreloadInterval = indexCachePreloadInterval;
+        return this;
+    }
+
+    @NotNull
+    public String getIndexCacheLocalDir()
+    {
+        return this.indexCacheLocalDir;
+    }
+
+    @Config(HetuConstant.FILTER_CACHE_LOCAL_DIR)
+    @ConfigDescription("Local directory the index files are copied to and read from, empty to always read the index store")
+    public HetuConfig setIndexCacheLocalDir(String indexCacheLocalDir)
+    {
+        this.indexCacheLocalDir = indexCacheLocalDir;
+        return this;
+    }
+
+    @NotNull
+    public DataSize getIndexCacheLocalMaxSize()
+    {
+        return this.indexCacheLocalMaxSize;
+    }
+
+    @Config(HetuConstant.FILTER_CACHE_LOCAL_MAX_SIZE)
+    @ConfigDescription("Maximum size of the index files kept in the local directory")
+    public HetuConfig setIndexCacheLocalMaxSize(DataSize indexCacheLocalMaxSize)
+    {
+        this.indexCacheLocalMaxSize = indexCacheLocalMaxSize;
+        return this;
+    }
+
     public Boolean isEmbeddedStateStoreEnabled()
     {
         return this.enableEmbeddedStateStore;
@@ -24,7 +24,6 @@ import io.prestosql.heuristicindex.SplitFilter;
 import io.prestosql.heuristicindex.SplitFilterFactory;
 import io.prestosql.metadata.Split;
 import io.prestosql.spi.connector.ColumnHandle;
-import io.prestosql.spi.heuristicindex.IndexClient;
 import io.prestosql.spi.heuristicindex.IndexMetadata;
 import io.prestosql.split.SplitSource;
 import io.prestosql.sql.planner.Symbol;
@@ -55,11 +54,15 @@ public class SplitUtils
     {
     }
 
-    private static synchronized void initCache(IndexClient indexClient)
+    private static synchronized void initCache(HeuristicIndexerManager heuristicIndexerManager)
     {
         if (splitFilterFactory == null) {
-            CacheLoader<IndexCacheKey, List<IndexMetadata>> cacheLoader = new IndexCacheLoader(indexClient);
-            IndexCache indexCache = new IndexCache(cacheLoader);
+            // the cache is normally created, and preloaded, when the index client is built at startup
+            IndexCache indexCache = heuristicIndexerManager.getIndexCache();
+            if (indexCache == null) {
+                CacheLoader<IndexCacheKey, List<IndexMetadata>> cacheLoader = new IndexCacheLoader(heuristicIndexerManager.getIndexClient());
+                indexCache = new IndexCache(cacheLoader, heuristicIndexerManager.getIndexClient(), heuristicIndexerManager.getIndexCacheStats());
+            }
             splitFilterFactory = new SplitFilterFactory(indexCache);
         }
     }
@@ -72,7 +75,7 @@ public class SplitUtils
         }
 
         if (splitFilterFactory == null) {
-            initCache(heuristicIndexerManager.getIndexClient());
+            initCache(heuristicIndexerManager);
         }
 
         List<Split> allSplits = nextSplits.getSplits();
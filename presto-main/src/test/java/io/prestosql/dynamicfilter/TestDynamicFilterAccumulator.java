@@ -0,0 +1,118 @@
+/*
+ * Copyright (C) 2018-2020. Huawei Technologies Co., Ltd. All rights reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.dynamicfilter;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import io.prestosql.spi.util.BloomFilter;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+import static io.prestosql.spi.dynamicfilter.BloomFilterDynamicFilter.convertBloomFilterToByteArray;
+import static io.prestosql.spi.dynamicfilter.DynamicFilter.DataType.BLOOM_FILTER;
+import static io.prestosql.spi.dynamicfilter.DynamicFilter.DataType.HASHSET;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+
+public class TestDynamicFilterAccumulator
+{
+    @Test
+    public void testFoldBloomFiltersIncrementally()
+            throws IOException
+    {
+        DynamicFilterAccumulator accumulator = new DynamicFilterAccumulator(BLOOM_FILTER);
+        byte[] first = createBloomFilter("1", "2");
+        byte[] second = createBloomFilter("3", "4");
+
+        assertEquals(accumulator.fold(ImmutableList.of(first)), 1);
+        // folding an already folded partial again leaves the merged filter unchanged
+        assertEquals(accumulator.fold(ImmutableList.of(Arrays.copyOf(first, first.length), second)), 1);
+        assertEquals(accumulator.getFoldedCount(), 2);
+
+        BloomFilter merged = accumulator.getMergedBloomFilter();
+        for (int i = 1; i <= 4; i++) {
+            assertTrue(merged.test(String.valueOf(i).getBytes()));
+        }
+        assertFalse(merged.test("10".getBytes()));
+    }
+
+    @Test
+    public void testFoldHashSets()
+            throws IOException
+    {
+        DynamicFilterAccumulator accumulator = new DynamicFilterAccumulator(HASHSET);
+        assertTrue(accumulator.getMergedSet().isEmpty());
+
+        assertEquals(accumulator.fold(ImmutableList.of(ImmutableSet.of(1L, 2L))), 1);
+        assertEquals(accumulator.fold(ImmutableList.of(ImmutableSet.of(1L, 2L), ImmutableSet.of(3L))), 1);
+        assertEquals(accumulator.getMergedSet(), ImmutableSet.of(1L, 2L, 3L));
+    }
+
+    @Test
+    public void testObserveProgress()
+    {
+        DynamicFilterAccumulator accumulator = new DynamicFilterAccumulator(HASHSET);
+        assertEquals(accumulator.getLastArrivalNanos(), 0);
+
+        accumulator.observeProgress(1, 0, 10);
+        accumulator.observeProgress(1, 0, 20);
+        assertEquals(accumulator.getLastArrivalNanos(), 10);
+
+        accumulator.observeProgress(1, 1, 30);
+        accumulator.observeProgress(1, 1, 40);
+        assertEquals(accumulator.getLastArrivalNanos(), 30);
+    }
+
+    @Test
+    public void testFoldRanges()
+    {
+        DynamicFilterAccumulator accumulator = new DynamicFilterAccumulator(BLOOM_FILTER);
+        assertNull(accumulator.getMergedRange());
+
+        accumulator.foldRanges(ImmutableList.of(new long[] {5, 10}, new long[] {-3, 7}));
+        accumulator.foldRanges(ImmutableList.of(new long[] {8, 12}, "invalid"));
+        assertEquals(accumulator.getMergedRange(), new long[] {-3, 12});
+    }
+
+    @Test(expectedExceptions = IOException.class)
+    public void testInvalidPartial()
+            throws IOException
+    {
+        new DynamicFilterAccumulator(BLOOM_FILTER).fold(ImmutableList.of(ImmutableSet.of(1L)));
+    }
+
+    @Test
+    public void testSingleRunner()
+    {
+        DynamicFilterAccumulator accumulator = new DynamicFilterAccumulator(HASHSET);
+        assertTrue(accumulator.tryAcquire());
+        assertFalse(accumulator.tryAcquire());
+        accumulator.release();
+        assertTrue(accumulator.tryAcquire());
+    }
+
+    private static byte[] createBloomFilter(String... values)
+    {
+        BloomFilter bloomFilter = new BloomFilter(1024 * 1024, 0.1);
+        for (String value : values) {
+            bloomFilter.add(value.getBytes());
+        }
+        return convertBloomFilterToByteArray(bloomFilter);
+    }
+}
@@ -0,0 +1,108 @@
+/*
+ * Copyright (C) 2018-2020. Huawei Technologies Co., Ltd. All rights reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.dynamicfilter;
+
+import io.airlift.units.Duration;
+import org.testng.annotations.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static io.prestosql.dynamicfilter.DynamicFilterWaitPolicy.PROGRESS_CHECK_INTERVAL_MILLIS;
+import static io.prestosql.dynamicfilter.DynamicFilterWaitPolicy.getWaitBudgetMillis;
+import static java.lang.Double.NaN;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+public class TestDynamicFilterWaitPolicy
+{
+    private static final Duration WAIT = new Duration(1, SECONDS);
+
+    @Test
+    public void testWaitBudget()
+    {
+        assertEquals(getWaitBudgetMillis(WAIT, 10, 1000), 0);
+        assertEquals(getWaitBudgetMillis(WAIT, 1000, 1000), 1000);
+        assertEquals(getWaitBudgetMillis(WAIT, NaN, 1000), 1000);
+    }
+
+    @Test
+    public void testSmallProbeDoesNotWait()
+    {
+        AtomicLong now = new AtomicLong(0);
+        DynamicFilterWaitPolicy policy = new DynamicFilterWaitPolicy(0, WAIT, 10, 1000, () -> NaN, now::get);
+        assertFalse(policy.shouldWait());
+    }
+
+    @Test
+    public void testExpiresAtDeadline()
+    {
+        AtomicLong now = new AtomicLong(0);
+        DynamicFilterWaitPolicy policy = new DynamicFilterWaitPolicy(0, WAIT, NaN, 1000, () -> NaN, now::get);
+        assertEquals(policy.getDeadlineMillis(), 1000);
+        assertTrue(policy.shouldWait());
+        now.set(1000);
+        assertTrue(policy.shouldWait());
+        now.set(1001);
+        assertFalse(policy.shouldWait());
+        // never waits again once expired
+        now.set(500);
+        assertFalse(policy.shouldWait());
+    }
+
+    @Test
+    public void testStopsEarlyWhenBuildIsTooSlow()
+    {
+        AtomicLong now = new AtomicLong(100);
+        // a tenth of the build side finished after 100ms, the rest needs another 900ms
+        DynamicFilterWaitPolicy policy = new DynamicFilterWaitPolicy(0, WAIT, NaN, 1000, () -> 0.1, now::get);
+        assertTrue(policy.shouldWait());
+
+        now.set(200);
+        // a tenth after 200ms projects a finish at 2000ms, past the deadline
+        assertFalse(policy.shouldWait());
+    }
+
+    @Test
+    public void testKeepsWaitingWhenBuildIsFastEnough()
+    {
+        AtomicLong now = new AtomicLong(400);
+        DynamicFilterWaitPolicy policy = new DynamicFilterWaitPolicy(0, WAIT, NaN, 1000, () -> 0.5, now::get);
+        assertTrue(policy.shouldWait());
+    }
+
+    @Test
+    public void testProgressCheckInterval()
+    {
+        AtomicLong now = new AtomicLong(10);
+        AtomicInteger checks = new AtomicInteger();
+        DynamicFilterWaitPolicy policy = new DynamicFilterWaitPolicy(0, WAIT, NaN, 1000, () -> {
+            checks.incrementAndGet();
+            return NaN;
+        }, now::get);
+
+        assertTrue(policy.shouldWait());
+        assertTrue(policy.shouldWait());
+        now.addAndGet(PROGRESS_CHECK_INTERVAL_MILLIS - 1);
+        assertTrue(policy.shouldWait());
+        assertEquals(checks.get(), 1);
+
+        now.addAndGet(1);
+        assertTrue(policy.shouldWait());
+        assertEquals(checks.get(), 2);
+    }
+}
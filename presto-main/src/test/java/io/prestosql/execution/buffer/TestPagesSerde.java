@@ -16,7 +16,10 @@ package io.prestosql.execution.buffer;
 import com.google.common.collect.ImmutableList;
 import io.airlift.slice.DynamicSliceOutput;
 import io.airlift.slice.Slice;
+import io.hetu.core.transport.execution.buffer.PageCompressionCodec;
 import io.hetu.core.transport.execution.buffer.PagesSerde;
+import io.hetu.core.transport.execution.buffer.PagesSerdeFactory;
+import io.hetu.core.transport.execution.buffer.SerializedPage;
 import io.prestosql.spi.Page;
 import io.prestosql.spi.block.Block;
 import io.prestosql.spi.block.BlockBuilder;
@@ -28,11 +31,13 @@ import java.util.List;
 
 import static io.hetu.core.transport.execution.buffer.PagesSerdeUtil.readPages;
 import static io.hetu.core.transport.execution.buffer.PagesSerdeUtil.writePages;
+import static io.prestosql.metadata.MetadataManager.createTestMetadataManager;
 import static io.prestosql.operator.PageAssertions.assertPageEquals;
 import static io.prestosql.spi.type.BigintType.BIGINT;
 import static io.prestosql.spi.type.VarcharType.VARCHAR;
 import static org.testng.Assert.assertEquals;
 import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
 
 public class TestPagesSerde
 {
@@ -60,6 +65,72 @@ public class TestPagesSerde
         assertFalse(pageIterator.hasNext());
     }
 
+    @Test
+    public void testMixedCodecs()
+    {
+        BlockBuilder blockBuilder = BIGINT.createBlockBuilder(null, 1000);
+        for (int i = 0; i < 1000; i++) {
+            BIGINT.writeLong(blockBuilder, i % 10);
+        }
+        Page page = new Page(blockBuilder.build());
+
+        PagesSerde reader = createPagesSerde(PageCompressionCodec.NONE, 0.8);
+        for (PageCompressionCodec codec : PageCompressionCodec.values()) {
+            SerializedPage serializedPage = createPagesSerde(codec, 0.8).serialize(page);
+            assertEquals(serializedPage.isCompressed(), codec != PageCompressionCodec.NONE);
+            assertEquals(PageCompressionCodec.fromMarkers(serializedPage.getPageCodecMarkers()), codec.getMarker().map(marker -> codec));
+            assertPageEquals(ImmutableList.of(BIGINT), reader.deserialize(serializedPage), page);
+        }
+    }
+
+    @Test
+    public void testSkipCompressionWhenRatioNotReached()
+    {
+        BlockBuilder blockBuilder = BIGINT.createBlockBuilder(null, 1000);
+        for (int i = 0; i < 1000; i++) {
+            BIGINT.writeLong(blockBuilder, i % 10);
+        }
+        Page page = new Page(blockBuilder.build());
+
+        // page shrinks well below the ratio, so every page is compressed
+        PagesSerde serde = createPagesSerde(PageCompressionCodec.LZ4, 0.8);
+        for (int i = 0; i < 100; i++) {
+            assertTrue(serde.serialize(page).isCompressed());
+        }
+
+        // ratio can not be reached, sampled pages are attempted and the following ones are not
+        serde = createPagesSerde(PageCompressionCodec.LZ4, 0.001);
+        for (int i = 0; i < 100; i++) {
+            SerializedPage serializedPage = serde.serialize(page);
+            assertFalse(serializedPage.isCompressed());
+            assertPageEquals(ImmutableList.of(BIGINT), serde.deserialize(serializedPage), page);
+        }
+    }
+
+    @Test
+    public void testSerializationBuffersAreReused()
+    {
+        PagesSerde serde = createPagesSerde(PageCompressionCodec.LZ4, 0.8);
+        BlockBuilder first = BIGINT.createBlockBuilder(null, 100);
+        BlockBuilder second = BIGINT.createBlockBuilder(null, 100);
+        for (int i = 0; i < 100; i++) {
+            BIGINT.writeLong(first, i);
+            BIGINT.writeLong(second, -i);
+        }
+        Page firstPage = new Page(first.build());
+        Page secondPage = new Page(second.build());
+
+        // serialized pages must not share the buffers reused by the serde
+        SerializedPage firstSerialized = serde.serialize(firstPage);
+        SerializedPage secondSerialized = serde.serialize(secondPage);
+        assertPageEquals(ImmutableList.of(BIGINT), serde.deserialize(firstSerialized), firstPage);
+        assertPageEquals(ImmutableList.of(BIGINT), serde.deserialize(secondSerialized), secondPage);
+
+        assertEquals(serde.getSerializedPages(), 2);
+        assertEquals(serde.getBytesCopied(), firstSerialized.getSizeInBytes() + secondSerialized.getSizeInBytes());
+        assertTrue(serde.getRetainedSizeInBytes() > 0);
+    }
+
     @Test
     public void testBigintSerializedSize()
     {
@@ -107,6 +178,11 @@ public class TestPagesSerde
         assertEquals(secondValueSize, 4 + 3); // length + "bob" (null shared with first entry)
     }
 
+    private static PagesSerde createPagesSerde(PageCompressionCodec codec, double minCompressionRatio)
+    {
+        return new PagesSerdeFactory(createTestMetadataManager().getBlockEncodingSerde(), codec, minCompressionRatio).createPagesSerde();
+    }
+
     private static int serializedSize(List<? extends Type> types, Page expectedPage)
     {
         PagesSerde serde = new TestingPagesSerdeFactory().createPagesSerde();
@@ -140,6 +140,44 @@ public class TestTaskExecutor
         }
     }
 
+    @Test(invocationCount = 10)
+    public void testSplitsAreStolenAcrossQueueGroups()
+            throws Exception
+    {
+        TestingTicker ticker = new TestingTicker();
+        MultilevelSplitQueue splitQueue = new MultilevelSplitQueue(2, 4);
+        TaskExecutor taskExecutor = new TaskExecutor(4, 8, 3, 4, splitQueue, ticker);
+        taskExecutor.start();
+
+        try {
+            // all splits of a task are queued in the same group, so the splits can only run at the same time if the
+            // runner threads of the other groups steal them
+            TaskHandle taskHandle = taskExecutor.addTask(new TaskId("test", 0, 0), () -> 0, 10, new Duration(1, MILLISECONDS), OptionalInt.empty());
+
+            Phaser beginPhase = new Phaser();
+            beginPhase.register();
+            Phaser verificationComplete = new Phaser();
+            verificationComplete.register();
+
+            ImmutableList.Builder<ListenableFuture<?>> futures = ImmutableList.builder();
+            for (int i = 0; i < 4; i++) {
+                TestingJob driver = new TestingJob(ticker, new Phaser(1), beginPhase, verificationComplete, 1, 0);
+                futures.add(getOnlyElement(taskExecutor.enqueueSplits(taskHandle, true, ImmutableList.of(driver))));
+            }
+
+            beginPhase.arriveAndAwaitAdvance();
+            verificationComplete.arriveAndAwaitAdvance();
+            for (ListenableFuture<?> future : futures.build()) {
+                future.get(10, SECONDS);
+            }
+
+            assertTrue(splitQueue.getStolenSplits().getTotalCount() >= 3);
+        }
+        finally {
+            taskExecutor.stop();
+        }
+    }
+
     @Test(invocationCount = 100)
     public void testQuantaFairness()
     {
@@ -14,6 +14,7 @@
  */
 package io.prestosql.heuristicindex;
 
+import com.google.common.collect.ImmutableList;
 import io.airlift.units.DataSize;
 import io.airlift.units.Duration;
 import io.prestosql.connector.CatalogName;
@@ -22,6 +23,7 @@ import io.prestosql.metadata.Split;
 import io.prestosql.spi.HetuConstant;
 import io.prestosql.spi.connector.ConnectorSplit;
 import io.prestosql.spi.heuristicindex.Index;
+import io.prestosql.spi.heuristicindex.IndexClient;
 import io.prestosql.spi.heuristicindex.IndexMetadata;
 import io.prestosql.spi.service.PropertyService;
 import org.mockito.internal.stubbing.answers.Returns;
@@ -196,4 +198,65 @@ public class TestIndexCache
         assertEquals(actualSplitIndex.size(), 0);
         assertEquals(indexCache.getCacheSize(), 1);
     }
+
+    @Test
+    public void testPreloadIndices() throws Exception
+    {
+        when(connectorSplit.getFilePath()).thenReturn(testPath);
+        when(connectorSplit.getLastModifiedTime()).thenReturn(testLastModifiedTime);
+        Index index = mock(Index.class);
+        when(index.getId()).thenReturn("BLOOM");
+        when(index.getMemorySize()).thenReturn(new DataSize(1, KILOBYTE).toBytes());
+        IndexMetadata indexMetadata = new IndexMetadata(index, table, column, "/", testPath, 0, testLastModifiedTime);
+
+        IndexClient indexClient = mock(IndexClient.class);
+        when(indexClient.readSplitIndex(table)).thenReturn(ImmutableList.of(indexMetadata));
+        IndexCacheLoader indexCacheLoader = mock(IndexCacheLoader.class);
+        when(indexCacheLoader.load(any())).thenThrow(ExecutionException.class);
+
+        IndexCacheStats stats = new IndexCacheStats();
+        IndexCache indexCache = new IndexCache(indexCacheLoader, indexClient, stats);
+        indexCache.preloadIndices(ImmutableList.of(table), TimeUnit.MINUTES.toMillis(10));
+        Thread.sleep(500);
+
+        // the index is served from the cache without waiting for an asynchronous load
+        List<IndexMetadata> actualSplitIndex = indexCache.getIndices(table, column, split);
+        assertEquals(actualSplitIndex, ImmutableList.of(indexMetadata));
+        assertEquals(stats.getPreloadedIndices().getTotalCount(), 1);
+        assertEquals(stats.getHits().getTotalCount(), 1);
+        // minmax index was not created
+        assertEquals(stats.getMisses().getTotalCount(), 1);
+    }
+
+    @Test
+    public void testLoadingWait() throws Exception
+    {
+        when(connectorSplit.getFilePath()).thenReturn(testPath);
+        when(connectorSplit.getLastModifiedTime()).thenReturn(testLastModifiedTime);
+        IndexMetadata indexMetadata = mock(IndexMetadata.class);
+        when(indexMetadata.getLastUpdated()).thenReturn(testLastModifiedTime);
+        Index index = mock(Index.class);
+        when(indexMetadata.getIndex()).then(new Returns(index));
+        when(index.getMemorySize()).thenReturn(new DataSize(1, KILOBYTE).toBytes());
+
+        List<IndexMetadata> expectedIndices = new LinkedList<>();
+        expectedIndices.add(indexMetadata);
+
+        IndexCacheLoader indexCacheLoader = mock(IndexCacheLoader.class);
+        when(indexCacheLoader.load(any())).then(new Returns(expectedIndices));
+
+        PropertyService.setProperty(HetuConstant.FILTER_CACHE_LOADING_WAIT, new Duration(10, TimeUnit.SECONDS));
+        try {
+            IndexCacheStats stats = new IndexCacheStats();
+            IndexCache indexCache = new IndexCache(indexCacheLoader, null, stats);
+            // cold keys are loaded synchronously instead of after the loading delay
+            List<IndexMetadata> actualSplitIndex = indexCache.getIndices(table, column, split);
+            assertEquals(actualSplitIndex.size(), 2);
+            assertEquals(stats.getMisses().getTotalCount(), 2);
+            assertEquals(stats.getLoadWaitTimeouts().getTotalCount(), 0);
+        }
+        finally {
+            PropertyService.setProperty(HetuConstant.FILTER_CACHE_LOADING_WAIT, new Duration(0, TimeUnit.SECONDS));
+        }
+    }
 }
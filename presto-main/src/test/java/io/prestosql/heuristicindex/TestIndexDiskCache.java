@@ -0,0 +1,178 @@
+/*
+ * Copyright (C) 2018-2020. Huawei Technologies Co., Ltd. All rights reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.heuristicindex;
+
+import com.google.common.collect.ImmutableList;
+import io.hetu.core.common.heuristicindex.IndexCacheKey;
+import io.hetu.core.filesystem.HetuLocalFileSystemClient;
+import io.hetu.core.filesystem.LocalConfig;
+import io.prestosql.spi.filesystem.HetuFileSystemClient;
+import io.prestosql.spi.heuristicindex.IndexClient;
+import io.prestosql.spi.heuristicindex.IndexMetadata;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.Properties;
+
+import static com.google.common.io.MoreFiles.deleteRecursively;
+import static com.google.common.io.RecursiveDeleteOption.ALLOW_INSECURE;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+public class TestIndexDiskCache
+{
+    private static final String PATH1 = "schema_name.table_name/column_name/bloom/user/hive/schema.db/table/001.orc";
+    private static final String PATH2 = "schema_name.table_name/column_name/bloom/user/hive/schema.db/table/002.orc";
+    private static final long LAST_MODIFIED = 1;
+    private static final int INDEX_FILE_SIZE = 1000;
+
+    private Path tempDir;
+    private Path remoteRoot;
+    private Path localRoot;
+    private Path cacheRoot;
+    private HetuFileSystemClient fs;
+    private IndexClient remoteIndexClient;
+    private IndexClient localIndexClient;
+
+    @BeforeMethod
+    public void setup()
+            throws IOException
+    {
+        tempDir = Files.createTempDirectory("test-index-disk-cache");
+        remoteRoot = tempDir.resolve("remote");
+        localRoot = tempDir.resolve("local");
+        cacheRoot = IndexDiskCache.getCacheRoot(localRoot);
+        fs = new HetuLocalFileSystemClient(new LocalConfig(new Properties()), tempDir);
+        createIndexFiles(PATH1);
+        createIndexFiles(PATH2);
+
+        remoteIndexClient = mock(IndexClient.class);
+        localIndexClient = mock(IndexClient.class);
+        when(remoteIndexClient.getLastModified(PATH1)).thenReturn(LAST_MODIFIED);
+        when(remoteIndexClient.getLastModified(PATH2)).thenReturn(LAST_MODIFIED);
+        when(localIndexClient.getLastModified(PATH1)).thenReturn(LAST_MODIFIED);
+        when(localIndexClient.getLastModified(PATH2)).thenReturn(LAST_MODIFIED);
+        when(localIndexClient.readSplitIndex(PATH1)).thenReturn(ImmutableList.of(mock(IndexMetadata.class)));
+        when(localIndexClient.readSplitIndex(PATH2)).thenReturn(ImmutableList.of(mock(IndexMetadata.class)));
+    }
+
+    @AfterMethod(alwaysRun = true)
+    public void tearDown()
+            throws IOException
+    {
+        deleteRecursively(tempDir, ALLOW_INSECURE);
+    }
+
+    @Test
+    public void testReadSplitIndex()
+            throws IOException
+    {
+        IndexCacheStats stats = new IndexCacheStats();
+        IndexDiskCache diskCache = new IndexDiskCache(remoteIndexClient, fs, remoteRoot, localIndexClient, fs, localRoot, 10 * INDEX_FILE_SIZE, stats);
+
+        List<IndexMetadata> indices = diskCache.readSplitIndex(new IndexCacheKey(PATH1, LAST_MODIFIED));
+        assertEquals(indices.size(), 1);
+        assertTrue(Files.exists(Paths.get(cacheRoot.toString(), PATH1, "index.tar")));
+        assertTrue(Files.exists(Paths.get(cacheRoot.toString(), PATH1, "lastModified=" + LAST_MODIFIED)));
+        assertEquals(stats.getDiskMisses().getTotalCount(), 1);
+        assertEquals(stats.getRemoteFetchedBytes().getTotalCount(), INDEX_FILE_SIZE);
+
+        // the second read is served from the local directory without accessing the index store
+        indices = diskCache.readSplitIndex(new IndexCacheKey(PATH1, LAST_MODIFIED));
+        assertEquals(indices.size(), 1);
+        assertEquals(stats.getDiskHits().getTotalCount(), 1);
+        assertEquals(stats.getRemoteFetchedBytes().getTotalCount(), INDEX_FILE_SIZE);
+        verify(remoteIndexClient, times(1)).getLastModified(PATH1);
+    }
+
+    @Test(expectedExceptions = IOException.class)
+    public void testReadSplitIndexExpired()
+            throws IOException
+    {
+        IndexDiskCache diskCache = new IndexDiskCache(remoteIndexClient, fs, remoteRoot, localIndexClient, fs, localRoot, 10 * INDEX_FILE_SIZE, new IndexCacheStats());
+        diskCache.readSplitIndex(new IndexCacheKey(PATH1, LAST_MODIFIED + 1));
+    }
+
+    @Test
+    public void testEviction()
+            throws IOException
+    {
+        IndexDiskCache diskCache = new IndexDiskCache(remoteIndexClient, fs, remoteRoot, localIndexClient, fs, localRoot, INDEX_FILE_SIZE + INDEX_FILE_SIZE / 2, new IndexCacheStats());
+
+        diskCache.readSplitIndex(new IndexCacheKey(PATH1, LAST_MODIFIED));
+        diskCache.readSplitIndex(new IndexCacheKey(PATH2, LAST_MODIFIED));
+
+        // only one key fits, the least recently used one is deleted
+        assertFalse(Files.exists(Paths.get(cacheRoot.toString(), PATH1)));
+        assertTrue(Files.exists(Paths.get(cacheRoot.toString(), PATH2, "index.tar")));
+        assertEquals(diskCache.getSizeInBytes(), INDEX_FILE_SIZE);
+    }
+
+    @Test
+    public void testOnlyCacheDirectoryCleared()
+            throws IOException
+    {
+        Path otherFile = localRoot.resolve("other");
+        Path staleFile = cacheRoot.resolve("stale");
+        Files.createDirectories(cacheRoot);
+        Files.createFile(otherFile);
+        Files.createFile(staleFile);
+
+        new IndexDiskCache(remoteIndexClient, fs, remoteRoot, localIndexClient, fs, localRoot, 10 * INDEX_FILE_SIZE, new IndexCacheStats());
+        assertTrue(Files.exists(otherFile));
+        assertFalse(Files.exists(staleFile));
+        assertTrue(Files.isDirectory(cacheRoot));
+    }
+
+    @Test
+    public void testReadSplitIndexRetry()
+            throws IOException
+    {
+        IndexCacheStats stats = new IndexCacheStats();
+        IndexDiskCache diskCache = new IndexDiskCache(remoteIndexClient, fs, remoteRoot, localIndexClient, fs, localRoot, 10 * INDEX_FILE_SIZE, stats);
+        diskCache.readSplitIndex(new IndexCacheKey(PATH1, LAST_MODIFIED));
+
+        // the cached files disappear while they are read, they are fetched from the index store again
+        when(localIndexClient.readSplitIndex(PATH1))
+                .thenThrow(new IOException("evicted"))
+                .thenReturn(ImmutableList.of(mock(IndexMetadata.class)));
+        List<IndexMetadata> indices = diskCache.readSplitIndex(new IndexCacheKey(PATH1, LAST_MODIFIED));
+        assertEquals(indices.size(), 1);
+        assertEquals(stats.getDiskHits().getTotalCount(), 0);
+        assertEquals(stats.getDiskMisses().getTotalCount(), 2);
+        assertEquals(stats.getRemoteFetchedBytes().getTotalCount(), 2 * INDEX_FILE_SIZE);
+        assertEquals(diskCache.getSizeInBytes(), INDEX_FILE_SIZE);
+    }
+
+    private void createIndexFiles(String path)
+            throws IOException
+    {
+        Path dir = Paths.get(remoteRoot.toString(), path);
+        Files.createDirectories(dir);
+        Files.write(dir.resolve("index.tar"), new byte[INDEX_FILE_SIZE]);
+        Files.createFile(dir.resolve("lastModified=" + LAST_MODIFIED));
+    }
+}
@@ -40,7 +40,9 @@ public class TestExchangeClientConfig
                 .setMaxResponseSize(new HttpClientConfig().getMaxContentLength())
                 .setPageBufferClientMaxCallbackThreads(25)
                 .setClientThreads(25)
-                .setAcknowledgePages(true));
+                .setAcknowledgePages(true)
+                .setMultiplexedRequestsEnabled(false)
+                .setMaxMultiplexedRequestsPerNode(2));
     }
 
     @Test
@@ -55,6 +57,8 @@ public class TestExchangeClientConfig
                 .put("exchange.client-threads", "2")
                 .put("exchange.page-buffer-client.max-callback-threads", "16")
                 .put("exchange.acknowledge-pages", "false")
+                .put("exchange.multiplexed-requests-enabled", "true")
+                .put("exchange.max-multiplexed-requests-per-node", "4")
                 .build();
 
         ExchangeClientConfig expected = new ExchangeClientConfig()
@@ -65,7 +69,9 @@ public class TestExchangeClientConfig
                 .setMaxResponseSize(new DataSize(1, Unit.MEGABYTE))
                 .setClientThreads(2)
                 .setPageBufferClientMaxCallbackThreads(16)
-                .setAcknowledgePages(false);
+                .setAcknowledgePages(false)
+                .setMultiplexedRequestsEnabled(true)
+                .setMaxMultiplexedRequestsPerNode(4);
 
         assertFullMapping(properties, expected);
     }
@@ -13,6 +13,7 @@
  */
 package io.prestosql.operator;
 
+import com.google.common.base.Strings;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
@@ -477,6 +478,141 @@ public class TestHashJoinOperator
         }
     }
 
+    @DataProvider
+    public Object[][] joinWithRepartitioningValues()
+    {
+        return new Object[][] {
+                {true, true},
+                {true, false},
+                {false, true},
+                {false, false}};
+    }
+
+    @Test(dataProvider = "joinWithRepartitioningValues")
+    public void testJoinWithRecursiveRepartitioning(boolean probeOuter, boolean probeHashEnabled)
+            throws Exception
+    {
+        RowPagesBuilder buildPages = rowPagesBuilder(ImmutableList.of(VARCHAR, BIGINT))
+                .addSequencePage(60, 0, 100)
+                .addSequencePage(60, 0, 200)
+                .addSequencePage(40, 60, 300);
+        RowPagesBuilder probePages = rowPagesBuilder(probeHashEnabled, Ints.asList(0), ImmutableList.of(VARCHAR, BIGINT))
+                .addSequencePage(70, 0, 1000)
+                .addSequencePage(50, 70, 2000);
+
+        AtomicInteger spillRecursionDepth = new AtomicInteger();
+        MaterializedResult expected = joinWithSpill(probeOuter, buildPages, probePages, false, new DataSize(Long.MAX_VALUE, BYTE), 0, spillRecursionDepth);
+        assertEquals(spillRecursionDepth.get(), 0);
+
+        // every spilled partition exceeds the limit, so it is repartitioned until the maximum depth is reached
+        MaterializedResult actual = joinWithSpill(probeOuter, buildPages, probePages, true, new DataSize(1, BYTE), 2, spillRecursionDepth);
+        assertEquals(spillRecursionDepth.get(), 2);
+
+        // keys 0..59 match twice, keys 60..99 once and probe keys 100..119 do not match
+        assertEquals(expected.getRowCount(), probeOuter ? 180 : 160);
+        assertEqualsIgnoreOrder(actual.getMaterializedRows(), expected.getMaterializedRows());
+    }
+
+    @Test(dataProvider = "joinWithRepartitioningValues")
+    public void testJoinWithSkewedBuildSide(boolean probeOuter, boolean probeHashEnabled)
+            throws Exception
+    {
+        // a single key can not be split by repartitioning and spans several spilled pages
+        String payload = Strings.repeat("x", 10_000);
+        RowPagesBuilder buildPages = rowPagesBuilder(ImmutableList.of(VARCHAR, BIGINT, VARCHAR));
+        for (int row = 0; row < 300; row++) {
+            buildPages.row("7", (long) row, payload);
+            if (row % 50 == 49) {
+                buildPages.pageBreak();
+            }
+        }
+        RowPagesBuilder probePages = rowPagesBuilder(probeHashEnabled, Ints.asList(0), ImmutableList.of(VARCHAR, BIGINT))
+                .addSequencePage(20, 0, 1000)
+                .row("7", 5000L)
+                .row("7", 5001L);
+
+        AtomicInteger spillRecursionDepth = new AtomicInteger();
+        MaterializedResult expected = joinWithSpill(probeOuter, buildPages, probePages, false, new DataSize(Long.MAX_VALUE, BYTE), 0, spillRecursionDepth);
+
+        // the skewed partition does not shrink when repartitioned, so it is joined one page at a time
+        MaterializedResult actual = joinWithSpill(probeOuter, buildPages, probePages, true, new DataSize(1, BYTE), 2, spillRecursionDepth);
+        assertEquals(spillRecursionDepth.get(), 1);
+
+        // three probe rows match all build rows, unmatched probe rows are produced once
+        assertEquals(expected.getRowCount(), probeOuter ? 3 * 300 + 19 : 3 * 300);
+        assertEqualsIgnoreOrder(actual.getMaterializedRows(), expected.getMaterializedRows());
+    }
+
+    private MaterializedResult joinWithSpill(
+            boolean probeOuter,
+            RowPagesBuilder buildPages,
+            RowPagesBuilder probePages,
+            boolean spillEnabled,
+            DataSize unspillMemoryLimit,
+            int maxSpillRecursionDepth,
+            AtomicInteger spillRecursionDepth)
+            throws Exception
+    {
+        TaskStateMachine taskStateMachine = new TaskStateMachine(new TaskId("query", 0, 0), executor);
+        TaskContext taskContext = TestingTaskContext.createTaskContext(executor, scheduledExecutor, TEST_SESSION, taskStateMachine);
+
+        DriverContext joinDriverContext = taskContext.addPipelineContext(2, true, true, false).addDriverContext();
+
+        BuildSideSetup buildSideSetup = setupBuildSide(true, taskContext, Ints.asList(0), buildPages, Optional.empty(), spillEnabled, SINGLE_STREAM_SPILLER_FACTORY, PARTITIONING_SPILLER_FACTORY, unspillMemoryLimit, maxSpillRecursionDepth);
+        JoinBridgeManager<PartitionedLookupSourceFactory> lookupSourceFactoryManager = buildSideSetup.getLookupSourceFactoryManager();
+        OperatorFactory joinOperatorFactory = probeOuter
+                ? probeOuterJoinOperatorFactory(lookupSourceFactoryManager, probePages)
+                : innerJoinOperatorFactory(lookupSourceFactoryManager, probePages, PARTITIONING_SPILLER_FACTORY);
+
+        instantiateBuildDrivers(buildSideSetup, taskContext);
+        List<Driver> buildDrivers = buildSideSetup.getBuildDrivers();
+        LookupSourceFactory lookupSourceFactory = lookupSourceFactoryManager.getJoinBridge(Lifespan.taskWide());
+
+        try (Operator joinOperator = joinOperatorFactory.createOperator(joinDriverContext)) {
+            // spill the input of every build operator before its lookup source is built
+            ListenableFuture<LookupSourceProvider> lookupSourceProvider = lookupSourceFactory.createLookupSourceProvider();
+            while (!lookupSourceProvider.isDone()) {
+                for (int i = 0; i < buildDrivers.size(); i++) {
+                    checkErrors(taskStateMachine);
+                    buildDrivers.get(i).process();
+                    HashBuilderOperator buildOperator = buildSideSetup.getBuildOperators().get(i);
+                    if (spillEnabled && buildOperator.getState() == HashBuilderOperator.State.CONSUMING_INPUT && buildOperator.getOperatorContext().getReservedRevocableBytes() > 0) {
+                        revokeMemory(buildOperator);
+                    }
+                }
+            }
+            getFutureValue(lookupSourceProvider).close();
+
+            for (Driver buildDriver : buildDrivers) {
+                runDriverInThread(executor, buildDriver);
+            }
+
+            ValuesOperatorFactory valuesOperatorFactory = new ValuesOperatorFactory(17, new PlanNodeId("values"), probePages.build());
+
+            PageBuffer pageBuffer = new PageBuffer(10);
+            PageBufferOperatorFactory pageBufferOperatorFactory = new PageBufferOperatorFactory(18, new PlanNodeId("pageBuffer"), pageBuffer);
+
+            Driver joinDriver = Driver.createDriver(joinDriverContext,
+                    valuesOperatorFactory.createOperator(joinDriverContext),
+                    joinOperator,
+                    pageBufferOperatorFactory.createOperator(joinDriverContext));
+
+            List<Page> actualPages = new ArrayList<>();
+            while (!joinDriver.isFinished()) {
+                processRow(joinDriver, taskStateMachine);
+                actualPages.addAll(getPages(pageBuffer));
+            }
+            checkErrors(taskStateMachine);
+            actualPages.addAll(getPages(pageBuffer));
+
+            spillRecursionDepth.set(((JoinOperatorInfo) joinOperator.getOperatorContext().getOperatorStats().getInfo()).getSpillRecursionDepth());
+            return getProperColumns(joinOperator, concat(probePages.getTypes(), buildPages.getTypes()), probePages, actualPages);
+        }
+        finally {
+            joinOperatorFactory.noMoreOperators();
+        }
+    }
+
     private static void processRow(final Driver joinDriver, final TaskStateMachine taskStateMachine)
     {
         joinDriver.getDriverContext().getYieldSignal().setWithDelay(TimeUnit.SECONDS.toNanos(1), joinDriver.getDriverContext().getYieldExecutor());
@@ -1288,6 +1424,21 @@ public class TestHashJoinOperator
             Optional<InternalJoinFilterFunction> filterFunction,
             boolean spillEnabled,
             SingleStreamSpillerFactory singleStreamSpillerFactory)
+    {
+        return setupBuildSide(parallelBuild, taskContext, hashChannels, buildPages, filterFunction, spillEnabled, singleStreamSpillerFactory, PARTITIONING_SPILLER_FACTORY, new DataSize(Long.MAX_VALUE, BYTE), 0);
+    }
+
+    private BuildSideSetup setupBuildSide(
+            boolean parallelBuild,
+            TaskContext taskContext,
+            List<Integer> hashChannels,
+            RowPagesBuilder buildPages,
+            Optional<InternalJoinFilterFunction> filterFunction,
+            boolean spillEnabled,
+            SingleStreamSpillerFactory singleStreamSpillerFactory,
+            PartitioningSpillerFactory partitioningSpillerFactory,
+            DataSize unspillMemoryLimit,
+            int maxSpillRecursionDepth)
     {
         Optional<JoinFilterFunctionFactory> filterFunctionFactory = filterFunction
                 .map(function -> (session, addresses, pages) -> new StandardJoinFilterFunction(function, addresses, pages));
@@ -1346,7 +1497,10 @@ public class TestHashJoinOperator
                 100,
                 new PagesIndex.TestingFactory(false),
                 spillEnabled,
-                singleStreamSpillerFactory);
+                singleStreamSpillerFactory,
+                partitioningSpillerFactory,
+                unspillMemoryLimit,
+                maxSpillRecursionDepth);
         return new BuildSideSetup(lookupSourceFactoryManager, buildOperatorFactory, sourceOperatorFactory, partitionCount);
     }
 
@@ -0,0 +1,204 @@
+/*
+ * Copyright (C) 2018-2020. Huawei Technologies Co., Ltd. All rights reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.operator;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableListMultimap;
+import com.google.common.util.concurrent.ListenableFuture;
+import io.airlift.http.client.HttpStatus;
+import io.airlift.http.client.Response;
+import io.airlift.http.client.StaticBodyGenerator;
+import io.airlift.http.client.testing.TestingHttpClient;
+import io.airlift.http.client.testing.TestingResponse;
+import io.airlift.json.JsonCodec;
+import io.airlift.units.DataSize;
+import io.hetu.core.transport.execution.buffer.PagesSerde;
+import io.hetu.core.transport.execution.buffer.SerializedPage;
+import io.prestosql.execution.buffer.BufferResult;
+import io.prestosql.operator.HttpPageBufferClient.PagesResponse;
+import io.prestosql.operator.MultiplexedExchangeChannel.MultiplexedRequestsNotSupportedException;
+import io.prestosql.server.MultiplexedPagesResponseWriter;
+import io.prestosql.server.MultiplexedResultsRequest;
+import io.prestosql.spi.Page;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.annotation.Annotation;
+import java.net.URI;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static com.google.common.collect.ImmutableList.toImmutableList;
+import static com.google.common.net.HttpHeaders.CONTENT_TYPE;
+import static io.airlift.concurrent.Threads.daemonThreadsNamed;
+import static io.airlift.json.JsonCodec.listJsonCodec;
+import static io.airlift.units.DataSize.Unit.MEGABYTE;
+import static io.prestosql.PrestoMediaTypes.PRESTO_PAGES_BATCH;
+import static io.prestosql.execution.buffer.TestingPagesSerdeFactory.testingPagesSerde;
+import static java.util.concurrent.Executors.newCachedThreadPool;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+public class TestMultiplexedExchangeChannel
+{
+    private static final JsonCodec<List<MultiplexedResultsRequest>> REQUESTS_CODEC = listJsonCodec(MultiplexedResultsRequest.class);
+    private static final PagesSerde PAGES_SERDE = testingPagesSerde();
+    private static final DataSize MAX_SIZE = new DataSize(1, MEGABYTE);
+    private static final URI CHANNEL_URI = URI.create("http://localhost:8080/v1/task/results");
+
+    private ExecutorService executor;
+
+    @BeforeClass
+    public void setUp()
+    {
+        executor = newCachedThreadPool(daemonThreadsNamed("test-multiplexed-exchange-%s"));
+    }
+
+    @AfterClass(alwaysRun = true)
+    public void tearDown()
+    {
+        if (executor != null) {
+            executor.shutdownNow();
+            executor = null;
+        }
+    }
+
+    @Test
+    public void testChannelUri()
+    {
+        assertEquals(MultiplexedExchangeChannel.getChannelUri(location("query.1.0", 3)).get(), CHANNEL_URI);
+        assertFalse(MultiplexedExchangeChannel.getChannelUri(URI.create("http://localhost:8080")).isPresent());
+        assertFalse(MultiplexedExchangeChannel.getChannelUri(URI.create("http://localhost:8080/v1/task/query.1.0")).isPresent());
+    }
+
+    @Test
+    public void testQueuedReadsAreBatched()
+            throws Exception
+    {
+        CountDownLatch firstRequestReleased = new CountDownLatch(1);
+        List<List<MultiplexedResultsRequest>> requests = new CopyOnWriteArrayList<>();
+        TestingHttpClient httpClient = new TestingHttpClient(request -> {
+            List<MultiplexedResultsRequest> entries = REQUESTS_CODEC.fromJson(((StaticBodyGenerator) request.getBodyGenerator()).getBody());
+            requests.add(entries);
+            if (requests.size() == 1) {
+                awaitUninterruptibly(firstRequestReleased);
+            }
+            return createResponse(entries);
+        }, executor);
+        MultiplexedExchangeChannel channel = new MultiplexedExchangeChannel(httpClient, CHANNEL_URI, 1);
+
+        URI first = location("query.1.0", 0);
+        URI second = location("query.1.1", 0);
+        URI third = location("query.1.2", 0);
+        ListenableFuture<PagesResponse> firstResult = channel.getResults(first, 0, MAX_SIZE);
+        assertEquals(channel.getRequestsInFlight(), 1);
+
+        // sent together with the acknowledgement once the first request completes
+        channel.acknowledge(first, 1);
+        ListenableFuture<PagesResponse> secondResult = channel.getResults(second, 5, MAX_SIZE);
+        ListenableFuture<PagesResponse> thirdResult = channel.getResults(third, 7, MAX_SIZE);
+        assertEquals(channel.getRequestsInFlight(), 1);
+
+        firstRequestReleased.countDown();
+        assertResult(firstResult.get(10, TimeUnit.SECONDS), 0);
+        assertResult(secondResult.get(10, TimeUnit.SECONDS), 5);
+        assertResult(thirdResult.get(10, TimeUnit.SECONDS), 7);
+
+        assertEquals(requests.size(), 2);
+        assertEquals(requests.get(0).size(), 1);
+        List<MultiplexedResultsRequest> batch = requests.get(1);
+        assertEquals(batch.size(), 3);
+        assertTrue(batch.get(0).isAcknowledgeOnly());
+        assertEquals(batch.get(0).getTaskId().toString(), "query.1.0");
+        assertEquals(batch.get(0).getToken(), 1);
+        assertFalse(batch.get(1).isAcknowledgeOnly());
+        assertEquals(batch.get(1).getTaskId().toString(), "query.1.1");
+        assertEquals(batch.get(1).getToken(), 5);
+        assertEquals(batch.get(2).getTaskId().toString(), "query.1.2");
+        assertEquals(batch.get(2).getToken(), 7);
+    }
+
+    @Test
+    public void testNotSupported()
+            throws Exception
+    {
+        TestingHttpClient httpClient = new TestingHttpClient(request -> new TestingResponse(HttpStatus.NOT_FOUND, ImmutableListMultimap.of(), new byte[0]), executor);
+        MultiplexedExchangeChannel channel = new MultiplexedExchangeChannel(httpClient, CHANNEL_URI, 1);
+        assertTrue(channel.isSupported());
+
+        ListenableFuture<PagesResponse> result = channel.getResults(location("query.1.0", 0), 0, MAX_SIZE);
+        try {
+            result.get(10, TimeUnit.SECONDS);
+            fail("expected batched request to fail");
+        }
+        catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof MultiplexedRequestsNotSupportedException);
+        }
+        assertFalse(channel.isSupported());
+    }
+
+    private static URI location(String taskId, int bufferId)
+    {
+        return URI.create("http://localhost:8080/v1/task/" + taskId + "/results/" + bufferId);
+    }
+
+    private static void assertResult(PagesResponse response, long token)
+    {
+        assertEquals(response.getTaskInstanceId(), "instance");
+        assertEquals(response.getToken(), token);
+        assertEquals(response.getNextToken(), token + 1);
+        assertEquals(response.getPages().size(), 1);
+        assertEquals(response.getPages().get(0).getPositionCount(), 10);
+    }
+
+    private static Response createResponse(List<MultiplexedResultsRequest> entries)
+    {
+        SerializedPage page = PAGES_SERDE.serialize(new Page(10));
+        List<BufferResult> results = entries.stream()
+                .filter(entry -> !entry.isAcknowledgeOnly())
+                .map(entry -> new BufferResult("instance", entry.getToken(), entry.getToken() + 1, false, ImmutableList.of(page)))
+                .collect(toImmutableList());
+
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        try {
+            new MultiplexedPagesResponseWriter().writeTo(results, List.class, List.class, new Annotation[0], null, null, output);
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return new TestingResponse(HttpStatus.OK, ImmutableListMultimap.of(CONTENT_TYPE, PRESTO_PAGES_BATCH), output.toByteArray());
+    }
+
+    private static void awaitUninterruptibly(CountDownLatch latch)
+    {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        }
+    }
+}
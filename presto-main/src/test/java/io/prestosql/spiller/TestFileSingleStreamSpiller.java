@@ -18,6 +18,7 @@ import com.google.common.collect.Iterators;
 import com.google.common.io.Files;
 import com.google.common.util.concurrent.ListeningExecutorService;
 import io.airlift.slice.InputStreamSliceInput;
+import io.airlift.units.DataSize;
 import io.hetu.core.transport.execution.buffer.PageCodecMarker;
 import io.hetu.core.transport.execution.buffer.PagesSerdeUtil;
 import io.hetu.core.transport.execution.buffer.SerializedPage;
@@ -38,6 +39,7 @@ import static com.google.common.io.MoreFiles.deleteRecursively;
 import static com.google.common.io.MoreFiles.listFiles;
 import static com.google.common.io.RecursiveDeleteOption.ALLOW_INSECURE;
 import static com.google.common.util.concurrent.MoreExecutors.listeningDecorator;
+import static io.airlift.units.DataSize.Unit.BYTE;
 import static io.prestosql.memory.context.AggregatedMemoryContext.newSimpleAggregatedMemoryContext;
 import static io.prestosql.metadata.MetadataManager.createTestMetadataManager;
 import static io.prestosql.spi.type.BigintType.BIGINT;
@@ -53,6 +55,7 @@ import static org.testng.Assert.assertTrue;
 public class TestFileSingleStreamSpiller
 {
     private static final List<Type> TYPES = ImmutableList.of(BIGINT, DOUBLE, VARBINARY);
+    private static final long STRIPE_MEMORY = FileSingleStreamSpiller.BUFFER_SIZE + 2 * FileSingleStreamSpillerFactory.DEFAULT_IO_BUFFER_SIZE.toBytes();
 
     private final ListeningExecutorService executor = listeningDecorator(newCachedThreadPool());
     private final File spillPath = Files.createTempDir();
@@ -93,6 +96,60 @@ public class TestFileSingleStreamSpiller
         assertSpill(true, true);
     }
 
+    @Test
+    public void testSpillStriping()
+            throws Exception
+    {
+        File stripePath1 = Files.createTempDir();
+        File stripePath2 = Files.createTempDir();
+        try {
+            assertSpillStriping(stripePath1, stripePath2);
+        }
+        finally {
+            deleteRecursively(stripePath1.toPath(), ALLOW_INSECURE);
+            deleteRecursively(stripePath2.toPath(), ALLOW_INSECURE);
+        }
+    }
+
+    private void assertSpillStriping(File stripePath1, File stripePath2)
+            throws Exception
+    {
+        FileSingleStreamSpillerFactory spillerFactory = new FileSingleStreamSpillerFactory(
+                executor,
+                executor,
+                createTestMetadataManager().getBlockEncodingSerde(),
+                new SpillerStats(),
+                ImmutableList.of(stripePath1.toPath(), stripePath2.toPath()),
+                1.0,
+                true,
+                SpillCompressionCodec.LZ4,
+                true,
+                2,
+                new DataSize(100, BYTE), // small buffers, so that the pages span several of them
+                2);
+        LocalMemoryContext memoryContext = newSimpleAggregatedMemoryContext().newLocalMemoryContext("test");
+        SingleStreamSpiller spiller = spillerFactory.create(TYPES, bytes -> {}, memoryContext);
+        assertEquals(memoryContext.getBytes(), 2 * (FileSingleStreamSpiller.BUFFER_SIZE + 2 * 100));
+
+        List<Page> pages = ImmutableList.of(buildPage(1), buildPage(2), buildPage(3));
+        spiller.spill(pages.get(0)).get();
+        spiller.spill(Iterators.forArray(pages.get(1), pages.get(2))).get();
+        assertEquals(listFiles(stripePath1.toPath()).size(), 1);
+        assertEquals(listFiles(stripePath2.toPath()).size(), 1);
+
+        // pages are read back in the order they were spilled, alternating between the stripes
+        List<Page> spilledPages = ImmutableList.copyOf(spiller.getSpilledPages());
+        assertEquals(spilledPages.size(), pages.size());
+        for (int i = 0; i < pages.size(); i++) {
+            PageAssertions.assertPageEquals(TYPES, spilledPages.get(i), pages.get(i));
+        }
+
+        spiller.close();
+        assertEquals(listFiles(stripePath1.toPath()).size(), 0);
+        assertEquals(listFiles(stripePath2.toPath()).size(), 0);
+        assertEquals(memoryContext.getBytes(), 0);
+    }
+
     private void assertSpill(boolean compression, boolean encryption)
             throws Exception
     {
@@ -112,7 +169,7 @@ public class TestFileSingleStreamSpiller
         Page page = buildPage();
 
         // The spillers will reserve memory in their constructors
-        assertEquals(memoryContext.getBytes(), 4096);
+        assertEquals(memoryContext.getBytes(), STRIPE_MEMORY);
         spiller.spill(page).get();
         spiller.spill(Iterators.forArray(page, page, page)).get();
         assertEquals(listFiles(spillPath.toPath()).size(), 1);
@@ -130,7 +187,7 @@ public class TestFileSingleStreamSpiller
         // they will have non-zero memory reservation.
 
         Iterator<Page> spilledPagesIterator = spiller.getSpilledPages();
-        assertEquals(memoryContext.getBytes(), FileSingleStreamSpiller.BUFFER_SIZE);
+        assertEquals(memoryContext.getBytes(), STRIPE_MEMORY);
         ImmutableList<Page> spilledPages = ImmutableList.copyOf(spilledPagesIterator);
         // The spillers release their memory reservations when they are closed, therefore at this point
         // they will have non-zero memory reservation.
@@ -146,12 +203,17 @@ public class TestFileSingleStreamSpiller
     }
 
     private Page buildPage()
+    {
+        return buildPage(42);
+    }
+
+    private Page buildPage(long firstValue)
     {
         BlockBuilder col1 = BIGINT.createBlockBuilder(null, 1);
         BlockBuilder col2 = DOUBLE.createBlockBuilder(null, 1);
         BlockBuilder col3 = VARBINARY.createBlockBuilder(null, 1);
 
-        col1.writeLong(42).writeLong(45).writeLong(45).writeLong(45).writeLong(45).writeLong(45).closeEntry();
+        col1.writeLong(firstValue).writeLong(45).writeLong(45).writeLong(45).writeLong(45).writeLong(45).closeEntry();
         col2.writeLong(doubleToLongBits(43.0)).writeLong(doubleToLongBits(43.0)).writeLong(doubleToLongBits(43.0)).writeLong(doubleToLongBits(43.0)).writeLong(doubleToLongBits(43.0)).writeLong(doubleToLongBits(43.0)).closeEntry();
         col3.writeLong(doubleToLongBits(43.0)).writeLong(doubleToLongBits(43.0)).writeLong(doubleToLongBits(43.0)).writeLong(doubleToLongBits(43.0)).writeLong(doubleToLongBits(43.0)).writeLong(doubleToLongBits(43.0)).writeLong(1).closeEntry();
 
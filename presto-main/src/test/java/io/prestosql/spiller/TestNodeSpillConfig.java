@@ -34,6 +34,7 @@ public class TestNodeSpillConfig
                 .setMaxSpillPerNode(new DataSize(100, GIGABYTE))
                 .setQueryMaxSpillPerNode(new DataSize(100, GIGABYTE))
                 .setSpillCompressionEnabled(false)
+                .setSpillCompressionCodec(SpillCompressionCodec.ZSTD)
                 .setSpillEncryptionEnabled(false));
     }
 
@@ -44,6 +45,7 @@ public class TestNodeSpillConfig
                 .put("experimental.max-spill-per-node", "10MB")
                 .put("experimental.query-max-spill-per-node", "15 MB")
                 .put("experimental.spill-compression-enabled", "true")
+                .put("experimental.spill-compression-codec", "LZ4")
                 .put("experimental.spill-encryption-enabled", "true")
                 .build();
 
@@ -51,6 +53,7 @@ public class TestNodeSpillConfig
                 .setMaxSpillPerNode(new DataSize(10, MEGABYTE))
                 .setQueryMaxSpillPerNode(new DataSize(15, MEGABYTE))
                 .setSpillCompressionEnabled(true)
+                .setSpillCompressionCodec(SpillCompressionCodec.LZ4)
                 .setSpillEncryptionEnabled(true);
 
         assertFullMapping(properties, expected);
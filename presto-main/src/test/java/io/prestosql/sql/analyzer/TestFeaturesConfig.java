@@ -18,6 +18,7 @@ import io.airlift.configuration.ConfigurationFactory;
 import io.airlift.configuration.testing.ConfigAssertions;
 import io.airlift.units.DataSize;
 import io.airlift.units.Duration;
+import io.hetu.core.transport.execution.buffer.PageCompressionCodec;
 import io.prestosql.operator.aggregation.arrayagg.ArrayAggGroupImplementation;
 import io.prestosql.operator.aggregation.histogram.HistogramGroupImplementation;
 import io.prestosql.operator.aggregation.multimapagg.MultimapAggGroupImplementation;
@@ -80,8 +81,13 @@ public class TestFeaturesConfig
                 .setSpillOrderBy(true)
                 .setSpillWindowOperator(true)
                 .setAggregationOperatorUnspillMemoryLimit(DataSize.valueOf("4MB"))
+                .setSpillJoinRepartition(false)
+                .setJoinOperatorUnspillMemoryLimit(DataSize.valueOf("256MB"))
+                .setJoinSpillMaxRecursionDepth(3)
                 .setSpillerSpillPaths("")
                 .setSpillerThreads(4)
+                .setSpillerStripes(1)
+                .setSpillerIoBufferSize(new DataSize(64, KILOBYTE))
                 .setSpillMaxUsedSpaceThreshold(0.9)
                 .setMemoryRevokingThreshold(0.9)
                 .setMemoryRevokingTarget(0.5)
@@ -94,6 +100,8 @@ public class TestFeaturesConfig
                 .setDefaultFilterFactorEnabled(false)
                 .setEnableForcedExchangeBelowGroupId(true)
                 .setExchangeCompressionEnabled(false)
+                .setExchangeCompressionCodec(PageCompressionCodec.ZSTD)
+                .setExchangeMinCompressionRatio(0.8)
                 .setLegacyTimestamp(true)
                 .setEnableIntermediateAggregations(false)
                 .setPushAggregationThroughJoin(true)
@@ -118,6 +126,8 @@ public class TestFeaturesConfig
                 .setDynamicFilteringDataType(BLOOM_FILTER)
                 .setDynamicFilteringMaxPerDriverSize(new DataSize(10, KILOBYTE))
                 .setDynamicFilteringBloomFilterFpp(0.1)
+                .setDynamicFilteringMergeThreads(4)
+                .setDynamicFilteringWaitMinProbeRows(1_000_000)
                 .setQueryPushDown(true)
                 .setPushLimitDown(true)
                 .setPushLimitThroughOuterJoin(true)
@@ -170,12 +180,19 @@ public class TestFeaturesConfig
                 .put("experimental.spill-order-by", "false")
                 .put("experimental.spill-window-operator", "false")
                 .put("experimental.aggregation-operator-unspill-memory-limit", "100MB")
+                .put("experimental.spill-join-repartition", "true")
+                .put("experimental.join-operator-unspill-memory-limit", "64MB")
+                .put("experimental.join-spill-max-recursion-depth", "5")
                 .put("experimental.spiller-spill-path", "/tmp/custom/spill/path1,/tmp/custom/spill/path2")
                 .put("experimental.spiller-threads", "42")
+                .put("experimental.spiller-stripes", "2")
+                .put("experimental.spiller-io-buffer-size", "1MB")
                 .put("experimental.spiller-max-used-space-threshold", "0.8")
                 .put("experimental.memory-revoking-threshold", "0.2")
                 .put("experimental.memory-revoking-target", "0.8")
                 .put("exchange.compression-enabled", "true")
+                .put("exchange.compression-codec", "LZ4")
+                .put("exchange.min-compression-ratio", "0.5")
                 .put("deprecated.legacy-timestamp", "false")
                 .put("optimizer.enable-intermediate-aggregations", "true")
                 .put("parse-decimal-literals-as-double", "true")
@@ -205,6 +222,8 @@ public class TestFeaturesConfig
                 .put("dynamic-filtering-data-type", "HASHSET")
                 .put("dynamic-filtering-max-per-driver-size", "64kB")
                 .put("dynamic-filtering-bloom-filter-fpp", "0.001")
+                .put("dynamic-filtering-merge-threads", "8")
+                .put("dynamic-filtering-wait-min-probe-rows", "5000")
                 .put("implicit-conversion", "true")
                 .build();
 
@@ -247,12 +266,19 @@ public class TestFeaturesConfig
                 .setSpillOrderBy(false)
                 .setSpillWindowOperator(false)
                 .setAggregationOperatorUnspillMemoryLimit(DataSize.valueOf("100MB"))
+                .setSpillJoinRepartition(true)
+                .setJoinOperatorUnspillMemoryLimit(DataSize.valueOf("64MB"))
+                .setJoinSpillMaxRecursionDepth(5)
                 .setSpillerSpillPaths("/tmp/custom/spill/path1,/tmp/custom/spill/path2")
                 .setSpillerThreads(42)
+                .setSpillerStripes(2)
+                .setSpillerIoBufferSize(new DataSize(1, MEGABYTE))
                 .setSpillMaxUsedSpaceThreshold(0.8)
                 .setMemoryRevokingThreshold(0.2)
                 .setMemoryRevokingTarget(0.8)
                 .setExchangeCompressionEnabled(true)
+                .setExchangeCompressionCodec(PageCompressionCodec.LZ4)
+                .setExchangeMinCompressionRatio(0.5)
                 .setLegacyTimestamp(false)
                 .setEnableIntermediateAggregations(true)
                 .setParseDecimalLiteralsAsDouble(true)
@@ -283,7 +309,9 @@ public class TestFeaturesConfig
                 .setDynamicFilteringMaxPerDriverRowCount(256)
                 .setDynamicFilteringDataType(HASHSET)
                 .setDynamicFilteringMaxPerDriverSize(new DataSize(64, KILOBYTE))
-                .setDynamicFilteringBloomFilterFpp(0.001);
+                .setDynamicFilteringBloomFilterFpp(0.001)
+                .setDynamicFilteringMergeThreads(8)
+                .setDynamicFilteringWaitMinProbeRows(5000);
         assertFullMapping(properties, expected);
     }
 
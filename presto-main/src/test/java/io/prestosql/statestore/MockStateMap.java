@@ -19,8 +19,10 @@ import io.prestosql.spi.statestore.Member;
 import io.prestosql.spi.statestore.StateMap;
 import io.prestosql.spi.statestore.listener.EntryAddedListener;
 import io.prestosql.spi.statestore.listener.EntryEvent;
+import io.prestosql.spi.statestore.listener.EntryRemovedListener;
 import io.prestosql.spi.statestore.listener.MapListener;
 
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
@@ -47,7 +49,13 @@ public class MockStateMap<K, V>
     @Override
     public Map<K, V> getAll(Set<K> keys)
     {
-        return null;
+        Map<K, V> values = new HashMap<>();
+        for (K key : keys) {
+            if (map.containsKey(key)) {
+                values.put(key, map.get(key));
+            }
+        }
+        return values;
     }
 
     @Override
@@ -82,6 +90,11 @@ public class MockStateMap<K, V>
     @Override
     public V remove(K key)
     {
+        for (MapListener listener : addedListeners) {
+            if (listener instanceof EntryRemovedListener) {
+                ((EntryRemovedListener) listener).entryRemoved(new EntryEvent(new Member("localhost", 8080), 2, key, map.get(key)));
+            }
+        }
         return map.remove(key);
     }
 
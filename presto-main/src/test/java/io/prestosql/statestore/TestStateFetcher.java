@@ -15,6 +15,7 @@
 package io.prestosql.statestore;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.collect.ImmutableSet;
 import io.airlift.json.ObjectMapperProvider;
 import io.airlift.units.Duration;
 import io.prestosql.execution.QueryState;
@@ -38,6 +39,7 @@ import java.io.InputStreamReader;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 
+import static java.util.concurrent.TimeUnit.HOURS;
 import static java.util.concurrent.TimeUnit.MILLISECONDS;
 import static java.util.concurrent.TimeUnit.SECONDS;
 import static org.mockito.Matchers.any;
@@ -45,6 +47,7 @@ import static org.mockito.Mockito.atLeastOnce;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertThrows;
 
 /**
  * Test StateFetcher
@@ -271,4 +274,59 @@ public class TestStateFetcher
         Thread.sleep(300);
         verify(stateCollection, atLeastOnce()).getAll();
     }
+
+    @Test
+    public void testFetchStatesAppliesEntryEvents()
+            throws Exception
+    {
+        stateStoreMockData();
+        String mockDataPath = this.getClass().getClassLoader().getResource(MOCK_TEST_DATA_RESOURCE_NAME).getPath();
+        String statesValue = loadMockTestData(new File(mockDataPath), true);
+        Map<String, String> states = new ConcurrentHashMap<>();
+        states.put(STATES_KEY, statesValue);
+        MockStateMap<String, String> stateMap = new MockStateMap<>(STATE_COLLECTION_QUERY, states);
+        when(stateStore.getStateCollection(any())).then(new Returns(stateMap));
+        stateFetcher = new StateFetcher(stateStoreProvider, fetchInterval, stateExpireTime, new Duration(1, HOURS));
+        stateFetcher.registerStateCollection(STATE_COLLECTION_QUERY);
+
+        stateFetcher.fetchStates();
+        assertEquals(StateCacheStore.get().getCachedStates(STATE_COLLECTION_QUERY).keySet(), ImmutableSet.of(STATES_KEY));
+
+        // changes without an entry event are only seen on the next full resync
+        states.put("hidden", statesValue);
+        stateMap.put("added", statesValue);
+        stateFetcher.fetchStates();
+        assertEquals(StateCacheStore.get().getCachedStates(STATE_COLLECTION_QUERY).keySet(), ImmutableSet.of(STATES_KEY, "added"));
+
+        stateMap.remove(STATES_KEY);
+        stateFetcher.fetchStates();
+        assertEquals(StateCacheStore.get().getCachedStates(STATE_COLLECTION_QUERY).keySet(), ImmutableSet.of("added"));
+    }
+
+    @Test
+    public void testFetchStatesRetriesFailedEntries()
+            throws Exception
+    {
+        stateStoreMockData();
+        String mockDataPath = this.getClass().getClassLoader().getResource(MOCK_TEST_DATA_RESOURCE_NAME).getPath();
+        String statesValue = loadMockTestData(new File(mockDataPath), true);
+        Map<String, String> states = new ConcurrentHashMap<>();
+        states.put(STATES_KEY, statesValue);
+        MockStateMap<String, String> stateMap = new MockStateMap<>(STATE_COLLECTION_QUERY, states);
+        when(stateStore.getStateCollection(any())).then(new Returns(stateMap));
+        stateFetcher = new StateFetcher(stateStoreProvider, fetchInterval, stateExpireTime, new Duration(1, HOURS));
+        stateFetcher.registerStateCollection(STATE_COLLECTION_QUERY);
+
+        stateFetcher.fetchStates();
+        assertEquals(StateCacheStore.get().getCachedStates(STATE_COLLECTION_QUERY).keySet(), ImmutableSet.of(STATES_KEY));
+
+        stateMap.put("added", statesValue);
+        stateMap.put("invalid", "{");
+        assertThrows(IOException.class, () -> stateFetcher.fetchStates());
+
+        // keys of a failed refresh are read again without a new entry event
+        states.put("invalid", statesValue);
+        stateFetcher.fetchStates();
+        assertEquals(StateCacheStore.get().getCachedStates(STATE_COLLECTION_QUERY).keySet(), ImmutableSet.of(STATES_KEY, "added", "invalid"));
+    }
 }
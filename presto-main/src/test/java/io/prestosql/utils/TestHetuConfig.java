@@ -39,6 +39,11 @@ public class TestHetuConfig
                 .setIndexCacheLoadingThreads(2L)
                 .setIndexCacheLoadingDelay(new Duration(10, TimeUnit.SECONDS))
                 .setIndexCacheSoftReferenceEnabled(false)
+                .setIndexCacheLoadingWait(new Duration(0, TimeUnit.MILLISECONDS))
+                .setIndexCachePreloadIndices("")
+                .setIndexCachePreloadInterval(new Duration(30, TimeUnit.MINUTES))
+                .setIndexCacheLocalDir("")
+                .setIndexCacheLocalMaxSize(new DataSize(10, GIGABYTE))
                 .setExecutionPlanCacheEnabled(false)
                 .setExecutionPlanCacheTimeout(60000L)
                 .setExecutionPlanCacheMaxItems(1000L)
@@ -68,6 +73,11 @@ public class TestHetuConfig
                 .put("hetu.heuristicindex.filter.cache.loading-delay", "1000ms")
                 .put("hetu.heuristicindex.filter.cache.ttl", "20m")
                 .put("hetu.heuristicindex.filter.cache.soft-reference", "true")
+                .put("hetu.heuristicindex.filter.cache.loading-wait", "500ms")
+                .put("hetu.heuristicindex.filter.cache.preload-indices", "hive.schema.table1,hive.schema.table2")
+                .put("hetu.heuristicindex.filter.cache.preload-interval", "10m")
+                .put("hetu.heuristicindex.filter.cache.local-dir", "/mnt/ssd/hetu/indices")
+                .put("hetu.heuristicindex.filter.cache.local-max-size", "100GB")
                 .put("hetu.executionplan.cache.enabled", "true")
                 .put("hetu.executionplan.cache.timeout", "6000")
                 .put("hetu.executionplan.cache.limit", "10000")
@@ -94,6 +104,11 @@ public class TestHetuConfig
                 .setIndexCacheLoadingThreads(5L)
                 .setIndexCacheLoadingDelay(new Duration(1000, TimeUnit.MILLISECONDS))
                 .setIndexCacheSoftReferenceEnabled(true)
+                .setIndexCacheLoadingWait(new Duration(500, TimeUnit.MILLISECONDS))
+                .setIndexCachePreloadIndices("hive.schema.table1,hive.schema.table2")
+                .setIndexCachePreloadInterval(new Duration(10, TimeUnit.MINUTES))
+                .setIndexCacheLocalDir("/mnt/ssd/hetu/indices")
+                .setIndexCacheLocalMaxSize(new DataSize(100, GIGABYTE))
                 .setExecutionPlanCacheEnabled(true)
                 .setExecutionPlanCacheTimeout(6000L)
                 .setExecutionPlanCacheMaxItems(10000L)
@@ -0,0 +1,238 @@
+/*
+ * Copyright (C) 2018-2020. Huawei Technologies Co., Ltd. All rights reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.plugin.memory;
+
+import io.airlift.slice.Slice;
+import io.airlift.slice.Slices;
+import io.prestosql.spi.block.Block;
+import io.prestosql.spi.block.DictionaryBlock;
+import io.prestosql.spi.block.RunLengthEncodedBlock;
+import io.prestosql.spi.predicate.Domain;
+import io.prestosql.spi.predicate.Range;
+import io.prestosql.spi.predicate.ValueSet;
+import io.prestosql.spi.type.Type;
+
+import java.util.Arrays;
+
+import static io.prestosql.spi.type.RealType.REAL;
+import static io.prestosql.spi.type.TypeUtils.readNativeValue;
+import static java.lang.Float.intBitsToFloat;
+import static java.lang.Math.toIntExact;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * One column of a stored segment: the (possibly dictionary or run length encoded) block
+ * together with the null count and, for orderable types, the min and max value.
+ */
+public final class ColumnSegment
+{
+    private final Type type;
+    private final Block block;
+    private final int nullCount;
+    // null when the type is not orderable or the segment has no non-null values
+    private final Object min;
+    private final Object max;
+
+    private ColumnSegment(Type type, Block block, int nullCount, Object min, Object max)
+    {
+        this.type = requireNonNull(type, "type is null");
+        this.block = requireNonNull(block, "block is null");
+        this.nullCount = nullCount;
+        this.min = min;
+        this.max = max;
+    }
+
+    public static ColumnSegment create(Type type, Block block, boolean encode)
+    {
+        int positionCount = block.getPositionCount();
+        int nullCount = 0;
+        int minPosition = -1;
+        int maxPosition = -1;
+        boolean hasStatistics = hasStatistics(type);
+        for (int position = 0; position < positionCount; position++) {
+            if (block.isNull(position)) {
+                nullCount++;
+                continue;
+            }
+            if (!hasStatistics) {
+                continue;
+            }
+            if (isNaN(type, block, position)) {
+                // NaN is not ordered with other values, so no range can describe the segment
+                hasStatistics = false;
+                minPosition = -1;
+                continue;
+            }
+            if (minPosition < 0) {
+                minPosition = position;
+                maxPosition = position;
+            }
+            else if (type.compareTo(block, position, block, minPosition) < 0) {
+                minPosition = position;
+            }
+            else if (type.compareTo(block, position, block, maxPosition) > 0) {
+                maxPosition = position;
+            }
+        }
+
+        Object min = null;
+        Object max = null;
+        if (minPosition >= 0) {
+            min = copyNativeValue(readNativeValue(type, block, minPosition));
+            max = copyNativeValue(readNativeValue(type, block, maxPosition));
+        }
+
+        Block stored = encode ? encode(type, block) : block;
+        return new ColumnSegment(type, stored, nullCount, min, max);
+    }
+
+    public Block getBlock()
+    {
+        return block;
+    }
+
+    public int getNullCount()
+    {
+        return nullCount;
+    }
+
+    public long getRetainedSizeInBytes()
+    {
+        return block.getRetainedSizeInBytes();
+    }
+
+    /**
+     * Returns false only if no value of this segment can be in the domain.
+     */
+    public boolean mayMatch(Domain domain)
+    {
+        int positionCount = block.getPositionCount();
+        if (positionCount == 0 || domain.isNone()) {
+            return false;
+        }
+        if (nullCount > 0 && domain.isNullAllowed()) {
+            return true;
+        }
+        if (nullCount == positionCount) {
+            return false;
+        }
+        if (min == null) {
+            return true;
+        }
+        Domain values = Domain.create(ValueSet.ofRanges(Range.range(type, min, true, max, true)), false);
+        return domain.overlaps(values);
+    }
+
+    private static boolean hasStatistics(Type type)
+    {
+        if (!type.isOrderable()) {
+            return false;
+        }
+        Class<?> javaType = type.getJavaType();
+        return javaType == long.class || javaType == double.class || javaType == boolean.class || javaType == Slice.class;
+    }
+
+    private static boolean isNaN(Type type, Block block, int position)
+    {
+        if (type.getJavaType() == double.class) {
+            return Double.isNaN(type.getDouble(block, position));
+        }
+        if (type.equals(REAL)) {
+            return Float.isNaN(intBitsToFloat(toIntExact(type.getLong(block, position))));
+        }
+        return false;
+    }
+
+    private static Object copyNativeValue(Object value)
+    {
+        // slices may point into the page, which is dropped once the segment is encoded
+        if (value instanceof Slice) {
+            return Slices.copyOf((Slice) value);
+        }
+        return value;
+    }
+
+    private static Block encode(Type type, Block block)
+    {
+        int positionCount = block.getPositionCount();
+        if (positionCount == 0 || !type.isComparable() || block instanceof DictionaryBlock || block instanceof RunLengthEncodedBlock) {
+            return block;
+        }
+
+        // dictionary ids of the positions, with the first position of each distinct value kept as its dictionary entry
+        int maxDistinct = Math.max(1, positionCount / 2);
+        int[] ids = new int[positionCount];
+        int[] dictionaryPositions = new int[maxDistinct];
+        int distinctCount = 0;
+        int nullId = -1;
+        int[] hashTable = new int[Integer.highestOneBit(maxDistinct) * 4];
+        Arrays.fill(hashTable, -1);
+        int mask = hashTable.length - 1;
+
+        for (int position = 0; position < positionCount; position++) {
+            int id;
+            if (block.isNull(position)) {
+                if (nullId < 0) {
+                    if (distinctCount == maxDistinct) {
+                        return block;
+                    }
+                    nullId = distinctCount;
+                    dictionaryPositions[distinctCount++] = position;
+                }
+                id = nullId;
+            }
+            else {
+                int slot = (int) mix(type.hash(block, position)) & mask;
+                while (true) {
+                    int candidate = hashTable[slot];
+                    if (candidate < 0) {
+                        if (distinctCount == maxDistinct) {
+                            // too many distinct values for an encoding to pay off
+                            return block;
+                        }
+                        id = distinctCount;
+                        hashTable[slot] = id;
+                        dictionaryPositions[distinctCount++] = position;
+                        break;
+                    }
+                    if (candidate != nullId && type.equalTo(block, dictionaryPositions[candidate], block, position)) {
+                        id = candidate;
+                        break;
+                    }
+                    slot = (slot + 1) & mask;
+                }
+            }
+            ids[position] = id;
+        }
+
+        if (distinctCount == 1) {
+            return new RunLengthEncodedBlock(block.getSingleValueBlock(0), positionCount);
+        }
+        Block dictionary = block.copyPositions(dictionaryPositions, 0, distinctCount);
+        if (dictionary.getRetainedSizeInBytes() + (long) Integer.BYTES * positionCount >= block.getRetainedSizeInBytes()) {
+            return block;
+        }
+        return new DictionaryBlock(positionCount, dictionary, ids);
+    }
+
+    private static long mix(long hash)
+    {
+        // spread the bits so sequential hashes do not cluster in the table
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
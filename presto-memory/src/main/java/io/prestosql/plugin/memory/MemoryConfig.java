@@ -14,6 +14,7 @@
 package io.prestosql.plugin.memory;
 
 import io.airlift.configuration.Config;
+import io.airlift.configuration.ConfigDescription;
 import io.airlift.units.DataSize;
 
 import javax.validation.constraints.NotNull;
@@ -22,6 +23,7 @@ public class MemoryConfig
 {
     private int splitsPerNode = Runtime.getRuntime().availableProcessors();
     private DataSize maxDataPerNode = new DataSize(128, DataSize.Unit.MEGABYTE);
+    private boolean columnEncodingEnabled = true;
 
     @NotNull
     public int getSplitsPerNode()
@@ -48,4 +50,17 @@ public class MemoryConfig
         this.maxDataPerNode = maxDataPerNode;
         return this;
     }
+
+    public boolean isColumnEncodingEnabled()
+    {
+        return columnEncodingEnabled;
+    }
+
+    @Config("memory.column-encoding-enabled")
+    @ConfigDescription("Store low cardinality column segments dictionary or run length encoded")
+    public MemoryConfig setColumnEncodingEnabled(boolean columnEncodingEnabled)
+    {
+        this.columnEncodingEnabled = columnEncodingEnabled;
+        return this;
+    }
 }
@@ -15,8 +15,11 @@ package io.prestosql.plugin.memory;
 
 import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonProperty;
+import com.google.common.collect.ImmutableList;
 import io.prestosql.spi.connector.ConnectorInsertTableHandle;
+import io.prestosql.spi.type.Type;
 
+import java.util.List;
 import java.util.Set;
 
 import static com.google.common.base.MoreObjects.toStringHelper;
@@ -27,14 +30,20 @@ public class MemoryInsertTableHandle
 {
     private final long table;
     private final Set<Long> activeTableIds;
+    private final List<Type> columnTypes;
+    private final List<Integer> sortChannels;
 
     @JsonCreator
     public MemoryInsertTableHandle(
             @JsonProperty("table") long table,
-            @JsonProperty("activeTableIds") Set<Long> activeTableIds)
+            @JsonProperty("activeTableIds") Set<Long> activeTableIds,
+            @JsonProperty("columnTypes") List<Type> columnTypes,
+            @JsonProperty("sortChannels") List<Integer> sortChannels)
     {
         this.table = requireNonNull(table, "table is null");
         this.activeTableIds = requireNonNull(activeTableIds, "activeTableIds is null");
+        this.columnTypes = ImmutableList.copyOf(requireNonNull(columnTypes, "columnTypes is null"));
+        this.sortChannels = ImmutableList.copyOf(requireNonNull(sortChannels, "sortChannels is null"));
     }
 
     @JsonProperty
@@ -49,12 +58,25 @@ public class MemoryInsertTableHandle
         return activeTableIds;
     }
 
+    @JsonProperty
+    public List<Type> getColumnTypes()
+    {
+        return columnTypes;
+    }
+
+    @JsonProperty
+    public List<Integer> getSortChannels()
+    {
+        return sortChannels;
+    }
+
     @Override
     public String toString()
     {
         return toStringHelper(this)
                 .add("table", table)
                 .add("activeTableIds", activeTableIds)
+                .add("sortChannels", sortChannels)
                 .toString();
     }
 }
@@ -34,12 +34,15 @@ import io.prestosql.spi.connector.ConnectorTableHandle;
 import io.prestosql.spi.connector.ConnectorTableMetadata;
 import io.prestosql.spi.connector.ConnectorTableProperties;
 import io.prestosql.spi.connector.ConnectorViewDefinition;
+import io.prestosql.spi.connector.Constraint;
+import io.prestosql.spi.connector.ConstraintApplicationResult;
 import io.prestosql.spi.connector.LimitApplicationResult;
 import io.prestosql.spi.connector.SampleType;
 import io.prestosql.spi.connector.SchemaNotFoundException;
 import io.prestosql.spi.connector.SchemaTableName;
 import io.prestosql.spi.connector.SchemaTablePrefix;
 import io.prestosql.spi.connector.ViewNotFoundException;
+import io.prestosql.spi.predicate.TupleDomain;
 import io.prestosql.spi.statistics.ComputedStatistics;
 
 import javax.annotation.concurrent.ThreadSafe;
@@ -59,7 +62,9 @@ import java.util.concurrent.atomic.AtomicLong;
 import static com.google.common.base.Preconditions.checkState;
 import static com.google.common.base.Verify.verify;
 import static com.google.common.collect.ImmutableList.toImmutableList;
+import static com.google.common.collect.ImmutableSet.toImmutableSet;
 import static io.prestosql.spi.StandardErrorCode.ALREADY_EXISTS;
+import static io.prestosql.spi.StandardErrorCode.INVALID_TABLE_PROPERTY;
 import static io.prestosql.spi.StandardErrorCode.NOT_FOUND;
 import static io.prestosql.spi.StandardErrorCode.SCHEMA_NOT_EMPTY;
 import static io.prestosql.spi.connector.SampleType.SYSTEM;
@@ -193,7 +198,7 @@ public class MemoryMetadata
         long tableId = handle.getId();
 
         TableInfo oldInfo = tables.get(tableId);
-        tables.put(tableId, new TableInfo(tableId, newTableName.getSchemaName(), newTableName.getTableName(), oldInfo.getColumns(), oldInfo.getDataFragments()));
+        tables.put(tableId, new TableInfo(tableId, newTableName.getSchemaName(), newTableName.getTableName(), oldInfo.getColumns(), oldInfo.getSortedBy(), oldInfo.getDataFragments()));
 
         tableIds.remove(oldInfo.getSchemaTableName());
         tableIds.put(newTableName, tableId);
@@ -223,15 +228,27 @@ public class MemoryMetadata
             columns.add(new ColumnInfo(new MemoryColumnHandle(i), column.getName(), column.getType()));
         }
 
-        tableIds.put(tableMetadata.getTable(), tableId);
-        tables.put(tableId, new TableInfo(
+        List<String> sortedBy = MemoryTableProperties.getSortedBy(tableMetadata.getProperties());
+        Set<String> columnNames = tableMetadata.getColumns().stream()
+                .map(ColumnMetadata::getName)
+                .collect(toImmutableSet());
+        for (String column : sortedBy) {
+            if (!columnNames.contains(column)) {
+                throw new PrestoException(INVALID_TABLE_PROPERTY, format("Sort column [%s] does not exist in table", column));
+            }
+        }
+
+        TableInfo tableInfo = new TableInfo(
                 tableId,
                 tableMetadata.getTable().getSchemaName(),
                 tableMetadata.getTable().getTableName(),
                 columns.build(),
-                new HashMap<>()));
+                sortedBy,
+                new HashMap<>());
+        tableIds.put(tableMetadata.getTable(), tableId);
+        tables.put(tableId, tableInfo);
 
-        return new MemoryOutputTableHandle(tableId, ImmutableSet.copyOf(tableIds.values()));
+        return new MemoryOutputTableHandle(tableId, ImmutableSet.copyOf(tableIds.values()), tableInfo.getColumnTypes(), tableInfo.getSortChannels());
     }
 
     private void checkSchemaExists(String schemaName)
@@ -265,7 +282,8 @@ public class MemoryMetadata
     public synchronized MemoryInsertTableHandle beginInsert(ConnectorSession session, ConnectorTableHandle tableHandle)
     {
         MemoryTableHandle memoryTableHandle = (MemoryTableHandle) tableHandle;
-        return new MemoryInsertTableHandle(memoryTableHandle.getId(), ImmutableSet.copyOf(tableIds.values()));
+        TableInfo tableInfo = tables.get(memoryTableHandle.getId());
+        return new MemoryInsertTableHandle(memoryTableHandle.getId(), ImmutableSet.copyOf(tableIds.values()), tableInfo.getColumnTypes(), tableInfo.getSortChannels());
     }
 
     @Override
@@ -338,7 +356,7 @@ public class MemoryMetadata
             dataFragments.merge(memoryDataFragment.getHostAddress(), memoryDataFragment, MemoryDataFragment::merge);
         }
 
-        tables.put(tableId, new TableInfo(tableId, info.getSchemaName(), info.getTableName(), info.getColumns(), dataFragments));
+        tables.put(tableId, new TableInfo(tableId, info.getSchemaName(), info.getTableName(), info.getColumns(), info.getSortedBy(), dataFragments));
     }
 
     @Override
@@ -372,6 +390,28 @@ public class MemoryMetadata
                 true));
     }
 
+    @Override
+    public Optional<ConstraintApplicationResult<ConnectorTableHandle>> applyFilter(ConnectorSession session, ConnectorTableHandle handle, Constraint constraint)
+    {
+        MemoryTableHandle table = (MemoryTableHandle) handle;
+
+        // rows skipped by the limit could be the ones matching the filter
+        if (table.getLimit().isPresent()) {
+            return Optional.empty();
+        }
+
+        TupleDomain<ColumnHandle> oldDomain = table.getPredicate();
+        TupleDomain<ColumnHandle> newDomain = oldDomain.intersect(constraint.getSummary());
+        if (oldDomain.equals(newDomain)) {
+            return Optional.empty();
+        }
+
+        // segments are only pruned as a whole, so the filter is still applied to the remaining rows
+        return Optional.of(new ConstraintApplicationResult<>(
+                new MemoryTableHandle(table.getId(), table.getLimit(), table.getSampleRatio(), newDomain),
+                constraint.getSummary()));
+    }
+
     @Override
     public Optional<ConnectorTableHandle> applySample(ConnectorSession session, ConnectorTableHandle handle, SampleType sampleType, double sampleRatio)
     {
@@ -19,16 +19,23 @@ import io.airlift.slice.Slice;
 import io.prestosql.spi.HostAddress;
 import io.prestosql.spi.NodeManager;
 import io.prestosql.spi.Page;
+import io.prestosql.spi.PageBuilder;
+import io.prestosql.spi.block.Block;
 import io.prestosql.spi.connector.ConnectorInsertTableHandle;
 import io.prestosql.spi.connector.ConnectorOutputTableHandle;
 import io.prestosql.spi.connector.ConnectorPageSink;
 import io.prestosql.spi.connector.ConnectorPageSinkProvider;
 import io.prestosql.spi.connector.ConnectorSession;
 import io.prestosql.spi.connector.ConnectorTransactionHandle;
+import io.prestosql.spi.type.Type;
+import it.unimi.dsi.fastutil.longs.AbstractLongComparator;
+import it.unimi.dsi.fastutil.longs.LongArrays;
 
 import javax.inject.Inject;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.List;
 import java.util.concurrent.CompletableFuture;
 
 import static com.google.common.base.Preconditions.checkState;
@@ -62,8 +69,8 @@ public class MemoryPageSinkProvider
         checkState(memoryOutputTableHandle.getActiveTableIds().contains(tableId));
 
         pagesStore.cleanUp(memoryOutputTableHandle.getActiveTableIds());
-        pagesStore.initialize(tableId);
-        return new MemoryPageSink(pagesStore, currentHostAddress, tableId);
+        pagesStore.initialize(tableId, memoryOutputTableHandle.getColumnTypes());
+        return new MemoryPageSink(pagesStore, currentHostAddress, tableId, memoryOutputTableHandle.getColumnTypes(), memoryOutputTableHandle.getSortChannels());
     }
 
     @Override
@@ -74,8 +81,8 @@ public class MemoryPageSinkProvider
         checkState(memoryInsertTableHandle.getActiveTableIds().contains(tableId));
 
         pagesStore.cleanUp(memoryInsertTableHandle.getActiveTableIds());
-        pagesStore.initialize(tableId);
-        return new MemoryPageSink(pagesStore, currentHostAddress, tableId);
+        pagesStore.initialize(tableId, memoryInsertTableHandle.getColumnTypes());
+        return new MemoryPageSink(pagesStore, currentHostAddress, tableId, memoryInsertTableHandle.getColumnTypes(), memoryInsertTableHandle.getSortChannels());
     }
 
     private static class MemoryPageSink
@@ -84,19 +91,36 @@ public class MemoryPageSinkProvider
         private final MemoryPagesStore pagesStore;
         private final HostAddress currentHostAddress;
         private final long tableId;
+        private final List<Type> columnTypes;
+        private final List<Integer> sortChannels;
+        // Hetu: pages of a sorted table are kept until finish, so that all rows of the insert are sorted together
+        private final List<Page> sortBuffer = new ArrayList<>();
+        private long sortBufferBytes;
         private long addedRows;
 
-        public MemoryPageSink(MemoryPagesStore pagesStore, HostAddress currentHostAddress, long tableId)
+        public MemoryPageSink(MemoryPagesStore pagesStore, HostAddress currentHostAddress, long tableId, List<Type> columnTypes, List<Integer> sortChannels)
         {
             this.pagesStore = requireNonNull(pagesStore, "pagesStore is null");
             this.currentHostAddress = requireNonNull(currentHostAddress, "currentHostAddress is null");
             this.tableId = tableId;
+            this.columnTypes = requireNonNull(columnTypes, "columnTypes is null");
+            this.sortChannels = requireNonNull(sortChannels, "sortChannels is null");
         }
 
         @Override
         public CompletableFuture<?> appendPage(Page page)
         {
-            pagesStore.add(tableId, page);
+            if (sortChannels.isEmpty()) {
+                pagesStore.add(tableId, page);
+            }
+            else {
+                // loaded while the source is still positioned on the page, and counted against the limit right away
+                Page loadedPage = page.getLoadedPage();
+                long pageBytes = loadedPage.getRetainedSizeInBytes();
+                pagesStore.reserve(pageBytes);
+                sortBufferBytes += pageBytes;
+                sortBuffer.add(loadedPage);
+            }
             addedRows += page.getPositionCount();
             return NOT_BLOCKED;
         }
@@ -104,12 +128,99 @@ public class MemoryPageSinkProvider
         @Override
         public CompletableFuture<Collection<Slice>> finish()
         {
+            if (!sortBuffer.isEmpty()) {
+                List<Page> sortedPages = sortPages();
+                releaseSortBuffer();
+                for (Page page : sortedPages) {
+                    pagesStore.add(tableId, page);
+                }
+            }
             return completedFuture(ImmutableList.of(new MemoryDataFragment(currentHostAddress, addedRows).toSlice()));
         }
 
         @Override
         public void abort()
         {
+            releaseSortBuffer();
+        }
+
+        private void releaseSortBuffer()
+        {
+            sortBuffer.clear();
+            pagesStore.free(sortBufferBytes);
+            sortBufferBytes = 0;
+        }
+
+        /**
+         * Sorts the buffered rows on the sort channels, nulls last, so that every stored
+         * segment covers a narrow range of the sort key.
+         */
+        private List<Page> sortPages()
+        {
+            // row addresses: page index in the high and position in the low 32 bits
+            int rowCount = 0;
+            for (Page page : sortBuffer) {
+                rowCount += page.getPositionCount();
+            }
+            long[] addresses = new long[rowCount];
+            int address = 0;
+            for (int pageIndex = 0; pageIndex < sortBuffer.size(); pageIndex++) {
+                for (int position = 0; position < sortBuffer.get(pageIndex).getPositionCount(); position++) {
+                    addresses[address++] = ((long) pageIndex << 32) | position;
+                }
+            }
+            LongArrays.quickSort(addresses, new AbstractLongComparator()
+            {
+                @Override
+                public int compare(long left, long right)
+                {
+                    return compareRows(left, right);
+                }
+            });
+
+            ImmutableList.Builder<Page> pages = ImmutableList.builder();
+            PageBuilder pageBuilder = new PageBuilder(columnTypes);
+            for (long rowAddress : addresses) {
+                Page page = sortBuffer.get((int) (rowAddress >>> 32));
+                int position = (int) rowAddress;
+                pageBuilder.declarePosition();
+                for (int channel = 0; channel < columnTypes.size(); channel++) {
+                    columnTypes.get(channel).appendTo(page.getBlock(channel), position, pageBuilder.getBlockBuilder(channel));
+                }
+                if (pageBuilder.isFull()) {
+                    pages.add(pageBuilder.build());
+                    pageBuilder.reset();
+                }
+            }
+            if (!pageBuilder.isEmpty()) {
+                pages.add(pageBuilder.build());
+            }
+            return pages.build();
+        }
+
+        private int compareRows(long left, long right)
+        {
+            Page leftPage = sortBuffer.get((int) (left >>> 32));
+            Page rightPage = sortBuffer.get((int) (right >>> 32));
+            int leftPosition = (int) left;
+            int rightPosition = (int) right;
+            for (int channel : sortChannels) {
+                Block leftBlock = leftPage.getBlock(channel);
+                Block rightBlock = rightPage.getBlock(channel);
+                boolean leftIsNull = leftBlock.isNull(leftPosition);
+                boolean rightIsNull = rightBlock.isNull(rightPosition);
+                if (leftIsNull || rightIsNull) {
+                    if (leftIsNull != rightIsNull) {
+                        return leftIsNull ? 1 : -1;
+                    }
+                    continue;
+                }
+                int result = columnTypes.get(channel).compareTo(leftBlock, leftPosition, rightBlock, rightPosition);
+                if (result != 0) {
+                    return result;
+                }
+            }
+            return 0;
         }
     }
 }
@@ -87,7 +87,8 @@ public final class MemoryPageSourceProvider
                 columnIndexes,
                 expectedRows,
                 memorySplit.getLimit(),
-                sampleRatio);
+                sampleRatio,
+                memoryTable.getPredicate().transform(column -> ((MemoryColumnHandle) column).getColumnIndex()));
         return new FixedPageSource(pages.stream()
                           //              .map(page -> applyFilter(page, domains))
                                         .collect(toList()));
@@ -17,6 +17,9 @@ import com.google.common.collect.ImmutableList;
 import io.prestosql.spi.Page;
 import io.prestosql.spi.PrestoException;
 import io.prestosql.spi.block.Block;
+import io.prestosql.spi.predicate.Domain;
+import io.prestosql.spi.predicate.TupleDomain;
+import io.prestosql.spi.type.Type;
 
 import javax.annotation.concurrent.GuardedBy;
 import javax.annotation.concurrent.ThreadSafe;
@@ -41,6 +44,7 @@ import static java.lang.String.format;
 public class MemoryPagesStore
 {
     private final long maxBytes;
+    private final boolean columnEncodingEnabled;
 
     @GuardedBy("this")
     private long currentBytes;
@@ -51,12 +55,13 @@ public class MemoryPagesStore
     public MemoryPagesStore(MemoryConfig config)
     {
         this.maxBytes = config.getMaxDataPerNode().toBytes();
+        this.columnEncodingEnabled = config.isColumnEncodingEnabled();
     }
 
-    public synchronized void initialize(long tableId)
+    public synchronized void initialize(long tableId, List<Type> columnTypes)
     {
         if (!tables.containsKey(tableId)) {
-            tables.put(tableId, new TableData());
+            tables.put(tableId, new TableData(columnTypes));
         }
     }
 
@@ -68,14 +73,29 @@ public class MemoryPagesStore
 
         page.compact();
 
-        long newSize = currentBytes + page.getRetainedSizeInBytes();
+        TableData tableData = tables.get(tableId);
+        Segment segment = Segment.create(page, tableData.getColumnTypes(), columnEncodingEnabled);
+
+        reserve(segment.getRetainedSizeInBytes());
+
+        tableData.add(segment);
+    }
+
+    /**
+     * Hetu: count bytes against the memory limit, e.g. pages buffered by a sorted insert until it finishes
+     */
+    public synchronized void reserve(long bytes)
+    {
+        long newSize = currentBytes + bytes;
         if (maxBytes < newSize) {
             throw new PrestoException(MEMORY_LIMIT_EXCEEDED, format("Memory limit [%d] for memory connector exceeded", maxBytes));
         }
         currentBytes = newSize;
+    }
 
-        TableData tableData = tables.get(tableId);
-        tableData.add(page);
+    public synchronized void free(long bytes)
+    {
+        currentBytes -= bytes;
     }
 
     public synchronized List<Page> getPages(
@@ -85,7 +105,8 @@ public class MemoryPagesStore
             List<Integer> columnIndexes,
             long expectedRows,
             OptionalLong limit,
-            OptionalDouble sampleRatio)
+            OptionalDouble sampleRatio,
+            TupleDomain<Integer> predicate)
     {
         if (!contains(tableId)) {
             throw new PrestoException(MISSING_DATA, "Failed to find table on a worker.");
@@ -100,18 +121,23 @@ public class MemoryPagesStore
 
         boolean done = false;
         long totalRows = 0;
-        for (int i = partNumber; i < tableData.getPages().size() && !done; i += totalParts) {
+        for (int i = partNumber; i < tableData.getSegments().size() && !done; i += totalParts) {
             if (sampleRatio.isPresent() && ThreadLocalRandom.current().nextDouble() >= sampleRatio.getAsDouble()) {
                 continue;
             }
 
-            Page page = tableData.getPages().get(i);
+            Segment segment = tableData.getSegments().get(i);
+            if (!segment.mayMatch(predicate)) {
+                continue;
+            }
+
+            Page page = segment.getColumns(columnIndexes);
             totalRows += page.getPositionCount();
             if (limit.isPresent() && totalRows > limit.getAsLong()) {
                 page = page.getRegion(0, (int) (page.getPositionCount() - (totalRows - limit.getAsLong())));
                 done = true;
             }
-            partitionedPages.add(getColumns(page, columnIndexes));
+            partitionedPages.add(page);
         }
 
         return partitionedPages.build();
@@ -142,39 +168,121 @@ public class MemoryPagesStore
             Map.Entry<Long, TableData> tablePagesEntry = tableDataIterator.next();
             Long tableId = tablePagesEntry.getKey();
             if (tableId < latestTableId && !activeTableIds.contains(tableId)) {
-                for (Page removedPage : tablePagesEntry.getValue().getPages()) {
-                    currentBytes -= removedPage.getRetainedSizeInBytes();
+                for (Segment removedSegment : tablePagesEntry.getValue().getSegments()) {
+                    currentBytes -= removedSegment.getRetainedSizeInBytes();
                 }
                 tableDataIterator.remove();
             }
         }
     }
 
-    private static Page getColumns(Page page, List<Integer> columnIndexes)
+    /**
+     * Hetu: an inserted page stored column by column, each column with its own statistics
+     * so that scans can skip the segment without reading it.
+     */
+    private static final class Segment
     {
-        Block[] outputBlocks = new Block[columnIndexes.size()];
+        private final int positionCount;
+        private final ColumnSegment[] columns;
+        // used for tables created without column types, which keep no statistics
+        private final Block[] blocks;
+        private final long retainedSizeInBytes;
 
-        for (int i = 0; i < columnIndexes.size(); i++) {
-            outputBlocks[i] = page.getBlock(columnIndexes.get(i));
+        private Segment(int positionCount, ColumnSegment[] columns, Block[] blocks)
+        {
+            this.positionCount = positionCount;
+            this.columns = columns;
+            this.blocks = blocks;
+            long size = 0;
+            for (Block block : blocks) {
+                size += block.getRetainedSizeInBytes();
+            }
+            this.retainedSizeInBytes = size;
         }
 
-        return new Page(page.getPositionCount(), outputBlocks);
+        public static Segment create(Page page, List<Type> columnTypes, boolean encode)
+        {
+            Block[] blocks = new Block[page.getChannelCount()];
+            for (int channel = 0; channel < blocks.length; channel++) {
+                blocks[channel] = page.getBlock(channel);
+            }
+            if (columnTypes.size() != page.getChannelCount()) {
+                return new Segment(page.getPositionCount(), null, blocks);
+            }
+
+            // empty pages are kept as they are, their blocks may still carry values
+            boolean encodeColumns = encode && page.getPositionCount() > 0;
+            ColumnSegment[] columns = new ColumnSegment[blocks.length];
+            for (int channel = 0; channel < blocks.length; channel++) {
+                columns[channel] = ColumnSegment.create(columnTypes.get(channel), blocks[channel], encodeColumns);
+                blocks[channel] = columns[channel].getBlock();
+            }
+            return new Segment(page.getPositionCount(), columns, blocks);
+        }
+
+        public boolean mayMatch(TupleDomain<Integer> predicate)
+        {
+            if (predicate.isNone()) {
+                return false;
+            }
+            if (columns == null || predicate.isAll()) {
+                return true;
+            }
+            for (Map.Entry<Integer, Domain> entry : predicate.getDomains().get().entrySet()) {
+                if (!columns[entry.getKey()].mayMatch(entry.getValue())) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        public Page getColumns(List<Integer> columnIndexes)
+        {
+            Block[] outputBlocks = new Block[columnIndexes.size()];
+
+            for (int i = 0; i < columnIndexes.size(); i++) {
+                outputBlocks[i] = blocks[columnIndexes.get(i)];
+            }
+
+            return new Page(positionCount, outputBlocks);
+        }
+
+        public int getPositionCount()
+        {
+            return positionCount;
+        }
+
+        public long getRetainedSizeInBytes()
+        {
+            return retainedSizeInBytes;
+        }
     }
 
     private static final class TableData
     {
-        private final List<Page> pages = new ArrayList<>();
+        private final List<Type> columnTypes;
+        private final List<Segment> segments = new ArrayList<>();
         private long rows;
 
-        public void add(Page page)
+        public TableData(List<Type> columnTypes)
+        {
+            this.columnTypes = ImmutableList.copyOf(columnTypes);
+        }
+
+        public void add(Segment segment)
+        {
+            segments.add(segment);
+            rows += segment.getPositionCount();
+        }
+
+        private List<Type> getColumnTypes()
         {
-            pages.add(page);
-            rows += page.getPositionCount();
+            return columnTypes;
         }
 
-        private List<Page> getPages()
+        private List<Segment> getSegments()
         {
-            return pages;
+            return segments;
         }
 
         private long getRows()
@@ -0,0 +1,66 @@
+/*
+ * Copyright (C) 2018-2020. Huawei Technologies Co., Ltd. All rights reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.plugin.memory;
+
+import com.google.common.collect.ImmutableList;
+import io.prestosql.spi.session.PropertyMetadata;
+import io.prestosql.spi.type.ArrayType;
+
+import javax.inject.Inject;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+import static com.google.common.collect.ImmutableList.toImmutableList;
+import static io.prestosql.spi.type.VarcharType.VARCHAR;
+import static java.util.Locale.ENGLISH;
+
+public class MemoryTableProperties
+{
+    public static final String SORTED_BY_PROPERTY = "sorted_by";
+
+    private final List<PropertyMetadata<?>> tableProperties;
+
+    @Inject
+    public MemoryTableProperties()
+    {
+        tableProperties = ImmutableList.of(
+                new PropertyMetadata<>(
+                        SORTED_BY_PROPERTY,
+                        "Columns the rows of each insert are sorted by, to narrow the value ranges of the segments",
+                        new ArrayType<>(VARCHAR),
+                        List.class,
+                        ImmutableList.of(),
+                        false,
+                        value -> ((Collection<?>) value).stream()
+                                .map(String.class::cast)
+                                .map(name -> name.toLowerCase(ENGLISH))
+                                .collect(toImmutableList()),
+                        value -> value));
+    }
+
+    public List<PropertyMetadata<?>> getTableProperties()
+    {
+        return tableProperties;
+    }
+
+    @SuppressWarnings("unchecked")
+    public static List<String> getSortedBy(Map<String, Object> tableProperties)
+    {
+        List<String> sortedBy = (List<String>) tableProperties.get(SORTED_BY_PROPERTY);
+        return sortedBy == null ? ImmutableList.of() : sortedBy;
+    }
+}
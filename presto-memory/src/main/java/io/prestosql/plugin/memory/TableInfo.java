@@ -19,11 +19,14 @@ import io.prestosql.spi.HostAddress;
 import io.prestosql.spi.connector.ColumnHandle;
 import io.prestosql.spi.connector.ConnectorTableMetadata;
 import io.prestosql.spi.connector.SchemaTableName;
+import io.prestosql.spi.type.Type;
 
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
 
+import static com.google.common.collect.ImmutableList.toImmutableList;
+import static io.prestosql.plugin.memory.MemoryTableProperties.SORTED_BY_PROPERTY;
 import static java.util.Objects.requireNonNull;
 
 public class TableInfo
@@ -32,14 +35,16 @@ public class TableInfo
     private final String schemaName;
     private final String tableName;
     private final List<ColumnInfo> columns;
+    private final List<String> sortedBy;
     private final Map<HostAddress, MemoryDataFragment> dataFragments;
 
-    public TableInfo(long id, String schemaName, String tableName, List<ColumnInfo> columns, Map<HostAddress, MemoryDataFragment> dataFragments)
+    public TableInfo(long id, String schemaName, String tableName, List<ColumnInfo> columns, List<String> sortedBy, Map<HostAddress, MemoryDataFragment> dataFragments)
     {
         this.id = requireNonNull(id, "handle is null");
         this.schemaName = requireNonNull(schemaName, "schemaName is null");
         this.tableName = requireNonNull(tableName, "tableName is null");
         this.columns = ImmutableList.copyOf(columns);
+        this.sortedBy = ImmutableList.copyOf(sortedBy);
         this.dataFragments = ImmutableMap.copyOf(dataFragments);
     }
 
@@ -65,11 +70,13 @@ public class TableInfo
 
     public ConnectorTableMetadata getMetadata()
     {
+        Map<String, Object> properties = sortedBy.isEmpty() ? ImmutableMap.of() : ImmutableMap.of(SORTED_BY_PROPERTY, sortedBy);
         return new ConnectorTableMetadata(
                 new SchemaTableName(schemaName, tableName),
                 columns.stream()
                         .map(ColumnInfo::getMetadata)
-                        .collect(Collectors.toList()));
+                        .collect(Collectors.toList()),
+                properties);
     }
 
     public List<ColumnInfo> getColumns()
@@ -77,6 +84,34 @@ public class TableInfo
         return columns;
     }
 
+    public List<String> getSortedBy()
+    {
+        return sortedBy;
+    }
+
+    public List<Type> getColumnTypes()
+    {
+        return columns.stream()
+                .map(ColumnInfo::getType)
+                .collect(toImmutableList());
+    }
+
+    /**
+     * Hetu: channels of the sort columns, in sort order
+     */
+    public List<Integer> getSortChannels()
+    {
+        ImmutableList.Builder<Integer> channels = ImmutableList.builder();
+        for (String name : sortedBy) {
+            for (int channel = 0; channel < columns.size(); channel++) {
+                if (columns.get(channel).getName().equals(name)) {
+                    channels.add(channel);
+                }
+            }
+        }
+        return channels.build();
+    }
+
     public ColumnInfo getColumn(ColumnHandle handle)
     {
         return columns.stream()
@@ -14,23 +14,33 @@
 package io.prestosql.plugin.memory;
 
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 import io.airlift.units.DataSize;
 import io.prestosql.spi.HostAddress;
 import io.prestosql.spi.Page;
 import io.prestosql.spi.PrestoException;
+import io.prestosql.spi.block.Block;
 import io.prestosql.spi.block.BlockBuilder;
+import io.prestosql.spi.block.DictionaryBlock;
+import io.prestosql.spi.block.LazyBlock;
+import io.prestosql.spi.block.RunLengthEncodedBlock;
 import io.prestosql.spi.connector.ConnectorInsertTableHandle;
 import io.prestosql.spi.connector.ConnectorOutputTableHandle;
 import io.prestosql.spi.connector.ConnectorPageSink;
 import io.prestosql.spi.connector.ConnectorSession;
+import io.prestosql.spi.predicate.Domain;
+import io.prestosql.spi.predicate.TupleDomain;
 import io.prestosql.testing.TestingConnectorSession;
 import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.Test;
 
+import java.util.List;
 import java.util.OptionalDouble;
 import java.util.OptionalLong;
+import java.util.concurrent.atomic.AtomicBoolean;
 
+import static com.google.common.collect.Iterables.getOnlyElement;
 import static io.prestosql.spi.type.BigintType.BIGINT;
 import static org.testng.Assert.assertEquals;
 import static org.testng.Assert.assertFalse;
@@ -56,7 +66,7 @@ public class TestMemoryPagesStore
     public void testCreateEmptyTable()
     {
         createTable(0L, 0L);
-        assertEquals(pagesStore.getPages(0L, 0, 1, ImmutableList.of(0), 0, OptionalLong.empty(), OptionalDouble.empty()), ImmutableList.of());
+        assertEquals(pagesStore.getPages(0L, 0, 1, ImmutableList.of(0), 0, OptionalLong.empty(), OptionalDouble.empty(), TupleDomain.all()), ImmutableList.of());
     }
 
     @Test
@@ -64,28 +74,28 @@ public class TestMemoryPagesStore
     {
         createTable(0L, 0L);
         insertToTable(0L, 0L);
-        assertEquals(pagesStore.getPages(0L, 0, 1, ImmutableList.of(0), POSITIONS_PER_PAGE, OptionalLong.empty(), OptionalDouble.empty()).size(), 1);
+        assertEquals(pagesStore.getPages(0L, 0, 1, ImmutableList.of(0), POSITIONS_PER_PAGE, OptionalLong.empty(), OptionalDouble.empty(), TupleDomain.all()).size(), 1);
     }
 
     @Test
     public void testInsertPageWithoutCreate()
     {
         insertToTable(0L, 0L);
-        assertEquals(pagesStore.getPages(0L, 0, 1, ImmutableList.of(0), POSITIONS_PER_PAGE, OptionalLong.empty(), OptionalDouble.empty()).size(), 1);
+        assertEquals(pagesStore.getPages(0L, 0, 1, ImmutableList.of(0), POSITIONS_PER_PAGE, OptionalLong.empty(), OptionalDouble.empty(), TupleDomain.all()).size(), 1);
     }
 
     @Test(expectedExceptions = PrestoException.class)
     public void testReadFromUnknownTable()
     {
-        pagesStore.getPages(0L, 0, 1, ImmutableList.of(0), 0, OptionalLong.empty(), OptionalDouble.empty());
+        pagesStore.getPages(0L, 0, 1, ImmutableList.of(0), 0, OptionalLong.empty(), OptionalDouble.empty(), TupleDomain.all());
     }
 
     @Test(expectedExceptions = PrestoException.class)
     public void testTryToReadFromEmptyTable()
     {
         createTable(0L, 0L);
-        assertEquals(pagesStore.getPages(0L, 0, 1, ImmutableList.of(0), 0, OptionalLong.empty(), OptionalDouble.empty()), ImmutableList.of());
-        pagesStore.getPages(0L, 0, 1, ImmutableList.of(0), 42, OptionalLong.empty(), OptionalDouble.empty());
+        assertEquals(pagesStore.getPages(0L, 0, 1, ImmutableList.of(0), 0, OptionalLong.empty(), OptionalDouble.empty(), TupleDomain.all()), ImmutableList.of());
+        pagesStore.getPages(0L, 0, 1, ImmutableList.of(0), 42, OptionalLong.empty(), OptionalDouble.empty(), TupleDomain.all());
     }
 
     @Test
@@ -120,6 +130,114 @@ public class TestMemoryPagesStore
         insertToTable(0L, createOneMegaBytePage(), 0L);
     }
 
+    @Test
+    public void testPruneSegments()
+    {
+        ConnectorPageSink pageSink = pageSinkProvider.createPageSink(
+                MemoryTransactionHandle.INSTANCE,
+                SESSION,
+                new MemoryOutputTableHandle(0L, ImmutableSet.of(0L), ImmutableList.of(BIGINT), ImmutableList.of()));
+        pageSink.appendPage(createSequencePage(0, 10));
+        pageSink.appendPage(createSequencePage(100, 10));
+        pageSink.finish();
+
+        assertEquals(getPages(TupleDomain.all()).size(), 2);
+        assertEquals(getPages(TupleDomain.withColumnDomains(ImmutableMap.of(0, Domain.singleValue(BIGINT, 105L)))).size(), 1);
+        assertEquals(getPages(TupleDomain.withColumnDomains(ImmutableMap.of(0, Domain.singleValue(BIGINT, 50L)))).size(), 0);
+        assertEquals(getPages(TupleDomain.withColumnDomains(ImmutableMap.of(0, Domain.onlyNull(BIGINT)))).size(), 0);
+        assertEquals(getPages(TupleDomain.none()).size(), 0);
+    }
+
+    @Test
+    public void testColumnEncoding()
+    {
+        BlockBuilder constant = BIGINT.createFixedSizeBlockBuilder(100);
+        BlockBuilder lowCardinality = BIGINT.createFixedSizeBlockBuilder(100);
+        for (int i = 0; i < 100; i++) {
+            BIGINT.writeLong(constant, 42L);
+            BIGINT.writeLong(lowCardinality, i % 4);
+        }
+        ConnectorPageSink pageSink = pageSinkProvider.createPageSink(
+                MemoryTransactionHandle.INSTANCE,
+                SESSION,
+                new MemoryOutputTableHandle(0L, ImmutableSet.of(0L), ImmutableList.of(BIGINT, BIGINT, BIGINT), ImmutableList.of()));
+        pageSink.appendPage(new Page(constant.build(), lowCardinality.build(), createSequencePage(0, 100).getBlock(0)));
+        pageSink.finish();
+
+        Page page = getOnlyElement(pagesStore.getPages(0L, 0, 1, ImmutableList.of(0, 1, 2), 100, OptionalLong.empty(), OptionalDouble.empty(), TupleDomain.all()));
+        assertTrue(page.getBlock(0) instanceof RunLengthEncodedBlock);
+        assertTrue(page.getBlock(1) instanceof DictionaryBlock);
+        assertFalse(page.getBlock(2) instanceof DictionaryBlock);
+        for (int position = 0; position < 100; position++) {
+            assertEquals(BIGINT.getLong(page.getBlock(0), position), 42L);
+            assertEquals(BIGINT.getLong(page.getBlock(1), position), position % 4);
+            assertEquals(BIGINT.getLong(page.getBlock(2), position), position);
+        }
+    }
+
+    @Test
+    public void testSortedInsert()
+    {
+        ConnectorPageSink pageSink = pageSinkProvider.createPageSink(
+                MemoryTransactionHandle.INSTANCE,
+                SESSION,
+                new MemoryOutputTableHandle(0L, ImmutableSet.of(0L), ImmutableList.of(BIGINT), ImmutableList.of(0)));
+        pageSink.appendPage(createSequencePage(5, 5));
+        pageSink.appendPage(createSequencePage(0, 5));
+        pageSink.finish();
+
+        Page page = getOnlyElement(getPages(TupleDomain.all()));
+        for (int position = 0; position < 10; position++) {
+            assertEquals(BIGINT.getLong(page.getBlock(0), position), position);
+        }
+    }
+
+    @Test(expectedExceptions = PrestoException.class, expectedExceptionsMessageRegExp = "Memory limit \\[1048576\\] for memory connector exceeded")
+    public void testSortedInsertMemoryLimitExceeded()
+    {
+        ConnectorPageSink pageSink = createSortedPageSink();
+        pageSink.appendPage(createSequencePage(0, 70_000));
+        // the buffered pages are counted before the insert finishes
+        pageSink.appendPage(createSequencePage(70_000, 70_000));
+    }
+
+    @Test
+    public void testSortedInsertAbortReleasesMemory()
+    {
+        ConnectorPageSink pageSink = createSortedPageSink();
+        pageSink.appendPage(createSequencePage(0, 70_000));
+        pageSink.abort();
+
+        pageSink = createSortedPageSink();
+        pageSink.appendPage(createSequencePage(0, 70_000));
+        pageSink.finish();
+        assertEquals(getPages(TupleDomain.all()).stream().mapToInt(Page::getPositionCount).sum(), 70_000);
+    }
+
+    @Test
+    public void testSortedInsertLoadsLazyPage()
+    {
+        ConnectorPageSink pageSink = createSortedPageSink();
+        Block block = createSequencePage(0, 10).getBlock(0);
+        AtomicBoolean loaded = new AtomicBoolean();
+        pageSink.appendPage(new Page(new LazyBlock<>(block.getPositionCount(), lazyBlock -> {
+            loaded.set(true);
+            lazyBlock.setBlock(block);
+        })));
+        // the source may move on once the page is appended
+        assertTrue(loaded.get());
+        pageSink.finish();
+        assertEquals(getOnlyElement(getPages(TupleDomain.all())).getPositionCount(), 10);
+    }
+
+    private ConnectorPageSink createSortedPageSink()
+    {
+        return pageSinkProvider.createPageSink(
+                MemoryTransactionHandle.INSTANCE,
+                SESSION,
+                new MemoryOutputTableHandle(0L, ImmutableSet.of(0L), ImmutableList.of(BIGINT), ImmutableList.of(0)));
+    }
+
     private void insertToTable(long tableId, Long... activeTableIds)
     {
         insertToTable(tableId, createPage(), activeTableIds);
@@ -146,12 +264,26 @@ public class TestMemoryPagesStore
 
     private static ConnectorOutputTableHandle createMemoryOutputTableHandle(long tableId, Long... activeTableIds)
     {
-        return new MemoryOutputTableHandle(tableId, ImmutableSet.copyOf(activeTableIds));
+        return new MemoryOutputTableHandle(tableId, ImmutableSet.copyOf(activeTableIds), ImmutableList.of(), ImmutableList.of());
     }
 
     private static ConnectorInsertTableHandle createMemoryInsertTableHandle(long tableId, Long[] activeTableIds)
     {
-        return new MemoryInsertTableHandle(tableId, ImmutableSet.copyOf(activeTableIds));
+        return new MemoryInsertTableHandle(tableId, ImmutableSet.copyOf(activeTableIds), ImmutableList.of(), ImmutableList.of());
+    }
+
+    private List<Page> getPages(TupleDomain<Integer> predicate)
+    {
+        return pagesStore.getPages(0L, 0, 1, ImmutableList.of(0), 0, OptionalLong.empty(), OptionalDouble.empty(), predicate);
+    }
+
+    private static Page createSequencePage(long start, int length)
+    {
+        BlockBuilder blockBuilder = BIGINT.createFixedSizeBlockBuilder(length);
+        for (int i = 0; i < length; i++) {
+            BIGINT.writeLong(blockBuilder, start + i);
+        }
+        return new Page(blockBuilder.build());
     }
 
     private static Page createPage()
@@ -96,13 +96,14 @@ public class TestMemorySmoke
 
         // Probe-side is not scanned at all, due to dynamic filtering:
         // Note that because of the Global Dynamic Filter not being applied in the Memory Connector, we have changed this test
+        // Build-side segments are all pruned, since no segment holds a negative totalprice
         QueryStats stats = runner.getCoordinator().getQueryManager().getFullQueryInfo(result.getQueryId()).getQueryStats();
         Set rowsRead = stats.getOperatorSummaries()
                             .stream()
                             .filter(summary -> summary.getOperatorType().equals("ScanFilterAndProjectOperator"))
                             .map(summary -> summary.getInputPositions())
                             .collect(toImmutableSet());
-        assertEquals(rowsRead, ImmutableSet.of(60_175L, buildSideRowsCount));
+        assertEquals(rowsRead, ImmutableSet.of(60_175L, 0L));
     }
 
     @Test
@@ -130,6 +131,7 @@ public class TestMemorySmoke
 
         // Probe-side is dynamically filtered:
         // Note: because the global dynamic filter is not applied in the memory connector, we have changed the assert value for this test
+        // Build-side segments are not pruned, since every segment's comment range includes the value
         QueryStats stats = runner.getCoordinator().getQueryManager().getFullQueryInfo(result.getQueryId()).getQueryStats();
         Set rowsRead = stats.getOperatorSummaries()
                             .stream()
@@ -139,6 +141,19 @@ public class TestMemorySmoke
         assertEquals(rowsRead, ImmutableSet.of(60_175L, buildSideRowsCount));
     }
 
+    @Test
+    public void testSortedTable()
+    {
+        assertUpdate("CREATE TABLE test_sorted WITH (sorted_by = ARRAY['custkey']) AS SELECT * FROM tpch.tiny.orders", "SELECT count(*) FROM orders");
+        assertQuery("SELECT orderkey FROM test_sorted WHERE custkey = 370", "SELECT orderkey FROM orders WHERE custkey = 370");
+        assertQuery("SELECT count(*) FROM test_sorted WHERE custkey BETWEEN 100 AND 200", "SELECT count(*) FROM orders WHERE custkey BETWEEN 100 AND 200");
+        assertQuery("SELECT count(*) FROM test_sorted WHERE custkey IS NULL", "SELECT 0");
+        assertUpdate("INSERT INTO test_sorted SELECT * FROM tpch.tiny.orders WHERE custkey = 370", "SELECT count(*) FROM orders WHERE custkey = 370");
+        assertQuery("SELECT count(*) FROM test_sorted WHERE custkey = 370", "SELECT 2 * count(*) FROM orders WHERE custkey = 370");
+
+        assertQueryFails("CREATE TABLE test_sorted_invalid WITH (sorted_by = ARRAY['unknown']) AS SELECT * FROM tpch.tiny.nation", "Sort column \\[unknown\\] does not exist in table");
+    }
+
     @Test
     public void testCreateTableWithNoData()
     {
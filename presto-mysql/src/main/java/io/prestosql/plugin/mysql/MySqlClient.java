@@ -33,9 +33,11 @@ import io.prestosql.plugin.jdbc.JdbcTypeHandle;
 import io.prestosql.plugin.jdbc.StatsCollecting;
 import io.prestosql.plugin.jdbc.WriteMapping;
 import io.prestosql.spi.PrestoException;
+import io.prestosql.spi.connector.ColumnHandle;
 import io.prestosql.spi.connector.ConnectorSession;
 import io.prestosql.spi.connector.ConnectorTableMetadata;
 import io.prestosql.spi.connector.SchemaTableName;
+import io.prestosql.spi.sql.SqlQueryWriter;
 import io.prestosql.spi.type.StandardTypes;
 import io.prestosql.spi.type.Type;
 import io.prestosql.spi.type.TypeManager;
@@ -53,7 +55,10 @@ import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
 import java.util.Optional;
+import java.util.OptionalInt;
 import java.util.function.BiFunction;
 
 import static com.fasterxml.jackson.core.JsonFactory.Feature.CANONICALIZE_FIELD_NAMES;
@@ -86,12 +91,14 @@ public class MySqlClient
         extends BaseJdbcClient
 {
     private final Type jsonType;
+    private final boolean queryPushDownEnabled;
 
     @Inject
-    public MySqlClient(BaseJdbcConfig config, @StatsCollecting ConnectionFactory connectionFactory, TypeManager typeManager)
+    public MySqlClient(BaseJdbcConfig config, MySqlConfig mySqlConfig, @StatsCollecting ConnectionFactory connectionFactory, TypeManager typeManager)
     {
         super(config, "`", connectionFactory);
         this.jsonType = typeManager.getType(new TypeSignature(StandardTypes.JSON));
+        this.queryPushDownEnabled = mySqlConfig.isQueryPushDownEnabled();
     }
 
     @Override
@@ -268,6 +275,37 @@ public class MySqlClient
         return true;
     }
 
+    @Override
+    public boolean supportsMultiRowInsert()
+    {
+        return true;
+    }
+
+    @Override
+    public OptionalInt getMaxInsertParameters()
+    {
+        // MySQL limits a prepared statement to 65535 placeholders
+        return OptionalInt.of(65535);
+    }
+
+    @Override
+    public Optional<SqlQueryWriter> getSqlQueryWriter()
+    {
+        if (!queryPushDownEnabled) {
+            return Optional.empty();
+        }
+        return Optional.of(new MySqlSqlQueryWriter());
+    }
+
+    @Override
+    public Map<String, ColumnHandle> getColumns(ConnectorSession session, String sql, Map<String, Type> types)
+    {
+        if (!queryPushDownEnabled) {
+            return Collections.emptyMap();
+        }
+        return getSubQueryColumns(session, sql, types);
+    }
+
     private ColumnMapping jsonColumnMapping()
     {
         return ColumnMapping.sliceMapping(
@@ -14,6 +14,7 @@
 package io.prestosql.plugin.mysql;
 
 import io.airlift.configuration.Config;
+import io.airlift.configuration.ConfigDescription;
 import io.airlift.units.Duration;
 
 import javax.validation.constraints.Min;
@@ -25,6 +26,7 @@ public class MySqlConfig
     private boolean autoReconnect = true;
     private int maxReconnects = 3;
     private Duration connectionTimeout = new Duration(10, TimeUnit.SECONDS);
+    private boolean queryPushDownEnabled = true;
 
     public boolean isAutoReconnect()
     {
@@ -62,4 +64,17 @@ public class MySqlConfig
         this.connectionTimeout = connectionTimeout;
         return this;
     }
+
+    public boolean isQueryPushDownEnabled()
+    {
+        return queryPushDownEnabled;
+    }
+
+    @Config("mysql.query.pushdown.enabled")
+    @ConfigDescription("Enable sub-query push down to MySQL")
+    public MySqlConfig setQueryPushDownEnabled(boolean queryPushDownEnabled)
+    {
+        this.queryPushDownEnabled = queryPushDownEnabled;
+        return this;
+    }
 }
@@ -0,0 +1,231 @@
+/*
+ * Copyright (C) 2018-2020. Huawei Technologies Co., Ltd. All rights reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.plugin.mysql;
+
+import io.prestosql.spi.sql.expression.Operators;
+import io.prestosql.spi.sql.expression.OrderBy;
+import io.prestosql.spi.sql.expression.Selection;
+import io.prestosql.spi.sql.expression.Time;
+import io.prestosql.spi.sql.expression.Types;
+import io.prestosql.sql.builder.BaseSqlQueryWriter;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+
+import static io.prestosql.spi.type.StandardTypes.BIGINT;
+import static io.prestosql.spi.type.StandardTypes.DATE;
+import static io.prestosql.spi.type.StandardTypes.DOUBLE;
+import static io.prestosql.spi.type.StandardTypes.INTEGER;
+import static io.prestosql.spi.type.StandardTypes.REAL;
+import static io.prestosql.spi.type.StandardTypes.SMALLINT;
+import static io.prestosql.spi.type.StandardTypes.TIME;
+import static io.prestosql.spi.type.StandardTypes.TIMESTAMP;
+import static io.prestosql.spi.type.StandardTypes.TINYINT;
+import static io.prestosql.spi.type.StandardTypes.VARBINARY;
+import static io.prestosql.spi.type.StandardTypes.VARCHAR;
+
+/**
+ * Implementation of BaseSqlQueryWriter. It knows how to write
+ * MySQL SQL for the Hetu's logical plan.
+ */
+public class MySqlSqlQueryWriter
+        extends BaseSqlQueryWriter
+{
+    private static final String CHAR_TYPE_PREFIX = "char(";
+
+    private static final String DECIMAL_TYPE_PREFIX = "decimal(";
+
+    private static final String VARCHAR_TYPE_PREFIX = "varchar(";
+
+    MySqlSqlQueryWriter()
+    {
+        super();
+    }
+
+    @Override
+    public String identifier(String value, boolean delimited)
+    {
+        if (!delimited) {
+            return value;
+        }
+        return '`' + value.replace("`", "``") + '`';
+    }
+
+    @Override
+    public String formatStringLiteral(String literal)
+    {
+        // MySQL treats backslash as an escape character and does not support unicode escapes in string literals
+        return "'" + literal.replace("\\", "\\\\").replace("'", "''") + "'";
+    }
+
+    @Override
+    public String charLiteral(String value)
+    {
+        return formatStringLiteral(value);
+    }
+
+    @Override
+    public String decimalLiteral(String value)
+    {
+        return value;
+    }
+
+    @Override
+    public String genericLiteral(String type, String value)
+    {
+        String lowerType = type.toLowerCase(Locale.ENGLISH);
+        switch (lowerType) {
+            case DATE:
+            case TIME:
+            case TIMESTAMP:
+                return super.genericLiteral(lowerType, value);
+            default:
+                return cast(formatStringLiteral(value), type, false, false);
+        }
+    }
+
+    @Override
+    public String cast(String expression, String type, boolean safe, boolean typeOnly)
+    {
+        if (safe) {
+            throw new UnsupportedOperationException("MySQL connector does not support TRY_CAST");
+        }
+        return super.cast(expression, type, false, typeOnly);
+    }
+
+    @Override
+    public String toNativeType(String type)
+    {
+        String lowerType = type.toLowerCase(Locale.ENGLISH);
+        switch (lowerType) {
+            case TINYINT:
+            case SMALLINT:
+            case INTEGER:
+            case BIGINT:
+                return "signed";
+
+            case REAL:
+                return "float";
+
+            case DOUBLE:
+                return "double";
+
+            case VARCHAR:
+                return "char";
+
+            case VARBINARY:
+                return "binary";
+
+            case TIMESTAMP:
+                return "datetime(3)";
+
+            case DATE:
+            case TIME:
+                return lowerType;
+
+            default:
+                if (lowerType.startsWith(DECIMAL_TYPE_PREFIX) || lowerType.startsWith(CHAR_TYPE_PREFIX)) {
+                    return lowerType;
+                }
+                else if (lowerType.startsWith(VARCHAR_TYPE_PREFIX)) {
+                    return lowerType.substring("var".length());
+                }
+                throw new UnsupportedOperationException("MySQL connector does not support the type " + type);
+        }
+    }
+
+    @Override
+    public String arithmeticBinary(Operators.ArithmeticOperator operator, String left, String right)
+    {
+        if (operator == Operators.ArithmeticOperator.DIVIDE) {
+            // MySQL does not truncate the division of integers
+            throw new UnsupportedOperationException("MySQL connector does not support division");
+        }
+        return super.arithmeticBinary(operator, left, right);
+    }
+
+    @Override
+    public String filter(String value)
+    {
+        throw new UnsupportedOperationException("MySQL connector does not support aggregations with FILTER");
+    }
+
+    @Override
+    public String groupByIdElement(List<List<String>> groSets)
+    {
+        throw new UnsupportedOperationException("MySQL connector does not support GROUPING SETS");
+    }
+
+    @Override
+    public String intervalLiteral(Time.IntervalSign signLiteral, String value, Time.IntervalField startField, Optional<Time.IntervalField> endField)
+    {
+        throw new UnsupportedOperationException("MySQL connector does not support interval literals");
+    }
+
+    @Override
+    public String row(List<String> expressions)
+    {
+        throw new UnsupportedOperationException("MySQL connector does not support row constructor");
+    }
+
+    @Override
+    public String arrayConstructor(List<String> values)
+    {
+        throw new UnsupportedOperationException("MySQL connector does not support array constructor");
+    }
+
+    @Override
+    public String subscriptExpression(String base, String index)
+    {
+        throw new UnsupportedOperationException("MySQL connector does not support subscript expression");
+    }
+
+    @Override
+    public String lambdaExpression(List<String> arguments, String body)
+    {
+        throw new UnsupportedOperationException("MySQL connector does not support lambda");
+    }
+
+    @Override
+    public String orderBy(List<OrderBy> orders)
+    {
+        return orderByWithoutNullOrdering(orders);
+    }
+
+    @Override
+    public String join(List<Selection> symbols, Types.JoinType type, String left, String leftId, String right, String rightId, List<String> criteria, Optional<String> filter)
+    {
+        if (type == Types.JoinType.FULL) {
+            throw new UnsupportedOperationException("MySQL connector does not support FULL JOIN");
+        }
+        return super.join(symbols, type, left, leftId, right, rightId, criteria, filter);
+    }
+
+    @Override
+    public String setOperator(List<Selection> symbols, Types.SetOperator type, List<String> relations)
+    {
+        if (type != Types.SetOperator.UNION_ALL && type != Types.SetOperator.UNION_DISTINCT) {
+            throw new UnsupportedOperationException("MySQL connector does not support " + type.getLabel());
+        }
+        return super.setOperator(symbols, type, relations);
+    }
+
+    @Override
+    public String select(List<Selection> symbols, String from)
+    {
+        return super.select(symbols, aliasDerivedTable(from));
+    }
+}
@@ -0,0 +1,69 @@
+/*
+ * Copyright (C) 2018-2020. Huawei Technologies Co., Ltd. All rights reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.plugin.mysql;
+
+import com.google.common.collect.ImmutableList;
+import io.prestosql.spi.sql.expression.Operators;
+import io.prestosql.spi.sql.expression.OrderBy;
+import io.prestosql.spi.sql.expression.Selection;
+import io.prestosql.spi.sql.expression.Types;
+import org.testng.annotations.Test;
+
+import java.util.List;
+import java.util.Optional;
+
+import static io.prestosql.spi.block.SortOrder.DESC_NULLS_FIRST;
+import static io.prestosql.spi.block.SortOrder.DESC_NULLS_LAST;
+import static org.testng.Assert.assertEquals;
+
+public class TestMySqlSqlQueryWriter
+{
+    private static final List<Selection> SYMBOLS = ImmutableList.of(new Selection("a"), new Selection("count(*)", "c"));
+
+    @Test
+    public void testQueries()
+    {
+        MySqlSqlQueryWriter writer = new MySqlSqlQueryWriter();
+        assertEquals(
+                writer.aggregation(SYMBOLS, Optional.of(ImmutableList.of("a")), Optional.empty(), "(SELECT a FROM tpch.orders)"),
+                "(SELECT a, count(*) AS c FROM (SELECT a FROM tpch.orders) hetu_dt_0 GROUP BY a)");
+        assertEquals(
+                writer.topN(SYMBOLS, ImmutableList.of(new OrderBy("c", DESC_NULLS_FIRST), new OrderBy("a", DESC_NULLS_LAST)), 5, "tpch.orders"),
+                "(SELECT a, count(*) AS c FROM tpch.orders ORDER BY CASE WHEN c IS NULL THEN 1 ELSE 0 END DESC, c DESC, a DESC LIMIT 5)");
+    }
+
+    @Test
+    public void testLiteralsAndTypes()
+    {
+        MySqlSqlQueryWriter writer = new MySqlSqlQueryWriter();
+        assertEquals(writer.identifier("a`b", true), "`a``b`");
+        assertEquals(writer.stringLiteral("a\\b'c"), "'a\\\\b''c'");
+        assertEquals(writer.decimalLiteral("1.50"), "1.50");
+        assertEquals(writer.genericLiteral("bigint", "5"), "CAST('5' AS signed)");
+        assertEquals(writer.cast("x", "varchar(10)", false, false), "CAST(x AS char(10))");
+    }
+
+    @Test(expectedExceptions = UnsupportedOperationException.class)
+    public void testDivision()
+    {
+        new MySqlSqlQueryWriter().arithmeticBinary(Operators.ArithmeticOperator.DIVIDE, "a", "b");
+    }
+
+    @Test(expectedExceptions = UnsupportedOperationException.class)
+    public void testIntersect()
+    {
+        new MySqlSqlQueryWriter().setOperator(SYMBOLS, Types.SetOperator.INTERSECT_DISTINCT, ImmutableList.of("(SELECT a FROM t)", "(SELECT a FROM u)"));
+    }
+}
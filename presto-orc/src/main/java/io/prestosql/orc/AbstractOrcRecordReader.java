@@ -61,6 +61,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.OptionalInt;
+import java.util.Set;
 import java.util.function.Function;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
@@ -80,6 +81,7 @@ abstract class AbstractOrcRecordReader<T extends AbstractColumnReader>
         implements Closeable
 {
     private static final int INSTANCE_SIZE = ClassLayout.parseClass(AbstractOrcRecordReader.class).instanceSize();
+    private static final String BITMAP_INDEX_ID = "BITMAP";
     private static final Logger log = Logger.get(AbstractOrcRecordReader.class);
     private final OrcDataSource orcDataSource;
 
@@ -100,6 +102,7 @@ abstract class AbstractOrcRecordReader<T extends AbstractColumnReader>
 
     protected final List<StripeInformation> stripes;
     private final StripeReader stripeReader;
+    private final int rowsInRowGroup;
     protected int currentStripe = -1;
     private AggregatedMemoryContext currentStripeSystemMemoryContext;
 
@@ -185,6 +188,7 @@ abstract class AbstractOrcRecordReader<T extends AbstractColumnReader>
 
         // it is possible that old versions of orc use 0 to mean there are no row groups
         checkArgument(rowsInRowGroup > 0, "rowsInRowGroup must be greater than zero");
+        this.rowsInRowGroup = rowsInRowGroup;
         checkArgument(orDomains != null, "orDomain map cannot be null");
 
         // sort stripes by file position
@@ -199,22 +203,12 @@ abstract class AbstractOrcRecordReader<T extends AbstractColumnReader>
         }
         stripeInfos.sort(comparingLong(info -> info.getStripe().getOffset()));
 
-        // assumptions made about the index:
-        // 1. they are all bitmap indexes
-        // 2. the index split offset corresponds to the stripe offset
-
-        // each stripe could have an index for multiple columns
+        // the index split offset corresponds to the stripe offset, and each stripe could have
+        // indexes of several types for several columns
         Map<Long, List<IndexMetadata>> stripeOffsetToIndex = new HashMap<>();
-        if (indexes.isPresent() && !indexes.get().isEmpty()
-                // check there is only one type of index
-                && indexes.get().stream().map(i -> i.getIndex().getId()).collect(Collectors.toSet()).size() == 1) {
+        if (indexes.isPresent()) {
             for (IndexMetadata i : indexes.get()) {
-                long offset = i.getSplitStart();
-
-                stripeOffsetToIndex.putIfAbsent(offset, new LinkedList<>());
-
-                List<IndexMetadata> stripeIndexes = stripeOffsetToIndex.get(offset);
-                stripeIndexes.add(i);
+                stripeOffsetToIndex.computeIfAbsent(i.getSplitStart(), offset -> new LinkedList<>()).add(i);
             }
         }
 
@@ -222,8 +216,9 @@ abstract class AbstractOrcRecordReader<T extends AbstractColumnReader>
          *      Stripes in the given spilt are checked using additional metadata like Statistics, Index; whichever
          *  available and applied to eliminate reading and matching of the stripes which do not contain the data.
          *  Stats: minmax, null counts etc are applied here to check if any of the predicate conditions match
-         *  Heuristic Index: bitmap,bloom are applied to check and confirm if the stripe has matching records
-         *      as per the predicates; if not then eliminated.
+         *  Heuristic Index: bitmap, bloom and minmax are applied to check and confirm if the stripe has matching
+         *      records as per the predicates; if not then eliminated. Conjunct domains exclude the stripe as soon as
+         *      one index rules out its column, disjunct domains only when every column is ruled out.
          *
          *  Additionally, if BITMAP Index is present; the rows within a given rowGroup matching the Conjunct domains
          *  are selected and are guaranteed to match the predicate.
@@ -296,64 +291,85 @@ abstract class AbstractOrcRecordReader<T extends AbstractColumnReader>
     private boolean filterStripeUsingIndex(StripeInformation stripe, Map<Long, List<IndexMetadata>> stripeOffsetToIndex,
                                            Map<String, Domain> and, Map<String, List<Domain>> or)
     {
-        if (stripeOffsetToIndex.isEmpty()) {
+        List<IndexMetadata> stripeIndex = stripeOffsetToIndex.get(stripe.getOffset());
+        if (stripeIndex == null || stripeIndex.isEmpty()) {
             return false;
         }
 
-        List<IndexMetadata> stripeIndex = stripeOffsetToIndex.get(Long.valueOf(stripe.getOffset()));
-        Map<Index, Domain> andDomainMap = new HashMap<>();
-        Map<Index, Domain> orDomainMap = new HashMap<>();
-
+        // bloom and minmax indexes can only rule out the whole stripe, so they are checked first;
+        // bitmap indexes of all conjunct columns are intersected to find the matching rows as well
+        Map<Index, Domain> bitmapDomainMap = new HashMap<>();
         for (Map.Entry<String, Domain> domainEntry : and.entrySet()) {
-            String columnName = domainEntry.getKey();
-            Domain columnDomain = domainEntry.getValue();
-
-            // if the index exists, there should only be one index for this column within this stripe
-            List<IndexMetadata> indexMetadata = stripeIndex.stream().filter(p -> p.getColumn().equalsIgnoreCase(columnName)).collect(Collectors.toList());
-            if (indexMetadata.isEmpty() || indexMetadata.size() > 1) {
-                continue;
+            List<Index> columnIndexes = getColumnIndexes(stripeIndex, domainEntry.getKey());
+            for (Index index : columnIndexes) {
+                if (!BITMAP_INDEX_ID.equals(index.getId())) {
+                    if (!mayMatch(index, domainEntry.getValue())) {
+                        return true;
+                    }
+                }
+                else if (columnIndexes.stream().filter(i -> BITMAP_INDEX_ID.equals(i.getId())).count() == 1) {
+                    bitmapDomainMap.put(index, domainEntry.getValue());
+                }
             }
-
-            Index index = indexMetadata.get(0).getIndex();
-            andDomainMap.put(index, columnDomain);
         }
 
-        for (Map.Entry<String, List<Domain>> domainEntry : or.entrySet()) {
-            String columnName = domainEntry.getKey();
-            List<Domain> columnDomain = domainEntry.getValue();
-
-            // if the index exists, there should only be one index for this column within this stripe
-            List<IndexMetadata> indexMetadata = stripeIndex.stream().filter(p -> p.getColumn().equalsIgnoreCase(columnName)).collect(Collectors.toList());
-            if (indexMetadata.isEmpty() || indexMetadata.size() > 1) {
-                continue;
+        if (!bitmapDomainMap.isEmpty()) {
+            Iterator<Integer> thisStripeMatchingRows;
+            try {
+                thisStripeMatchingRows = ((bitmapDomainMap.entrySet().iterator().next()).getKey()).getMatches(bitmapDomainMap);
             }
-
-            Index index = indexMetadata.get(0).getIndex();
-            orDomainMap.put(index, columnDomain.get(0));
-        }
-
-        if (!andDomainMap.isEmpty()) {
-            Iterator<Integer> thisStripeMatchingRows = ((andDomainMap.entrySet().iterator().next()).getKey()).getMatches(andDomainMap);
-            if (thisStripeMatchingRows != null && thisStripeMatchingRows.hasNext()) {
+            catch (RuntimeException e) {
+                log.debug(e, "Unable to apply bitmap index on stripe %d", stripe.getOffset());
+                thisStripeMatchingRows = null;
+            }
+            if (thisStripeMatchingRows != null) {
+                if (!thisStripeMatchingRows.hasNext()) {
+                    return true;
+                }
                 PeekingIterator<Integer> peekingIterator = Iterators.peekingIterator(thisStripeMatchingRows);
                 if (peekingIterator.peek() != null) {
                     this.stripeMatchingRows.put(stripe, peekingIterator);
                 }
-                return false;
             }
-            return true;
         }
-        if (!orDomainMap.isEmpty()) {
-            for (Map.Entry<Index, Domain> indexDomainEntry : orDomainMap.entrySet()) {
-                Iterator<Integer> thisStripeMatchingRows = (indexDomainEntry.getKey()).getMatches(indexDomainEntry.getValue());
-                if (thisStripeMatchingRows != null && thisStripeMatchingRows.hasNext()) {
-                    /* any one matched; then include the stripe */
+
+        if (or.isEmpty()) {
+            return false;
+        }
+        for (Map.Entry<String, List<Domain>> domainEntry : or.entrySet()) {
+            List<Index> columnIndexes = getColumnIndexes(stripeIndex, domainEntry.getKey());
+            for (Domain domain : domainEntry.getValue()) {
+                if (columnIndexes.stream().allMatch(index -> mayMatch(index, domain))) {
+                    /* any one matched or cannot be ruled out; then include the stripe */
                     return false;
                 }
             }
+        }
+        return true;
+    }
+
+    private static List<Index> getColumnIndexes(List<IndexMetadata> stripeIndex, String columnName)
+    {
+        return stripeIndex.stream()
+                .filter(p -> p.getColumn().equalsIgnoreCase(columnName) && p.getIndex() != null)
+                .map(IndexMetadata::getIndex)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Returns false only if the index guarantees that no row of the stripe is in the domain.
+     */
+    private static boolean mayMatch(Index index, Domain domain)
+    {
+        Iterator<?> matches;
+        try {
+            matches = index.getMatches(domain);
+        }
+        catch (RuntimeException e) {
+            // the index was not built for values of this kind, it cannot rule out the stripe
             return true;
         }
-        return false;
+        return matches == null || matches.hasNext();
     }
 
     private static OptionalInt getFixedWidthRowSize(List<Type> columnTypes)
@@ -599,7 +615,7 @@ abstract class AbstractOrcRecordReader<T extends AbstractColumnReader>
         StripeInformation stripeInformation = stripes.get(currentStripe);
         validateWriteStripe(stripeInformation.getNumberOfRows());
 
-        Stripe stripe = stripeReader.readStripe(stripeInformation, currentStripeSystemMemoryContext);
+        Stripe stripe = stripeReader.readStripe(stripeInformation, getMatchingRowGroups(stripeInformation), currentStripeSystemMemoryContext);
         if (stripe != null) {
             // Give readers access to dictionary streams
             InputStreamSources dictionaryStreamSources = stripe.getDictionaryStreamSources();
@@ -647,6 +663,28 @@ abstract class AbstractOrcRecordReader<T extends AbstractColumnReader>
         maxBytesPerCell = new long[columnReaders.length];
     }
 
+    /**
+     * Row groups holding at least one of the rows the bitmap indexes selected in the stripe;
+     * the other row groups are not read at all.
+     */
+    private Optional<Set<Integer>> getMatchingRowGroups(StripeInformation stripe)
+    {
+        PeekingIterator<Integer> matchingRows = stripeMatchingRows.get(stripe);
+        if (matchingRows == null) {
+            return Optional.empty();
+        }
+
+        List<Integer> rows = new ArrayList<>();
+        matchingRows.forEachRemaining(rows::add);
+        stripeMatchingRows.put(stripe, Iterators.peekingIterator(rows.iterator()));
+
+        ImmutableSet.Builder<Integer> rowGroups = ImmutableSet.builder();
+        for (Integer row : rows) {
+            rowGroups.add(row / rowsInRowGroup);
+        }
+        return Optional.of(rowGroups.build());
+    }
+
     private boolean advanceToNextRowGroup()
             throws IOException
     {
@@ -179,6 +179,10 @@ public class OrcRecordReader
                 else if (row >= currentPositionInStripe + currentBatchSize) {
                     break;
                 }
+                else {
+                    // the row lies in a row group that was skipped
+                    matchingRows.next();
+                }
             }
 
             matchingRowsInBatchArray = new int[matchingRowsInBlock.size()];
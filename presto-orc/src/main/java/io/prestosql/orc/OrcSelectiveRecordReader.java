@@ -369,6 +369,10 @@ public class OrcSelectiveRecordReader
                 else if (row >= currentPositionInStripe + currentBatchSize) {
                     break;
                 }
+                else {
+                    // the row lies in a row group that was skipped
+                    matchingRows.next();
+                }
             }
 
             matchingRowsInBatchArray = new int[matchingRowsInBlock.size()];
@@ -18,6 +18,7 @@ import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
 import com.google.common.util.concurrent.UncheckedExecutionException;
 import io.airlift.log.Logger;
 import io.airlift.slice.Slice;
@@ -125,6 +126,16 @@ public class StripeReader
 
     public Stripe readStripe(StripeInformation stripe, AggregatedMemoryContext systemMemoryUsage)
             throws IOException
+    {
+        return readStripe(stripe, Optional.empty(), systemMemoryUsage);
+    }
+
+    /**
+     * Reads the stripe, skipping the row groups not in {@code matchingRowGroups} in addition to the
+     * ones ruled out by the row group statistics.
+     */
+    public Stripe readStripe(StripeInformation stripe, Optional<Set<Integer>> matchingRowGroups, AggregatedMemoryContext systemMemoryUsage)
+            throws IOException
     {
         // read the stripe footer
         OrcStripeFooterCacheKey cacheKey = new OrcStripeFooterCacheKey();
@@ -180,6 +191,9 @@ public class StripeReader
 
             // select the row groups matching the tuple domain
             Set<Integer> selectedRowGroups = selectRowGroups(stripe, columnIndexes);
+            if (matchingRowGroups.isPresent()) {
+                selectedRowGroups = Sets.intersection(selectedRowGroups, matchingRowGroups.get());
+            }
 
             // if all row groups are skipped, return null
             if (selectedRowGroups.isEmpty()) {
@@ -37,10 +37,12 @@ import io.prestosql.plugin.jdbc.SliceWriteFunction;
 import io.prestosql.plugin.jdbc.StatsCollecting;
 import io.prestosql.plugin.jdbc.WriteMapping;
 import io.prestosql.spi.PrestoException;
+import io.prestosql.spi.connector.ColumnHandle;
 import io.prestosql.spi.connector.ConnectorSession;
 import io.prestosql.spi.connector.ConnectorTableMetadata;
 import io.prestosql.spi.connector.SchemaTableName;
 import io.prestosql.spi.connector.TableNotFoundException;
+import io.prestosql.spi.sql.SqlQueryWriter;
 import io.prestosql.spi.type.ArrayType;
 import io.prestosql.spi.type.StandardTypes;
 import io.prestosql.spi.type.TinyintType;
@@ -65,10 +67,12 @@ import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Types;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.OptionalInt;
 import java.util.UUID;
 import java.util.function.BiFunction;
 
@@ -108,6 +112,7 @@ public class PostgreSqlClient
     private final Type jsonType;
     private final Type uuidType;
     private final boolean supportArrays;
+    private final boolean queryPushDownEnabled;
 
     @Inject
     public PostgreSqlClient(
@@ -119,6 +124,7 @@ public class PostgreSqlClient
         super(config, "\"", connectionFactory);
         this.jsonType = typeManager.getType(new TypeSignature(StandardTypes.JSON));
         this.uuidType = typeManager.getType(new TypeSignature(StandardTypes.UUID));
+        this.queryPushDownEnabled = postgreSqlConfig.isQueryPushDownEnabled();
 
         switch (postgreSqlConfig.getArrayMapping()) {
             case DISABLED:
@@ -340,6 +346,37 @@ public class PostgreSqlClient
         return true;
     }
 
+    @Override
+    public boolean supportsMultiRowInsert()
+    {
+        return true;
+    }
+
+    @Override
+    public OptionalInt getMaxInsertParameters()
+    {
+        // the wire protocol limits a statement to 32767 bind parameters
+        return OptionalInt.of(32767);
+    }
+
+    @Override
+    public Optional<SqlQueryWriter> getSqlQueryWriter()
+    {
+        if (!queryPushDownEnabled) {
+            return Optional.empty();
+        }
+        return Optional.of(new PostgreSqlSqlQueryWriter());
+    }
+
+    @Override
+    public Map<String, ColumnHandle> getColumns(ConnectorSession session, String sql, Map<String, Type> types)
+    {
+        if (!queryPushDownEnabled) {
+            return Collections.emptyMap();
+        }
+        return getSubQueryColumns(session, sql, types);
+    }
+
     private static ColumnMapping timestampWithTimeZoneColumnMapping()
     {
         return ColumnMapping.longMapping(
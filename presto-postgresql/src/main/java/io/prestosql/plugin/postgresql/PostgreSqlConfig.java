@@ -14,12 +14,14 @@
 package io.prestosql.plugin.postgresql;
 
 import io.airlift.configuration.Config;
+import io.airlift.configuration.ConfigDescription;
 
 import javax.validation.constraints.NotNull;
 
 public class PostgreSqlConfig
 {
     private ArrayMapping arrayMapping = ArrayMapping.DISABLED;
+    private boolean queryPushDownEnabled = true;
 
     public enum ArrayMapping {
         DISABLED,
@@ -39,4 +41,17 @@ public class PostgreSqlConfig
         this.arrayMapping = arrayMapping;
         return this;
     }
+
+    public boolean isQueryPushDownEnabled()
+    {
+        return queryPushDownEnabled;
+    }
+
+    @Config("postgresql.query.pushdown.enabled")
+    @ConfigDescription("Enable sub-query push down to PostgreSQL")
+    public PostgreSqlConfig setQueryPushDownEnabled(boolean queryPushDownEnabled)
+    {
+        this.queryPushDownEnabled = queryPushDownEnabled;
+        return this;
+    }
 }
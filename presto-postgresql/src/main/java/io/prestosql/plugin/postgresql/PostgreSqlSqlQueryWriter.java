@@ -0,0 +1,134 @@
+/*
+ * Copyright (C) 2018-2020. Huawei Technologies Co., Ltd. All rights reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.plugin.postgresql;
+
+import com.google.common.collect.ImmutableMap;
+import io.prestosql.spi.sql.expression.Selection;
+import io.prestosql.sql.builder.BaseSqlQueryWriter;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import static io.prestosql.spi.type.StandardTypes.BIGINT;
+import static io.prestosql.spi.type.StandardTypes.BOOLEAN;
+import static io.prestosql.spi.type.StandardTypes.DATE;
+import static io.prestosql.spi.type.StandardTypes.DOUBLE;
+import static io.prestosql.spi.type.StandardTypes.INTEGER;
+import static io.prestosql.spi.type.StandardTypes.REAL;
+import static io.prestosql.spi.type.StandardTypes.SMALLINT;
+import static io.prestosql.spi.type.StandardTypes.TIME;
+import static io.prestosql.spi.type.StandardTypes.TIMESTAMP;
+import static io.prestosql.spi.type.StandardTypes.TIMESTAMP_WITH_TIME_ZONE;
+import static io.prestosql.spi.type.StandardTypes.TINYINT;
+import static io.prestosql.spi.type.StandardTypes.VARBINARY;
+import static io.prestosql.spi.type.StandardTypes.VARCHAR;
+
+/**
+ * Implementation of BaseSqlQueryWriter. It knows how to write
+ * PostgreSQL SQL for the Hetu's logical plan.
+ */
+public class PostgreSqlSqlQueryWriter
+        extends BaseSqlQueryWriter
+{
+    private static final int VARIABLE_ARGUMENTS = -1;
+
+    private static final String CHAR_TYPE_PREFIX = "char(";
+
+    private static final String DECIMAL_TYPE_PREFIX = "decimal(";
+
+    private static final String VARCHAR_TYPE_PREFIX = "varchar(";
+
+    // concat ignores null arguments in PostgreSQL
+    private static final Map<String, Integer> BLACKLISTED_FUNCTIONS = ImmutableMap.of("concat", VARIABLE_ARGUMENTS);
+
+    PostgreSqlSqlQueryWriter()
+    {
+        super(BLACKLISTED_FUNCTIONS);
+    }
+
+    @Override
+    public String cast(String expression, String type, boolean safe, boolean typeOnly)
+    {
+        if (safe) {
+            throw new UnsupportedOperationException("PostgreSQL connector does not support TRY_CAST");
+        }
+        return super.cast(expression, type, false, typeOnly);
+    }
+
+    @Override
+    public String toNativeType(String type)
+    {
+        String lowerType = type.toLowerCase(Locale.ENGLISH);
+        switch (lowerType) {
+            case TINYINT:
+                return SMALLINT;
+
+            case DOUBLE:
+                return "double precision";
+
+            case VARBINARY:
+                return "bytea";
+
+            case SMALLINT:
+            case INTEGER:
+            case BIGINT:
+            case REAL:
+            case BOOLEAN:
+            case VARCHAR:
+            case DATE:
+            case TIME:
+            case TIMESTAMP:
+            case TIMESTAMP_WITH_TIME_ZONE:
+                return lowerType;
+
+            default:
+                if (lowerType.startsWith(DECIMAL_TYPE_PREFIX) || lowerType.startsWith(VARCHAR_TYPE_PREFIX) || lowerType.startsWith(CHAR_TYPE_PREFIX)) {
+                    return lowerType;
+                }
+                throw new UnsupportedOperationException("PostgreSQL connector does not support the type " + type);
+        }
+    }
+
+    @Override
+    public String lambdaExpression(List<String> arguments, String body)
+    {
+        throw new UnsupportedOperationException("PostgreSQL connector does not support lambda");
+    }
+
+    @Override
+    public String row(List<String> expressions)
+    {
+        throw new UnsupportedOperationException("PostgreSQL connector does not support row constructor");
+    }
+
+    @Override
+    public String arrayConstructor(List<String> values)
+    {
+        throw new UnsupportedOperationException("PostgreSQL connector does not support array constructor");
+    }
+
+    @Override
+    public String subscriptExpression(String base, String index)
+    {
+        throw new UnsupportedOperationException("PostgreSQL connector does not support subscript expression");
+    }
+
+    @Override
+    public String select(List<Selection> symbols, String from)
+    {
+        return super.select(symbols, aliasDerivedTable(from));
+    }
+}
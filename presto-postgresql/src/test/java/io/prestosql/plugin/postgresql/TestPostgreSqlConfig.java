@@ -25,7 +25,8 @@ public class TestPostgreSqlConfig
     public void testDefaults()
     {
         ConfigAssertions.assertRecordedDefaults(ConfigAssertions.recordDefaults(PostgreSqlConfig.class)
-                .setArrayMapping(PostgreSqlConfig.ArrayMapping.DISABLED));
+                .setArrayMapping(PostgreSqlConfig.ArrayMapping.DISABLED)
+                .setQueryPushDownEnabled(true));
     }
 
     @Test
@@ -33,10 +34,12 @@ public class TestPostgreSqlConfig
     {
         Map<String, String> properties = new ImmutableMap.Builder<String, String>()
                 .put("postgresql.experimental.array-mapping", "AS_ARRAY")
+                .put("postgresql.query.pushdown.enabled", "false")
                 .build();
 
         PostgreSqlConfig expected = new PostgreSqlConfig()
-                .setArrayMapping(PostgreSqlConfig.ArrayMapping.AS_ARRAY);
+                .setArrayMapping(PostgreSqlConfig.ArrayMapping.AS_ARRAY)
+                .setQueryPushDownEnabled(false);
 
         ConfigAssertions.assertFullMapping(properties, expected);
     }
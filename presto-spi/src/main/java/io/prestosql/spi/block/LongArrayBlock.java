@@ -287,8 +287,14 @@ public class LongArrayBlock
     @Override
     public boolean[] filter(BloomFilter filter, boolean[] validPositions)
     {
-        for (int i = arrayOffset; i < positionCount; i++) {
-            validPositions[i] = validPositions[i] && filter.test(values[i]);
+        long[] hashes = new long[positionCount];
+        for (int i = 0; i < positionCount; i++) {
+            hashes[i] = BloomFilter.hash(values[i + arrayOffset]);
+        }
+        boolean[] matches = new boolean[positionCount];
+        filter.mightContain(hashes, matches);
+        for (int i = 0; i < positionCount; i++) {
+            validPositions[i] = validPositions[i] && matches[i];
         }
         return validPositions;
     }
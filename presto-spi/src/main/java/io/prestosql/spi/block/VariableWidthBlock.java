@@ -229,7 +229,8 @@ public class VariableWidthBlock
     public boolean[] filter(BloomFilter filter, boolean[] validPositions)
     {
         for (int i = 0; i < positionCount; i++) {
-            byte[] value = slice.slice(offsets[i + arrayOffset], offsets[i + arrayOffset + 1] - offsets[i + arrayOffset]).getBytes();
+            // hashing the Slice gives the same result as hashing its bytes, without copying them
+            Slice value = slice.slice(offsets[i + arrayOffset], offsets[i + arrayOffset + 1] - offsets[i + arrayOffset]);
             validPositions[i] = validPositions[i] && filter.test(value);
         }
         return validPositions;
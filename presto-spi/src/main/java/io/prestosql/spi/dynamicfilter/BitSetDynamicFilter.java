@@ -0,0 +1,138 @@
+/*
+ * Copyright (C) 2018-2020. Huawei Technologies Co., Ltd. All rights reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.spi.dynamicfilter;
+
+import io.prestosql.spi.block.Block;
+import io.prestosql.spi.connector.ColumnHandle;
+
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Exact dynamic filter for dense integer keys, e.g. contiguous surrogate keys of a dimension table.
+ * Each value in [min, max] is represented by one bit, so a lookup is a range check plus a single bit test.
+ */
+public class BitSetDynamicFilter
+        extends HashSetDynamicFilter
+{
+    private final long offset;
+    private final long range;
+    private final long[] bits;
+    private final int size;
+
+    /**
+     * @param values values of the filter, all of them must be within [min, max]
+     */
+    public BitSetDynamicFilter(String filterId, ColumnHandle columnHandle, Set<Long> values, long min, long max, Type type)
+    {
+        super(filterId, columnHandle, type);
+        if (max < min || max - min < 0 || max - min >= Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Invalid range for bitset dynamic filter: [" + min + ", " + max + "]");
+        }
+        this.offset = min;
+        this.range = max - min;
+        this.bits = new long[(int) (range >>> 6) + 1];
+        for (Long value : values) {
+            long index = value - offset;
+            if (index < 0 || index > range) {
+                throw new IllegalArgumentException("Value " + value + " out of range [" + min + ", " + max + "]");
+            }
+            bits[(int) (index >>> 6)] |= 1L << index;
+        }
+        int count = 0;
+        for (long word : bits) {
+            count += Long.bitCount(word);
+        }
+        this.size = count;
+        this.min = min;
+        this.max = max;
+    }
+
+    private BitSetDynamicFilter(BitSetDynamicFilter other)
+    {
+        super(other.filterId, other.columnHandle, other.type);
+        // the bits are never modified after construction, so they can be shared
+        this.offset = other.offset;
+        this.range = other.range;
+        this.bits = other.bits;
+        this.size = other.size;
+        this.min = other.min;
+        this.max = other.max;
+    }
+
+    /**
+     * Contains for a primitive long value
+     *
+     * @param value the value to look up
+     * @return boolean whether or not the value is in the DynamicFilter
+     */
+    public boolean contains(long value)
+    {
+        long index = value - offset;
+        // the unsigned comparison also rejects values below the offset
+        if (Long.compareUnsigned(index, range) > 0) {
+            return false;
+        }
+        return (bits[(int) (index >>> 6)] & (1L << index)) != 0;
+    }
+
+    @Override
+    public boolean contains(Object value)
+    {
+        // same semantics as a Set of boxed Long values
+        return value instanceof Long && contains(((Long) value).longValue());
+    }
+
+    @Override
+    public boolean contains(Block block, int position, io.prestosql.spi.type.Type type)
+    {
+        if (block.isNull(position)) {
+            return false;
+        }
+        return contains(type.getLong(block, position));
+    }
+
+    @Override
+    public Set getSetValues()
+    {
+        Set<Long> values = new HashSet<>(size);
+        for (int word = 0; word < bits.length; word++) {
+            long remaining = bits[word];
+            while (remaining != 0) {
+                values.add(offset + word * 64L + Long.numberOfTrailingZeros(remaining));
+                remaining &= remaining - 1;
+            }
+        }
+        return values;
+    }
+
+    @Override
+    public long getSize()
+    {
+        return size;
+    }
+
+    @Override
+    public DynamicFilter clone()
+    {
+        return new BitSetDynamicFilter(this);
+    }
+
+    @Override
+    public boolean isEmpty()
+    {
+        return size == 0;
+    }
+}
@@ -116,8 +116,8 @@ public class BloomFilterDynamicFilter
     public DynamicFilter clone()
     {
         DynamicFilter clone = new BloomFilterDynamicFilter(filterId, columnHandle, bloomFilterDeserialized, type);
+        clone.setMin(min);
         clone.setMax(max);
-        clone.setMax(min);
         return clone;
     }
 
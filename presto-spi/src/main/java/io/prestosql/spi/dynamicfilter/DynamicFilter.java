@@ -14,9 +14,17 @@
  */
 package io.prestosql.spi.dynamicfilter;
 
+import io.prestosql.spi.block.Block;
 import io.prestosql.spi.connector.ColumnHandle;
+import io.prestosql.spi.predicate.Domain;
+import io.prestosql.spi.predicate.Range;
+import io.prestosql.spi.predicate.ValueSet;
+import io.prestosql.spi.type.TypeUtils;
 
 import java.util.Objects;
+import java.util.Optional;
+
+import static io.prestosql.spi.type.RealType.REAL;
 
 /**
  * DynamicFilter contains dynamic filter information and
@@ -83,6 +91,23 @@ public abstract class DynamicFilter
      */
     public abstract boolean contains(Object value);
 
+    /**
+     * Contains for the value at the given position of a block, filters that keep their values
+     * in primitive form override this to probe without boxing the value
+     *
+     * @param block block containing the probed value
+     * @param position position of the probed value in the block
+     * @param type type of the probed value
+     * @return boolean whether or not the value is in the DynamicFilter, false for null values
+     */
+    public boolean contains(Block block, int position, io.prestosql.spi.type.Type type)
+    {
+        if (block.isNull(position)) {
+            return false;
+        }
+        return contains(TypeUtils.readNativeValue(type, block, position));
+    }
+
     /**
      * Get the size of the current DynamicFilter
      *
@@ -144,6 +169,22 @@ public abstract class DynamicFilter
         this.max = max;
     }
 
+    /**
+     * Get the [min, max] range of current dynamic filter as a Domain of the given column type,
+     * connectors can add it to their predicate to prune partitions, stripes and row groups
+     *
+     * @param type type of the column the dynamic filter is applied to
+     * @return range Domain, or empty if min/max are not set or the type is not an integer type
+     */
+    public Optional<Domain> getRangeDomain(io.prestosql.spi.type.Type type)
+    {
+        // real values are stored as int bits, whose order differs from the numeric order
+        if (!(min instanceof Long) || !(max instanceof Long) || type.getJavaType() != long.class || !type.isOrderable() || type.equals(REAL)) {
+            return Optional.empty();
+        }
+        return Optional.of(Domain.create(ValueSet.ofRanges(Range.range(type, min, true, max, true)), false));
+    }
+
     @Override
     public int hashCode()
     {
@@ -14,12 +14,17 @@
  */
 package io.prestosql.spi.dynamicfilter;
 
+import io.airlift.slice.Slice;
 import io.prestosql.spi.connector.ColumnHandle;
 
 import java.util.Set;
 
 public class DynamicFilterFactory
 {
+    // a bitset is used when it takes at most as many bits per value as a long, i.e. less memory than a hash table
+    private static final int BITSET_MAX_BITS_PER_VALUE = 64;
+    private static final long BITSET_MAX_RANGE = 1L << 27;
+
     private DynamicFilterFactory()
     {
     }
@@ -29,8 +34,60 @@ public class DynamicFilterFactory
         return new BloomFilterDynamicFilter(filterId, columnHandle, serializedBloomFilter, type);
     }
 
+    /**
+     * Create a HashSet dynamic filter, values of bigint, integer, date (all collected as Long)
+     * and varchar or long decimal (collected as Slice) columns are stored in primitive specialized filters.
+     * The column type is not known where filters are created, so Slice filters pick how to probe a Block from its type.
+     * Filters on Long values also carry the min/max of the values, and dense Long values are stored in a bitset.
+     */
     public static HashSetDynamicFilter create(String filterId, ColumnHandle columnHandle, Set values, DynamicFilter.Type type)
     {
+        if (!values.isEmpty()) {
+            if (allInstancesOf(values, Long.class)) {
+                return createLongFilter(filterId, columnHandle, (Set<Long>) values, type);
+            }
+            if (allInstancesOf(values, Slice.class)) {
+                return new SliceHashSetDynamicFilter(filterId, columnHandle, (Set<Slice>) values, type);
+            }
+        }
         return new HashSetDynamicFilter(filterId, columnHandle, values, type);
     }
+
+    private static HashSetDynamicFilter createLongFilter(String filterId, ColumnHandle columnHandle, Set<Long> values, DynamicFilter.Type type)
+    {
+        long min = Long.MAX_VALUE;
+        long max = Long.MIN_VALUE;
+        for (long value : values) {
+            min = Math.min(min, value);
+            max = Math.max(max, value);
+        }
+
+        HashSetDynamicFilter filter;
+        if (isDense(min, max, values.size())) {
+            filter = new BitSetDynamicFilter(filterId, columnHandle, values, min, max, type);
+        }
+        else {
+            filter = new LongHashSetDynamicFilter(filterId, columnHandle, values, type);
+        }
+        filter.setMin(min);
+        filter.setMax(max);
+        return filter;
+    }
+
+    private static boolean isDense(long min, long max, int valueCount)
+    {
+        long range = max - min;
+        // negative range means the subtraction overflowed
+        return range >= 0 && range < BITSET_MAX_RANGE && range < (long) valueCount * BITSET_MAX_BITS_PER_VALUE;
+    }
+
+    private static boolean allInstancesOf(Set values, Class<?> clazz)
+    {
+        for (Object value : values) {
+            if (!clazz.isInstance(value)) {
+                return false;
+            }
+        }
+        return true;
+    }
 }
@@ -32,6 +32,24 @@ public class HashSetDynamicFilter
         this.type = type;
     }
 
+    /**
+     * Constructor for subclasses that keep their values in a specialized structure
+     * instead of a Set of boxed values
+     */
+    protected HashSetDynamicFilter(String filterId, ColumnHandle columnHandle, Type type)
+    {
+        super();
+        this.columnHandle = columnHandle;
+        this.filterId = filterId;
+        this.type = type;
+    }
+
+    /**
+     * Get the values of current dynamic filter as a Set, specialized subclasses box all their values
+     * when called, so it should only be used for conversion
+     *
+     * @return Set contains the values of current dynamic filter
+     */
     public Set getSetValues()
     {
         return valueSet;
@@ -53,8 +71,8 @@ public class HashSetDynamicFilter
     public DynamicFilter clone()
     {
         DynamicFilter clone = new HashSetDynamicFilter(filterId, columnHandle, valueSet, type);
+        clone.setMin(min);
         clone.setMax(max);
-        clone.setMax(min);
         return clone;
     }
 
@@ -0,0 +1,173 @@
+/*
+ * Copyright (C) 2018-2020. Huawei Technologies Co., Ltd. All rights reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.spi.dynamicfilter;
+
+import io.airlift.slice.XxHash64;
+import io.prestosql.spi.block.Block;
+import io.prestosql.spi.connector.ColumnHandle;
+
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * HashSet dynamic filter for bigint, integer and date keys. Values are kept unboxed in an
+ * open-addressing long table with linear probing, which needs 16 to 32 bytes per key and
+ * can be probed straight from a Block without allocating.
+ */
+public class LongHashSetDynamicFilter
+        extends HashSetDynamicFilter
+{
+    // table is at most half full, so probe sequences stay short
+    private static final int FILL_RATIO = 2;
+    // slots holding this value are empty, the value itself is tracked by containsEmptyValue
+    private static final long EMPTY = 0L;
+
+    private final long[] table;
+    private final int mask;
+    private final int size;
+    private final boolean containsEmptyValue;
+
+    public LongHashSetDynamicFilter(String filterId, ColumnHandle columnHandle, Set<Long> values, Type type)
+    {
+        super(filterId, columnHandle, type);
+        this.table = new long[tableSize(values.size())];
+        this.mask = table.length - 1;
+
+        int count = 0;
+        boolean emptyValue = false;
+        for (Long value : values) {
+            if (value == EMPTY) {
+                if (!emptyValue) {
+                    emptyValue = true;
+                    count++;
+                }
+            }
+            else if (insert(value)) {
+                count++;
+            }
+        }
+        this.size = count;
+        this.containsEmptyValue = emptyValue;
+    }
+
+    private LongHashSetDynamicFilter(LongHashSetDynamicFilter other)
+    {
+        super(other.filterId, other.columnHandle, other.type);
+        // the table is never modified after construction, so it can be shared
+        this.table = other.table;
+        this.mask = other.mask;
+        this.size = other.size;
+        this.containsEmptyValue = other.containsEmptyValue;
+    }
+
+    private static int tableSize(int expectedSize)
+    {
+        int tableSize = Integer.highestOneBit(Math.max(expectedSize * FILL_RATIO, 1) * 2 - 1);
+        return Math.max(tableSize, 16);
+    }
+
+    private static long hash(long value)
+    {
+        return XxHash64.hash(value);
+    }
+
+    private boolean insert(long value)
+    {
+        int slot = (int) hash(value) & mask;
+        while (table[slot] != EMPTY) {
+            if (table[slot] == value) {
+                return false;
+            }
+            slot = (slot + 1) & mask;
+        }
+        table[slot] = value;
+        return true;
+    }
+
+    /**
+     * Contains for a primitive long value
+     *
+     * @param value the value to look up
+     * @return boolean whether or not the value is in the DynamicFilter
+     */
+    public boolean contains(long value)
+    {
+        if (value == EMPTY) {
+            return containsEmptyValue;
+        }
+        int slot = (int) hash(value) & mask;
+        long current;
+        while ((current = table[slot]) != EMPTY) {
+            if (current == value) {
+                return true;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return false;
+    }
+
+    @Override
+    public boolean contains(Object value)
+    {
+        // same semantics as a Set of boxed Long values
+        return value instanceof Long && contains(((Long) value).longValue());
+    }
+
+    @Override
+    public boolean contains(Block block, int position, io.prestosql.spi.type.Type type)
+    {
+        if (block.isNull(position)) {
+            return false;
+        }
+        // getLong reads integer and date values from int blocks as well
+        return contains(type.getLong(block, position));
+    }
+
+    @Override
+    public Set getSetValues()
+    {
+        Set<Long> values = new HashSet<>(size);
+        if (containsEmptyValue) {
+            values.add(EMPTY);
+        }
+        for (long value : table) {
+            if (value != EMPTY) {
+                values.add(value);
+            }
+        }
+        return values;
+    }
+
+    @Override
+    public long getSize()
+    {
+        return size;
+    }
+
+    @Override
+    public DynamicFilter clone()
+    {
+        DynamicFilter clone = new LongHashSetDynamicFilter(this);
+        clone.setMin(min);
+        clone.setMax(max);
+        return clone;
+    }
+
+    @Override
+    public boolean isEmpty()
+    {
+        return size == 0;
+    }
+}
@@ -0,0 +1,173 @@
+/*
+ * Copyright (C) 2018-2020. Huawei Technologies Co., Ltd. All rights reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.spi.dynamicfilter;
+
+import io.airlift.slice.Slice;
+import io.airlift.slice.XxHash64;
+import io.prestosql.spi.block.Block;
+import io.prestosql.spi.connector.ColumnHandle;
+import io.prestosql.spi.type.VariableWidthType;
+
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * HashSet dynamic filter for varchar and other Slice keys. Values are kept in an open-addressing
+ * table together with their hashes, so that probing from a Block of a variable width type hashes and
+ * compares the bytes in place instead of materializing a Slice for every row.
+ */
+public class SliceHashSetDynamicFilter
+        extends HashSetDynamicFilter
+{
+    // table is at most half full, so probe sequences stay short
+    private static final int FILL_RATIO = 2;
+
+    private final Slice[] values;
+    private final long[] hashes;
+    private final int mask;
+    private final int size;
+
+    public SliceHashSetDynamicFilter(String filterId, ColumnHandle columnHandle, Set<Slice> values, Type type)
+    {
+        super(filterId, columnHandle, type);
+        int tableSize = tableSize(values.size());
+        this.values = new Slice[tableSize];
+        this.hashes = new long[tableSize];
+        this.mask = tableSize - 1;
+
+        int count = 0;
+        for (Slice value : values) {
+            if (insert(value)) {
+                count++;
+            }
+        }
+        this.size = count;
+    }
+
+    private SliceHashSetDynamicFilter(SliceHashSetDynamicFilter other)
+    {
+        super(other.filterId, other.columnHandle, other.type);
+        // the table is never modified after construction, so it can be shared
+        this.values = other.values;
+        this.hashes = other.hashes;
+        this.mask = other.mask;
+        this.size = other.size;
+    }
+
+    private static int tableSize(int expectedSize)
+    {
+        int tableSize = Integer.highestOneBit(Math.max(expectedSize * FILL_RATIO, 1) * 2 - 1);
+        return Math.max(tableSize, 16);
+    }
+
+    private boolean insert(Slice value)
+    {
+        long hash = XxHash64.hash(value);
+        int slot = (int) hash & mask;
+        while (values[slot] != null) {
+            if (hashes[slot] == hash && values[slot].equals(value)) {
+                return false;
+            }
+            slot = (slot + 1) & mask;
+        }
+        values[slot] = value;
+        hashes[slot] = hash;
+        return true;
+    }
+
+    /**
+     * Contains for a Slice value
+     *
+     * @param value the value to look up
+     * @return boolean whether or not the value is in the DynamicFilter
+     */
+    public boolean contains(Slice value)
+    {
+        long hash = XxHash64.hash(value);
+        int slot = (int) hash & mask;
+        Slice current;
+        while ((current = values[slot]) != null) {
+            if (hashes[slot] == hash && current.equals(value)) {
+                return true;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return false;
+    }
+
+    @Override
+    public boolean contains(Object value)
+    {
+        // same semantics as a Set of Slice values
+        return value instanceof Slice && contains((Slice) value);
+    }
+
+    @Override
+    public boolean contains(Block block, int position, io.prestosql.spi.type.Type type)
+    {
+        if (!(type instanceof VariableWidthType)) {
+            // fixed width Slice values, e.g. long decimals, are not stored as variable width bytes in the block
+            return super.contains(block, position, type);
+        }
+        if (block.isNull(position)) {
+            return false;
+        }
+        int length = block.getSliceLength(position);
+        // Block.hash uses XxHash64 over the value bytes, same as insert()
+        long hash = block.hash(position, 0, length);
+        int slot = (int) hash & mask;
+        Slice current;
+        while ((current = values[slot]) != null) {
+            if (hashes[slot] == hash && current.length() == length && block.bytesEqual(position, 0, current, 0, length)) {
+                return true;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return false;
+    }
+
+    @Override
+    public Set getSetValues()
+    {
+        Set<Slice> result = new HashSet<>(size);
+        for (Slice value : values) {
+            if (value != null) {
+                result.add(value);
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public long getSize()
+    {
+        return size;
+    }
+
+    @Override
+    public DynamicFilter clone()
+    {
+        DynamicFilter clone = new SliceHashSetDynamicFilter(this);
+        clone.setMin(min);
+        clone.setMax(max);
+        return clone;
+    }
+
+    @Override
+    public boolean isEmpty()
+    {
+        return size == 0;
+    }
+}
@@ -64,6 +64,35 @@ public interface DataSource
     void readSplits(String schema, String table, String[] columns, String[] partitions, Callback callback)
             throws IOException;
 
+    /**
+     * <pre>
+     * Reads the column values for the specified table like
+     * {@link #readSplits(String, String, String[], String[], Callback)}, but only
+     * reads the files accepted by the filter.
+     *
+     * The filter is called once for every file of the table, or of the specified
+     * partitions, before any file is read. This allows the caller to skip the files
+     * that have not changed since they were last read, and to find the files
+     * that have been removed.
+     *
+     * DataSources that can not filter files read all the files and never call the filter.
+     * </pre>
+     *
+     * @param schema     schema of the table
+     * @param table      table to read
+     * @param columns    columns to read
+     * @param partitions only read the specified partitions, set to null to read all
+     *                   partitions
+     * @param filter     decides which files are read
+     * @param callback   called each time a split is read
+     * @throws IOException When reading split from filesystem failed (ie, hetu does not have permission, etc)
+     */
+    default void readSplits(String schema, String table, String[] columns, String[] partitions, FileFilter filter, Callback callback)
+            throws IOException
+    {
+        readSplits(schema, table, columns, partitions, callback);
+    }
+
     /**
      * <pre>
      * These properties may be used as configs for the DataSource to connect
@@ -115,4 +144,18 @@ public interface DataSource
          */
         void call(String column, Object[] values, String uri, long splitStart, long lastModified, double progress);
     }
+
+    /**
+     * Used by the DataSource to decide which files to read.
+     */
+    interface FileFilter
+    {
+        /**
+         * @param uri          uri of the file, as it will be passed to {@link Callback#call}
+         * @param size         size of the file in bytes
+         * @param lastModified last modified time of the file
+         * @return true if the file must be read
+         */
+        boolean accept(String uri, long size, long lastModified);
+    }
 }
@@ -123,6 +123,18 @@ public interface StateMap<K, V>
      */
     void addEntryListener(MapListener listener);
 
+    /**
+     * Add an entry listener to the StateMap
+     * State maps that can leave out the entry values of events override this method
+     *
+     * @param listener MapListener to be added
+     * @param includeValue whether events need to contain the entry values
+     */
+    default void addEntryListener(MapListener listener, boolean includeValue)
+    {
+        addEntryListener(listener);
+    }
+
     /**
      * Remove an added listener from the StateMap
      * if the listener hasn't been added before this will return silently
@@ -51,6 +51,13 @@ import static java.lang.Double.doubleToLongBits;
  * collisions for specific sequence of repeating bytes. Check the following link for more info
  * https://code.google.com/p/smhasher/wiki/MurmurHash2Flaw
  * <p>
+ * A filter created with {@link #createBlocked(long, double)} uses a split block layout instead:
+ * the bits of a value are all set within one 512 bit (one cache line) block, one bit in each of
+ * the 8 longs of the block. A lookup therefore reads a single cache line, which makes it much
+ * cheaper for large filters at the cost of slightly more bits for the same fpp. The blocked layout
+ * is not compatible with the bloom filters of ORC files, it is meant for filters that are only
+ * produced and consumed by the engine, e.g. dynamic filters.
+ * <p>
  * This class was forked from {@code org.apache.orc.util.BloomFilter}.
  */
 public class BloomFilter
@@ -60,8 +67,18 @@ public class BloomFilter
     // from 64-bit linear congruential generator
     private static final long NULL_HASHCODE = 2862933555777941757L;
 
+    // serialized blocked filters start with this marker instead of the (positive) number of hash functions
+    private static final int BLOCKED_FORMAT_MARKER = -1;
+    private static final int BLOCKED_FORMAT_VERSION = 1;
+    // 512 bits per block, which is the cache line size of most CPUs
+    private static final int LONGS_PER_BLOCK = 8;
+    private static final int BITS_PER_BLOCK = LONGS_PER_BLOCK * Long.SIZE;
+    // odd constants used to derive one bit position per long of a block, taken from the Parquet split block bloom filter
+    private static final int[] BLOCK_SALTS = {0x47b6137b, 0x44974d91, 0x8824ad5b, 0xa2b7289d, 0x705495c7, 0x2df1424b, 0x9efc4947, 0x5c6bfb31};
+
     private final BitSet bitSet;
     private final int numHashFunctions;
+    private final boolean blocked;
     private int numBits;
 
     public BloomFilter(long expectedEntries, double fpp)
@@ -73,6 +90,7 @@ public class BloomFilter
         this.numBits = nb + (Long.SIZE - (nb % Long.SIZE));
         this.numHashFunctions = optimalNumOfHashFunctions(expectedEntries, numBits);
         this.bitSet = new BitSet(numBits);
+        this.blocked = false;
     }
 
     /**
@@ -86,6 +104,32 @@ public class BloomFilter
         bitSet = new BitSet(bits);
         this.numBits = (int) bitSet.bitSize();
         numHashFunctions = numFuncs;
+        this.blocked = false;
+    }
+
+    private BloomFilter(long[] bits)
+    {
+        checkArgument(bits.length % LONGS_PER_BLOCK == 0, "blocked BloomFilter size must be a multiple of %s longs", LONGS_PER_BLOCK);
+        this.bitSet = new BitSet(bits);
+        this.numBits = (int) bitSet.bitSize();
+        this.numHashFunctions = LONGS_PER_BLOCK;
+        this.blocked = true;
+    }
+
+    /**
+     * Create a BloomFilter with the split block layout, see class documentation.
+     *
+     * @param expectedEntries expected number of entries
+     * @param fpp expected false positive probability
+     * @return an empty blocked BloomFilter
+     */
+    public static BloomFilter createBlocked(long expectedEntries, double fpp)
+    {
+        checkArgument(expectedEntries > 0, "expectedEntries should be > 0");
+        checkArgument(fpp > 0.0 && fpp < 1.0, "False positive probability should be > 0.0 & < 1.0");
+        long numBlocks = Math.max(1, (optimalNumOfBlockedBits(expectedEntries, fpp) + BITS_PER_BLOCK - 1) / BITS_PER_BLOCK);
+        checkArgument(numBlocks <= Integer.MAX_VALUE / BITS_PER_BLOCK, "blocked BloomFilter is too large");
+        return new BloomFilter(new long[(int) numBlocks * LONGS_PER_BLOCK]);
     }
 
     static int optimalNumOfHashFunctions(long n, long m)
@@ -98,6 +142,12 @@ public class BloomFilter
         return (int) (-n * Math.log(p) / (Math.log(2) * Math.log(2)));
     }
 
+    static long optimalNumOfBlockedBits(long n, double p)
+    {
+        // each of the 8 bits of a value is set in its own long, so the fpp is (1 - e^(-8n/m))^8
+        return (long) Math.ceil(-LONGS_PER_BLOCK * n / Math.log(1 - Math.pow(p, 1.0 / LONGS_PER_BLOCK)));
+    }
+
     // Thomas Wang's integer hash function
     // http://web.archive.org/web/20071223173210/http://www.concentric.net/~Ttwang/tech/inthash.htm
     private static long getLongHash(long key)
@@ -127,13 +177,20 @@ public class BloomFilter
         try {
             DataInputStream dataInputStream = new DataInputStream(in);
             numHashFunctions = dataInputStream.readInt();
+            boolean blocked = numHashFunctions == BLOCKED_FORMAT_MARKER;
+            if (blocked) {
+                int version = dataInputStream.readInt();
+                if (version != BLOCKED_FORMAT_VERSION) {
+                    throw new IOException("Unsupported blocked BloomFilter version: " + version);
+                }
+            }
             numBits = dataInputStream.readInt();
 
             long[] bits = new long[numBits];
             for (int i = 0; i < numBits; i++) {
                 bits[i] = dataInputStream.readLong();
             }
-            return new BloomFilter(bits, numHashFunctions);
+            return blocked ? new BloomFilter(bits) : new BloomFilter(bits, numHashFunctions);
         }
         catch (IOException e) {
             throw new IOException("Failed to deserialize BloomFilter, numHashFunctions: "
@@ -164,6 +221,10 @@ public class BloomFilter
             throw new IllegalArgumentException("BloomFilter to merge must have same number of hash functions");
         }
 
+        if (blocked != that.blocked) {
+            throw new IllegalArgumentException("BloomFilter to merge must have same layout");
+        }
+
         bitSet.merge(that.bitSet);
         this.numBits = (int) bitSet.bitSize();
     }
@@ -180,6 +241,7 @@ public class BloomFilter
                 (other.getClass() == getClass()) &&
                 (numBits == ((BloomFilter) other).numBits) &&
                 (numHashFunctions == ((BloomFilter) other).numHashFunctions) &&
+                (blocked == ((BloomFilter) other).blocked) &&
                 bitSet.equals(((BloomFilter) other).bitSet);
     }
 
@@ -203,6 +265,11 @@ public class BloomFilter
 
     private void addHash(long hash64)
     {
+        if (blocked) {
+            addBlockedHash(hash64);
+            return;
+        }
+
         int hash1 = (int) hash64;
         int hash2 = (int) (hash64 >>> 32);
 
@@ -217,6 +284,25 @@ public class BloomFilter
         }
     }
 
+    private void addBlockedHash(long hash64)
+    {
+        int block = blockIndex(hash64);
+        for (int i = 0; i < LONGS_PER_BLOCK; i++) {
+            bitSet.set((block * LONGS_PER_BLOCK + i) * Long.SIZE + bitInBlockLong((int) hash64, i));
+        }
+    }
+
+    private int blockIndex(long hash64)
+    {
+        // the upper 32 bits select the block, the lower 32 bits the bits within the block
+        return (int) (((hash64 >>> 32) * (bitSet.getData().length / LONGS_PER_BLOCK)) >>> 32);
+    }
+
+    private static int bitInBlockLong(int key, int longIndex)
+    {
+        return (key * BLOCK_SALTS[longIndex]) >>> 26;
+    }
+
     public void add(long val)
     {
         addHash(getLongHash(val));
@@ -257,6 +343,10 @@ public class BloomFilter
 
     private boolean testHash(long hash64)
     {
+        if (blocked) {
+            return testBlockedHash(hash64);
+        }
+
         int hash1 = (int) hash64;
         int hash2 = (int) (hash64 >>> 32);
 
@@ -274,11 +364,77 @@ public class BloomFilter
         return true;
     }
 
+    private boolean testBlockedHash(long hash64)
+    {
+        long[] data = bitSet.getData();
+        int offset = blockIndex(hash64) * LONGS_PER_BLOCK;
+        int key = (int) hash64;
+        for (int i = 0; i < LONGS_PER_BLOCK; i++) {
+            if ((data[offset + i] & (1L << bitInBlockLong(key, i))) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
     public boolean test(long val)
     {
         return testHash(getLongHash(val));
     }
 
+    /**
+     * Hash of a long value, as used by {@link #add(long)} and {@link #test(long)}
+     */
+    public static long hash(long val)
+    {
+        return getLongHash(val);
+    }
+
+    /**
+     * Hash of a Slice value, as used by {@link #add(Slice)} and {@link #test(Slice)}
+     */
+    public static long hash(Slice val)
+    {
+        return (val == null) ? NULL_HASHCODE : OrcMurmur3.hash64(val);
+    }
+
+    /**
+     * Batch version of test() for hashes computed with {@link #hash(long)} or {@link #hash(Slice)}
+     *
+     * @param hashes hashes of the values to test
+     * @param out out[i] is set to whether the value of hashes[i] might be in the BloomFilter
+     */
+    public void mightContain(long[] hashes, boolean[] out)
+    {
+        mightContain(hashes, hashes.length, out);
+    }
+
+    /**
+     * Batch version of test() for the first count hashes, see {@link #mightContain(long[], boolean[])}
+     */
+    public void mightContain(long[] hashes, int count, boolean[] out)
+    {
+        if (!blocked) {
+            for (int i = 0; i < count; i++) {
+                out[i] = testHash(hashes[i]);
+            }
+            return;
+        }
+
+        long[] data = bitSet.getData();
+        for (int position = 0; position < count; position++) {
+            long hash64 = hashes[position];
+            int offset = blockIndex(hash64) * LONGS_PER_BLOCK;
+            int key = (int) hash64;
+            // no early exit, so the inner loop has no branches and can be unrolled
+            long missing = 0;
+            for (int i = 0; i < LONGS_PER_BLOCK; i++) {
+                missing |= ~data[offset + i] & (1L << bitInBlockLong(key, i));
+            }
+            out[position] = missing == 0;
+        }
+    }
+
     public boolean test(double val)
     {
         return test(doubleToLongBits(val));
@@ -299,6 +455,11 @@ public class BloomFilter
         return numHashFunctions;
     }
 
+    public boolean isBlocked()
+    {
+        return blocked;
+    }
+
     public long[] getBitSet()
     {
         return bitSet.getData();
@@ -350,7 +511,13 @@ public class BloomFilter
     {
         DataOutputStream dataOutputStream = new DataOutputStream(out);
         long[] bits = bitSet.getData();
-        dataOutputStream.writeInt(numHashFunctions);
+        if (blocked) {
+            dataOutputStream.writeInt(BLOCKED_FORMAT_MARKER);
+            dataOutputStream.writeInt(BLOCKED_FORMAT_VERSION);
+        }
+        else {
+            dataOutputStream.writeInt(numHashFunctions);
+        }
         dataOutputStream.writeInt(bits.length);
         for (int i = 0; i < bits.length; i++) {
             dataOutputStream.writeLong(bits[i]);
@@ -363,6 +530,7 @@ public class BloomFilter
         return toStringHelper(this)
                 .add("m", numBits)
                 .add("k", numHashFunctions)
+                .add("blocked", blocked)
                 .toString();
     }
 
@@ -0,0 +1,143 @@
+/*
+ * Copyright (C) 2018-2020. Huawei Technologies Co., Ltd. All rights reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.spi.dynamicfilter;
+
+import io.airlift.slice.Slice;
+import io.prestosql.spi.block.Block;
+import io.prestosql.spi.block.BlockBuilder;
+import io.prestosql.spi.block.LongArrayBlock;
+import io.prestosql.spi.type.Type;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.VerboseMode;
+
+import java.util.HashSet;
+import java.util.Optional;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import static io.airlift.slice.Slices.utf8Slice;
+import static io.prestosql.spi.dynamicfilter.DynamicFilter.Type.LOCAL;
+import static io.prestosql.spi.type.BigintType.BIGINT;
+import static io.prestosql.spi.type.VarcharType.VARCHAR;
+
+@State(Scope.Thread)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(3)
+@Warmup(iterations = 20, time = 500, timeUnit = TimeUnit.MILLISECONDS)
+@Measurement(iterations = 20, time = 500, timeUnit = TimeUnit.MILLISECONDS)
+public class BenchmarkHashSetDynamicFilter
+{
+    private static final int PROBE_POSITIONS = 10_000;
+
+    @Param({"1000", "1000000"})
+    private int filterSize = 1000;
+
+    private HashSetDynamicFilter boxedLongFilter;
+    private HashSetDynamicFilter longFilter;
+    private HashSetDynamicFilter boxedSliceFilter;
+    private HashSetDynamicFilter sliceFilter;
+    private Block longProbe;
+    private Block sliceProbe;
+
+    @Setup
+    public void setup()
+    {
+        Random random = new Random(42);
+        Set<Long> longs = new HashSet<>();
+        Set<Slice> slices = new HashSet<>();
+        for (int i = 0; i < filterSize; i++) {
+            long value = random.nextInt(filterSize * 2);
+            longs.add(value);
+            slices.add(utf8Slice("key-" + value));
+        }
+        boxedLongFilter = new HashSetDynamicFilter("1", null, longs, LOCAL);
+        longFilter = new LongHashSetDynamicFilter("1", null, longs, LOCAL);
+        boxedSliceFilter = new HashSetDynamicFilter("2", null, slices, LOCAL);
+        sliceFilter = new SliceHashSetDynamicFilter("2", null, slices, LOCAL);
+
+        long[] probes = new long[PROBE_POSITIONS];
+        BlockBuilder sliceBuilder = VARCHAR.createBlockBuilder(null, PROBE_POSITIONS);
+        for (int i = 0; i < PROBE_POSITIONS; i++) {
+            probes[i] = random.nextInt(filterSize * 2);
+            VARCHAR.writeSlice(sliceBuilder, utf8Slice("key-" + probes[i]));
+        }
+        longProbe = new LongArrayBlock(PROBE_POSITIONS, Optional.empty(), probes);
+        sliceProbe = sliceBuilder.build();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(PROBE_POSITIONS)
+    public int probeBoxedLong()
+    {
+        return probe(boxedLongFilter, longProbe, BIGINT);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(PROBE_POSITIONS)
+    public int probeLong()
+    {
+        return probe(longFilter, longProbe, BIGINT);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(PROBE_POSITIONS)
+    public int probeBoxedSlice()
+    {
+        return probe(boxedSliceFilter, sliceProbe, VARCHAR);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(PROBE_POSITIONS)
+    public int probeSlice()
+    {
+        return probe(sliceFilter, sliceProbe, VARCHAR);
+    }
+
+    private static int probe(DynamicFilter filter, Block block, Type type)
+    {
+        int matches = 0;
+        for (int position = 0; position < block.getPositionCount(); position++) {
+            if (filter.contains(block, position, type)) {
+                matches++;
+            }
+        }
+        return matches;
+    }
+
+    public static void main(String[] args)
+            throws RunnerException
+    {
+        Options options = new OptionsBuilder()
+                .verbosity(VerboseMode.NORMAL)
+                .include(".*" + BenchmarkHashSetDynamicFilter.class.getSimpleName() + ".*")
+                .build();
+
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,97 @@
+/*
+ * Copyright (C) 2018-2020. Huawei Technologies Co., Ltd. All rights reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.spi.dynamicfilter;
+
+import io.prestosql.spi.block.Block;
+import io.prestosql.spi.block.LongArrayBlock;
+import io.prestosql.spi.predicate.Domain;
+import io.prestosql.spi.predicate.Range;
+import io.prestosql.spi.predicate.ValueSet;
+import org.testng.annotations.Test;
+
+import java.util.HashSet;
+import java.util.Optional;
+import java.util.Set;
+
+import static io.prestosql.spi.dynamicfilter.DynamicFilter.Type.GLOBAL;
+import static io.prestosql.spi.type.BigintType.BIGINT;
+import static io.prestosql.spi.type.DoubleType.DOUBLE;
+import static io.prestosql.spi.type.RealType.REAL;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+public class TestBitSetDynamicFilter
+{
+    @Test
+    public void testDenseValues()
+    {
+        Set<Long> values = new HashSet<>();
+        for (long i = 1000; i < 1200; i++) {
+            if (i % 3 != 0) {
+                values.add(i);
+            }
+        }
+        HashSetDynamicFilter filter = DynamicFilterFactory.create("1", null, values, GLOBAL);
+        assertTrue(filter instanceof BitSetDynamicFilter);
+        assertEquals(filter.getSize(), values.size());
+        assertEquals(filter.getMin(), 1000L);
+        assertEquals(filter.getMax(), 1199L);
+        for (long i = 900; i < 1300; i++) {
+            assertEquals(filter.contains(i), values.contains(i));
+        }
+        assertFalse(filter.contains(Long.MIN_VALUE));
+        assertFalse(filter.contains(Long.MAX_VALUE));
+        assertEquals(filter.getSetValues(), values);
+
+        Block block = new LongArrayBlock(3, Optional.empty(), new long[] {999, 1000, 1002});
+        assertFalse(filter.contains(block, 0, BIGINT));
+        assertTrue(filter.contains(block, 1, BIGINT));
+        assertFalse(filter.contains(block, 2, BIGINT));
+
+        DynamicFilter clone = filter.clone();
+        assertEquals(clone.getMin(), 1000L);
+        assertEquals(clone.getMax(), 1199L);
+        assertTrue(clone.contains(1001L));
+    }
+
+    @Test
+    public void testSparseValues()
+    {
+        Set<Long> values = new HashSet<>();
+        values.add(-5L);
+        values.add(Long.MAX_VALUE);
+        HashSetDynamicFilter filter = DynamicFilterFactory.create("1", null, values, GLOBAL);
+        assertTrue(filter instanceof LongHashSetDynamicFilter);
+        assertEquals(filter.getMin(), -5L);
+        assertEquals(filter.getMax(), Long.MAX_VALUE);
+    }
+
+    @Test
+    public void testRangeDomain()
+    {
+        Set<Long> values = new HashSet<>();
+        values.add(10L);
+        values.add(20L);
+        DynamicFilter filter = DynamicFilterFactory.create("1", null, values, GLOBAL);
+        assertEquals(filter.getRangeDomain(BIGINT), Optional.of(Domain.create(ValueSet.ofRanges(Range.range(BIGINT, 10L, true, 20L, true)), false)));
+        assertFalse(filter.getRangeDomain(REAL).isPresent());
+        assertFalse(filter.getRangeDomain(DOUBLE).isPresent());
+
+        Set<Object> doubles = new HashSet<>();
+        doubles.add(0.5);
+        assertFalse(DynamicFilterFactory.create("2", null, doubles, GLOBAL).getRangeDomain(BIGINT).isPresent());
+    }
+}
@@ -0,0 +1,162 @@
+/*
+ * Copyright (C) 2018-2020. Huawei Technologies Co., Ltd. All rights reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.spi.dynamicfilter;
+
+import io.airlift.slice.Slice;
+import io.prestosql.spi.block.Block;
+import io.prestosql.spi.block.BlockBuilder;
+import io.prestosql.spi.block.IntArrayBlock;
+import io.prestosql.spi.block.LongArrayBlock;
+import io.prestosql.spi.type.DecimalType;
+import org.testng.annotations.Test;
+
+import java.math.BigInteger;
+import java.util.HashSet;
+import java.util.Optional;
+import java.util.Set;
+
+import static io.airlift.slice.Slices.utf8Slice;
+import static io.prestosql.spi.dynamicfilter.DynamicFilter.Type.LOCAL;
+import static io.prestosql.spi.type.BigintType.BIGINT;
+import static io.prestosql.spi.type.DateType.DATE;
+import static io.prestosql.spi.type.DecimalType.createDecimalType;
+import static io.prestosql.spi.type.Decimals.encodeUnscaledValue;
+import static io.prestosql.spi.type.VarcharType.VARCHAR;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+public class TestHashSetDynamicFilter
+{
+    @Test
+    public void testFactoryCreatesSpecializedFilters()
+    {
+        Set<Long> longs = new HashSet<>();
+        longs.add(1L);
+        longs.add(1L << 40);
+        assertTrue(DynamicFilterFactory.create("1", null, longs, LOCAL) instanceof LongHashSetDynamicFilter);
+
+        Set<Slice> slices = new HashSet<>();
+        slices.add(utf8Slice("a"));
+        assertTrue(DynamicFilterFactory.create("2", null, slices, LOCAL) instanceof SliceHashSetDynamicFilter);
+
+        Set<Object> mixed = new HashSet<>();
+        mixed.add(1L);
+        mixed.add(0.5);
+        HashSetDynamicFilter generic = DynamicFilterFactory.create("3", null, mixed, LOCAL);
+        assertFalse(generic instanceof LongHashSetDynamicFilter);
+        assertTrue(generic.contains(0.5));
+    }
+
+    @Test
+    public void testLongHashSet()
+    {
+        Set<Long> values = new HashSet<>();
+        for (long i = -500; i < 500; i += 2) {
+            values.add(i);
+        }
+        LongHashSetDynamicFilter filter = new LongHashSetDynamicFilter("1", null, values, LOCAL);
+        assertEquals(filter.getSize(), values.size());
+        assertFalse(filter.isEmpty());
+        for (long i = -500; i < 500; i++) {
+            assertEquals(filter.contains(i), values.contains(i));
+            assertEquals(filter.contains((Object) i), values.contains(i));
+        }
+        assertFalse(filter.contains((Object) 2));
+        assertEquals(filter.getSetValues(), values);
+
+        long[] probes = {0, 1, 2, 498, 499};
+        Block block = new LongArrayBlock(probes.length, Optional.of(new boolean[] {false, false, true, false, false}), probes);
+        assertTrue(filter.contains(block, 0, BIGINT));
+        assertFalse(filter.contains(block, 1, BIGINT));
+        assertFalse(filter.contains(block, 2, BIGINT), "null values are never contained");
+        assertTrue(filter.contains(block, 3, BIGINT));
+        assertFalse(filter.contains(block, 4, BIGINT));
+
+        DynamicFilter clone = filter.clone();
+        assertTrue(clone.contains(498L));
+        assertEquals(clone.getSize(), filter.getSize());
+    }
+
+    @Test
+    public void testLongHashSetFromIntBlock()
+    {
+        Set<Long> values = new HashSet<>();
+        values.add(18000L);
+        values.add(18001L);
+        LongHashSetDynamicFilter filter = new LongHashSetDynamicFilter("1", null, values, LOCAL);
+
+        Block block = new IntArrayBlock(2, Optional.empty(), new int[] {18001, 18002});
+        assertTrue(filter.contains(block, 0, DATE));
+        assertFalse(filter.contains(block, 1, DATE));
+    }
+
+    @Test
+    public void testSliceHashSet()
+    {
+        Set<Slice> values = new HashSet<>();
+        for (int i = 0; i < 1000; i += 2) {
+            values.add(utf8Slice("value" + i));
+        }
+        values.add(utf8Slice(""));
+        SliceHashSetDynamicFilter filter = new SliceHashSetDynamicFilter("1", null, values, LOCAL);
+        assertEquals(filter.getSize(), values.size());
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(filter.contains(utf8Slice("value" + i)), i % 2 == 0);
+        }
+        assertFalse(filter.contains((Object) "value0"));
+        assertEquals(filter.getSetValues(), values);
+
+        BlockBuilder blockBuilder = VARCHAR.createBlockBuilder(null, 4);
+        VARCHAR.writeSlice(blockBuilder, utf8Slice("value10"));
+        VARCHAR.writeSlice(blockBuilder, utf8Slice("value11"));
+        blockBuilder.appendNull();
+        VARCHAR.writeSlice(blockBuilder, utf8Slice(""));
+        Block block = blockBuilder.build();
+        assertTrue(filter.contains(block, 0, VARCHAR));
+        assertFalse(filter.contains(block, 1, VARCHAR));
+        assertFalse(filter.contains(block, 2, VARCHAR));
+        assertTrue(filter.contains(block, 3, VARCHAR));
+    }
+
+    @Test
+    public void testSliceHashSetLongDecimal()
+    {
+        DecimalType type = createDecimalType(38, 2);
+        Set<Slice> values = new HashSet<>();
+        values.add(encodeUnscaledValue(new BigInteger("12345678901234567890")));
+        values.add(encodeUnscaledValue(-1));
+        HashSetDynamicFilter filter = DynamicFilterFactory.create("1", null, values, LOCAL);
+
+        BlockBuilder blockBuilder = type.createBlockBuilder(null, 4);
+        type.writeSlice(blockBuilder, encodeUnscaledValue(new BigInteger("12345678901234567890")));
+        type.writeSlice(blockBuilder, encodeUnscaledValue(1));
+        blockBuilder.appendNull();
+        type.writeSlice(blockBuilder, encodeUnscaledValue(-1));
+        Block block = blockBuilder.build();
+        assertTrue(filter.contains(block, 0, type));
+        assertFalse(filter.contains(block, 1, type));
+        assertFalse(filter.contains(block, 2, type));
+        assertTrue(filter.contains(block, 3, type));
+    }
+
+    @Test
+    public void testEmptyFilters()
+    {
+        assertTrue(new LongHashSetDynamicFilter("1", null, new HashSet<>(), LOCAL).isEmpty());
+        assertFalse(new LongHashSetDynamicFilter("1", null, new HashSet<>(), LOCAL).contains(0L));
+        assertTrue(new SliceHashSetDynamicFilter("1", null, new HashSet<>(), LOCAL).isEmpty());
+    }
+}
@@ -20,6 +20,7 @@ import org.openjdk.jmh.annotations.Fork;
 import org.openjdk.jmh.annotations.Measurement;
 import org.openjdk.jmh.annotations.OutputTimeUnit;
 import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
 import org.openjdk.jmh.annotations.State;
 import org.openjdk.jmh.annotations.Warmup;
 import org.openjdk.jmh.runner.Runner;
@@ -29,6 +30,7 @@ import org.openjdk.jmh.runner.options.OptionsBuilder;
 import org.openjdk.jmh.runner.options.VerboseMode;
 
 import java.nio.charset.Charset;
+import java.util.Random;
 import java.util.concurrent.TimeUnit;
 
 @State(Scope.Thread)
@@ -38,6 +40,30 @@ import java.util.concurrent.TimeUnit;
 @Measurement(iterations = 20, time = 500, timeUnit = TimeUnit.MILLISECONDS)
 public class BenchmarkBloomFilter
 {
+    private static final int PROBE_COUNT = 1024 * 1024;
+
+    private BloomFilter classicFilter;
+    private BloomFilter blockedFilter;
+    private long[] probeHashes;
+    private boolean[] probeResult;
+
+    @Setup
+    public void setup()
+    {
+        classicFilter = new BloomFilter(10 * 1024 * 1024, 0.1);
+        blockedFilter = BloomFilter.createBlocked(10 * 1024 * 1024, 0.1);
+        for (long i = 0; i < 10 * 1024 * 1024; i++) {
+            classicFilter.add(i * 2);
+            blockedFilter.add(i * 2);
+        }
+        Random random = new Random(42);
+        probeHashes = new long[PROBE_COUNT];
+        for (int i = 0; i < PROBE_COUNT; i++) {
+            probeHashes[i] = BloomFilter.hash((long) random.nextInt(20 * 1024 * 1024));
+        }
+        probeResult = new boolean[PROBE_COUNT];
+    }
+
     @Benchmark
     public void buildBloomFilter()
     {
@@ -56,6 +82,20 @@ public class BenchmarkBloomFilter
         }
     }
 
+    @Benchmark
+    public boolean[] probeClassicBloomFilter()
+    {
+        classicFilter.mightContain(probeHashes, probeResult);
+        return probeResult;
+    }
+
+    @Benchmark
+    public boolean[] probeBlockedBloomFilter()
+    {
+        blockedFilter.mightContain(probeHashes, probeResult);
+        return probeResult;
+    }
+
     public static void main(String[] args)
             throws RunnerException
     {
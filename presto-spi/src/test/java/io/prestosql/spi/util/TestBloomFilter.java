@@ -21,6 +21,8 @@ import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.util.Random;
 
+import static io.airlift.slice.Slices.utf8Slice;
+import static org.testng.Assert.assertEquals;
 import static org.testng.Assert.assertFalse;
 import static org.testng.Assert.assertTrue;
 
@@ -117,4 +119,88 @@ public class TestBloomFilter
         BloomFilter deserializedBloomFilter1 = BloomFilter.readFrom(new ByteArrayInputStream(out1.toByteArray()));
         assertFalse(deserializedBloomFilter1.isEmpty());
     }
+
+    @Test
+    public void testBlocked()
+    {
+        BloomFilter bloomFilter = BloomFilter.createBlocked(COUNT, 0.1);
+        assertTrue(bloomFilter.isBlocked());
+        assertTrue(bloomFilter.isEmpty());
+        for (int i = 0; i < COUNT; i++) {
+            bloomFilter.add(i * 3L);
+        }
+        for (int i = 0; i < COUNT; i++) {
+            assertTrue(bloomFilter.test(i * 3L));
+        }
+
+        int falsePositives = 0;
+        for (int i = 0; i < COUNT; i++) {
+            if (bloomFilter.test(i * 3L + 1)) {
+                falsePositives++;
+            }
+        }
+        assertTrue((double) falsePositives / COUNT < 0.15, "fpp too high: " + (double) falsePositives / COUNT);
+        assertTrue(bloomFilter.expectedFpp() < 0.12);
+    }
+
+    @Test
+    public void testBlockedBatch()
+    {
+        BloomFilter bloomFilter = BloomFilter.createBlocked(1000, 0.05);
+        BloomFilter classic = new BloomFilter(1000, 0.05);
+        for (long i = 0; i < 1000; i++) {
+            bloomFilter.add(i);
+            classic.add(i);
+        }
+        bloomFilter.add(utf8Slice("abc"));
+
+        long[] hashes = new long[4000];
+        for (int i = 0; i < hashes.length; i++) {
+            hashes[i] = BloomFilter.hash((long) i);
+        }
+        boolean[] blockedResult = new boolean[hashes.length];
+        boolean[] classicResult = new boolean[hashes.length];
+        bloomFilter.mightContain(hashes, blockedResult);
+        classic.mightContain(hashes, classicResult);
+        for (int i = 0; i < hashes.length; i++) {
+            assertEquals(blockedResult[i], bloomFilter.test((long) i));
+            assertEquals(classicResult[i], classic.test((long) i));
+        }
+
+        boolean[] sliceResult = new boolean[1];
+        bloomFilter.mightContain(new long[] {BloomFilter.hash(utf8Slice("abc"))}, sliceResult);
+        assertTrue(sliceResult[0]);
+        assertTrue(bloomFilter.test("abc".getBytes()));
+    }
+
+    @Test
+    public void testBlockedSerDeAndMerge()
+            throws IOException
+    {
+        BloomFilter first = BloomFilter.createBlocked(COUNT, 0.1);
+        BloomFilter second = BloomFilter.createBlocked(COUNT, 0.1);
+        for (int i = 0; i < COUNT / 2; i++) {
+            first.add(values[i].getBytes());
+            second.add(values[i + COUNT / 2].getBytes());
+        }
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        second.writeTo(out);
+        BloomFilter deserialized = BloomFilter.readFrom(new ByteArrayInputStream(out.toByteArray()));
+        assertTrue(deserialized.isBlocked());
+        assertEquals(deserialized, second);
+
+        first.merge(deserialized);
+        for (String value : values) {
+            assertTrue(first.test(value.getBytes()));
+        }
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testMergeDifferentLayouts()
+    {
+        BloomFilter blocked = BloomFilter.createBlocked(1024, 0.1);
+        BloomFilter classic = new BloomFilter(blocked.getBitSet().clone(), blocked.getNumHashFunctions());
+        classic.merge(blocked);
+    }
 }
@@ -25,9 +25,11 @@ import io.prestosql.plugin.jdbc.JdbcTypeHandle;
 import io.prestosql.plugin.jdbc.StatsCollecting;
 import io.prestosql.plugin.jdbc.WriteMapping;
 import io.prestosql.spi.PrestoException;
+import io.prestosql.spi.connector.ColumnHandle;
 import io.prestosql.spi.connector.ConnectorSession;
 import io.prestosql.spi.connector.SchemaTableName;
 import io.prestosql.spi.predicate.Domain;
+import io.prestosql.spi.sql.SqlQueryWriter;
 import io.prestosql.spi.type.CharType;
 import io.prestosql.spi.type.Type;
 import io.prestosql.spi.type.VarcharType;
@@ -36,7 +38,12 @@ import javax.inject.Inject;
 
 import java.sql.Connection;
 import java.sql.SQLException;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.Map;
 import java.util.Optional;
+import java.util.OptionalInt;
 import java.util.function.BiFunction;
 import java.util.function.UnaryOperator;
 
@@ -65,10 +72,13 @@ public class SqlServerClient
         return Domain.all(domain.getType());
     };
 
+    private final boolean queryPushDownEnabled;
+
     @Inject
-    public SqlServerClient(BaseJdbcConfig config, @StatsCollecting ConnectionFactory connectionFactory)
+    public SqlServerClient(BaseJdbcConfig config, SqlServerConfig sqlServerConfig, @StatsCollecting ConnectionFactory connectionFactory)
     {
         super(config, "\"", connectionFactory);
+        this.queryPushDownEnabled = sqlServerConfig.isQueryPushDownEnabled();
     }
 
     @Override
@@ -164,6 +174,47 @@ public class SqlServerClient
         return true;
     }
 
+    @Override
+    public boolean supportsMultiRowInsert()
+    {
+        return true;
+    }
+
+    @Override
+    public OptionalInt getMaxInsertParameters()
+    {
+        // SQL Server accepts at most 2100 parameters per request
+        return OptionalInt.of(2099);
+    }
+
+    @Override
+    public Optional<SqlQueryWriter> getSqlQueryWriter()
+    {
+        if (!queryPushDownEnabled) {
+            return Optional.empty();
+        }
+        return Optional.of(new SqlServerSqlQueryWriter());
+    }
+
+    @Override
+    public Map<String, ColumnHandle> getColumns(ConnectorSession session, String sql, Map<String, Type> types)
+    {
+        if (!queryPushDownEnabled) {
+            return Collections.emptyMap();
+        }
+        return getSubQueryColumns(session, sql, types);
+    }
+
+    @Override
+    protected String toSplitBoundaryLiteral(int jdbcType, long value)
+    {
+        if (jdbcType == Types.DATE) {
+            // SQL Server does not support ANSI date literals
+            return format("CAST('%s' AS DATE)", LocalDate.ofEpochDay(value));
+        }
+        return super.toSplitBoundaryLiteral(jdbcType, value);
+    }
+
     private static String singleQuote(String... objects)
     {
         return singleQuote(DOT_JOINER.join(objects));
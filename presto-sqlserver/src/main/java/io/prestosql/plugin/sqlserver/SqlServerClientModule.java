@@ -34,6 +34,7 @@ public class SqlServerClientModule
     {
         binder.bind(JdbcClient.class).to(SqlServerClient.class).in(Scopes.SINGLETON);
         configBinder(binder).bindConfig(BaseJdbcConfig.class);
+        configBinder(binder).bindConfig(SqlServerConfig.class);
     }
 
     @Provides
@@ -0,0 +1,36 @@
+/*
+ * Copyright (C) 2018-2020. Huawei Technologies Co., Ltd. All rights reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.plugin.sqlserver;
+
+import io.airlift.configuration.Config;
+import io.airlift.configuration.ConfigDescription;
+
+public class SqlServerConfig
+{
+    private boolean queryPushDownEnabled = true;
+
+    public boolean isQueryPushDownEnabled()
+    {
+        return queryPushDownEnabled;
+    }
+
+    @Config("sqlserver.query.pushdown.enabled")
+    @ConfigDescription("Enable sub-query push down to SQL Server")
+    public SqlServerConfig setQueryPushDownEnabled(boolean queryPushDownEnabled)
+    {
+        this.queryPushDownEnabled = queryPushDownEnabled;
+        return this;
+    }
+}
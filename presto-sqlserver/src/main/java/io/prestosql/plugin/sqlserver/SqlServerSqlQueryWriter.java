@@ -0,0 +1,257 @@
+/*
+ * Copyright (C) 2018-2020. Huawei Technologies Co., Ltd. All rights reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.plugin.sqlserver;
+
+import com.google.common.collect.ImmutableMap;
+import io.prestosql.spi.sql.expression.OrderBy;
+import io.prestosql.spi.sql.expression.Selection;
+import io.prestosql.spi.sql.expression.Time;
+import io.prestosql.spi.sql.expression.Types;
+import io.prestosql.sql.builder.BaseSqlQueryWriter;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+
+import static io.prestosql.spi.type.StandardTypes.BIGINT;
+import static io.prestosql.spi.type.StandardTypes.BOOLEAN;
+import static io.prestosql.spi.type.StandardTypes.DATE;
+import static io.prestosql.spi.type.StandardTypes.DOUBLE;
+import static io.prestosql.spi.type.StandardTypes.INTEGER;
+import static io.prestosql.spi.type.StandardTypes.REAL;
+import static io.prestosql.spi.type.StandardTypes.SMALLINT;
+import static io.prestosql.spi.type.StandardTypes.TIME;
+import static io.prestosql.spi.type.StandardTypes.TIMESTAMP;
+import static io.prestosql.spi.type.StandardTypes.TINYINT;
+import static io.prestosql.spi.type.StandardTypes.VARBINARY;
+import static io.prestosql.spi.type.StandardTypes.VARCHAR;
+
+/**
+ * Implementation of BaseSqlQueryWriter. It knows how to write
+ * SQL Server T-SQL for the Hetu's logical plan.
+ */
+public class SqlServerSqlQueryWriter
+        extends BaseSqlQueryWriter
+{
+    private static final int VARIABLE_ARGUMENTS = -1;
+
+    private static final String SELECT_PREFIX = "(SELECT ";
+
+    private static final String CHAR_TYPE_PREFIX = "char(";
+
+    private static final String DECIMAL_TYPE_PREFIX = "decimal(";
+
+    private static final String VARCHAR_TYPE_PREFIX = "varchar(";
+
+    // concat ignores null arguments and avg of integers returns an integer in SQL Server
+    private static final Map<String, Integer> BLACKLISTED_FUNCTIONS = ImmutableMap.of(
+            "concat", VARIABLE_ARGUMENTS,
+            "avg", 1);
+
+    SqlServerSqlQueryWriter()
+    {
+        super(BLACKLISTED_FUNCTIONS);
+    }
+
+    @Override
+    public String booleanLiteral(boolean value)
+    {
+        throw new UnsupportedOperationException("SQL Server connector does not support boolean literals");
+    }
+
+    @Override
+    public String formatStringLiteral(String literal)
+    {
+        // SQL Server does not support unicode escapes, national character literals hold any character
+        return "N'" + literal.replace("'", "''") + "'";
+    }
+
+    @Override
+    public String charLiteral(String value)
+    {
+        return formatStringLiteral(value);
+    }
+
+    @Override
+    public String decimalLiteral(String value)
+    {
+        return value;
+    }
+
+    @Override
+    public String genericLiteral(String type, String value)
+    {
+        return cast(formatStringLiteral(value), type, false, false);
+    }
+
+    @Override
+    public String timeLiteral(String value)
+    {
+        return cast(formatStringLiteral(value), TIME, false, false);
+    }
+
+    @Override
+    public String timestampLiteral(String value)
+    {
+        return cast(formatStringLiteral(value), TIMESTAMP, false, false);
+    }
+
+    @Override
+    public String intervalLiteral(Time.IntervalSign signLiteral, String value, Time.IntervalField startField, Optional<Time.IntervalField> endField)
+    {
+        throw new UnsupportedOperationException("SQL Server connector does not support interval literals");
+    }
+
+    @Override
+    public String extract(String expression, Time.ExtractField field)
+    {
+        return "DATEPART(" + field + ", " + expression + ")";
+    }
+
+    @Override
+    public String toNativeType(String type)
+    {
+        String lowerType = type.toLowerCase(Locale.ENGLISH);
+        switch (lowerType) {
+            case TINYINT:
+                // tinyint of SQL Server is unsigned
+                return SMALLINT;
+
+            case INTEGER:
+                return "int";
+
+            case DOUBLE:
+                return "float";
+
+            case BOOLEAN:
+                return "bit";
+
+            case VARCHAR:
+                return "nvarchar(max)";
+
+            case VARBINARY:
+                return "varbinary(max)";
+
+            case TIMESTAMP:
+                return "datetime2(3)";
+
+            case SMALLINT:
+            case BIGINT:
+            case REAL:
+            case DATE:
+            case TIME:
+                return lowerType;
+
+            default:
+                if (lowerType.startsWith(DECIMAL_TYPE_PREFIX)) {
+                    return lowerType;
+                }
+                else if (lowerType.startsWith(VARCHAR_TYPE_PREFIX) || lowerType.startsWith(CHAR_TYPE_PREFIX)) {
+                    return "n" + lowerType;
+                }
+                throw new UnsupportedOperationException("SQL Server connector does not support the type " + type);
+        }
+    }
+
+    @Override
+    public String filter(String value)
+    {
+        throw new UnsupportedOperationException("SQL Server connector does not support aggregations with FILTER");
+    }
+
+    @Override
+    public String lambdaExpression(List<String> arguments, String body)
+    {
+        throw new UnsupportedOperationException("SQL Server connector does not support lambda");
+    }
+
+    @Override
+    public String row(List<String> expressions)
+    {
+        throw new UnsupportedOperationException("SQL Server connector does not support row constructor");
+    }
+
+    @Override
+    public String arrayConstructor(List<String> values)
+    {
+        throw new UnsupportedOperationException("SQL Server connector does not support array constructor");
+    }
+
+    @Override
+    public String subscriptExpression(String base, String index)
+    {
+        throw new UnsupportedOperationException("SQL Server connector does not support subscript expression");
+    }
+
+    @Override
+    public String orderBy(List<OrderBy> orders)
+    {
+        return orderByWithoutNullOrdering(orders);
+    }
+
+    @Override
+    public String select(List<Selection> symbols, String from)
+    {
+        return super.select(symbols, aliasDerivedTable(from));
+    }
+
+    @Override
+    public String limit(List<Selection> symbols, long count, String from)
+    {
+        return selectTop(symbols, count, from);
+    }
+
+    @Override
+    public String sort(List<Selection> symbols, List<OrderBy> orderings, String from)
+    {
+        throw new UnsupportedOperationException("SQL Server connector does not support ORDER BY in a sub-query without TOP");
+    }
+
+    @Override
+    public String topN(List<Selection> symbols, List<OrderBy> orderings, long count, String from)
+    {
+        return selectTop(symbols, count, from + orderBy(orderings));
+    }
+
+    @Override
+    public String setOperator(List<Selection> symbols, Types.SetOperator type, List<String> relations)
+    {
+        String operator;
+        switch (type) {
+            case UNION_ALL:
+                operator = "UNION ALL";
+                break;
+            case UNION_DISTINCT:
+                operator = "UNION";
+                break;
+            case EXCEPT_DISTINCT:
+                operator = "EXCEPT";
+                break;
+            case INTERSECT_DISTINCT:
+                operator = "INTERSECT";
+                break;
+            default:
+                throw new UnsupportedOperationException("SQL Server connector does not support " + type.getLabel());
+        }
+        return select(symbols, "(" + String.join(" " + operator + " ", relations) + ")");
+    }
+
+    private String selectTop(List<Selection> symbols, long count, String from)
+    {
+        String query = select(symbols, from);
+        return SELECT_PREFIX + "TOP " + count + " " + query.substring(SELECT_PREFIX.length());
+    }
+}
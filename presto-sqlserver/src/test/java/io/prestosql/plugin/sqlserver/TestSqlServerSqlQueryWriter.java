@@ -0,0 +1,83 @@
+/*
+ * Copyright (C) 2018-2020. Huawei Technologies Co., Ltd. All rights reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.plugin.sqlserver;
+
+import com.google.common.collect.ImmutableList;
+import io.prestosql.spi.sql.expression.OrderBy;
+import io.prestosql.spi.sql.expression.Selection;
+import io.prestosql.spi.sql.expression.Types;
+import org.testng.annotations.Test;
+
+import java.util.List;
+import java.util.Optional;
+
+import static io.prestosql.spi.block.SortOrder.ASC_NULLS_FIRST;
+import static io.prestosql.spi.block.SortOrder.ASC_NULLS_LAST;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+public class TestSqlServerSqlQueryWriter
+{
+    private static final List<Selection> SYMBOLS = ImmutableList.of(new Selection("a"));
+    private static final String TABLE = "(SELECT a FROM dbo.t)";
+
+    @Test
+    public void testDerivedTableAlias()
+    {
+        SqlServerSqlQueryWriter writer = new SqlServerSqlQueryWriter();
+        assertEquals(writer.select(SYMBOLS, "dbo.t"), "(SELECT a FROM dbo.t)");
+        assertEquals(writer.filter(SYMBOLS, "a > 1", TABLE), "(SELECT a FROM (SELECT a FROM dbo.t) hetu_dt_0 WHERE a > 1)");
+        assertEquals(
+                writer.join(SYMBOLS, Types.JoinType.INNER, TABLE, "l", "(SELECT b FROM dbo.u)", "r", ImmutableList.of("l.a = r.b"), Optional.empty()),
+                "(SELECT a FROM (SELECT a FROM dbo.t) l INNER JOIN (SELECT b FROM dbo.u) r  ON l.a = r.b)");
+        assertEquals(
+                writer.setOperator(SYMBOLS, Types.SetOperator.UNION_DISTINCT, ImmutableList.of(TABLE, "(SELECT a FROM dbo.u)")),
+                "(SELECT a FROM ((SELECT a FROM dbo.t) UNION (SELECT a FROM dbo.u)) hetu_dt_1)");
+    }
+
+    @Test
+    public void testTop()
+    {
+        SqlServerSqlQueryWriter writer = new SqlServerSqlQueryWriter();
+        assertEquals(writer.limit(SYMBOLS, 10, "dbo.t"), "(SELECT TOP 10 a FROM dbo.t)");
+        assertEquals(
+                writer.topN(SYMBOLS, ImmutableList.of(new OrderBy("a", ASC_NULLS_LAST)), 10, TABLE),
+                "(SELECT TOP 10 a FROM (SELECT a FROM dbo.t) hetu_dt_0 ORDER BY CASE WHEN a IS NULL THEN 1 ELSE 0 END ASC, a ASC)");
+        assertEquals(writer.orderBy(ImmutableList.of(new OrderBy("a", ASC_NULLS_FIRST))), " ORDER BY a ASC");
+    }
+
+    @Test
+    public void testLiteralsAndTypes()
+    {
+        SqlServerSqlQueryWriter writer = new SqlServerSqlQueryWriter();
+        assertEquals(writer.stringLiteral("it's"), "N'it''s'");
+        assertEquals(writer.genericLiteral("DATE", "2020-01-01"), "CAST(N'2020-01-01' AS date)");
+        assertEquals(writer.cast("x", "varchar(10)", false, false), "CAST(x AS nvarchar(10))");
+        assertEquals(writer.cast("x", "tinyint", true, false), "TRY_CAST(x AS smallint)");
+        assertTrue(writer.isBlacklistedFunction("avg", 1));
+    }
+
+    @Test(expectedExceptions = UnsupportedOperationException.class)
+    public void testSortWithoutTop()
+    {
+        new SqlServerSqlQueryWriter().sort(SYMBOLS, ImmutableList.of(new OrderBy("a", ASC_NULLS_FIRST)), TABLE);
+    }
+
+    @Test(expectedExceptions = UnsupportedOperationException.class)
+    public void testBooleanLiteral()
+    {
+        new SqlServerSqlQueryWriter().booleanLiteral(true);
+    }
+}
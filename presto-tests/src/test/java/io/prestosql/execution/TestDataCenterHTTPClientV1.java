@@ -14,12 +14,14 @@
  */
 package io.prestosql.execution;
 
+import io.airlift.units.DataSize;
 import io.airlift.units.Duration;
 import io.prestosql.Session;
 import io.prestosql.client.DataCenterClientSession;
 import io.prestosql.client.DataCenterStatementClient;
 import io.prestosql.client.StatementClient;
 import io.prestosql.plugin.tpch.TpchPlugin;
+import io.prestosql.spi.Page;
 import io.prestosql.spi.function.OperatorType;
 import io.prestosql.spi.type.ParametricType;
 import io.prestosql.spi.type.Type;
@@ -37,10 +39,12 @@ import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
+import static io.airlift.units.DataSize.Unit.MEGABYTE;
 import static io.prestosql.SessionTestUtils.TEST_SESSION;
 import static io.prestosql.client.StatementClientFactory.newStatementClient;
 import static io.prestosql.spi.type.UnknownType.UNKNOWN;
 import static java.util.concurrent.TimeUnit.MINUTES;
+import static java.util.concurrent.TimeUnit.SECONDS;
 import static org.testng.Assert.assertEquals;
 
 public class TestDataCenterHTTPClientV1
@@ -198,6 +202,36 @@ public class TestDataCenterHTTPClientV1
         assertQuery(queryString);
     }
 
+    @Test
+    public void testAdaptiveResultSize()
+    {
+        OkHttpClient httpClient = new OkHttpClient();
+        try {
+            DataCenterClientSession clientSession = DataCenterClientSession.builder(queryRunner.getCoordinator().getBaseUrl(), "user")
+                    .withClientTimeout(new Duration(2, MINUTES))
+                    .withMaxResultSize(new DataSize(8, MEGABYTE))
+                    .withTargetRoundTripTime(new Duration(10, SECONDS))
+                    .withTypeManager(typeManager)
+                    .build();
+
+            DataCenterStatementClient client = DataCenterStatementClient.newStatementClient(httpClient, clientSession,
+                    "SELECT orderkey FROM tpch.tiny.orders", UUID.randomUUID().toString());
+
+            long rows = 0;
+            while (client.isRunning()) {
+                for (Page page : client.getPages()) {
+                    rows += page.getPositionCount();
+                }
+                client.advance();
+            }
+            assertEquals(rows, 15000);
+        }
+        finally {
+            httpClient.dispatcher().executorService().shutdown();
+            httpClient.connectionPool().evictAll();
+        }
+    }
+
     private void assertQuery(String sql)
     {
         OkHttpClient httpClient = new OkHttpClient();